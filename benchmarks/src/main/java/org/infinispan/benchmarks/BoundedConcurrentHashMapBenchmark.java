@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.benchmarks;
+
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reads and writes of {@link BoundedConcurrentHashMap} under both eviction algorithms. The capacity is half
+ * the key space, so writes keep the eviction policy busy and a share of the reads miss.
+ *
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoundedConcurrentHashMapBenchmark {
+
+   @Param({"LRU", "LIRS"})
+   public Eviction eviction;
+
+   @Param({"32"})
+   public int concurrencyLevel;
+
+   private BoundedConcurrentHashMap<String, String> map;
+
+   @Setup
+   public void setUp() {
+      map = new BoundedConcurrentHashMap<String, String>(KeySequence.KEY_SPACE / 2, concurrencyLevel, eviction,
+            AnyEquivalence.STRING, AnyEquivalence.STRING);
+      for (int i = 0; i < KeySequence.KEY_SPACE / 2; i++) {
+         String key = KeySequence.key(i);
+         map.put(key, key);
+      }
+   }
+
+   @Benchmark
+   public String get(KeySequence keys) {
+      return map.get(keys.next());
+   }
+
+   @Benchmark
+   public String put(KeySequence keys) {
+      String key = keys.next();
+      return map.put(key, key);
+   }
+}
@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.benchmarks;
+
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.InternalEntryFactoryImpl;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reads, writes and expiry purges of an unbounded {@link DefaultDataContainer}. With {@code mortal} set,
+ * every entry carries a lifespan and maxIdle, so reads pay for the expiry check and the touch.
+ *
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataContainerBenchmark {
+
+   private static final int CONCURRENCY_LEVEL = 32;
+
+   @Param({"false", "true"})
+   public boolean mortal;
+
+   private DataContainer container;
+   private long lifespan;
+   private long maxIdle;
+
+   @Setup
+   public void setUp() {
+      container = newContainer();
+      lifespan = mortal ? TimeUnit.HOURS.toMillis(1) : -1;
+      maxIdle = mortal ? TimeUnit.HOURS.toMillis(1) : -1;
+      for (int i = 0; i < KeySequence.KEY_SPACE; i++) {
+         String key = KeySequence.key(i);
+         container.put(key, key, null, lifespan, maxIdle);
+      }
+   }
+
+   @Benchmark
+   public InternalCacheEntry get(KeySequence keys) {
+      return container.get(keys.next());
+   }
+
+   @Benchmark
+   public void put(KeySequence keys) {
+      String key = keys.next();
+      container.put(key, key, null, lifespan, maxIdle);
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   @OutputTimeUnit(TimeUnit.MILLISECONDS)
+   public void purgeExpired(ExpiredContainer expired) {
+      expired.container.purgeExpired();
+   }
+
+   static DataContainer newContainer() {
+      DataContainer container = DefaultDataContainer.unBoundedDataContainer(CONCURRENCY_LEVEL);
+      ((DefaultDataContainer) container).initialize(null, null, new InternalEntryFactoryImpl(), null, null);
+      return container;
+   }
+
+   /**
+    * A container in which half of the entries have expired, rebuilt before every purge since a purge consumes it.
+    */
+   @State(Scope.Thread)
+   public static class ExpiredContainer {
+
+      DataContainer container;
+
+      @Setup(Level.Invocation)
+      public void setUp() throws InterruptedException {
+         container = newContainer();
+         for (int i = 0; i < KeySequence.KEY_SPACE; i++) {
+            String key = KeySequence.key(i);
+            container.put(key, key, null, i % 2 == 0 ? 1 : -1, -1);
+         }
+         // let the short lived entries pass their lifespan
+         Thread.sleep(2);
+      }
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.benchmarks;
+
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.ByteArrayEquivalence;
+import org.infinispan.util.concurrent.jdk8backported.EquivalentConcurrentHashMapV8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EquivalentConcurrentHashMapV8} with plain object keys and with byte array keys compared through
+ * {@link ByteArrayEquivalence}, the configuration used for caches holding marshalled keys.
+ *
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EquivalentConcurrentHashMapV8Benchmark {
+
+   private static final Charset UTF8 = Charset.forName("UTF-8");
+
+   private EquivalentConcurrentHashMapV8<String, String> objectMap;
+   private EquivalentConcurrentHashMapV8<byte[], byte[]> byteArrayMap;
+   private byte[][] byteKeys;
+
+   @Setup
+   public void setUp() {
+      objectMap = new EquivalentConcurrentHashMapV8<String, String>(KeySequence.KEY_SPACE,
+            AnyEquivalence.STRING, AnyEquivalence.STRING);
+      byteArrayMap = new EquivalentConcurrentHashMapV8<byte[], byte[]>(KeySequence.KEY_SPACE,
+            ByteArrayEquivalence.INSTANCE, ByteArrayEquivalence.INSTANCE);
+      byteKeys = new byte[KeySequence.KEY_SPACE][];
+      for (int i = 0; i < KeySequence.KEY_SPACE; i++) {
+         String key = KeySequence.key(i);
+         byteKeys[i] = key.getBytes(UTF8);
+         objectMap.put(key, key);
+         byteArrayMap.put(byteKeys[i], byteKeys[i]);
+      }
+   }
+
+   @Benchmark
+   public String getObject(KeySequence keys) {
+      return objectMap.get(keys.next());
+   }
+
+   @Benchmark
+   public String putObject(KeySequence keys) {
+      String key = keys.next();
+      return objectMap.put(key, key);
+   }
+
+   @Benchmark
+   public byte[] getByteArray(KeySequence keys) {
+      // a copy, so that lookups go through the equivalence rather than reference equality
+      return byteArrayMap.get(byteKeys[keys.nextIndex()].clone());
+   }
+
+   @Benchmark
+   public byte[] putByteArray(KeySequence keys) {
+      byte[] key = byteKeys[keys.nextIndex()];
+      return byteArrayMap.put(key, key);
+   }
+}
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Per-thread cursor over a fixed, pre-built key space. Keys are created once so that the measured methods do not
+ * include key allocation, and each thread walks the space in its own pseudo-random order to avoid all threads
+ * hammering the same segment at the same time.
+ *
+ * @since 5.3
+ */
+@State(Scope.Thread)
+public class KeySequence {
+
+   /**
+    * Number of distinct keys, a power of two so that the cursor can wrap with a mask.
+    */
+   public static final int KEY_SPACE = 1 << 16;
+
+   private static final String[] KEYS = new String[KEY_SPACE];
+
+   static {
+      for (int i = 0; i < KEY_SPACE; i++) KEYS[i] = "key-" + i;
+   }
+
+   private int[] order;
+   private int position;
+
+   @Setup
+   public void setUp() {
+      order = new int[KEY_SPACE];
+      for (int i = 0; i < KEY_SPACE; i++) order[i] = i;
+      Random random = new Random(Thread.currentThread().getId());
+      for (int i = KEY_SPACE - 1; i > 0; i--) {
+         int j = random.nextInt(i + 1);
+         int tmp = order[i];
+         order[i] = order[j];
+         order[j] = tmp;
+      }
+   }
+
+   /**
+    * @return the next key in this thread's sequence
+    */
+   public String next() {
+      return KEYS[nextIndex()];
+   }
+
+   /**
+    * @return the index of the next key in this thread's sequence, for benchmarks keeping their own key arrays
+    */
+   public int nextIndex() {
+      return order[position++ & (KEY_SPACE - 1)];
+   }
+
+   /**
+    * @return the key at the given index of the shared key space, used to pre-populate structures
+    */
+   public static String key(int index) {
+      return KEYS[index & (KEY_SPACE - 1)];
+   }
+}
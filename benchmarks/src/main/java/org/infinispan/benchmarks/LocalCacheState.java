@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.benchmarks;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A started, non-clustered cache manager with a single default cache pre-populated with the whole key space. Shared by
+ * the benchmarks that need a fully wired component registry.
+ *
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+public class LocalCacheState {
+
+   EmbeddedCacheManager cacheManager;
+   AdvancedCache<String, String> cache;
+
+   @Setup
+   public void setUp() {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      cacheManager = new DefaultCacheManager(global.build(), new ConfigurationBuilder().build());
+      cache = cacheManager.<String, String>getCache().getAdvancedCache();
+      for (int i = 0; i < KeySequence.KEY_SPACE; i++) {
+         String key = KeySequence.key(i);
+         cache.put(key, key);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+}
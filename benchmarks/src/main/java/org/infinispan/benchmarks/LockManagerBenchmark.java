@@ -0,0 +1,86 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.benchmarks;
+
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.InvocationContextContainer;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.util.concurrent.locks.LockManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a lock and release round trip through the cache's {@link LockManager}, once spread over the whole key
+ * space and once over a handful of hot keys that threads fight over.
+ *
+ * @since 5.3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LockManagerBenchmark {
+
+   private static final int HOT_KEYS = 16;
+   private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+   @Benchmark
+   public boolean lockUnlock(Locker locker, KeySequence keys) throws InterruptedException {
+      return locker.lockAndRelease(keys.next());
+   }
+
+   @Benchmark
+   public boolean lockUnlockHotKeys(Locker locker, KeySequence keys) throws InterruptedException {
+      return locker.lockAndRelease(KeySequence.key(keys.nextIndex() & (HOT_KEYS - 1)));
+   }
+
+   /**
+    * Holds the lock manager and a non-transactional context owned by the benchmark thread.
+    */
+   @State(Scope.Thread)
+   public static class Locker {
+
+      private LockManager lockManager;
+      private InvocationContext ctx;
+
+      @Setup
+      public void setUp(LocalCacheState state) {
+         ComponentRegistry cr = state.cache.getComponentRegistry();
+         lockManager = cr.getComponent(LockManager.class);
+         ctx = cr.getComponent(InvocationContextContainer.class).createNonTxInvocationContext();
+      }
+
+      boolean lockAndRelease(Object key) throws InterruptedException {
+         boolean locked = lockManager.acquireLock(ctx, key, TIMEOUT, false);
+         lockManager.unlockAll(ctx);
+         return locked;
+      }
+   }
+}
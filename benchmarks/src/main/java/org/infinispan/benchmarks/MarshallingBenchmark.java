@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.benchmarks;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.factories.GlobalComponentRegistry;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.marshall.StreamingMarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JBoss Marshalling based marshallers on the commands that dominate replication traffic. Cache commands
+ * go through the cache marshaller and the externalizer table, and the {@link SingleRpcCommand} wrapping a put is
+ * marshalled with the global marshaller, as the transport does.
+ *
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarshallingBenchmark {
+
+   private StreamingMarshaller cacheMarshaller;
+   private StreamingMarshaller globalMarshaller;
+   private PutKeyValueCommand put;
+   private GetKeyValueCommand get;
+   private RemoveCommand remove;
+   private SingleRpcCommand rpc;
+   private byte[] marshalledPut;
+   private byte[] marshalledRpc;
+
+   @Setup
+   public void setUp(LocalCacheState state) throws Exception {
+      ComponentRegistry cr = state.cache.getComponentRegistry();
+      GlobalComponentRegistry gcr = cr.getGlobalComponentRegistry();
+      cacheMarshaller = cr.getComponent(StreamingMarshaller.class, KnownComponentNames.CACHE_MARSHALLER);
+      globalMarshaller = gcr.getComponent(StreamingMarshaller.class, KnownComponentNames.GLOBAL_MARSHALLER);
+
+      CommandsFactory commandsFactory = cr.getComponent(CommandsFactory.class);
+      String key = KeySequence.key(0);
+      put = commandsFactory.buildPutKeyValueCommand(key, key, TimeUnit.MINUTES.toMillis(1), -1, null);
+      get = commandsFactory.buildGetKeyValueCommand(key, null);
+      remove = commandsFactory.buildRemoveCommand(key, null, null);
+      rpc = commandsFactory.buildSingleRpcCommand(put);
+      marshalledPut = cacheMarshaller.objectToByteBuffer(put);
+      marshalledRpc = globalMarshaller.objectToByteBuffer(rpc);
+   }
+
+   @Benchmark
+   public byte[] marshallPut() throws Exception {
+      return cacheMarshaller.objectToByteBuffer(put);
+   }
+
+   @Benchmark
+   public Object unmarshallPut() throws Exception {
+      return cacheMarshaller.objectFromByteBuffer(marshalledPut);
+   }
+
+   @Benchmark
+   public byte[] marshallGet() throws Exception {
+      return cacheMarshaller.objectToByteBuffer(get);
+   }
+
+   @Benchmark
+   public byte[] marshallRemove() throws Exception {
+      return cacheMarshaller.objectToByteBuffer(remove);
+   }
+
+   @Benchmark
+   public byte[] marshallSingleRpc() throws Exception {
+      return globalMarshaller.objectToByteBuffer(rpc);
+   }
+
+   @Benchmark
+   public Object unmarshallSingleRpc() throws Exception {
+      return globalMarshaller.objectFromByteBuffer(marshalledRpc);
+   }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA
+ */
+
+package org.infinispan.tools.build;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Generates, at build-time, a <tt>ComponentAccessor</tt> for each component found in the component metadata file of
+ * a module, so that the component registries can wire, start and stop components without going through reflection.
+ * This is run after the <tt>ComponentMetadataPersister</tt>, and compiles the generated accessors into the module's
+ * classes so that they are packaged along with the components.
+ * <p />
+ * Each accessor lives in the package of its component, and invokes the methods the component declares.  Inherited
+ * methods are handled by the accessor of the superclass, which the generated accessor extends.  Private and static
+ * methods are left out, and the component registries keep invoking them using reflection.
+ * <p />
+ * This tool is not part of the Infinispan runtime: the Infinispan classes, and the classes of the module, are looked
+ * up in the context class loader set up by the exec-maven-plugin.
+ * <p />
+ * Usage: ComponentAccessorGenerator [source output directory] [classes output directory] [metadata file]
+ * [source version] [target version]
+ *
+ * @since 5.3
+ */
+public class ComponentAccessorGenerator {
+
+   private static final String COMPONENTS_PACKAGE = "org.infinispan.factories.components.";
+   private static final String ANNOTATIONS_PACKAGE = "org.infinispan.factories.annotations.";
+
+   private final ClassLoader cl;
+   private final Method getAccessorClassName;
+   private final String abstractAccessorName;
+   private final List<Class<? extends Annotation>> lifecycleAnnotations = new ArrayList<Class<? extends Annotation>>();
+
+   private ComponentAccessorGenerator(ClassLoader cl) throws Exception {
+      this.cl = cl;
+      Class<?> abstractAccessor = cl.loadClass(COMPONENTS_PACKAGE + "AbstractComponentAccessor");
+      this.abstractAccessorName = abstractAccessor.getName();
+      this.getAccessorClassName = abstractAccessor.getMethod("getAccessorClassName", String.class);
+      for (String annotation : Arrays.asList("Inject", "Start", "Stop"))
+         lifecycleAnnotations.add(cl.loadClass(ANNOTATIONS_PACKAGE + annotation).asSubclass(Annotation.class));
+   }
+
+   public static void main(String[] args) throws Exception {
+      if (args.length != 5)
+         throw new IllegalArgumentException("Usage: ComponentAccessorGenerator [source output directory] " +
+                                                  "[classes output directory] [metadata file] [source version] [target version]");
+      File sourceDir = new File(args[0]);
+      File classesDir = new File(args[1]);
+      File metadataFile = new File(args[2]);
+      if (!metadataFile.isFile()) {
+         System.out.printf(" [ComponentAccessorGenerator] No component metadata in %s, skipping%n", metadataFile);
+         return;
+      }
+
+      ClassLoader cl = Thread.currentThread().getContextClassLoader();
+      ComponentAccessorGenerator generator = new ComponentAccessorGenerator(cl);
+      // the same metadata may be registered under several names, and we want a stable output
+      Set<String> componentNames = generator.readComponentNames(metadataFile);
+
+      List<File> sources = new ArrayList<File>();
+      int numMethods = 0;
+      for (String componentName : componentNames) {
+         Class<?> componentClass = cl.loadClass(componentName);
+         if (!generator.hasLifecycleMethods(componentClass) || !isAccessible(componentClass)) continue;
+
+         List<Method> methods = generator.getDeclaredLifecycleMethods(componentClass);
+         sources.add(generator.writeAccessor(sourceDir, componentClass, methods));
+         numMethods += methods.size();
+      }
+
+      if (!sources.isEmpty()) compile(sources, classesDir, cl, args[3], args[4]);
+
+      System.out.printf(" [ComponentAccessorGenerator] Generated accessors for %s methods of %s components in %s%n",
+                        numMethods, sources.size(), classesDir);
+   }
+
+   private Set<String> readComponentNames(File metadataFile) throws Exception {
+      Class<?> repoClass = cl.loadClass(COMPONENTS_PACKAGE + "ComponentMetadataRepo");
+      Object repo = repoClass.newInstance();
+      repoClass.getMethod("readMetadata", URL.class).invoke(repo, metadataFile.toURI().toURL());
+      Collection<?> allMetadata = (Collection<?>) repoClass.getMethod("getAllComponentMetadata").invoke(repo);
+      Set<String> names = new TreeSet<String>();
+      for (Object metadata : allMetadata) names.add((String) metadata.getClass().getMethod("getName").invoke(metadata));
+      return names;
+   }
+
+   private boolean hasLifecycleMethods(Class<?> c) {
+      for (; c != null && c != Object.class; c = c.getSuperclass()) {
+         if (!getDeclaredLifecycleMethods(c).isEmpty()) return true;
+      }
+      return false;
+   }
+
+   private List<Method> getDeclaredLifecycleMethods(Class<?> c) {
+      // getDeclaredMethods() doesn't return the methods in any particular order
+      TreeMap<String, Method> methods = new TreeMap<String, Method>();
+      for (Method m : c.getDeclaredMethods()) {
+         if (isLifecycleMethod(m) && !Modifier.isPrivate(m.getModifiers()) && !Modifier.isStatic(m.getModifiers()))
+            methods.put(m.getName() + Arrays.toString(m.getParameterTypes()), m);
+      }
+      return new ArrayList<Method>(methods.values());
+   }
+
+   private boolean isLifecycleMethod(Method m) {
+      for (Class<? extends Annotation> annotation : lifecycleAnnotations) {
+         if (m.isAnnotationPresent(annotation)) return true;
+      }
+      return false;
+   }
+
+   private String getAccessorClassName(Class<?> componentClass) throws Exception {
+      return (String) getAccessorClassName.invoke(null, componentClass.getName());
+   }
+
+   private File writeAccessor(File sourceDir, Class<?> componentClass, List<Method> methods) throws Exception {
+      String accessorName = getAccessorClassName(componentClass);
+      String packageName = componentClass.getPackage().getName();
+      String simpleName = accessorName.substring(packageName.length() + 1);
+      Class<?> superclass = componentClass.getSuperclass();
+      String superAccessorName = superclass != null && hasLifecycleMethods(superclass) && isAccessible(superclass) ?
+            getAccessorClassName(superclass) : abstractAccessorName;
+      File dir = new File(sourceDir, packageName.replace('.', File.separatorChar));
+      if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Unable to create " + dir);
+      File source = new File(dir, simpleName + ".java");
+      PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(source), "UTF-8"));
+      try {
+         out.printf("package %s;%n%n", packageName);
+         out.printf("/**%n * Generated by %s, do not edit.%n */%n", ComponentAccessorGenerator.class.getName());
+         out.printf("public class %s extends %s {%n%n", simpleName, superAccessorName);
+         out.printf("   public static final int FIRST_ID = %s.NEXT_ID;%n", superAccessorName);
+         out.printf("   public static final int NEXT_ID = FIRST_ID + %d;%n", methods.size());
+         if (!methods.isEmpty()) {
+            out.printf("%n   @Override%n");
+            out.printf("   public int getMethodId(String methodName, String[] parameterTypes) {%n");
+            for (int id = 0; id < methods.size(); id++) {
+               Method method = methods.get(id);
+               out.printf("      if (matches(methodName, parameterTypes, \"%s\"", method.getName());
+               for (Class<?> parameterType : method.getParameterTypes()) out.printf(", \"%s\"", parameterType.getName());
+               out.printf(")) return FIRST_ID + %d;%n", id);
+            }
+            out.printf("      return super.getMethodId(methodName, parameterTypes);%n");
+            out.printf("   }%n%n");
+
+            out.printf("   @Override%n");
+            out.printf("   @SuppressWarnings({\"unchecked\", \"rawtypes\", \"deprecation\"})%n");
+            out.printf("   public void invoke(Object component, int methodId, Object[] parameters) throws Throwable {%n");
+            out.printf("      switch (methodId - FIRST_ID) {%n");
+            for (int id = 0; id < methods.size(); id++) {
+               Method method = methods.get(id);
+               out.printf("         case %d:%n", id);
+               out.printf("            ((%s) component).%s(", componentClass.getCanonicalName(), method.getName());
+               Class<?>[] parameterTypes = method.getParameterTypes();
+               for (int i = 0; i < parameterTypes.length; i++) {
+                  if (i > 0) out.print(", ");
+                  out.printf("(%s) parameters[%d]", boxed(parameterTypes[i]).getCanonicalName(), i);
+               }
+               out.printf(");%n");
+               out.printf("            return;%n");
+            }
+            out.printf("         default:%n");
+            out.printf("            super.invoke(component, methodId, parameters);%n");
+            out.printf("      }%n");
+            out.printf("   }%n");
+         }
+         out.printf("}%n");
+      } finally {
+         out.close();
+      }
+      return source;
+   }
+
+   private static void compile(List<File> sources, File classesDir, ClassLoader cl, String source, String target) throws IOException {
+      JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+      if (compiler == null) throw new IllegalStateException("Generating component accessors requires a JDK");
+
+      Set<String> classpath = new LinkedHashSet<String>();
+      classpath.add(classesDir.getAbsolutePath());
+      for (ClassLoader loader = cl; loader != null; loader = loader.getParent()) {
+         if (loader instanceof URLClassLoader) {
+            for (URL url : ((URLClassLoader) loader).getURLs()) classpath.add(new File(url.getPath()).getAbsolutePath());
+         }
+      }
+      StringBuilder cp = new StringBuilder(System.getProperty("java.class.path"));
+      for (String entry : classpath) cp.append(File.pathSeparatorChar).append(entry);
+
+      StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+      try {
+         Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sources);
+         // same settings as the module's own classes, see the maven-compiler-plugin configuration
+         List<String> options = Arrays.asList("-nowarn", "-source", source, "-target", target, "-encoding", "UTF-8",
+                                              "-classpath", cp.toString(), "-d", classesDir.getAbsolutePath());
+         if (!compiler.getTask(null, fileManager, null, options, null, units).call())
+            throw new IllegalStateException("Unable to compile the generated component accessors");
+      } finally {
+         fileManager.close();
+      }
+   }
+
+   private static boolean isAccessible(Class<?> type) {
+      if (type.isAnonymousClass() || type.isLocalClass()) return false;
+      for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+         if (Modifier.isPrivate(c.getModifiers())) return false;
+      }
+      return true;
+   }
+
+   private static Class<?> boxed(Class<?> type) {
+      if (!type.isPrimitive()) return type;
+      if (type == boolean.class) return Boolean.class;
+      if (type == byte.class) return Byte.class;
+      if (type == char.class) return Character.class;
+      if (type == short.class) return Short.class;
+      if (type == int.class) return Integer.class;
+      if (type == long.class) return Long.class;
+      if (type == float.class) return Float.class;
+      return Double.class;
+   }
+}
@@ -172,6 +172,14 @@ public void setBatchSize(int batchSize) {
       this.tableManipulation.setBatchSize(batchSize);
    }
 
+   /**
+    * @see org.infinispan.loaders.jdbc.TableManipulation#getBulkPartitions()
+    */
+   public void setBulkPartitions(int bulkPartitions) {
+      testImmutability("tableManipulation");
+      this.tableManipulation.setBulkPartitions(bulkPartitions);
+   }
+
    /**
     * @see org.infinispan.loaders.jdbc.TableManipulation#getFetchSize()
     */
@@ -186,6 +194,13 @@ public int getBatchSize() {
       return this.tableManipulation.getBatchSize();
    }
 
+   /**
+    * @see org.infinispan.loaders.jdbc.TableManipulation#getBulkPartitions()
+    */
+   public int getBulkPartitions() {
+      return this.tableManipulation.getBulkPartitions();
+   }
+
    public String getDatabaseType() {
       return this.tableManipulation.databaseType == null ? "" : this.tableManipulation.databaseType.toString();
    }
@@ -30,19 +30,35 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.infinispan.Cache;
 import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.marshall.StreamingMarshaller;
 import org.infinispan.loaders.jdbc.logging.Log;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.LogFactory;
 
 /**
  * The purpose of this class is to factorize the repeating code between {@link org.infinispan.loaders.jdbc.stringbased.JdbcStringBasedCacheStore}
  * and {@link org.infinispan.loaders.jdbc.binary.JdbcBinaryCacheStore}. This class implements GOF's template method pattern.
+ * <p/>
+ * Bulk operations can be split into {@link TableManipulation#getBulkPartitions()} id ranges which are then processed
+ * concurrently, so the <tt>*Process</tt> callbacks must tolerate being invoked from several threads at once.
  *
  * @author Mircea.Markus@jboss.com
  */
@@ -53,12 +69,33 @@ public abstract class DataManipulationHelper {
    private final ConnectionFactory connectionFactory;
    private final TableManipulation tableManipulation;
    protected StreamingMarshaller marshaller;
+   private final Executor partitionExecutor;
 
 
    public DataManipulationHelper(ConnectionFactory connectionFactory, TableManipulation tableManipulation, StreamingMarshaller marshaller) {
+      this(connectionFactory, tableManipulation, marshaller, new WithinThreadExecutor());
+   }
+
+   /**
+    * @param partitionExecutor the executor the bulk partitions are handed to, see {@link #getPartitionExecutor(Cache)}
+    */
+   public DataManipulationHelper(ConnectionFactory connectionFactory, TableManipulation tableManipulation, StreamingMarshaller marshaller,
+                                 Executor partitionExecutor) {
       this.connectionFactory = connectionFactory;
       this.tableManipulation = tableManipulation;
       this.marshaller = marshaller;
+      this.partitionExecutor = partitionExecutor;
+   }
+
+   /**
+    * Returns the cache's asynchronous executor, whose threads are bounded by the <tt>asyncTransportExecutor</tt>
+    * configuration and which is shut down with the cache manager, or an executor running the partitions in the calling
+    * thread if the store isn't attached to a cache.
+    */
+   public static Executor getPartitionExecutor(Cache<?, ?> cache) {
+      ExecutorService executor = cache == null ? null : cache.getAdvancedCache().getComponentRegistry()
+            .getComponent(ExecutorService.class, KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR);
+      return executor == null ? new WithinThreadExecutor() : executor;
    }
 
    public void clear() throws CacheLoaderException {
@@ -130,27 +167,28 @@ public final void fromStreamSupport(ObjectInput objectInput) throws CacheLoaderE
    }
 
 
-   public final void toStreamSupport(ObjectOutput objectOutput, byte streamDelimiter, boolean filterExpired) throws CacheLoaderException {
+   public final void toStreamSupport(final ObjectOutput objectOutput, byte streamDelimiter, boolean filterExpired) throws CacheLoaderException {
       //now write our data
-      Connection connection = null;
-      PreparedStatement ps = null;
-      ResultSet rs = null;
       try {
          String sql = filterExpired ? tableManipulation.getLoadNonExpiredAllRowsSql() : tableManipulation.getLoadAllRowsSql();
          if (log.isTraceEnabled()) {
             log.tracef("Running sql %s", sql);
          }
-         connection = connectionFactory.getConnection();
-         ps = connection.prepareStatement(sql);
-         if (filterExpired) {
-            ps.setLong(1, System.currentTimeMillis());
-         }
-         rs = ps.executeQuery();
-         rs.setFetchSize(tableManipulation.getFetchSize());
-         while (rs.next()) {
-            InputStream is = rs.getBinaryStream(1);
-            toStreamProcess(rs, is, objectOutput);
-         }
+         runPartitioned(new RangeScan<Void>(sql, filterExpired) {
+            @Override
+            Void newResult() {
+               return null;
+            }
+
+            @Override
+            void process(ResultSet rs, Void result) throws SQLException, CacheLoaderException, IOException {
+               InputStream is = rs.getBinaryStream(1);
+               // the partitions share a single stream, so rows are written one at a time
+               synchronized (objectOutput) {
+                  toStreamProcess(rs, is, objectOutput);
+               }
+            }
+         });
          marshaller.objectToObjectStream(streamDelimiter, objectOutput);
       } catch (SQLException e) {
          log.sqlFailureStoringKeys(e);
@@ -159,70 +197,92 @@ public final void toStreamSupport(ObjectOutput objectOutput, byte streamDelimite
          log.ioErrorStoringKeys(e);
          throw new CacheLoaderException("I/O Error while storing string keys to database", e);
       }
-      finally {
-         JdbcUtil.safeClose(rs);
-         JdbcUtil.safeClose(ps);
-         connectionFactory.releaseConnection(connection);
-      }
    }
 
    public final Set<InternalCacheEntry> loadAllSupport(boolean filterExpired) throws CacheLoaderException {
-      Connection conn = null;
-      PreparedStatement ps = null;
-      ResultSet rs = null;
       try {
          String sql = filterExpired ? tableManipulation.getLoadNonExpiredAllRowsSql() : tableManipulation.getLoadAllRowsSql();
          if (log.isTraceEnabled()) {
             log.tracef("Running sql %s", sql);
          }
-         conn = connectionFactory.getConnection();
-         ps = conn.prepareStatement(sql);
-         if (filterExpired) {
-            ps.setLong(1, System.currentTimeMillis());
-         }
-         rs = ps.executeQuery();
-         rs.setFetchSize(tableManipulation.getFetchSize());
-         Set<InternalCacheEntry> result = new HashSet<InternalCacheEntry>(tableManipulation.getFetchSize());
-         while (rs.next()) {
-            loadAllProcess(rs, result);
-         }
-         return result;
+         List<Set<InternalCacheEntry>> partitions = runPartitioned(new RangeScan<Set<InternalCacheEntry>>(sql, filterExpired) {
+            @Override
+            Set<InternalCacheEntry> newResult() {
+               return new HashSet<InternalCacheEntry>(tableManipulation.getFetchSize());
+            }
+
+            @Override
+            void process(ResultSet rs, Set<InternalCacheEntry> result) throws SQLException, CacheLoaderException {
+               loadAllProcess(rs, result);
+            }
+         });
+         return merge(partitions);
       } catch (SQLException e) {
          log.sqlFailureFetchingAllStoredEntries(e);
          throw new CacheLoaderException("SQL error while fetching all StoredEntries", e);
-      } finally {
-         JdbcUtil.safeClose(rs);
-         JdbcUtil.safeClose(ps);
-         connectionFactory.releaseConnection(conn);
+      } catch (IOException e) {
+         throw new CacheLoaderException("I/O error while fetching all StoredEntries", e);
       }
    }
 
-   public Set<Object> loadAllKeysSupport(Set<Object> keysToExclude) throws CacheLoaderException {
-      Connection conn = null;
-      PreparedStatement ps = null;
-      ResultSet rs = null;
+   public Set<Object> loadAllKeysSupport(final Set<Object> keysToExclude) throws CacheLoaderException {
       try {
-
          String sql = getLoadAllKeysSql();
          if (log.isTraceEnabled()) {
             log.trace("Running sql '" + sql);
          }
-         conn = connectionFactory.getConnection();
-         ps = conn.prepareStatement(sql);
-         rs = ps.executeQuery();
-         rs.setFetchSize(tableManipulation.getFetchSize());
-         Set<Object> result = new HashSet<Object>(tableManipulation.getFetchSize());
-         while (rs.next()) {
-            loadAllKeysProcess(rs, result, keysToExclude);
-         }
-         return result;
+         List<Set<Object>> partitions = runPartitioned(new RangeScan<Set<Object>>(sql, false) {
+            @Override
+            Set<Object> newResult() {
+               return new HashSet<Object>(tableManipulation.getFetchSize());
+            }
+
+            @Override
+            void process(ResultSet rs, Set<Object> result) throws SQLException, CacheLoaderException {
+               loadAllKeysProcess(rs, result, keysToExclude);
+            }
+         });
+         return merge(partitions);
       } catch (SQLException e) {
          log.sqlFailureFetchingAllStoredEntries(e);
          throw new CacheLoaderException("SQL error while fetching all StoredEntries", e);
-      } finally {
-         JdbcUtil.safeClose(rs);
-         JdbcUtil.safeClose(ps);
-         connectionFactory.releaseConnection(conn);
+      } catch (IOException e) {
+         throw new CacheLoaderException("I/O error while fetching all StoredEntries", e);
+      }
+   }
+
+   /**
+    * Deletes all the expired rows. With more than one bulk partition each id range is deleted by its own statement,
+    * which keeps the individual transactions (and the locks they hold) small.
+    */
+   public final void purgeExpiredSupport() throws CacheLoaderException {
+      final long now = System.currentTimeMillis();
+      try {
+         List<Integer> deleted = runPartitioned(new RangeTask<Integer>() {
+            @Override
+            public Integer execute(Connection conn, String lowerBound, String upperBound) throws SQLException {
+               String sql = tableManipulation.restrictToIdRange(tableManipulation.getDeleteExpiredRowsSql(), lowerBound != null, upperBound != null);
+               PreparedStatement ps = null;
+               try {
+                  ps = conn.prepareStatement(sql);
+                  ps.setLong(1, now);
+                  bindRange(ps, 2, lowerBound, upperBound);
+                  return ps.executeUpdate();
+               } finally {
+                  JdbcUtil.safeClose(ps);
+               }
+            }
+         });
+         if (log.isTraceEnabled()) {
+            int result = 0;
+            for (Integer count : deleted) result += count;
+            log.tracef("Successfully purged %d rows.", result);
+         }
+      } catch (SQLException ex) {
+         log.failedClearingJdbcCacheStore(ex);
+         throw new CacheLoaderException("Failed purging JDBC store", ex);
+      } catch (IOException ex) {
+         throw new CacheLoaderException("Failed purging JDBC store", ex);
       }
    }
 
@@ -259,6 +319,270 @@ public final Set<InternalCacheEntry> loadSome(int maxEntries) throws CacheLoader
       }
    }
 
+   /**
+    * Runs the task once per id range, concurrently and each on a connection of its own. With a single bulk partition
+    * (the default), or a table with fewer than two distinct ids, the task runs in the calling thread over the whole
+    * table.
+    * <p/>
+    * The ranges are handed to the partition executor, but the calling thread runs the first range and then any range
+    * the executor hasn't started yet, so a busy or saturated executor delays a bulk operation without blocking it.
+    */
+   public final <T> List<T> runPartitioned(RangeTask<T> task) throws SQLException, CacheLoaderException, IOException {
+      List<String> boundaries = computeBoundaries();
+      if (boundaries.isEmpty()) {
+         return Collections.singletonList(runRange(task, null, null));
+      }
+      List<FutureTask<T>> futures = new ArrayList<FutureTask<T>>(boundaries.size() + 1);
+      String lowerBound = null;
+      for (int i = 0; i <= boundaries.size(); i++) {
+         String upperBound = i < boundaries.size() ? boundaries.get(i) : null;
+         FutureTask<T> future = new FutureTask<T>(new RangeCallable<T>(task, lowerBound, upperBound));
+         if (i > 0) {
+            try {
+               partitionExecutor.execute(future);
+            } catch (RejectedExecutionException e) {
+               // left to the calling thread
+            }
+         }
+         futures.add(future);
+         lowerBound = upperBound;
+      }
+      List<T> results = new ArrayList<T>(futures.size());
+      try {
+         for (FutureTask<T> future : futures) {
+            // a no-op if the executor already ran or is running the range
+            future.run();
+         }
+         for (FutureTask<T> future : futures) {
+            results.add(future.get());
+         }
+         return results;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheLoaderException("Interrupted while waiting for bulk partitions", e);
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof SQLException) throw (SQLException) cause;
+         if (cause instanceof CacheLoaderException) throw (CacheLoaderException) cause;
+         if (cause instanceof IOException) throw (IOException) cause;
+         throw new CacheLoaderException("Failed processing bulk partition", cause);
+      } finally {
+         for (FutureTask<T> future : futures) {
+            future.cancel(true);
+         }
+      }
+   }
+
+   private <T> T runRange(RangeTask<T> task, String lowerBound, String upperBound) throws SQLException, CacheLoaderException, IOException {
+      Connection conn = null;
+      try {
+         conn = connectionFactory.getConnection();
+         return task.execute(conn, lowerBound, upperBound);
+      } finally {
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
+   /**
+    * Returns ids splitting the table into ranges, without reading the whole table. Evenly spaced ids are interpolated
+    * between the smallest and the largest id, and each of them is moved to the next existing id with an index seek.
+    * The existing ids are then sorted by the database, so the ranges are disjoint whatever the collation of the id
+    * column. The ranges are of equal size only if the ids are evenly spread.
+    */
+   private List<String> computeBoundaries() throws SQLException, CacheLoaderException {
+      int requested = tableManipulation.getBulkPartitions();
+      if (requested <= 1) {
+         return Collections.emptyList();
+      }
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         conn = connectionFactory.getConnection();
+         ps = conn.prepareStatement(tableManipulation.getSelectIdBoundsSql());
+         rs = ps.executeQuery();
+         String min = null, max = null;
+         if (rs.next()) {
+            min = rs.getString(1);
+            max = rs.getString(2);
+         }
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         if (min == null || max == null || min.equals(max)) {
+            return Collections.emptyList();
+         }
+
+         Set<String> existing = new LinkedHashSet<String>();
+         ps = conn.prepareStatement(tableManipulation.getSelectNextIdSql());
+         for (String candidate : interpolateIds(min, max, requested)) {
+            ps.setString(1, candidate);
+            rs = ps.executeQuery();
+            String id = rs.next() ? rs.getString(1) : null;
+            JdbcUtil.safeClose(rs);
+            if (id != null && !id.equals(min)) {
+               existing.add(id);
+            }
+         }
+         JdbcUtil.safeClose(ps);
+         if (existing.isEmpty()) {
+            return Collections.emptyList();
+         }
+
+         List<String> boundaries = new ArrayList<String>(existing.size());
+         ps = conn.prepareStatement(tableManipulation.getSelectOrderedIdsSql(existing.size()));
+         int index = 1;
+         for (String id : existing) {
+            ps.setString(index++, id);
+         }
+         rs = ps.executeQuery();
+         while (rs.next()) {
+            boundaries.add(rs.getString(1));
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Split ids [%s, %s] into %d bulk partitions at %s", min, max, boundaries.size() + 1, boundaries);
+         }
+         return boundaries;
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
+   /**
+    * Returns <tt>partitions - 1</tt> strings evenly spaced between <tt>min</tt> and <tt>max</tt>. The characters
+    * following their common prefix are read as digits in the range of characters they use, and as many of them as fit
+    * in a long are interpolated.
+    */
+   static List<String> interpolateIds(String min, String max, int partitions) {
+      int prefix = 0;
+      while (prefix < min.length() && prefix < max.length() && min.charAt(prefix) == max.charAt(prefix)) {
+         prefix++;
+      }
+      char lowest = Character.MAX_VALUE, highest = Character.MIN_VALUE;
+      for (String s : new String[]{min, max}) {
+         for (int i = prefix; i < s.length(); i++) {
+            lowest = (char) Math.min(lowest, s.charAt(i));
+            highest = (char) Math.max(highest, s.charAt(i));
+         }
+      }
+      long radix = Math.max(2, highest - lowest + 1);
+      int digits = 0;
+      for (long range = radix; range <= Long.MAX_VALUE / radix / partitions; range *= radix) {
+         digits++;
+      }
+      digits = Math.max(1, digits);
+      long low = 0, high = 0;
+      for (int i = prefix; i < prefix + digits; i++) {
+         low = low * radix + (i < min.length() ? min.charAt(i) - lowest : 0);
+         high = high * radix + (i < max.length() ? max.charAt(i) - lowest : 0);
+      }
+      if (high < low) {
+         // the collation of the database doesn't order them as Java does
+         long tmp = low;
+         low = high;
+         high = tmp;
+      }
+      List<String> ids = new ArrayList<String>(partitions - 1);
+      char[] chars = new char[digits];
+      for (int p = 1; p < partitions; p++) {
+         long value = low + (high - low) / partitions * p;
+         for (int i = digits - 1; i >= 0; i--) {
+            chars[i] = (char) (lowest + value % radix);
+            value /= radix;
+         }
+         int length = digits;
+         while (length > 0 && chars[length - 1] == lowest) {
+            length--;
+         }
+         ids.add(min.substring(0, prefix) + new String(chars, 0, length));
+      }
+      return ids;
+   }
+
+   public static int bindRange(PreparedStatement ps, int index, String lowerBound, String upperBound) throws SQLException {
+      if (lowerBound != null) ps.setString(index++, lowerBound);
+      if (upperBound != null) ps.setString(index++, upperBound);
+      return index;
+   }
+
+   private static <T> Set<T> merge(List<Set<T>> partitions) {
+      if (partitions.size() == 1) {
+         return partitions.get(0);
+      }
+      int size = 0;
+      for (Set<T> partition : partitions) size += partition.size();
+      Set<T> result = new HashSet<T>(size);
+      for (Set<T> partition : partitions) result.addAll(partition);
+      return result;
+   }
+
+   /**
+    * A unit of bulk work restricted to the id range <tt>[lowerBound, upperBound)</tt>; a <tt>null</tt> bound leaves
+    * that end of the range open.
+    */
+   public abstract static class RangeTask<T> {
+      public abstract T execute(Connection conn, String lowerBound, String upperBound) throws SQLException, CacheLoaderException, IOException;
+   }
+
+   /**
+    * Runs a query over an id range and folds the rows into a per-range result.
+    */
+   private abstract class RangeScan<T> extends RangeTask<T> {
+      private final String sql;
+      private final boolean filterExpired;
+
+      RangeScan(String sql, boolean filterExpired) {
+         this.sql = sql;
+         this.filterExpired = filterExpired;
+      }
+
+      abstract T newResult();
+
+      abstract void process(ResultSet rs, T result) throws SQLException, CacheLoaderException, IOException;
+
+      @Override
+      public T execute(Connection conn, String lowerBound, String upperBound) throws SQLException, CacheLoaderException, IOException {
+         PreparedStatement ps = null;
+         ResultSet rs = null;
+         try {
+            ps = conn.prepareStatement(tableManipulation.restrictToIdRange(sql, lowerBound != null, upperBound != null));
+            int index = 1;
+            if (filterExpired) {
+               ps.setLong(index++, System.currentTimeMillis());
+            }
+            bindRange(ps, index, lowerBound, upperBound);
+            ps.setFetchSize(tableManipulation.getFetchSize());
+            rs = ps.executeQuery();
+            T result = newResult();
+            while (rs.next()) {
+               process(rs, result);
+            }
+            return result;
+         } finally {
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
+         }
+      }
+   }
+
+   private class RangeCallable<T> implements Callable<T> {
+      private final RangeTask<T> task;
+      private final String lowerBound;
+      private final String upperBound;
+
+      RangeCallable(RangeTask<T> task, String lowerBound, String upperBound) {
+         this.task = task;
+         this.lowerBound = lowerBound;
+         this.upperBound = upperBound;
+      }
+
+      @Override
+      public T call() throws Exception {
+         return runRange(task, lowerBound, upperBound);
+      }
+   }
+
    protected boolean includeKey(Object key, Set<Object> keysToExclude) {
       return keysToExclude == null || !keysToExclude.contains(key);
    }
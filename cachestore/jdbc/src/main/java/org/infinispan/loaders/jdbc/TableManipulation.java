@@ -50,6 +50,8 @@ public class TableManipulation implements Cloneable {
 
    public static final int DEFAULT_BATCH_SIZE = 100;
 
+   public static final int DEFAULT_BULK_PARTITIONS = 1;
+
    private String identifierQuoteString;
    private String idColumnName;
    private String idColumnType;
@@ -61,6 +63,7 @@ public class TableManipulation implements Cloneable {
    private String timestampColumnType;
    private int fetchSize = DEFAULT_FETCH_SIZE;
    private int batchSize = DEFAULT_BATCH_SIZE;
+   private int bulkPartitions = DEFAULT_BULK_PARTITIONS;
 
    /*
    * following two params manage creation and destruction during start up/shutdown.
@@ -71,6 +74,10 @@ public class TableManipulation implements Cloneable {
 
    /* Cache the sql for managing data */
    private String insertRowSql;
+   private String upsertRowSql;
+   private boolean upsertRowSqlResolved;
+   private int databaseMajorVersion = -1;
+   private int databaseMinorVersion = -1;
    private String updateRowSql;
    private String selectRowSql;
    private String selectIdRowSql;
@@ -84,6 +91,8 @@ public class TableManipulation implements Cloneable {
    public DatabaseType databaseType;
    private String loadAllKeysBinarySql;
    private String loadAllKeysStringSql;
+   private String selectIdBoundsSql;
+   private String selectNextIdSql;
 
    private TableName tableName;
 
@@ -237,17 +246,38 @@ public void setDropTableOnExit(boolean dropTableOnExit) {
 
    public void start(ConnectionFactory connectionFactory) throws CacheLoaderException {
       this.connectionFactory = connectionFactory;
-      if (isCreateTableOnStart()) {
-         Connection conn = null;
-         try {
-            conn = this.connectionFactory.getConnection();
-            if (!tableExists(conn, getTableName())) {
-               createTable(conn);
-            }
-         } finally {
-            this.connectionFactory.releaseConnection(conn);
+      Connection conn = null;
+      try {
+         conn = this.connectionFactory.getConnection();
+         readDatabaseVersion(conn);
+         if (isCreateTableOnStart() && !tableExists(conn, getTableName())) {
+            createTable(conn);
          }
+      } finally {
+         this.connectionFactory.releaseConnection(conn);
+      }
+   }
+
+   private void readDatabaseVersion(Connection conn) {
+      try {
+         DatabaseMetaData metaData = conn.getMetaData();
+         databaseMajorVersion = metaData.getDatabaseMajorVersion();
+         databaseMinorVersion = metaData.getDatabaseMinorVersion();
+         log.tracef("Database version is %s.%s", databaseMajorVersion, databaseMinorVersion);
+      } catch (Throwable t) {
+         // e.g. a pre JDBC 3.0 driver, statements requiring a minimum version won't be used
+         log.debug("Unable to read the database version from JDBC metadata.", t);
+         databaseMajorVersion = -1;
+         databaseMinorVersion = -1;
       }
+      upsertRowSqlResolved = false;
+   }
+
+   /**
+    * @return true if the version of the database read when starting is known to be at least the given one
+    */
+   private boolean isDatabaseVersionAtLeast(int major, int minor) {
+      return databaseMajorVersion > major || (databaseMajorVersion == major && databaseMinorVersion >= minor);
    }
 
    public void stop() throws CacheLoaderException {
@@ -269,6 +299,62 @@ public String getInsertRowSql() {
       return insertRowSql;
    }
 
+   /**
+    * Returns a single statement which inserts the row or, if the id is already present, updates it in place. The
+    * parameters are bound in the same order as for {@link #getInsertRowSql()}: data, timestamp and id. Returns
+    * <tt>null</tt> for databases without a suitable dialect, or whose version read when starting is too old for it or
+    * unknown, in which case the caller needs to check for the row first and then issue an insert or an update.
+    */
+   public String getUpsertRowSql() {
+      if (!upsertRowSqlResolved) {
+         String tableName = getTableName().toString();
+         switch (getDatabaseType()) {
+            case MYSQL:
+               upsertRowSql = String.format("INSERT INTO %1$s (%2$s, %3$s, %4$s) VALUES(?,?,?) ON DUPLICATE KEY UPDATE %2$s = VALUES(%2$s), %3$s = VALUES(%3$s)",
+                     tableName, dataColumnName, timestampColumnName, idColumnName);
+               break;
+            case POSTGRES:
+               if (!isDatabaseVersionAtLeast(9, 5)) {
+                  // ON CONFLICT was introduced in PostgreSQL 9.5
+                  upsertRowSql = null;
+                  break;
+               }
+               upsertRowSql = String.format("INSERT INTO %1$s (%2$s, %3$s, %4$s) VALUES(?,?,?) ON CONFLICT (%4$s) DO UPDATE SET %2$s = EXCLUDED.%2$s, %3$s = EXCLUDED.%3$s",
+                     tableName, dataColumnName, timestampColumnName, idColumnName);
+               break;
+            case H2:
+               upsertRowSql = String.format("MERGE INTO %1$s (%2$s, %3$s, %4$s) KEY(%4$s) VALUES(?,?,?)",
+                     tableName, dataColumnName, timestampColumnName, idColumnName);
+               break;
+            case SQLITE:
+               upsertRowSql = String.format("INSERT OR REPLACE INTO %1$s (%2$s, %3$s, %4$s) VALUES(?,?,?)",
+                     tableName, dataColumnName, timestampColumnName, idColumnName);
+               break;
+            case ORACLE:
+               upsertRowSql = String.format("MERGE INTO %1$s t USING (SELECT ? d, ? ts, ? id FROM dual) s ON (t.%4$s = s.id) " +
+                     "WHEN MATCHED THEN UPDATE SET t.%2$s = s.d, t.%3$s = s.ts " +
+                     "WHEN NOT MATCHED THEN INSERT (%2$s, %3$s, %4$s) VALUES (s.d, s.ts, s.id)",
+                     tableName, dataColumnName, timestampColumnName, idColumnName);
+               break;
+            case SQL_SERVER:
+               if (!isDatabaseVersionAtLeast(10, 0)) {
+                  // MERGE was introduced in SQL Server 2008
+                  upsertRowSql = null;
+                  break;
+               }
+               upsertRowSql = String.format("MERGE %1$s WITH (HOLDLOCK) AS t USING (VALUES (?, ?, ?)) AS s (d, ts, id) ON t.%4$s = s.id " +
+                     "WHEN MATCHED THEN UPDATE SET %2$s = s.d, %3$s = s.ts " +
+                     "WHEN NOT MATCHED THEN INSERT (%2$s, %3$s, %4$s) VALUES (s.d, s.ts, s.id);",
+                     tableName, dataColumnName, timestampColumnName, idColumnName);
+               break;
+            default:
+               upsertRowSql = null;
+         }
+         upsertRowSqlResolved = true;
+      }
+      return upsertRowSql;
+   }
+
    public String getUpdateRowSql() {
       if (updateRowSql == null) {
          switch(getDatabaseType()) {
@@ -339,8 +425,8 @@ public String getDeleteRowSql() {
 
    public String getLoadNonExpiredAllRowsSql() {
       if (loadAllNonExpiredRowsSql == null) {
-         loadAllNonExpiredRowsSql = "SELECT " + dataColumnName + "," + idColumnName + ", " + timestampColumnName + " FROM " + getTableName() + " WHERE " +
-               timestampColumnName + " > ? OR " + timestampColumnName + " < 0";
+         loadAllNonExpiredRowsSql = "SELECT " + dataColumnName + "," + idColumnName + ", " + timestampColumnName + " FROM " + getTableName() + " WHERE (" +
+               timestampColumnName + " > ? OR " + timestampColumnName + " < 0)";
       }
       return loadAllNonExpiredRowsSql;
    }
@@ -373,6 +459,51 @@ public String getDeleteExpiredRowsSql() {
       return deleteExpiredRowsSql;
    }
 
+   public String getSelectIdBoundsSql() {
+      if (selectIdBoundsSql == null) {
+         selectIdBoundsSql = String.format("SELECT MIN(%1$s), MAX(%1$s) FROM %2$s", idColumnName, getTableName());
+      }
+      return selectIdBoundsSql;
+   }
+
+   public String getSelectNextIdSql() {
+      if (selectNextIdSql == null) {
+         selectNextIdSql = String.format("SELECT MIN(%1$s) FROM %2$s WHERE %1$s >= ?", idColumnName, getTableName());
+      }
+      return selectNextIdSql;
+   }
+
+   /**
+    * Returns a statement selecting the given number of ids, passed as parameters, in the order of the database.
+    */
+   public String getSelectOrderedIdsSql(int count) {
+      StringBuilder sb = new StringBuilder("SELECT ").append(idColumnName).append(" FROM ").append(getTableName())
+            .append(" WHERE ").append(idColumnName).append(" IN (");
+      for (int i = 0; i < count; i++) {
+         sb.append(i == 0 ? "?" : ", ?");
+      }
+      return sb.append(") ORDER BY ").append(idColumnName).toString();
+   }
+
+   /**
+    * Narrows the given statement down to the rows whose id falls into <tt>[lowerBound, upperBound)</tt>. The bound
+    * parameters are appended after the statement's own parameters, lower bound first.
+    */
+   public String restrictToIdRange(String sql, boolean hasLowerBound, boolean hasUpperBound) {
+      if (!hasLowerBound && !hasUpperBound) {
+         return sql;
+      }
+      StringBuilder sb = new StringBuilder(sql).append(sql.contains(" WHERE ") ? " AND " : " WHERE ");
+      if (hasLowerBound) {
+         sb.append(idColumnName).append(" >= ?");
+      }
+      if (hasUpperBound) {
+         if (hasLowerBound) sb.append(" AND ");
+         sb.append(idColumnName).append(" < ?");
+      }
+      return sb.toString();
+   }
+
    @Override
    public TableManipulation clone() {
       try {
@@ -453,6 +584,23 @@ public void setBatchSize(int batchSize) {
       this.batchSize = batchSize;
    }
 
+   /**
+    * Bulk operations (e.g. {@link org.infinispan.loaders.CacheStore#loadAll()} or
+    * {@link org.infinispan.loaders.CacheStore#toStream(java.io.ObjectOutput)}) split the table into this many id
+    * ranges and scan them concurrently, each on its own connection. The connection pool must be able to hand out at
+    * least this many connections. Defaults to {@link #DEFAULT_BULK_PARTITIONS}, i.e. a single sequential scan.
+    */
+   public int getBulkPartitions() {
+      return bulkPartitions;
+   }
+
+   /**
+    * @see #getBulkPartitions()
+    */
+   public void setBulkPartitions(int bulkPartitions) {
+      this.bulkPartitions = bulkPartitions;
+   }
+
    public void setCacheName(String cacheName) {
       this.cacheName = cacheName;
       tableName = null;
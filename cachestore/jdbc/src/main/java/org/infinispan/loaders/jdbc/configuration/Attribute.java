@@ -32,6 +32,7 @@ public enum Attribute {
    UNKNOWN(null),
 
    BATCH_SIZE("batchSize"),
+   BULK_PARTITIONS("bulkPartitions"),
    CONNECTION_URL("connectionUrl"),
    CREATE_ON_START("createOnStart"),
    JNDI_URL("jndiUrl"),
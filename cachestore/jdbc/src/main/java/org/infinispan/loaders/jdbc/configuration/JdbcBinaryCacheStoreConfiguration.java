@@ -57,6 +57,7 @@ public JdbcBinaryCacheStoreConfig adapt() {
       config.setDropTableOnExit(table.dropOnExit());
       config.setBatchSize(table.batchSize());
       config.setFetchSize(table.fetchSize());
+      config.setBulkPartitions(table.bulkPartitions());
       config.setDatabaseType(table.databaseType());
       config.setCacheName(table.cacheName());
       config.setDataColumnName(table.dataColumnName());
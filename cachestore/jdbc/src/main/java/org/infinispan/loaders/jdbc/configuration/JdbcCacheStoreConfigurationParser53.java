@@ -277,6 +277,10 @@ private void parseTable(XMLExtendedStreamReader reader, TableManipulationConfigu
             builder.batchSize(Integer.parseInt(value));
             break;
          }
+         case BULK_PARTITIONS: {
+            builder.bulkPartitions(Integer.parseInt(value));
+            break;
+         }
          case CREATE_ON_START: {
             builder.createOnStart(Boolean.parseBoolean(value));
             break;
@@ -31,13 +31,14 @@ public class TableManipulationConfiguration {
    private final String timestampColumnType;
    private final int fetchSize;
    private final int batchSize;
+   private final int bulkPartitions;
    private final boolean createOnStart;
    private final boolean dropOnExit;
    private final DatabaseType databaseType;
 
    TableManipulationConfiguration(String idColumnName, String idColumnType, String tableNamePrefix, String cacheName,
          String dataColumnName, String dataColumnType, String timestampColumnName, String timestampColumnType,
-         DatabaseType databaseType, int fetchSize, int batchSize, boolean createOnStart, boolean dropOnExit) {
+         DatabaseType databaseType, int fetchSize, int batchSize, int bulkPartitions, boolean createOnStart, boolean dropOnExit) {
       this.idColumnName = idColumnName;
       this.idColumnType = idColumnType;
       this.tableNamePrefix = tableNamePrefix;
@@ -49,6 +50,7 @@ public class TableManipulationConfiguration {
       this.databaseType = databaseType;
       this.batchSize = batchSize;
       this.fetchSize = fetchSize;
+      this.bulkPartitions = bulkPartitions;
       this.createOnStart = createOnStart;
       this.dropOnExit = dropOnExit;
    }
@@ -105,12 +107,16 @@ public int batchSize() {
       return batchSize;
    }
 
+   public int bulkPartitions() {
+      return bulkPartitions;
+   }
+
    @Override
    public String toString() {
       return "TableManipulationConfiguration [idColumnName=" + idColumnName + ", idColumnType=" + idColumnType
             + ", tableNamePrefix=" + tableNamePrefix + ", cacheName=" + cacheName + ", dataColumnName="
             + dataColumnName + ", dataColumnType=" + dataColumnType + ", timestampColumnName=" + timestampColumnName
-            + ", timestampColumnType=" + timestampColumnType + ", fetchSize=" + fetchSize + ", batchSize=" + batchSize
+            + ", timestampColumnType=" + timestampColumnType + ", fetchSize=" + fetchSize + ", batchSize=" + batchSize + ", bulkPartitions=" + bulkPartitions
             + "]";
    }
 
@@ -33,6 +33,7 @@
       AbstractJdbcCacheStoreConfigurationChildBuilder<B> implements Builder<TableManipulationConfiguration>, Self<S> {
    private int batchSize = TableManipulation.DEFAULT_BATCH_SIZE;
    private int fetchSize = TableManipulation.DEFAULT_FETCH_SIZE;
+   private int bulkPartitions = TableManipulation.DEFAULT_BULK_PARTITIONS;
    private boolean createOnStart = true;
    private boolean dropOnExit = false;
    private String tableNamePrefix;
@@ -70,6 +71,16 @@ public S fetchSize(int fetchSize) {
       return self();
    }
 
+   /**
+    * Bulk operations (e.g. {@link org.infinispan.loaders.CacheStore#loadAll()}) split the table into this many id
+    * ranges which are scanned concurrently, each on its own connection. This is an optional parameter, and if it is
+    * not specified it will be defaulted to {@link TableManipulation#DEFAULT_BULK_PARTITIONS}.
+    */
+   public S bulkPartitions(int bulkPartitions) {
+      this.bulkPartitions = bulkPartitions;
+      return self();
+   }
+
    /**
     * Sets the prefix for the name of the table where the data will be stored. "_<cache name>" will
     * be appended to this prefix in order to enforce unique table names for each cache.
@@ -159,13 +170,14 @@ public void validate() {
    @Override
    public TableManipulationConfiguration create() {
       return new TableManipulationConfiguration(idColumnName, idColumnType, tableNamePrefix, cacheName, dataColumnName, dataColumnType, timestampColumnName, timestampColumnType,
-            databaseType, fetchSize, batchSize, createOnStart, dropOnExit);
+            databaseType, fetchSize, batchSize, bulkPartitions, createOnStart, dropOnExit);
    }
 
    @Override
    public Builder<?> read(TableManipulationConfiguration template) {
       this.batchSize = template.batchSize();
       this.fetchSize = template.fetchSize();
+      this.bulkPartitions = template.bulkPartitions();
       this.createOnStart = template.createOnStart();
       this.dropOnExit = template.dropOnExit();
       this.databaseType = template.databaseType();
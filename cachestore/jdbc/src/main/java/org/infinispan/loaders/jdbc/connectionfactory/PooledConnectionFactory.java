@@ -49,6 +49,7 @@
 public class PooledConnectionFactory extends ConnectionFactory {
 
    private static final Log log = LogFactory.getLog(PooledConnectionFactory.class, Log.class);
+   private static final int DEFAULT_MAX_STATEMENTS_PER_CONNECTION = 32;
    private ComboPooledDataSource pooledDataSource;
 
    @Override
@@ -70,6 +71,11 @@ public void start(ConnectionFactoryConfig config, ClassLoader classLoader) throw
       pooledDataSource.setJdbcUrl(config.getConnectionUrl());
       pooledDataSource.setUser(config.getUserName());
       pooledDataSource.setPassword(config.getPassword());
+      if (pooledDataSource.getMaxStatements() == 0 && pooledDataSource.getMaxStatementsPerConnection() == 0) {
+         // the stores issue the same handful of statements over and over, so unless the c3p0 configuration says
+         // otherwise keep them prepared on each pooled connection
+         pooledDataSource.setMaxStatementsPerConnection(DEFAULT_MAX_STATEMENTS_PER_CONNECTION);
+      }
       if (log.isTraceEnabled()) {
          log.tracef("Started connection factory with config: %s", config);
       }
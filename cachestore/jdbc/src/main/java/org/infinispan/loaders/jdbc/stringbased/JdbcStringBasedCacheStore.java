@@ -36,6 +36,9 @@
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.jdbc.logging.Log;
 import org.infinispan.loaders.keymappers.Key2StringMapper;
+import org.infinispan.loaders.modifications.Modification;
+import org.infinispan.loaders.modifications.Remove;
+import org.infinispan.loaders.modifications.Store;
 import org.infinispan.loaders.keymappers.TwoWayKey2StringMapper;
 import org.infinispan.loaders.keymappers.UnsupportedKeyTypeException;
 import org.infinispan.marshall.StreamingMarshaller;
@@ -49,6 +52,10 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -130,7 +137,8 @@ public void start() throws CacheLoaderException {
       if (isDistributed()) {
          enforceTwoWayMapper("distribution/rehashing");
       }
-      dmHelper = new DataManipulationHelper(connectionFactory, tableManipulation, marshaller) {
+      dmHelper = new DataManipulationHelper(connectionFactory, tableManipulation, marshaller,
+            DataManipulationHelper.getPartitionExecutor(cache)) {
 
          @Override
          protected String getLoadAllKeysSql() {
@@ -226,20 +234,23 @@ public void storeLockSafe(InternalCacheEntry ed, String lockingKey) throws Cache
       try {
          byteBuffer = JdbcUtil.marshall(getMarshaller(), ed.toInternalCacheValue());
          connection = connectionFactory.getConnection();
-         String sql = tableManipulation.getSelectIdRowSql();
-         if (log.isTraceEnabled()) {
-            log.tracef("Running sql '%s' on %s. Key string is '%s'", sql, ed, lockingKey);
-         }
-         ps = connection.prepareStatement(sql);
-         ps.setString(1, lockingKey);
-         ResultSet rs = ps.executeQuery();
-         if (rs.next()) {
-            sql = tableManipulation.getUpdateRowSql();
-         } else {
-            sql = tableManipulation.getInsertRowSql();
+         String sql = tableManipulation.getUpsertRowSql();
+         if (sql == null) {
+            sql = tableManipulation.getSelectIdRowSql();
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql '%s' on %s. Key string is '%s'", sql, ed, lockingKey);
+            }
+            ps = connection.prepareStatement(sql);
+            ps.setString(1, lockingKey);
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+               sql = tableManipulation.getUpdateRowSql();
+            } else {
+               sql = tableManipulation.getInsertRowSql();
+            }
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
          }
-         JdbcUtil.safeClose(rs);
-         JdbcUtil.safeClose(ps);
          if (log.isTraceEnabled()) {
              log.tracef("Running sql '%s' on %s. Key string is '%s', value size is %d bytes", sql, ed, lockingKey, byteBuffer.getLength());
          }
@@ -264,6 +275,122 @@ public void storeLockSafe(InternalCacheEntry ed, String lockingKey) throws Cache
       }
    }
 
+   /**
+    * When the database supports single statement upserts, the modifications are written as two JDBC batches (upserts
+    * and deletes) within one database transaction, rather than one round-trip per key. Only the last modification of
+    * each key is written, which also makes the relative order of the two batches irrelevant.
+    */
+   @Override
+   protected void applyModifications(List<? extends Modification> mods) throws CacheLoaderException {
+      if (mods.size() < 2 || tableManipulation.getUpsertRowSql() == null) {
+         super.applyModifications(mods);
+         return;
+      }
+      for (Modification m : mods) {
+         Modification.Type type = m.getType();
+         if (type != Modification.Type.STORE && type != Modification.Type.REMOVE && type != Modification.Type.CLEAR) {
+            super.applyModifications(mods);
+            return;
+         }
+      }
+      int from = 0;
+      for (int i = 0; i < mods.size(); i++) {
+         if (mods.get(i).getType() == Modification.Type.CLEAR) {
+            applyBatch(mods.subList(from, i));
+            clear();
+            from = i + 1;
+         }
+      }
+      applyBatch(mods.subList(from, mods.size()));
+   }
+
+   private void applyBatch(List<? extends Modification> mods) throws CacheLoaderException {
+      if (mods.isEmpty()) {
+         return;
+      }
+      Map<String, Modification> lastModifications = new LinkedHashMap<String, Modification>();
+      for (Modification m : mods) {
+         Object key = m.getType() == Modification.Type.STORE ? ((Store) m).getStoredEntry().getKey() : ((Remove) m).getKey();
+         String lockingKey = getLockFromKey(key);
+         // re-inserting moves the key to the end, keeping the map in modification order
+         lastModifications.remove(lockingKey);
+         lastModifications.put(lockingKey, m);
+      }
+
+      List<Object> lockingKeys = new ArrayList<Object>(lastModifications.keySet());
+      lockAllForWriting(lockingKeys);
+      Connection connection = null;
+      PreparedStatement upsert = null;
+      PreparedStatement delete = null;
+      boolean autoCommit = true;
+      try {
+         connection = connectionFactory.getConnection();
+         autoCommit = connection.getAutoCommit();
+         connection.setAutoCommit(false);
+         upsert = connection.prepareStatement(tableManipulation.getUpsertRowSql());
+         delete = connection.prepareStatement(tableManipulation.getDeleteRowSql());
+         int batchSize = tableManipulation.getBatchSize();
+         int upserts = 0;
+         int deletes = 0;
+         long now = System.currentTimeMillis();
+         for (Map.Entry<String, Modification> e : lastModifications.entrySet()) {
+            Modification m = e.getValue();
+            InternalCacheEntry ice = m.getType() == Modification.Type.STORE ? ((Store) m).getStoredEntry() : null;
+            if (ice != null && !(ice.canExpire() && ice.isExpired(now))) {
+               ByteBuffer byteBuffer = JdbcUtil.marshall(getMarshaller(), ice.toInternalCacheValue());
+               upsert.setBinaryStream(1, byteBuffer.getStream(), byteBuffer.getLength());
+               upsert.setLong(2, ice.getExpiryTime());
+               upsert.setString(3, e.getKey());
+               upsert.addBatch();
+               if (++upserts % batchSize == 0) upsert.executeBatch();
+            } else {
+               // removals, and stores of entries which have already expired
+               delete.setString(1, e.getKey());
+               delete.addBatch();
+               if (++deletes % batchSize == 0) delete.executeBatch();
+            }
+         }
+         if (upserts % batchSize != 0) upsert.executeBatch();
+         if (deletes % batchSize != 0) delete.executeBatch();
+         connection.commit();
+         if (log.isTraceEnabled()) {
+            log.tracef("Applied %d upserts and %d deletes in batches of %d", upserts, deletes, batchSize);
+         }
+      } catch (SQLException ex) {
+         rollback(connection);
+         log.sqlFailureStoringKeys(ex);
+         throw new CacheLoaderException("Error while applying modifications to database", ex);
+      } catch (InterruptedException e) {
+         rollback(connection);
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling to store");
+         }
+         Thread.currentThread().interrupt();
+      } finally {
+         JdbcUtil.safeClose(upsert);
+         JdbcUtil.safeClose(delete);
+         if (connection != null) {
+            try {
+               connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+               log.debug("Unable to restore the auto-commit mode of the connection", e);
+            }
+         }
+         connectionFactory.releaseConnection(connection);
+         unlockAll(lockingKeys);
+      }
+   }
+
+   private void rollback(Connection connection) {
+      if (connection != null) {
+         try {
+            connection.rollback();
+         } catch (SQLException e) {
+            log.debug("Unable to roll back the modification batch", e);
+         }
+      }
+   }
+
    @Override
    public boolean removeLockSafe(Object key, String keyStr) throws CacheLoaderException {
       Connection connection = null;
@@ -318,24 +445,7 @@ protected Set<Object> loadAllKeysLockSafe(Set<Object> keysToExclude) throws Cach
 
    @Override
    public void purgeInternal() throws CacheLoaderException {
-      Connection conn = null;
-      PreparedStatement ps = null;
-      try {
-         String sql = tableManipulation.getDeleteExpiredRowsSql();
-         conn = connectionFactory.getConnection();
-         ps = conn.prepareStatement(sql);
-         ps.setLong(1, System.currentTimeMillis());
-         int result = ps.executeUpdate();
-         if (log.isTraceEnabled()) {
-            log.tracef("Successfully purged %d rows.", result);
-         }
-      } catch (SQLException ex) {
-         log.failedClearingJdbcCacheStore(ex);
-         throw new CacheLoaderException("Failed clearing string based JDBC store", ex);
-      } finally {
-         JdbcUtil.safeClose(ps);
-         connectionFactory.releaseConnection(conn);
-      }
+      dmHelper.purgeExpiredSupport();
    }
 
    @Override
@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.loaders.jdbc;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests how {@link DataManipulationHelper} picks the ids splitting a table into bulk partitions.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "loaders.jdbc.DataManipulationHelperTest")
+public class DataManipulationHelperTest {
+
+   public void testInterpolatedIdsAreOrderedAndWithinBounds() {
+      assertInterpolated("key1", "key999", 4);
+      assertInterpolated("-2147483648", "2147483647", 8);
+      assertInterpolated("a", "zzzz", 16);
+   }
+
+   public void testInterpolatedIdsKeepTheCommonPrefix() {
+      for (String id : DataManipulationHelper.interpolateIds("key1", "key999", 4)) {
+         assert id.startsWith("key") : id;
+      }
+   }
+
+   public void testSingleCharacterRange() {
+      // the ids only differ by their length
+      List<String> ids = DataManipulationHelper.interpolateIds("a", "aa", 3);
+      assert ids.size() == 2 : ids;
+   }
+
+   private void assertInterpolated(String min, String max, int partitions) {
+      List<String> ids = DataManipulationHelper.interpolateIds(min, max, partitions);
+      assert ids.size() == partitions - 1 : ids;
+      String previous = min;
+      for (String id : ids) {
+         assert id.compareTo(previous) >= 0 : ids;
+         assert id.compareTo(max) <= 0 : ids;
+         previous = id;
+      }
+   }
+}
@@ -25,6 +25,7 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -32,6 +33,7 @@
 import java.sql.Statement;
 
 import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactoryConfig;
 import org.infinispan.loaders.jdbc.connectionfactory.PooledConnectionFactory;
 import org.infinispan.test.fwk.UnitTestDatabaseManager;
@@ -189,6 +191,28 @@ public void testTableQuoting() throws Exception {
       assert existsTable(connection, tableManipulation.getTableName());
    }
 
+   public void testPostgresUpsertRequiresVersion95() throws Exception {
+      assert upsertRowSql(DatabaseType.POSTGRES, 9, 4) == null;
+      assert upsertRowSql(DatabaseType.POSTGRES, 9, 5).contains("ON CONFLICT");
+      assert upsertRowSql(DatabaseType.POSTGRES, 10, 0).contains("ON CONFLICT");
+   }
+
+   private String upsertRowSql(DatabaseType type, int majorVersion, int minorVersion) throws Exception {
+      DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+      when(metaData.getDatabaseMajorVersion()).thenReturn(majorVersion);
+      when(metaData.getDatabaseMinorVersion()).thenReturn(minorVersion);
+      Connection mockConnection = mock(Connection.class);
+      when(mockConnection.getMetaData()).thenReturn(metaData);
+      ConnectionFactory factory = mock(ConnectionFactory.class);
+      when(factory.getConnection()).thenReturn(mockConnection);
+
+      TableManipulation other = tableManipulation.clone();
+      other.databaseType = type;
+      other.setCreateTableOnStart(false);
+      other.start(factory);
+      return other.getUpsertRowSql();
+   }
+
    static boolean existsTable(Connection connection, TableName tableName) throws Exception {
       Statement st = connection.createStatement();
       ResultSet rs = null;
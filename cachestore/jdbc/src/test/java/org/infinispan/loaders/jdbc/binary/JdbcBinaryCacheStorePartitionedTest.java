@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.loaders.jdbc.binary;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.infinispan.CacheImpl;
+import org.infinispan.loaders.CacheStore;
+import org.infinispan.loaders.jdbc.TableManipulation;
+import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactoryConfig;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.infinispan.test.fwk.UnitTestDatabaseManager;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the {@link JdbcBinaryCacheStoreTest} suite with bulk operations, purging included, split into several id
+ * ranges.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "loaders.jdbc.binary.JdbcBinaryCacheStorePartitionedTest")
+public class JdbcBinaryCacheStorePartitionedTest extends JdbcBinaryCacheStoreTest {
+
+   @Override
+   protected CacheStore createCacheStore() throws Exception {
+      ConnectionFactoryConfig connectionFactoryConfig = UnitTestDatabaseManager.getUniqueConnectionFactoryConfig();
+      TableManipulation tm = UnitTestDatabaseManager.buildBinaryTableManipulation();
+      tm.setBulkPartitions(3);
+      JdbcBinaryCacheStoreConfig config = new JdbcBinaryCacheStoreConfig(connectionFactoryConfig, tm);
+      config.setPurgeSynchronously(true);
+      JdbcBinaryCacheStore jdbcBucketCacheStore = new JdbcBinaryCacheStore();
+      jdbcBucketCacheStore.init(config, new CacheImpl("aName"), getMarshaller());
+      jdbcBucketCacheStore.start();
+      return jdbcBucketCacheStore;
+   }
+
+   public void testPartitionedPurge() throws Exception {
+      Set<Object> expected = new HashSet<Object>();
+      for (int i = 0; i < 50; i++) {
+         cs.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+         expected.add("k" + i);
+      }
+      for (int i = 0; i < 10; i++) {
+         cs.store(TestInternalCacheEntryFactory.create("expired" + i, "v", 1));
+      }
+      Thread.sleep(100);
+
+      cs.purgeExpired();
+      assert cs.loadAllKeys(null).equals(expected);
+   }
+}
@@ -25,6 +25,9 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.infinispan.CacheImpl;
 import org.infinispan.loaders.BaseCacheStoreTest;
 import org.infinispan.loaders.CacheLoaderException;
@@ -33,6 +36,11 @@
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactoryConfig;
 import org.infinispan.loaders.keymappers.UnsupportedKeyTypeException;
+import org.infinispan.loaders.modifications.Clear;
+import org.infinispan.loaders.modifications.Modification;
+import org.infinispan.loaders.modifications.Remove;
+import org.infinispan.loaders.modifications.Store;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.test.fwk.UnitTestDatabaseManager;
 import org.testng.annotations.Test;
 
@@ -82,6 +90,28 @@ public void testNotCreateConnectionFactory() throws Exception {
       stringBasedCacheStore.stop();
    }
 
+   public void testBatchedModificationsKeepLastWritePerKey() throws Exception {
+      cs.store(TestInternalCacheEntryFactory.create("k0", "v0"));
+      List<Modification> mods = new ArrayList<Modification>();
+      mods.add(new Store(TestInternalCacheEntryFactory.create("k1", "v1")));
+      mods.add(new Remove("k1"));
+      mods.add(new Store(TestInternalCacheEntryFactory.create("k2", "v2")));
+      mods.add(new Clear());
+      mods.add(new Remove("k3"));
+      mods.add(new Store(TestInternalCacheEntryFactory.create("k3", "v3")));
+      mods.add(new Store(TestInternalCacheEntryFactory.create("k4", "v4")));
+      mods.add(new Store(TestInternalCacheEntryFactory.create("k4", "v5")));
+      mods.add(new Remove("k5"));
+      cs.prepare(mods, gtf.newGlobalTransaction(null, true), true);
+
+      assert !cs.containsKey("k0");
+      assert !cs.containsKey("k1");
+      assert !cs.containsKey("k2");
+      assert cs.load("k3").getValue().equals("v3");
+      assert cs.load("k4").getValue().equals("v5");
+      assert cs.loadAllKeys(null).size() == 2;
+   }
+
    @Override
    @Test(expectedExceptions = UnsupportedKeyTypeException.class)
    public void testLoadAndStoreMarshalledValues() throws CacheLoaderException {
@@ -26,7 +26,7 @@
 import org.infinispan.cli.shell.Completer;
 
 public class Stats extends AbstractServerCommand {
-   private final static List<String> OPTIONS = Arrays.asList("--container");
+   private final static List<String> OPTIONS = Arrays.asList("--container", "--hotkeys");
 
    @Override
    public String getName() {
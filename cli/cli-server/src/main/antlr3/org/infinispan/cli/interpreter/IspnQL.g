@@ -247,7 +247,7 @@ statementOptions returns [List<Option> options]
    ;
 
 statementOption returns [Option option]
-   : '--' optionName = STRINGLITERAL ('=' optionParameter = STRINGLITERAL)? { $option = new Option(unquote($optionName.text), unquote($optionParameter.text)); }
+   : '--' optionName = STRINGLITERAL ('=' (optionParameter = STRINGLITERAL | optionParameter = INTLITERAL))? { $option = new Option(unquote($optionName.text), unquote($optionParameter.text)); }
    ;
 
 literal returns [Object o]
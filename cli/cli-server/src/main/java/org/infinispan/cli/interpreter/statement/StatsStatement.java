@@ -35,6 +35,7 @@
 import org.infinispan.factories.components.ManageableComponentMetadata;
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.stats.HotKeyProfiler;
 import org.infinispan.util.logging.LogFactory;
 
 /**
@@ -47,9 +48,11 @@ public class StatsStatement implements Statement {
    private static final Log log = LogFactory.getLog(StatsStatement.class, Log.class);
 
    private enum Options {
-      CONTAINER
+      CONTAINER, HOTKEYS
    };
 
+   private static final int DEFAULT_HOT_KEYS = 10;
+
    final String cacheName;
    final private List<Option> options;
 
@@ -71,6 +74,11 @@ public Result execute(Session session) throws StatementException {
                pw.flush();
                break;
             }
+            case HOTKEYS: {
+               int n = option.getParameter() == null ? DEFAULT_HOT_KEYS : Integer.parseInt(option.getParameter());
+               printHotKeys(pw, session.getCache(cacheName), n);
+               break;
+            }
             }
          }
       } else {
@@ -105,6 +113,18 @@ private void printCacheStats(PrintWriter pw, Cache<?, ?> cache) throws Statement
       }
       printComponentStats(pw, cache, cache.getAdvancedCache().getLockManager());
       printComponentStats(pw, cache, cache.getAdvancedCache().getRpcManager());
+      printComponentStats(pw, cache, getHotKeyProfiler(cache));
+   }
+
+   private void printHotKeys(PrintWriter pw, Cache<?, ?> cache, int n) throws StatementException {
+      if (!cache.getCacheConfiguration().jmxStatistics().enabled()) {
+         throw log.statisticsNotEnabled(cache.getName());
+      }
+      pw.print(getHotKeyProfiler(cache).printHotKeys(n));
+   }
+
+   private HotKeyProfiler getHotKeyProfiler(Cache<?, ?> cache) {
+      return cache.getAdvancedCache().getComponentRegistry().getComponent(HotKeyProfiler.class);
    }
 
    private void printComponentStats(PrintWriter pw, Cache<?, ?> cache, Object component) {
@@ -192,6 +192,16 @@ public void testStats() throws Exception {
       assert !response.containsKey(ResultKeys.ERROR.toString());
    }
 
+   public void testHotKeyStats() throws Exception {
+      Interpreter interpreter = getInterpreter();
+      String sessionId = interpreter.createSessionId(BasicCacheContainer.DEFAULT_CACHE_NAME);
+      interpreter.execute(sessionId, "put 'hotkey' 'a';");
+      interpreter.execute(sessionId, "get 'hotkey';");
+      Map<String, String> response = interpreter.execute(sessionId, "stats --hotkeys=100;");
+      assert !response.containsKey(ResultKeys.ERROR.toString());
+      assertTrue(response.get(ResultKeys.OUTPUT.toString()).contains("hotkey="));
+   }
+
    public void testParserErrors() throws Exception {
       Interpreter interpreter = getInterpreter();
       String sessionId = interpreter.createSessionId(BasicCacheContainer.DEFAULT_CACHE_NAME);
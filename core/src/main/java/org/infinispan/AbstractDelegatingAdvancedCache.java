@@ -33,6 +33,7 @@
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.locks.LockManager;
 import org.infinispan.stats.Stats;
 
@@ -41,6 +42,8 @@
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Similar to {@link org.infinispan.AbstractDelegatingCache}, but for {@link AdvancedCache}.
@@ -201,6 +204,21 @@ public CacheEntry getCacheEntry(K key) {
       return cache.getCacheEntry(key, null, null);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<?> keys) {
+      return cache.getAll(keys);
+   }
+
+   @Override
+   public NotifyingFuture<Map<K, V>> getAllAsync(Set<?> keys) {
+      return cache.getAllAsync(keys);
+   }
+
+   @Override
+   public <R> R invoke(K key, EntryProcessor<K, V, R> processor) {
+      return cache.invoke(key, processor);
+   }
+
    @Override
    public V put(K key, V value, Metadata metadata) {
       return cache.put(key, value, metadata);
@@ -34,6 +34,7 @@
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.stats.Stats;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.concurrent.locks.LockManager;
 
 import javax.transaction.TransactionManager;
@@ -41,6 +42,8 @@
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An advanced interface that exposes additional methods not available on {@link Cache}.
@@ -365,4 +368,45 @@
 
    CacheEntry getCacheEntry(K key);
 
+   /**
+    * Retrieves the values associated with several keys in a single invocation.  Unlike calling {@link #get(Object)}
+    * once per key, the keys are looked up in one pass through the interceptor chain, cache loader lookups happen in
+    * that same pass and, in distributed mode, the keys that are not available locally are fetched with a single remote
+    * call per owner, with all owners being contacted in parallel.
+    *
+    * @param keys keys to look up, none of which can be null
+    * @return a map holding the keys which have a value associated, in the iteration order of <tt>keys</tt>.  Keys with
+    *         no value associated are left out of the map.
+    *
+    * @since 5.3
+    */
+   Map<K, V> getAll(Set<?> keys);
+
+   /**
+    * Asynchronous version of {@link #getAll(Set)}.  This method does not block on remote calls, even if your cache
+    * mode is synchronous.
+    *
+    * @param keys keys to look up, none of which can be null
+    * @return a future containing the map of keys to values
+    *
+    * @since 5.3
+    */
+   NotifyingFuture<Map<K, V>> getAllAsync(Set<?> keys);
+
+   /**
+    * Atomically reads and updates the entry associated with the given key by running an {@link EntryProcessor}
+    * against it.  The processor runs while the entry is locked, on the primary owner of the key in distributed mode,
+    * and only the resulting value is sent to the other owners.  This saves the round trips, and the retries under
+    * contention, of reading a value and then writing it back with a conditional operation.
+    * <p/>
+    * In transactional caches the processor runs on the node invoking it, as part of the ongoing transaction.
+    *
+    * @param key key of the entry to process, which cannot be null
+    * @param processor processor to run against the entry
+    * @return the value returned by {@link EntryProcessor#process(EntryProcessor.MutableEntry)}
+    *
+    * @since 5.3
+    */
+   <R> R invoke(K key, EntryProcessor<K, V, R> processor);
+
 }
@@ -28,6 +28,7 @@
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
@@ -36,6 +37,7 @@
 import org.infinispan.commands.write.ApplyDeltaCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.EvictCommand;
+import org.infinispan.commands.write.InvokeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -53,6 +55,7 @@
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextContainer;
+import org.infinispan.context.SingleKeyNonTxInvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.eviction.EvictionManager;
@@ -82,6 +85,7 @@
 import org.infinispan.transaction.xa.recovery.RecoveryManager;
 import org.infinispan.util.AnyEquivalence;
 import org.infinispan.util.Equivalence;
+import org.infinispan.util.InfinispanCollections;
 import org.infinispan.util.Util;
 import org.infinispan.util.concurrent.AbstractInProcessNotifyingFuture;
 import org.infinispan.util.concurrent.NotifyingFuture;
@@ -95,6 +99,7 @@
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 import javax.transaction.xa.XAResource;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -148,6 +153,12 @@
    private GlobalConfiguration globalCfg;
    private boolean isClassLoaderInContext;
 
+   /**
+    * Command and context reused by the non-transactional single key reads of each thread, so that a plain {@link
+    * #get(Object)} doesn't need to allocate either of them.
+    */
+   private final ThreadLocal<ReusableRead> reusableRead = new ThreadLocal<ReusableRead>();
+
    public CacheImpl(String name) {
       this.name = name;
    }
@@ -284,9 +295,40 @@ public final V get(Object key) {
    @SuppressWarnings("unchecked")
    final V get(Object key, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
       assertKeyNotNull(key);
-      InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, 1);
-      GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, explicitFlags);
-      return (V) invoker.invoke(ctx, command);
+      Transaction tx = config.transaction().transactionMode().isTransactional() ? getOngoingTransaction() : null;
+      ReusableRead read = tx == null ? acquireReusableRead() : null;
+      if (read == null) {
+         InvocationContext ctx = getInvocationContextForRead(tx, explicitClassLoader, 1);
+         GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, explicitFlags);
+         return (V) invoker.invoke(ctx, command);
+      }
+      try {
+         InvocationContext ctx = icc.reuseSingleKeyNonTxInvocationContext(read.ctx);
+         setInvocationContextClassLoader(ctx, explicitClassLoader);
+         read.command.setKey(key);
+         read.command.setFlags(explicitFlags);
+         return (V) invoker.invoke(ctx, read.command);
+      } finally {
+         read.release();
+      }
+   }
+
+   /**
+    * @return this thread's reusable read state, or null if it is already being used by an outer read on this thread,
+    *         e.g. when a listener or a cache loader reads from the cache
+    */
+   private ReusableRead acquireReusableRead() {
+      ReusableRead read = reusableRead.get();
+      if (read == null) {
+         // built like any other command, and only reused once the factory has initialised it
+         read = new ReusableRead(config.dataContainer().keyEquivalence(),
+                                 commandsFactory.buildGetKeyValueCommand(null, null));
+         reusableRead.set(read);
+      } else if (read.inUse) {
+         return null;
+      }
+      read.inUse = true;
+      return read;
    }
 
    @Override
@@ -303,6 +345,20 @@ public final CacheEntry getCacheEntry(K key) {
       return getCacheEntry(key, null, null);
    }
 
+   @Override
+   public final Map<K, V> getAll(Set<?> keys) {
+      return getAll(keys, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   final Map<K, V> getAll(Set<?> keys, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
+      for (Object key : keys) assertKeyNotNull(key);
+      if (keys.isEmpty()) return InfinispanCollections.emptyMap();
+      InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, keys.size());
+      GetAllCommand command = commandsFactory.buildGetAllCommand(new ArrayList<Object>(keys), explicitFlags, false);
+      return (Map<K, V>) invoker.invoke(ctx, command);
+   }
+
    @Override
    public final V remove(Object key) {
       return remove(key, null, null);
@@ -314,6 +370,20 @@ final V remove(Object key, EnumSet<Flag> explicitFlags, ClassLoader explicitClas
       return removeInternal(key, explicitFlags, ctx);
    }
 
+   @Override
+   public final <R> R invoke(K key, EntryProcessor<K, V, R> processor) {
+      return invoke(key, processor, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   final <R> R invoke(K key, EntryProcessor<K, V, R> processor, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
+      assertKeyNotNull(key);
+      if (processor == null) throw new NullPointerException("Entry processor cannot be null");
+      InvocationContext ctx = getInvocationContextWithImplicitTransaction(false, explicitClassLoader, 1);
+      InvokeCommand command = commandsFactory.buildInvokeCommand(key, (EntryProcessor<Object, Object, Object>) processor, explicitFlags);
+      return (R) executeCommandAndCommitIfNeeded(ctx, command);
+   }
+
    private V removeInternal(Object key, EnumSet<Flag> explicitFlags, InvocationContext ctx) {
       assertKeyNotNull(key);
       RemoveCommand command = commandsFactory.buildRemoveCommand(key, null, explicitFlags);
@@ -1171,6 +1241,36 @@ public V call() throws Exception {
       }
    }
 
+   @Override
+   public NotifyingFuture<Map<K, V>> getAllAsync(Set<?> keys) {
+      return getAllAsync(keys, null, null);
+   }
+
+   NotifyingFuture<Map<K, V>> getAllAsync(final Set<?> keys, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      // Make sure the flags are cleared
+      final EnumSet<Flag> appliedFlags;
+      if (explicitFlags == null) {
+         appliedFlags = null;
+      } else {
+         appliedFlags = explicitFlags.clone();
+         explicitFlags.clear();
+      }
+      final NotifyingFutureAdaptor<Map<K, V>> f = new NotifyingFutureAdaptor<Map<K, V>>();
+
+      Callable<Map<K, V>> c = new Callable<Map<K, V>>() {
+         @Override
+         public Map<K, V> call() throws Exception {
+            try {
+               return getAll(keys, appliedFlags, explicitClassLoader);
+            } finally {
+               f.notifyDone();
+            }
+         }
+      };
+      f.setActual(asyncExecutor.submit(c));
+      return f;
+   }
+
    /**
     * Encodes the cases for an asyncGet operation in which it makes sense to actually perform the operation in sync.
     *
@@ -1397,4 +1497,25 @@ private void associateImplicitTransactionWithCurrentThread(InvocationContext ctx
          transactionManager.resume(transaction);
       }
    }
+
+   private static final class ReusableRead {
+      final SingleKeyNonTxInvocationContext ctx;
+      final GetKeyValueCommand command;
+      boolean inUse;
+
+      ReusableRead(Equivalence keyEquivalence, GetKeyValueCommand command) {
+         ctx = new SingleKeyNonTxInvocationContext(true, keyEquivalence);
+         this.command = command;
+      }
+
+      void release() {
+         // don't hold on to keys and values between reads
+         ctx.reset();
+         command.setKey(null);
+         command.setFlags((Set<Flag>) null);
+         command.setRemotelyFetchedValue(null);
+         command.setTopologyId(-1);
+         inUse = false;
+      }
+   }
 }
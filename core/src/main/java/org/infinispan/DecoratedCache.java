@@ -302,6 +302,21 @@ public NotifyingFuture<V> getAsync(K key) {
       return cacheImplementation.getAsync(key, flags, classLoader.get());
    }
 
+   @Override
+   public Map<K, V> getAll(Set<?> keys) {
+      return cacheImplementation.getAll(keys, flags, classLoader.get());
+   }
+
+   @Override
+   public NotifyingFuture<Map<K, V>> getAllAsync(Set<?> keys) {
+      return cacheImplementation.getAllAsync(keys, flags, classLoader.get());
+   }
+
+   @Override
+   public <R> R invoke(K key, EntryProcessor<K, V, R> processor) {
+      return cacheImplementation.invoke(key, processor, flags, classLoader.get());
+   }
+
    @Override
    public int size() {
       return cacheImplementation.size(flags, classLoader.get());
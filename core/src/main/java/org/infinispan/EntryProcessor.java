@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan;
+
+/**
+ * Logic that reads and updates a single cache entry atomically, invoked through
+ * {@link AdvancedCache#invoke(Object, EntryProcessor)}.
+ * <p/>
+ * The processor runs on the primary owner of the key while the entry is locked, and only the outcome of the
+ * processing (the new value, or the fact that the entry was removed) is replicated to the rest of the owners.  In a
+ * clustered cache the processor is therefore shipped to the primary owner, so it has to be marshallable, either by
+ * being {@link java.io.Serializable} or by having an {@link org.infinispan.marshall.AdvancedExternalizer} registered.
+ *
+ * @param <K> type of the keys in the cache
+ * @param <V> type of the values in the cache
+ * @param <R> type of the result of the processing
+ * @since 5.3
+ */
+public interface EntryProcessor<K, V, R> {
+
+   /**
+    * Processes an entry.  Changes made through the given {@link MutableEntry} are applied to the cache once this
+    * method returns.  If the method throws an exception, no change is applied.
+    *
+    * @param entry view of the entry being processed
+    * @return the result of the processing, returned to the caller of {@link AdvancedCache#invoke(Object, EntryProcessor)}
+    */
+   R process(MutableEntry<K, V> entry);
+
+   /**
+    * A view of the entry being processed.  The view starts off with the value of the entry at the time it was
+    * locked, and reflects the changes made through it.
+    *
+    * @param <K> type of the key
+    * @param <V> type of the value
+    */
+   interface MutableEntry<K, V> {
+
+      K getKey();
+
+      /**
+       * @return the current value of the entry, or <tt>null</tt> if the entry does not exist
+       */
+      V getValue();
+
+      /**
+       * @return true if the entry has a value
+       */
+      boolean exists();
+
+      /**
+       * Sets a new value for the entry, creating it if it does not exist.
+       *
+       * @param value the new value, which cannot be null
+       */
+      void setValue(V value);
+
+      /**
+       * Removes the entry.
+       */
+      void remove();
+   }
+}
@@ -103,4 +103,26 @@ public static <K, V> KeyAffinityService<K> newLocalKeyAffinityService(Cache<K, V
    public static <K, V> KeyAffinityService<K> newLocalKeyAffinityService(Cache<K, V> cache, KeyGenerator<K> keyGenerator, Executor ex, int keyBufferSize) {
       return newLocalKeyAffinityService(cache, keyGenerator, ex, keyBufferSize, true);
    }
+
+   /**
+    * Creates a {@link SegmentKeyAffinityService} that stores the generated keys per segment of the consistent hash,
+    * for all the segments whose primary owner is in filter. Keys are not discarded because they map to another
+    * address, and on a topology change only the keys of the segments that moved to a node outside the filter are
+    * dropped.
+    *
+    * @param filter                  the set of addresses for which to generate keys, or <tt>null</tt> for all the
+    *                                members of the cluster
+    * @param keyBufferSizePerSegment the number of generated keys kept for each segment
+    */
+   public static <K, V> SegmentKeyAffinityService<K> newSegmentKeyAffinityService(Cache<K, V> cache, Collection<Address> filter, KeyGenerator<K> keyGenerator, Executor ex, int keyBufferSizePerSegment, boolean start) {
+      return new SegmentKeyAffinityServiceImpl<K>(ex, cache, keyGenerator, keyBufferSizePerSegment, filter, start);
+   }
+
+   /**
+    * Same as {@link #newSegmentKeyAffinityService(org.infinispan.Cache, java.util.Collection, KeyGenerator,
+    * java.util.concurrent.Executor, int, boolean)} with all the members of the cluster and start == true.
+    */
+   public static <K, V> SegmentKeyAffinityService<K> newSegmentKeyAffinityService(Cache<K, V> cache, Executor ex, KeyGenerator<K> keyGenerator, int keyBufferSizePerSegment) {
+      return newSegmentKeyAffinityService(cache, null, keyGenerator, ex, keyBufferSizePerSegment, true);
+   }
 }
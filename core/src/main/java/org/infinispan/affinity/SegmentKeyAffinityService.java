@@ -0,0 +1,49 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.affinity;
+
+/**
+ * A {@link KeyAffinityService} that keeps the generated keys per segment of the consistent hash rather than per
+ * address. Every generated key is stored for the segment it maps to, so no key is discarded because it belongs to
+ * another node, and a topology change only affects the segments whose primary owner changed.
+ * <p/>
+ * Keys returned by {@link #getCollocatedKey(Object)} map to the same segment as the supplied key, hence to the same
+ * owners and not only to the same primary owner.
+ *
+ * @since 5.3
+ * @see KeyAffinityServiceFactory#newSegmentKeyAffinityService(org.infinispan.Cache, java.util.Collection, KeyGenerator, java.util.concurrent.Executor, int, boolean)
+ */
+public interface SegmentKeyAffinityService<K> extends KeyAffinityService<K> {
+
+   /**
+    * Returns a key that maps to the given segment of the consistent hash.
+    *
+    * @param segment the segment id, between 0 and the number of segments of the cache
+    * @return a key object
+    * @throws IllegalArgumentException if there is no such segment
+    * @throws IllegalStateException if the service has not been started or it is shutdown, or if the primary owner
+    *                               of the segment is not one of the addresses keys are generated for
+    */
+   K getKeyForSegment(int segment);
+}
@@ -0,0 +1,402 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.affinity;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.Cache;
+import org.infinispan.CacheException;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.TopologyChanged;
+import org.infinispan.notifications.cachelistener.event.TopologyChangedEvent;
+import org.infinispan.notifications.cachemanagerlistener.annotation.CacheStopped;
+import org.infinispan.notifications.cachemanagerlistener.event.CacheStoppedEvent;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.concurrent.ConcurrentHashSet;
+import org.infinispan.util.concurrent.ReclosableLatch;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of {@link SegmentKeyAffinityService}.
+ * <p/>
+ * A bounded queue is kept for every segment whose primary owner is one of the addresses keys are generated for. The
+ * key generator thread hashes every key once and stores it in the queue of its segment; keys are only dropped when
+ * that queue is full. The number of segments of a cache doesn't change, so on a topology change the queues are kept
+ * and only the segments whose primary owner is no longer of interest are emptied. Keys for a given address are taken
+ * in turn from the segments that address is the primary owner of.
+ *
+ * @since 5.3
+ */
+@ThreadSafe
+public class SegmentKeyAffinityServiceImpl<K> implements SegmentKeyAffinityService<K> {
+
+   public final static float THRESHOLD = 0.5f;
+
+   private static final Log log = LogFactory.getLog(SegmentKeyAffinityServiceImpl.class);
+   private static final long POLL_INTERVAL_MILLIS = 10;
+
+   private final Set<Address> filter;
+   private final Executor executor;
+   private final Cache<? extends K, ?> cache;
+   private final KeyGenerator<? extends K> keyGenerator;
+   private final int segmentBufferSize;
+
+   private volatile List<BlockingQueue<K>> segmentQueues;
+   private volatile SegmentMapping mapping;
+   final AtomicInteger existingKeyCount = new AtomicInteger();
+   private final AtomicInteger nextSegment = new AtomicInteger();
+
+   /**
+    * Used for coordinating between the KeyGeneratorWorker and consumers.
+    */
+   private final ReclosableLatch keyProducerStartLatch = new ReclosableLatch();
+   private volatile KeyGeneratorWorker keyGenWorker;
+   private volatile TopologyListener listener;
+   private volatile boolean started;
+
+   public SegmentKeyAffinityServiceImpl(Executor executor, Cache<? extends K, ?> cache, KeyGenerator<? extends K> keyGenerator,
+                                        int segmentBufferSize, Collection<Address> filter, boolean start) {
+      this.executor = executor;
+      this.cache = cache;
+      this.keyGenerator = keyGenerator;
+      this.segmentBufferSize = segmentBufferSize;
+      if (filter != null) {
+         this.filter = new ConcurrentHashSet<Address>();
+         this.filter.addAll(filter);
+      } else {
+         this.filter = null;
+      }
+      if (start)
+         start();
+   }
+
+   @Override
+   public K getCollocatedKey(K otherKey) {
+      checkStarted();
+      return getKeyForSegment(mapping.consistentHash.getSegment(otherKey));
+   }
+
+   @Override
+   public K getKeyForAddress(Address address) {
+      checkStarted();
+      if (address == null)
+         throw new NullPointerException("Null address not supported!");
+
+      SegmentMapping m = mapping;
+      int[] segments = m.segmentsByPrimaryOwner.get(address);
+      if (segments == null) {
+         if (!m.consistentHash.getMembers().contains(address))
+            throw new IllegalStateException("Address " + address + " is no longer in the cluster");
+         throw new IllegalStateException("Address " + address + " is not the primary owner of any segment keys are generated for");
+      }
+
+      // spread the consumption over all the segments of the address so that they drain evenly
+      int start = (nextSegment.getAndIncrement() & Integer.MAX_VALUE) % segments.length;
+      for (int i = 0; i < segments.length; i++) {
+         int segment = segments[(start + i) % segments.length];
+         K key = pollKey(segment);
+         if (key != null) {
+            log.tracef("Returning key %s of segment %s for address %s", key, segment, address);
+            return key;
+         }
+      }
+      return getKeyForSegment(segments[start]);
+   }
+
+   @Override
+   public K getKeyForSegment(int segment) {
+      checkStarted();
+      List<BlockingQueue<K>> queues = segmentQueues;
+      if (segment < 0 || segment >= queues.size())
+         throw new IllegalArgumentException("Segment " + segment + " does not exist, the number of segments is " + queues.size());
+
+      K result = pollKey(segment);
+      try {
+         while (result == null && !keyGenWorker.isStopped()) {
+            if (!mapping.interesting[segment])
+               throw new IllegalStateException("The primary owner of segment " + segment + " is not one of the addresses keys are generated for");
+            // there are no elements in the queue, make sure the producer is started
+            keyProducerStartLatch.open();
+            result = queues.get(segment).poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            if (result != null) keyTaken(segment);
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while waiting for a key of segment " + segment, e);
+      }
+      log.tracef("Returning key %s for segment %s", result, segment);
+      return result;
+   }
+
+   private K pollKey(int segment) {
+      K key = segmentQueues.get(segment).poll();
+      if (key != null) keyTaken(segment);
+      return key;
+   }
+
+   private void keyTaken(int segment) {
+      existingKeyCount.decrementAndGet();
+      if (segmentQueues.get(segment).size() < segmentBufferSize * THRESHOLD + 1) {
+         keyProducerStartLatch.open();
+      }
+   }
+
+   @Override
+   public synchronized void start() {
+      if (started) {
+         log.debug("Service already started, ignoring call to start!");
+         return;
+      }
+      ConsistentHash ch = getDistributionManager().getConsistentHash();
+      segmentQueues = createQueues(ch.getNumSegments());
+      existingKeyCount.set(0);
+      mapping = new SegmentMapping(ch);
+      keyGenWorker = new KeyGeneratorWorker();
+      executor.execute(keyGenWorker);
+      listener = new TopologyListener();
+      cache.getCacheManager().addListener(listener);
+      cache.addListener(listener);
+      keyProducerStartLatch.open();
+      started = true;
+   }
+
+   @Override
+   public synchronized void stop() {
+      if (!started) {
+         log.debug("Ignoring call to stop as service is not started.");
+         return;
+      }
+      started = false;
+      EmbeddedCacheManager cacheManager = cache.getCacheManager();
+      cacheManager.removeListener(listener);
+      if (cache.getListeners().contains(listener)) {
+         cache.removeListener(listener);
+      }
+      keyGenWorker.stop();
+   }
+
+   /**
+    * Recomputes the primary owners of the segments. Only the queues of the segments whose primary owner is no longer
+    * of interest are emptied; keys of all the other segments are still valid.
+    */
+   synchronized void handleTopologyChange(ConsistentHash ch) {
+      log.tracef("Topology changed, new consistent hash: %s", ch);
+      SegmentMapping newMapping = new SegmentMapping(ch);
+      if (ch.getNumSegments() != segmentQueues.size()) {
+         segmentQueues = createQueues(ch.getNumSegments());
+         existingKeyCount.set(0);
+      } else {
+         List<K> dropped = new ArrayList<K>();
+         for (int segment = 0; segment < ch.getNumSegments(); segment++) {
+            if (!newMapping.interesting[segment]) {
+               segmentQueues.get(segment).drainTo(dropped);
+            }
+         }
+         existingKeyCount.addAndGet(-dropped.size());
+         log.tracef("Dropped %s keys of segments that are no longer of interest", dropped.size());
+      }
+      mapping = newMapping;
+      keyProducerStartLatch.open();
+   }
+
+   private List<BlockingQueue<K>> createQueues(int numSegments) {
+      List<BlockingQueue<K>> queues = new ArrayList<BlockingQueue<K>>(numSegments);
+      for (int i = 0; i < numSegments; i++) {
+         queues.add(new ArrayBlockingQueue<K>(segmentBufferSize));
+      }
+      return queues;
+   }
+
+   private void checkStarted() {
+      if (!started) {
+         throw new IllegalStateException("You have to start the service first!");
+      }
+   }
+
+   private boolean interestedInAddress(Address address) {
+      return filter == null || filter.contains(address);
+   }
+
+   private DistributionManager getDistributionManager() {
+      DistributionManager distributionManager = cache.getAdvancedCache().getDistributionManager();
+      if (distributionManager == null) {
+         throw new IllegalStateException("Null distribution manager. Is this an distributed(v.s. replicated) cache?");
+      }
+      return distributionManager;
+   }
+
+   public List<BlockingQueue<K>> getSegment2KeysMapping() {
+      return Collections.unmodifiableList(segmentQueues);
+   }
+
+   public int getMaxNumberOfKeys() {
+      return mapping.interestingSegments * segmentBufferSize;
+   }
+
+   public boolean isKeyGeneratorThreadActive() {
+      return keyGenWorker.isActive();
+   }
+
+   @Override
+   public boolean isStarted() {
+      return started;
+   }
+
+   /**
+    * Immutable view of the segments keys are generated for, computed from one consistent hash.
+    */
+   private class SegmentMapping {
+      final ConsistentHash consistentHash;
+      final boolean[] interesting;
+      final int interestingSegments;
+      final Map<Address, int[]> segmentsByPrimaryOwner;
+
+      SegmentMapping(ConsistentHash consistentHash) {
+         this.consistentHash = consistentHash;
+         int numSegments = consistentHash.getNumSegments();
+         interesting = new boolean[numSegments];
+         Map<Address, List<Integer>> segments = new HashMap<Address, List<Integer>>();
+         int count = 0;
+         for (int segment = 0; segment < numSegments; segment++) {
+            Address primaryOwner = consistentHash.locatePrimaryOwnerForSegment(segment);
+            if (interestedInAddress(primaryOwner)) {
+               interesting[segment] = true;
+               count++;
+               List<Integer> ownerSegments = segments.get(primaryOwner);
+               if (ownerSegments == null) {
+                  ownerSegments = new ArrayList<Integer>();
+                  segments.put(primaryOwner, ownerSegments);
+               }
+               ownerSegments.add(segment);
+            }
+         }
+         interestingSegments = count;
+         segmentsByPrimaryOwner = new HashMap<Address, int[]>(segments.size());
+         for (Map.Entry<Address, List<Integer>> e : segments.entrySet()) {
+            int[] ownerSegments = new int[e.getValue().size()];
+            for (int i = 0; i < ownerSegments.length; i++) ownerSegments[i] = e.getValue().get(i);
+            segmentsByPrimaryOwner.put(e.getKey(), ownerSegments);
+         }
+      }
+   }
+
+   private class KeyGeneratorWorker implements Runnable {
+
+      private volatile boolean isActive;
+      private volatile boolean isStopped = false;
+
+      @Override
+      public void run() {
+         try {
+            while (!isStopped) {
+               keyProducerStartLatch.await();
+               if (!isStopped) {
+                  isActive = true;
+                  log.trace("KeyGeneratorWorker marked as ACTIVE");
+                  generateKeys();
+
+                  isActive = false;
+                  log.trace("KeyGeneratorWorker marked as INACTIVE");
+               }
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         } finally {
+            log.debugf("Shutting down segment KeyAffinity service for key set: %s", filter);
+         }
+      }
+
+      private void generateKeys() {
+         SegmentMapping m = mapping;
+         List<BlockingQueue<K>> queues = segmentQueues;
+         int maxNumberOfKeys = m.interestingSegments * segmentBufferSize;
+         // keys of full segments are dropped, so bound the work done before checking again
+         int maxMisses = Math.max(maxNumberOfKeys, segmentBufferSize);
+         int missCount = 0;
+         while (existingKeyCount.get() < maxNumberOfKeys && missCount < maxMisses && !isStopped) {
+            if (m != mapping) {
+               // the topology changed, start again with the new segment owners
+               return;
+            }
+            K key = keyGenerator.getKey();
+            int segment = m.consistentHash.getSegment(key);
+            if (m.interesting[segment] && queues.get(segment).offer(key)) {
+               existingKeyCount.incrementAndGet();
+            } else {
+               missCount++;
+            }
+         }
+
+         if (missCount < maxMisses) {
+            keyProducerStartLatch.close();
+            // a consumer might have taken a key after the check above
+            if (existingKeyCount.get() < maxNumberOfKeys * THRESHOLD) keyProducerStartLatch.open();
+         }
+      }
+
+      public boolean isStopped() {
+         return isStopped;
+      }
+
+      public boolean isActive() {
+         return isActive;
+      }
+
+      public void stop() {
+         isStopped = true;
+         keyProducerStartLatch.open();
+      }
+   }
+
+   @Listener(sync = true)
+   public class TopologyListener {
+
+      @TopologyChanged
+      public void handleViewChange(TopologyChangedEvent<?, ?> tce) {
+         if (!tce.isPre()) handleTopologyChange(tce.getConsistentHashAtEnd());
+      }
+
+      @CacheStopped
+      public void handleCacheStopped(CacheStoppedEvent cse) {
+         log.tracef("Cache stopped, stopping the service: %s", cse);
+         stop();
+      }
+   }
+}
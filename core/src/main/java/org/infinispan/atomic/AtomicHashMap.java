@@ -29,6 +29,7 @@
 import org.infinispan.marshall.AbstractExternalizer;
 import org.infinispan.marshall.Ids;
 import org.infinispan.util.FastCopyHashMap;
+import org.infinispan.util.PersistentHashMap;
 import org.infinispan.util.Util;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -52,6 +53,9 @@
  * Note that for replication to work properly, AtomicHashMap updates <b><i>must always</i></b> take place within the
  * scope of an ongoing JTA transaction or batch (see {@link Cache#startBatch()}).
  * <p/>
+ * The contents are held in a {@link PersistentHashMap}, so the copy taken by every transaction that writes to the map
+ * is constant time regardless of the map size, and only the trie path to each modified key is duplicated.
+ * <p/>
  *
  * @author (various)
  * @param <K> the type of keys maintained by this map
@@ -66,7 +70,7 @@
    private static final Log log = LogFactory.getLog(AtomicHashMap.class);
    private static final boolean trace = log.isTraceEnabled();
 
-   protected final FastCopyHashMap<K, V> delegate;
+   protected final PersistentHashMap<K, V> delegate;
    private AtomicHashMapDelta delta = null;
    private volatile AtomicHashMapProxy<K, V> proxy;
    volatile boolean copied = false;
@@ -84,10 +88,10 @@ public static <K, V> AtomicHashMap<K, V> newInstance(Cache<Object, Object> cache
    }
 
    public AtomicHashMap() {
-      this.delegate = new FastCopyHashMap<K, V>();
+      this.delegate = new PersistentHashMap<K, V>();
    }
 
-   private AtomicHashMap(FastCopyHashMap<K, V> delegate) {
+   private AtomicHashMap(PersistentHashMap<K, V> delegate) {
       this.delegate = delegate;
    }
 
@@ -96,7 +100,7 @@ public AtomicHashMap(boolean isCopy) {
       this.copied = isCopy;
    }
 
-   private AtomicHashMap(FastCopyHashMap<K, V> newDelegate, AtomicHashMapProxy<K, V> proxy) {
+   private AtomicHashMap(PersistentHashMap<K, V> newDelegate, AtomicHashMapProxy<K, V> proxy) {
       this.delegate = newDelegate;
       this.proxy = proxy;
       this.copied = true;
@@ -178,7 +182,7 @@ public void putAll(Map<? extends K, ? extends V> t) {
    @Override
    @SuppressWarnings("unchecked")
    public void clear() {
-      FastCopyHashMap<K, V> originalEntries = delegate.clone();
+      PersistentHashMap<K, V> originalEntries = delegate.clone();
       ClearOperation<K, V> op = new ClearOperation<K, V>(originalEntries);
       getDelta().addOperation(op);
       delegate.clear();
@@ -215,12 +219,24 @@ public Delta delta() {
       return toReturn;
    }
 
+   /**
+    * Creates a copy of this map for writing.  Since the underlying trie is shared until either map is modified, this
+    * is a constant time operation.
+    */
    @SuppressWarnings("unchecked")
    public AtomicHashMap<K, V> copy() {
-      FastCopyHashMap<K, V> newDelegate = delegate.clone();
+      PersistentHashMap<K, V> newDelegate = delegate.clone();
       return new AtomicHashMap(newDelegate, proxy);
    }
 
+   /**
+    * Returns a read-only, point-in-time view of the contents of this map, which is not affected by subsequent writes.
+    * Used by readers that need a stable view without copying the map or acquiring any lock.
+    */
+   Map<K, V> snapshot() {
+      return delegate.snapshot();
+   }
+
    @Override
    public String toString() {
       // Sanne: Avoid iterating on the delegate as that might lead to
@@ -247,13 +263,15 @@ AtomicHashMapDelta getDelta() {
    public static class Externalizer extends AbstractExternalizer<AtomicHashMap> {
       @Override
       public void writeObject(ObjectOutput output, AtomicHashMap map) throws IOException {
-         output.writeObject(map.delegate);
+         // Keep the FastCopyHashMap wire and store format used by previous releases
+         output.writeObject(new FastCopyHashMap<Object, Object>(map.delegate));
       }
 
       @Override
       @SuppressWarnings("unchecked")
       public AtomicHashMap readObject(ObjectInput input) throws IOException, ClassNotFoundException {
-         FastCopyHashMap<?, ?> delegate = (FastCopyHashMap<?, ?>) input.readObject();
+         FastCopyHashMap<?, ?> entries = (FastCopyHashMap<?, ?>) input.readObject();
+         PersistentHashMap<?, ?> delegate = new PersistentHashMap<Object, Object>(entries);
          if (trace)
             log.tracef("Restore atomic hash map from %s", delegate);
 
@@ -24,7 +24,6 @@
 
 import org.infinispan.marshall.AbstractExternalizer;
 import org.infinispan.marshall.Ids;
-import org.infinispan.util.FastCopyHashMap;
 import org.infinispan.util.Util;
 
 import java.io.IOException;
@@ -43,12 +42,12 @@
  * @since 4.0
  */
 public class ClearOperation<K, V> extends Operation<K, V> {
-   FastCopyHashMap<K, V> originalEntries;
+   Map<K, V> originalEntries;
 
    ClearOperation() {
    }
 
-   ClearOperation(FastCopyHashMap<K, V> originalEntries) {
+   ClearOperation(Map<K, V> originalEntries) {
       this.originalEntries = originalEntries;
    }
 
@@ -98,12 +98,21 @@ protected AtomicHashMap<K, V> getDeltaMapForWrite() {
       }
    }
 
+   /**
+    * Readers never lock the atomic map: deltas committed by concurrent transactions swap in a new trie root per
+    * modified key, so a consistent point-in-time view can be taken in constant time without copying the map.
+    */
+   private Map<K, V> getDeltaMapSnapshot() {
+      AtomicHashMap<K, V> map = getDeltaMapForRead();
+      return map == null ? null : map.snapshot();
+   }
+
    @Override
    public Set<K> keySet() {
       if (hasUncommittedChanges()) {
            return new HashSet<K>(keySetUncommitted());
       } else {
-         AtomicHashMap<K, V> map = getDeltaMapForRead().copy();
+         Map<K, V> map = getDeltaMapSnapshot();
          Set<K> result = new HashSet<K>(keySetUncommitted());
          if (map != null) {
             result.addAll(map.keySet());
@@ -122,7 +131,7 @@ private Set<K> keySetUncommitted() {
 
    @Override
    public Collection<V> values() {
-      AtomicHashMap<K, V> map = getDeltaMapForRead().copy();
+      Map<K, V> map = getDeltaMapSnapshot();
       Set<V> result = new HashSet<V>(valuesUncommitted());
       if (map != null) {
          result.addAll(map.values());
@@ -144,7 +153,7 @@ public Set<Entry<K, V>> entrySet() {
       if (hasUncommittedChanges()) {
          return new HashSet<Entry<K, V>>(entrySetUncommitted());
       } else {
-         AtomicHashMap<K, V> map = getDeltaMapForRead().copy();
+         Map<K, V> map = getDeltaMapSnapshot();
          result = new HashSet<Entry<K, V>>();
          if (map != null) {
             result.addAll(map.entrySet());
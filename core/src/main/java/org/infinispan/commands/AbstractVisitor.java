@@ -26,6 +26,7 @@
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
@@ -59,6 +60,11 @@ public Object visitVersionedPutKeyValueCommand(InvocationContext ctx, VersionedP
       return visitPutKeyValueCommand(ctx, command);
    }
 
+   @Override
+   public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+      return visitPutKeyValueCommand(ctx, command);
+   }
+
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       return handleDefault(ctx, command);
@@ -111,6 +117,11 @@ public Object visitGetCacheEntryCommand(InvocationContext ctx, GetKeyValueComman
       return visitGetKeyValueCommand(ctx, command);
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      return handleDefault(ctx, command);
+   }
+
    @Override
    public Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) throws Throwable {
       return handleDefault(ctx, command);
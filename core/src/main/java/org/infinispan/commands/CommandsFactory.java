@@ -22,10 +22,12 @@
  */
 package org.infinispan.commands;
 
+import org.infinispan.EntryProcessor;
 import org.infinispan.atomic.Delta;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
@@ -33,6 +35,7 @@
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
@@ -100,6 +103,14 @@ public interface CommandsFactory {
     */
    VersionedPutKeyValueCommand buildVersionedPutKeyValueCommand(Object key, Object value, long lifespanMillis, long maxIdleTimeMillis, EntryVersion version, Set<Flag> flags);
 
+   /**
+    * Builds an InvokeCommand
+    * @param key key of the entry to process
+    * @param processor processor to run against the entry
+    * @return an InvokeCommand
+    */
+   InvokeCommand buildInvokeCommand(Object key, EntryProcessor<Object, Object, Object> processor, Set<Flag> flags);
+
    /**
     * Builds a RemoveCommand
     * @param key key to remove
@@ -161,6 +172,14 @@ public interface CommandsFactory {
     */
    GetCacheEntryCommand buildGetCacheEntryCommand(Object key, Set<Flag> flags);
 
+   /**
+    * Builds a GetAllCommand
+    * @param keys keys to get
+    * @param returnEntries whether the resulting map should hold cache entries rather than values
+    * @return a GetAllCommand
+    */
+   GetAllCommand buildGetAllCommand(Collection<Object> keys, Set<Flag> flags, boolean returnEntries);
+
    /**
     * Builds a KeySetCommand
     * @return a KeySetCommand
@@ -275,6 +294,13 @@ public interface CommandsFactory {
     */
    ClusteredGetCommand buildClusteredGetCommand(Object key, Set<Flag> flags, boolean acquireRemoteLock, GlobalTransaction gtx);
 
+   /**
+    * Builds a ClusteredGetAllCommand, which is a remote lookup of several keys owned by the same node
+    * @param keys keys to look up
+    * @return a ClusteredGetAllCommand
+    */
+   ClusteredGetAllCommand buildClusteredGetAllCommand(Collection<Object> keys, Set<Flag> flags);
+
    /**
     * Builds a LockControlCommand to control explicit remote locking
     *
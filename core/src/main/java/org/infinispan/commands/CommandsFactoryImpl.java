@@ -23,11 +23,13 @@
 package org.infinispan.commands;
 
 import org.infinispan.Cache;
+import org.infinispan.EntryProcessor;
 import org.infinispan.atomic.Delta;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.module.ModuleCommandInitializer;
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
@@ -35,6 +37,7 @@
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
@@ -191,6 +194,11 @@ public VersionedPutKeyValueCommand buildVersionedPutKeyValueCommand(Object key,
       return new VersionedPutKeyValueCommand(key, value, false, notifier, lifespanMillis, maxIdleTimeMillis, flags, version);
    }
 
+   @Override
+   public InvokeCommand buildInvokeCommand(Object key, EntryProcessor<Object, Object, Object> processor, Set<Flag> flags) {
+      return new InvokeCommand(key, processor, notifier, flags);
+   }
+
    @Override
    public RemoveCommand buildRemoveCommand(Object key, Object value, Set<Flag> flags) {
       return new RemoveCommand(key, value, notifier, flags);
@@ -263,6 +271,11 @@ public GetCacheEntryCommand buildGetCacheEntryCommand(Object key, Set<Flag> flag
       return new GetCacheEntryCommand(key, flags);
    }
 
+   @Override
+   public GetAllCommand buildGetAllCommand(Collection<Object> keys, Set<Flag> flags, boolean returnEntries) {
+      return new GetAllCommand(keys, flags, returnEntries);
+   }
+
    @Override
    public PutMapCommand buildPutMapCommand(Map<?, ?> map, long lifespan, long maxIdleTimeMillis, Set<Flag> flags) {
       return new PutMapCommand(map, notifier, lifespan, maxIdleTimeMillis, flags);
@@ -323,6 +336,11 @@ public ClusteredGetCommand buildClusteredGetCommand(Object key, Set<Flag> flags,
             configuration.dataContainer().keyEquivalence());
    }
 
+   @Override
+   public ClusteredGetAllCommand buildClusteredGetAllCommand(Collection<Object> keys, Set<Flag> flags) {
+      return new ClusteredGetAllCommand(keys, cacheName, flags);
+   }
+
    /**
     * @param isRemote true if the command is deserialized and is executed remote.
     */
@@ -332,6 +350,7 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
       switch (c.getCommandId()) {
          case PutKeyValueCommand.COMMAND_ID:
          case VersionedPutKeyValueCommand.COMMAND_ID:
+         case InvokeCommand.COMMAND_ID:
             ((PutKeyValueCommand) c).init(notifier);
             break;
          case ReplaceCommand.COMMAND_ID:
@@ -410,6 +429,10 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
                   interceptorChain, distributionManager, txTable,
                   configuration.dataContainer().keyEquivalence());
             break;
+         case ClusteredGetAllCommand.COMMAND_ID:
+            ClusteredGetAllCommand clusteredGetAllCommand = (ClusteredGetAllCommand) c;
+            clusteredGetAllCommand.initialize(icc, this, entryFactory, interceptorChain, distributionManager);
+            break;
          case LockControlCommand.COMMAND_ID:
             LockControlCommand lcc = (LockControlCommand) c;
             lcc.init(interceptorChain, icc, txTable);
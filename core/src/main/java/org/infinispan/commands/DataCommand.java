@@ -22,6 +22,7 @@
  */
 package org.infinispan.commands;
 
+import org.infinispan.distribution.KeyOwners;
 
 /**
  * Commands of this type manipulate data in the cache.
@@ -32,4 +33,14 @@
  */
 public interface DataCommand extends VisitableCommand, TopologyAffectedCommand {
    Object getKey();
+
+   /**
+    * @return the owners of the key as last located for this command, or null if they were not located yet
+    */
+   KeyOwners getKeyOwners();
+
+   /**
+    * Remembers the owners of the key, so that they are not located again while the topology does not change.
+    */
+   void setKeyOwners(KeyOwners keyOwners);
 }
\ No newline at end of file
@@ -31,6 +31,7 @@
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
@@ -114,6 +115,9 @@ public ReplicableCommand fromStream(byte id, Object[] parameters, byte type) {
             case VersionedPutKeyValueCommand.COMMAND_ID:
                command = new VersionedPutKeyValueCommand();
                break;
+            case InvokeCommand.COMMAND_ID:
+               command = new InvokeCommand();
+               break;
             case PutMapCommand.COMMAND_ID:
                command = new PutMapCommand();
                break;
@@ -213,6 +217,9 @@ public CacheRpcCommand fromStream(byte id, Object[] parameters, byte type, Strin
             case ClusteredGetCommand.COMMAND_ID:
                command = new ClusteredGetCommand(cacheName);
                break;
+            case ClusteredGetAllCommand.COMMAND_ID:
+               command = new ClusteredGetAllCommand(cacheName);
+               break;
             case StateRequestCommand.COMMAND_ID:
                command = new StateRequestCommand(cacheName);
                break;
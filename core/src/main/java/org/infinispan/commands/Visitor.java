@@ -26,6 +26,7 @@
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
@@ -49,6 +50,8 @@ public interface Visitor {
 
    Object visitVersionedPutKeyValueCommand(InvocationContext ctx, VersionedPutKeyValueCommand command) throws Throwable;
 
+   Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable;
+
    Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable;
 
    Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable;
@@ -71,6 +74,8 @@ public interface Visitor {
 
    Object visitGetCacheEntryCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable;
 
+   Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable;
+
    Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) throws Throwable;
 
    Object visitValuesCommand(InvocationContext ctx, ValuesCommand command) throws Throwable;
@@ -26,6 +26,7 @@
 import org.infinispan.commands.DataCommand;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.distribution.KeyOwners;
 import org.infinispan.lifecycle.ComponentStatus;
 
 import java.util.Set;
@@ -39,6 +40,7 @@
  */
 public abstract class AbstractDataCommand extends AbstractFlagAffectedCommand implements DataCommand {
    protected Object key;
+   private KeyOwners keyOwners;
 
    @Override
    public Object getKey() {
@@ -47,6 +49,17 @@ public Object getKey() {
 
    public void setKey(Object key) {
       this.key = key;
+      this.keyOwners = null;
+   }
+
+   @Override
+   public KeyOwners getKeyOwners() {
+      return keyOwners;
+   }
+
+   @Override
+   public void setKeyOwners(KeyOwners keyOwners) {
+      this.keyOwners = keyOwners;
    }
 
    protected AbstractDataCommand(Object key, Set<Flag> flags) {
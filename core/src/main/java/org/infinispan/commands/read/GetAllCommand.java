@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.commands.read;
+
+import org.infinispan.commands.AbstractFlagAffectedCommand;
+import org.infinispan.commands.LocalCommand;
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.Visitor;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.lifecycle.ComponentStatus;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.infinispan.util.Util.toStr;
+
+/**
+ * Implements functionality defined by {@link org.infinispan.AdvancedCache#getAll(java.util.Set)}, retrieving several
+ * keys in a single pass through the interceptor chain.
+ * <p/>
+ * The result is a map holding an entry for each key that has a value, keyed by the requested key.  The values are
+ * either the cached values or, if {@link #isReturnEntries()} is set, the {@link CacheEntry} instances themselves.
+ *
+ * @since 5.3
+ */
+public class GetAllCommand extends AbstractFlagAffectedCommand implements VisitableCommand, LocalCommand {
+   private static final Log log = LogFactory.getLog(GetAllCommand.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private Collection<Object> keys;
+   private boolean returnEntries;
+
+   public GetAllCommand(Collection<Object> keys, Set<Flag> flags, boolean returnEntries) {
+      this.keys = keys;
+      this.flags = flags;
+      this.returnEntries = returnEntries;
+   }
+
+   @Override
+   public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
+      return visitor.visitGetAllCommand(ctx, this);
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+      for (Object key : keys) {
+         CacheEntry entry = ctx.lookupEntry(key);
+         if (entry == null || entry.isNull() || entry.isRemoved()) {
+            if (trace) log.tracef("Entry for key %s not found", toStr(key));
+            continue;
+         }
+         Object value = entry.getValue();
+         if (value == null) continue;
+         map.put(key, returnEntries ? entry : value);
+      }
+      return map;
+   }
+
+   public Collection<Object> getKeys() {
+      return keys;
+   }
+
+   public void setKeys(Collection<Object> keys) {
+      this.keys = keys;
+   }
+
+   /**
+    * @return true if the result map holds {@link CacheEntry} instances rather than values
+    */
+   public boolean isReturnEntries() {
+      return returnEntries;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return 0;  // no-op
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{keys, flags, returnEntries};
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      // no-op, this command is never sent across the wire
+   }
+
+   @Override
+   public boolean shouldInvoke(InvocationContext ctx) {
+      return true;
+   }
+
+   @Override
+   public boolean ignoreCommandOnStatus(ComponentStatus status) {
+      return false;
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return false;
+   }
+
+   @Override
+   public String toString() {
+      return new StringBuilder("GetAllCommand{keys=")
+         .append(toStr(keys))
+         .append(", returnEntries=").append(returnEntries)
+         .append(", flags=").append(flags)
+         .append("}")
+         .toString();
+   }
+}
@@ -0,0 +1,230 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.commands.remote;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.Visitor;
+import org.infinispan.commands.read.GetAllCommand;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.InvocationContextContainer;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.lifecycle.ComponentStatus;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Issues a remote get call for several keys at once.  The keys are typically all owned by the target node, which
+ * looks them up with a single local {@link GetAllCommand}.
+ * <p/>
+ * The response maps each key to an {@link InternalCacheValue}, or to <tt>null</tt> if the key has no value on the
+ * target node.  Keys that are affected by an ongoing rehash are left out of the response, and the caller needs to
+ * look them up elsewhere.
+ *
+ * @see ClusteredGetCommand
+ * @since 5.3
+ */
+public class ClusteredGetAllCommand extends BaseRpcCommand implements FlagAffectedCommand {
+
+   public static final byte COMMAND_ID = 41;
+   private static final Log log = LogFactory.getLog(ClusteredGetAllCommand.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private Collection<Object> keys;
+   private Set<Flag> flags;
+
+   private InvocationContextContainer icc;
+   private CommandsFactory commandsFactory;
+   private InterceptorChain invoker;
+   private InternalEntryFactory entryFactory;
+   private DistributionManager distributionManager;
+   private int topologyId;
+
+   private ClusteredGetAllCommand() {
+      super(null); // For command id uniqueness test
+   }
+
+   public ClusteredGetAllCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   public ClusteredGetAllCommand(Collection<Object> keys, String cacheName, Set<Flag> flags) {
+      super(cacheName);
+      this.keys = keys;
+      this.flags = flags;
+   }
+
+   public void initialize(InvocationContextContainer icc, CommandsFactory commandsFactory, InternalEntryFactory entryFactory,
+         InterceptorChain interceptorChain, DistributionManager distributionManager) {
+      this.icc = icc;
+      this.commandsFactory = commandsFactory;
+      this.entryFactory = entryFactory;
+      this.invoker = interceptorChain;
+      this.distributionManager = distributionManager;
+   }
+
+   /**
+    * Invokes a logical "getAll(keys)" on a remote cache and returns results.
+    *
+    * @param context invocation context, ignored.
+    * @return a map of the keys which could be looked up to their <code>InternalCacheValue</code>, or null if no entry is
+    *         found.
+    */
+   @Override
+   @SuppressWarnings("unchecked")
+   public Map<Object, InternalCacheValue> perform(InvocationContext context) throws Throwable {
+      List<Object> localKeys = new ArrayList<Object>(keys.size());
+      for (Object key : keys) {
+         if (distributionManager != null && distributionManager.isAffectedByRehash(key)) {
+            if (trace) log.tracef("Key %s is affected by rehash, leaving it out of the response", key);
+         } else {
+            localKeys.add(key);
+         }
+      }
+      Map<Object, InternalCacheValue> values = new HashMap<Object, InternalCacheValue>(localKeys.size());
+      if (localKeys.isEmpty()) return values;
+
+      // make sure the get command doesn't perform a remote call
+      // as our caller is already calling the ClusteredGetAllCommand on all the relevant nodes
+      Set<Flag> commandFlags = EnumSet.of(Flag.SKIP_REMOTE_LOOKUP, Flag.CACHE_MODE_LOCAL);
+      if (this.flags != null) commandFlags.addAll(this.flags);
+      GetAllCommand command = commandsFactory.buildGetAllCommand(localKeys, commandFlags, true);
+      InvocationContext invocationContext = icc.createRemoteInvocationContextForCommand(command, getOrigin());
+      Map<Object, CacheEntry> entries = (Map<Object, CacheEntry>) invoker.invoke(invocationContext, command);
+      for (Object key : localKeys) {
+         CacheEntry cacheEntry = entries.get(key);
+         if (cacheEntry == null) {
+            values.put(key, null);
+         } else if (cacheEntry instanceof MVCCEntry) {
+            //this might happen if the value was fetched from a cache loader
+            values.put(key, entryFactory.createValue(cacheEntry));
+         } else {
+            values.put(key, ((InternalCacheEntry) cacheEntry).toInternalCacheValue());
+         }
+      }
+      return values;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{keys, flags};
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public void setParameters(int commandId, Object[] args) {
+      int i = 0;
+      keys = (Collection<Object>) args[i++];
+      flags = (Set<Flag>) args[i];
+   }
+
+   @Override
+   public String toString() {
+      return new StringBuilder()
+         .append("ClusteredGetAllCommand{keys=")
+         .append(keys)
+         .append(", flags=").append(flags)
+         .append("}")
+         .toString();
+   }
+
+   public Collection<Object> getKeys() {
+      return keys;
+   }
+
+   @Override
+   public Set<Flag> getFlags() {
+      return flags;
+   }
+
+   @Override
+   public void setFlags(Set<Flag> flags) {
+      this.flags = flags;
+   }
+
+   @Override
+   public void setFlags(Flag... flags) {
+      if (flags == null || flags.length == 0) return;
+      if (this.flags == null)
+         this.flags = EnumSet.copyOf(Arrays.asList(flags));
+      else
+         this.flags.addAll(Arrays.asList(flags));
+   }
+
+   @Override
+   public boolean hasFlag(Flag flag) {
+      return flags != null && flags.contains(flag);
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   @Override
+   public void setTopologyId(int topologyId) {
+      this.topologyId = topologyId;
+   }
+
+   @Override
+   public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
+      return visitor.visitUnknownCommand(ctx, this);
+   }
+
+   @Override
+   public boolean shouldInvoke(InvocationContext ctx) {
+      return true;
+   }
+
+   @Override
+   public boolean ignoreCommandOnStatus(ComponentStatus status) {
+      return false;
+   }
+}
@@ -84,7 +84,7 @@ public Object perform(InvocationContext ctx) throws Throwable {
    }
 
    protected void invalidate(InvocationContext ctx, Object keyToInvalidate) throws Throwable {
-      key = keyToInvalidate; // so that the superclass can see it
+      setKey(keyToInvalidate); // so that the superclass can see it
       super.perform(ctx);
    }
 
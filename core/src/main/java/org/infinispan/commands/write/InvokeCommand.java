@@ -0,0 +1,227 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.commands.write;
+
+import org.infinispan.EntryProcessor;
+import org.infinispan.commands.Visitor;
+import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.marshall.MarshalledValue;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
+
+import java.util.Set;
+
+import static org.infinispan.util.Util.toStr;
+
+/**
+ * Runs an {@link EntryProcessor} against a single entry.
+ * <p/>
+ * The processor is executed where the command is performed first, which in a clustered cache is the primary owner of
+ * the key.  Once performed, the command only carries the outcome of the processing: the new value of the entry or
+ * the fact that it was removed.  This is what gets replicated to the backup owners, which apply the outcome without
+ * running the processor again.  This is also why the command can reuse all the handling of a {@link
+ * PutKeyValueCommand}.  An updated entry keeps its lifespan and max idle time, which the outcome carries along.
+ *
+ * @since 5.3
+ */
+public class InvokeCommand extends PutKeyValueCommand {
+   public static final byte COMMAND_ID = 42;
+
+   private EntryProcessor<Object, Object, Object> processor;
+   private boolean resolved;
+   private boolean removal;
+   private Object previousValue;
+
+   public InvokeCommand() {
+   }
+
+   public InvokeCommand(Object key, EntryProcessor<Object, Object, Object> processor, CacheNotifier notifier, Set<Flag> flags) {
+      super(key, null, false, notifier, -1, -1, flags);
+      this.processor = processor;
+   }
+
+   @Override
+   public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
+      return visitor.visitInvokeCommand(ctx, this);
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      MVCCEntry e = (MVCCEntry) ctx.lookupEntry(key);
+      //possible as in certain situations (e.g. when locking delegation is used) we don't wrap
+      if (e == null) return null;
+
+      Object entryValue = e.isRemoved() ? null : e.getValue();
+      previousValue = entryValue;
+      Object result = null;
+      if (processor != null) {
+         // (re)run the processor, e.g. when the command is retried after a topology change
+         ProcessedEntry entry = new ProcessedEntry(key, entryValue instanceof MarshalledValue ?
+               ((MarshalledValue) entryValue).get() : entryValue);
+         result = processor.process(entry);
+         removal = entry.changed && entry.value == null && entryValue != null;
+         value = entry.changed ? entry.value : null;
+         // an updated entry keeps its expiration settings, a created one never expires
+         lifespanMillis = entryValue != null ? e.getLifespan() : -1;
+         maxIdleTimeMillis = entryValue != null ? e.getMaxIdle() : -1;
+         resolved = true;
+      }
+
+      if (removal) {
+         notifier.notifyCacheEntryRemoved(key, entryValue, entryValue, true, ctx, this);
+         e.setRemoved(true);
+         e.setValid(false);
+      } else if (value != null) {
+         notifier.notifyCacheEntryModified(key, entryValue, entryValue == null, true, ctx, this);
+         e.setValue(value);
+         if (e.isRemoved()) {
+            e.setRemoved(false);
+            e.setValid(true);
+         }
+         e.setLifespan(lifespanMillis);
+         e.setMaxIdle(maxIdleTimeMillis);
+      } else {
+         // Revert assumption that new value is to be committed
+         e.setChanged(false);
+         successful = false;
+      }
+      return result;
+   }
+
+   /**
+    * @return the processor, or null if this command was received with the outcome of the processing only
+    */
+   public EntryProcessor<Object, Object, Object> getProcessor() {
+      return processor;
+   }
+
+   /**
+    * @return true if the processor has been run and the command carries its outcome
+    */
+   public boolean isResolved() {
+      return resolved;
+   }
+
+   /**
+    * @return true if the outcome of the processing is the removal of the entry
+    */
+   public boolean isRemoval() {
+      return removal;
+   }
+
+   /**
+    * @return the value the entry had before the command was performed
+    */
+   public Object getPreviousValue() {
+      return previousValue;
+   }
+
+   @Override
+   public boolean isConditional() {
+      // the processor needs the current value, but the outcome doesn't
+      return !resolved && processor != null;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      // once performed, ship the outcome rather than the processor
+      return new Object[]{key, resolved ? null : processor, value, removal, lifespanMillis, maxIdleTimeMillis,
+                          Flag.copyWithoutRemotableFlags(flags), previousRead};
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public void setParameters(int commandId, Object[] parameters) {
+      if (commandId != COMMAND_ID) throw new IllegalStateException("Invalid method id");
+      key = parameters[0];
+      processor = (EntryProcessor<Object, Object, Object>) parameters[1];
+      value = parameters[2];
+      removal = (Boolean) parameters[3];
+      lifespanMillis = (Long) parameters[4];
+      maxIdleTimeMillis = (Long) parameters[5];
+      flags = (Set<Flag>) parameters[6];
+      previousRead = (Boolean) parameters[7];
+   }
+
+   @Override
+   public String toString() {
+      return new StringBuilder()
+            .append("InvokeCommand{key=")
+            .append(toStr(key))
+            .append(", processor=").append(processor)
+            .append(", resolved=").append(resolved)
+            .append(", value=").append(value)
+            .append(", removal=").append(removal)
+            .append(", flags=").append(flags)
+            .append(", successful=").append(successful)
+            .append("}")
+            .toString();
+   }
+
+   private static class ProcessedEntry implements EntryProcessor.MutableEntry<Object, Object> {
+      private final Object key;
+      private Object value;
+      private boolean changed;
+
+      ProcessedEntry(Object key, Object value) {
+         this.key = key;
+         this.value = value;
+      }
+
+      @Override
+      public Object getKey() {
+         return key;
+      }
+
+      @Override
+      public Object getValue() {
+         return value;
+      }
+
+      @Override
+      public boolean exists() {
+         return value != null;
+      }
+
+      @Override
+      public void setValue(Object value) {
+         if (value == null) throw new NullPointerException("Null values are not supported!");
+         this.value = value;
+         changed = true;
+      }
+
+      @Override
+      public void remove() {
+         value = null;
+         changed = true;
+      }
+   }
+}
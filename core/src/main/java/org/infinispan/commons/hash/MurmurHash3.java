@@ -407,7 +407,7 @@ else if (o instanceof long[])
       else if (o instanceof String)
          return hash(((String) o).getBytes(UTF8));
       else if (o instanceof ByteArrayKey)
-         return hash(((ByteArrayKey) o).getData());
+         return ((ByteArrayKey) o).murmurHash3(this);
       else
          return hash(o.hashCode());
    }
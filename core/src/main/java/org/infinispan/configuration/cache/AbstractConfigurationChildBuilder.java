@@ -106,6 +106,11 @@ public SitesConfigurationBuilder sites() {
       return builder.sites();
    }
 
+   @Override
+   public CompressionConfigurationBuilder compression() {
+      return builder.compression();
+   }
+
    protected ConfigurationBuilder getBuilder() {
       return builder;
    }
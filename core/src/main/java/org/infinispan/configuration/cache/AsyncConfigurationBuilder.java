@@ -37,6 +37,7 @@ public class AsyncConfigurationBuilder extends AbstractClusteringConfigurationCh
    private ReplicationQueue replicationQueue;
    private long replicationQueueInterval = TimeUnit.SECONDS.toMillis(5);
    private int replicationQueueMaxElements = 1000;
+   private long replicationQueueMaxBytes = 1024 * 1024;
    private boolean useReplicationQueue = false;
 
    protected AsyncConfigurationBuilder(ClusteringConfigurationBuilder builder) {
@@ -107,6 +108,17 @@ public AsyncConfigurationBuilder replQueueMaxElements(int elements) {
       return this;
    }
 
+   /**
+    * If useReplQueue is set to true, this attribute can be used to trigger flushing of the queue
+    * when the estimated size of the queued writes reaches a specific threshold, in bytes. Only
+    * honoured by replication queues which estimate the size of their contents, such as
+    * {@link org.infinispan.remoting.CoalescingReplicationQueue}. A value of 0 or less disables it.
+    */
+   public AsyncConfigurationBuilder replQueueMaxBytes(long bytes) {
+      this.replicationQueueMaxBytes = bytes;
+      return this;
+   }
+
    /**
     * If true, forces all async communications to be queued up and sent out periodically as a
     * batch.
@@ -129,7 +141,8 @@ void validate() {
    @Override
    public
    AsyncConfiguration create() {
-      return new AsyncConfiguration(asyncMarshalling, replicationQueue, replicationQueueInterval, replicationQueueMaxElements, useReplicationQueue);
+      return new AsyncConfiguration(asyncMarshalling, replicationQueue, replicationQueueInterval, replicationQueueMaxElements,
+            replicationQueueMaxBytes, useReplicationQueue);
    }
 
    @Override
@@ -138,6 +151,7 @@ public AsyncConfigurationBuilder read(AsyncConfiguration template) {
       this.replicationQueue = template.replQueue();
       this.replicationQueueInterval = template.replQueueInterval();
       this.replicationQueueMaxElements = template.replQueueMaxElements();
+      this.replicationQueueMaxBytes = template.replQueueMaxBytes();
       this.useReplicationQueue = template.useReplQueue();
 
       return this;
@@ -150,6 +164,7 @@ public String toString() {
             ", replicationQueue=" + replicationQueue +
             ", replicationQueueInterval=" + replicationQueueInterval +
             ", replicationQueueMaxElements=" + replicationQueueMaxElements +
+            ", replicationQueueMaxBytes=" + replicationQueueMaxBytes +
             ", useReplicationQueue=" + useReplicationQueue +
             '}';
    }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA
+ */
+package org.infinispan.configuration.cache;
+
+import org.infinispan.marshall.compression.Compressor;
+
+/**
+ * Controls the compression of marshalled payloads. Payloads at least {@link #threshold()} bytes long are compressed
+ * with the configured {@link Compressor} when they are sent to other nodes, written to a cache store or, with
+ * storeAsBinary, kept in memory in binary form. Compression is only kept when it makes the payload smaller.
+ *
+ * @see CompressionConfigurationBuilder
+ * @since 5.3
+ */
+public class CompressionConfiguration {
+
+   private final boolean enabled;
+   private final int threshold;
+   private final Compressor compressor;
+   private final boolean compressRpc;
+   private final boolean compressStores;
+   private final boolean compressBinaryValues;
+
+   CompressionConfiguration(boolean enabled, int threshold, Compressor compressor, boolean compressRpc,
+                            boolean compressStores, boolean compressBinaryValues) {
+      this.enabled = enabled;
+      this.threshold = threshold;
+      this.compressor = compressor;
+      this.compressRpc = compressRpc;
+      this.compressStores = compressStores;
+      this.compressBinaryValues = compressBinaryValues;
+   }
+
+   /**
+    * Whether payloads are compressed.
+    */
+   public boolean enabled() {
+      return enabled;
+   }
+
+   /**
+    * The size in bytes under which payloads are not compressed.
+    */
+   public int threshold() {
+      return threshold;
+   }
+
+   /**
+    * The codec used for compressing payloads.
+    */
+   public Compressor compressor() {
+      return compressor;
+   }
+
+   /**
+    * Whether the commands sent to other nodes for this cache are compressed.
+    */
+   public boolean compressRpc() {
+      return compressRpc;
+   }
+
+   /**
+    * Whether the entries written to the cache stores are compressed.
+    */
+   public boolean compressStores() {
+      return compressStores;
+   }
+
+   /**
+    * Whether the keys and values kept in binary form by storeAsBinary are compressed.
+    */
+   public boolean compressBinaryValues() {
+      return compressBinaryValues;
+   }
+
+   @Override
+   public String toString() {
+      return "CompressionConfiguration{" +
+            "enabled=" + enabled +
+            ", threshold=" + threshold +
+            ", compressor=" + compressor +
+            ", compressRpc=" + compressRpc +
+            ", compressStores=" + compressStores +
+            ", compressBinaryValues=" + compressBinaryValues +
+            '}';
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      CompressionConfiguration that = (CompressionConfiguration) o;
+
+      if (enabled != that.enabled) return false;
+      if (threshold != that.threshold) return false;
+      if (compressRpc != that.compressRpc) return false;
+      if (compressStores != that.compressStores) return false;
+      if (compressBinaryValues != that.compressBinaryValues) return false;
+      if (compressor != null ? !compressor.getClass().equals(that.compressor == null ? null : that.compressor.getClass()) : that.compressor != null)
+         return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = (enabled ? 1 : 0);
+      result = 31 * result + threshold;
+      result = 31 * result + (compressor != null ? compressor.getClass().hashCode() : 0);
+      result = 31 * result + (compressRpc ? 1 : 0);
+      result = 31 * result + (compressStores ? 1 : 0);
+      result = 31 * result + (compressBinaryValues ? 1 : 0);
+      return result;
+   }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA
+ */
+package org.infinispan.configuration.cache;
+
+import org.infinispan.config.ConfigurationException;
+import org.infinispan.configuration.Builder;
+import org.infinispan.marshall.compression.Compressor;
+import org.infinispan.marshall.compression.LZ4Compressor;
+
+/**
+ * Controls the compression of marshalled payloads. Payloads at least {@link #threshold(int)} bytes long are
+ * compressed with the configured {@link Compressor} when they are sent to other nodes, written to a cache store or,
+ * with storeAsBinary, kept in memory in binary form. Every node of the cluster must be able to decompress the
+ * payloads, so the compressor should be configured the same way on all of them.
+ *
+ * @see CompressionConfiguration
+ * @since 5.3
+ */
+public class CompressionConfigurationBuilder extends AbstractConfigurationChildBuilder implements Builder<CompressionConfiguration> {
+
+   private boolean enabled = false;
+   private int threshold = 1024;
+   private Compressor compressor = new LZ4Compressor();
+   private boolean compressRpc = true;
+   private boolean compressStores = true;
+   private boolean compressBinaryValues = true;
+
+   CompressionConfigurationBuilder(ConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   /**
+    * Enables the compression of payloads.
+    */
+   public CompressionConfigurationBuilder enable() {
+      this.enabled = true;
+      return this;
+   }
+
+   /**
+    * Disables the compression of payloads.
+    */
+   public CompressionConfigurationBuilder disable() {
+      this.enabled = false;
+      return this;
+   }
+
+   /**
+    * Sets whether payloads are compressed.
+    */
+   public CompressionConfigurationBuilder enabled(boolean enabled) {
+      this.enabled = enabled;
+      return this;
+   }
+
+   /**
+    * The size in bytes under which payloads are not compressed. Defaults to 1024.
+    */
+   public CompressionConfigurationBuilder threshold(int threshold) {
+      this.threshold = threshold;
+      return this;
+   }
+
+   /**
+    * The codec used for compressing payloads. Defaults to {@link LZ4Compressor}.
+    */
+   public CompressionConfigurationBuilder compressor(Compressor compressor) {
+      this.compressor = compressor;
+      return this;
+   }
+
+   /**
+    * Whether the commands sent to other nodes for this cache are compressed. Defaults to true.
+    */
+   public CompressionConfigurationBuilder compressRpc(boolean compressRpc) {
+      this.compressRpc = compressRpc;
+      return this;
+   }
+
+   /**
+    * Whether the entries written to the cache stores are compressed. Defaults to true.
+    */
+   public CompressionConfigurationBuilder compressStores(boolean compressStores) {
+      this.compressStores = compressStores;
+      return this;
+   }
+
+   /**
+    * Whether the keys and values kept in binary form by storeAsBinary are compressed. Defaults to true.
+    */
+   public CompressionConfigurationBuilder compressBinaryValues(boolean compressBinaryValues) {
+      this.compressBinaryValues = compressBinaryValues;
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      if (enabled) {
+         if (compressor == null)
+            throw new ConfigurationException("A compressor must be configured when compression is enabled");
+         if (threshold < 0)
+            throw new ConfigurationException("The compression threshold cannot be negative");
+      }
+   }
+
+   @Override
+   public CompressionConfiguration create() {
+      return new CompressionConfiguration(enabled, threshold, compressor, compressRpc, compressStores, compressBinaryValues);
+   }
+
+   @Override
+   public CompressionConfigurationBuilder read(CompressionConfiguration template) {
+      this.enabled = template.enabled();
+      this.threshold = template.threshold();
+      this.compressor = template.compressor();
+      this.compressRpc = template.compressRpc();
+      this.compressStores = template.compressStores();
+      this.compressBinaryValues = template.compressBinaryValues();
+      return this;
+   }
+
+   @Override
+   public String toString() {
+      return "CompressionConfigurationBuilder{" +
+            "enabled=" + enabled +
+            ", threshold=" + threshold +
+            ", compressor=" + compressor +
+            ", compressRpc=" + compressRpc +
+            ", compressStores=" + compressStores +
+            ", compressBinaryValues=" + compressBinaryValues +
+            '}';
+   }
+
+}
@@ -44,6 +44,7 @@ public class Configuration {
    private final UnsafeConfiguration unsafeConfiguration;
    private final Map<Class<?>, ?> moduleConfiguration;
    private final SitesConfiguration sites;
+   private final CompressionConfiguration compressionConfiguration;
 
    Configuration(ClusteringConfiguration clusteringConfiguration,
                  CustomInterceptorsConfiguration customInterceptorsConfiguration,
@@ -54,7 +55,8 @@ public class Configuration {
                  LoadersConfiguration loadersConfiguration,
                  LockingConfiguration lockingConfiguration, StoreAsBinaryConfiguration storeAsBinaryConfiguration,
                  TransactionConfiguration transactionConfiguration, UnsafeConfiguration unsafeConfiguration,
-                 VersioningConfiguration versioningConfiguration, List<?> modules, SitesConfiguration sites, ClassLoader cl) {
+                 VersioningConfiguration versioningConfiguration, List<?> modules, SitesConfiguration sites,
+                 CompressionConfiguration compressionConfiguration, ClassLoader cl) {
       this.clusteringConfiguration = clusteringConfiguration;
       this.customInterceptorsConfiguration = customInterceptorsConfiguration;
       this.dataContainerConfiguration = dataContainerConfiguration;
@@ -76,6 +78,7 @@ public class Configuration {
       }
       this.moduleConfiguration = Collections.unmodifiableMap(modulesMap);
       this.sites = sites;
+      this.compressionConfiguration = compressionConfiguration;
       this.classLoader = new WeakReference<ClassLoader>(cl);
    }
 
@@ -156,6 +159,10 @@ public SitesConfiguration sites() {
       return sites;
    }
 
+   public CompressionConfiguration compression() {
+      return compressionConfiguration;
+   }
+
    public VersioningConfiguration versioning() {
       return versioningConfiguration;
    }
@@ -181,6 +188,7 @@ public String toString() {
             ", versioning=" + versioningConfiguration +
             ", unsafe=" + unsafeConfiguration +
             ", sites=" + sites +
+            ", compression=" + compressionConfiguration +
             '}';
    }
 
@@ -225,6 +233,8 @@ public boolean equals(Object o) {
          return false;
       if (sites != null ? !sites.equals(that.sites) : that.sites != null)
          return false;
+      if (compressionConfiguration != null ? !compressionConfiguration.equals(that.compressionConfiguration) : that.compressionConfiguration != null)
+         return false;
       if (versioningConfiguration != null ? !versioningConfiguration.equals(that.versioningConfiguration) : that.versioningConfiguration != null)
          return false;
 
@@ -251,6 +261,7 @@ public int hashCode() {
       result = 31 * result + (versioningConfiguration != null ? versioningConfiguration.hashCode() : 0);
       result = 31 * result + (unsafeConfiguration != null ? unsafeConfiguration.hashCode() : 0);
       result = 31 * result + (sites != null ? sites.hashCode() : 0);
+      result = 31 * result + (compressionConfiguration != null ? compressionConfiguration.hashCode() : 0);
       return result;
    }
 }
@@ -50,6 +50,7 @@ public class ConfigurationBuilder implements ConfigurationChildBuilder {
    private final UnsafeConfigurationBuilder unsafe;
    private final List<Builder<?>> modules = new ArrayList<Builder<?>>();
    private final SitesConfigurationBuilder sites;
+   private final CompressionConfigurationBuilder compression;
 
    public ConfigurationBuilder() {
       this.clustering = new ClusteringConfigurationBuilder(this);
@@ -68,6 +69,7 @@ public ConfigurationBuilder() {
       this.versioning = new VersioningConfigurationBuilder(this);
       this.unsafe = new UnsafeConfigurationBuilder(this);
       this.sites = new SitesConfigurationBuilder(this);
+      this.compression = new CompressionConfigurationBuilder(this);
    }
 
    public ConfigurationBuilder classLoader(ClassLoader cl) {
@@ -179,12 +181,17 @@ public SitesConfigurationBuilder sites() {
       return sites;
    }
 
+   @Override
+   public CompressionConfigurationBuilder compression() {
+      return compression;
+   }
+
    @SuppressWarnings("unchecked")
    public void validate() {
       for (Builder<?> validatable:
             asList(clustering, customInterceptors, dataContainer, deadlockDetection, eviction, expiration, indexing,
                    invocationBatching, jmxStatistics, loaders, locking, storeAsBinary, transaction,
-                   versioning, unsafe, sites)) {
+                   versioning, unsafe, sites, compression)) {
          validatable.validate();
       }
       for (Builder<?> m : modules) {
@@ -210,7 +217,7 @@ public Configuration build(boolean validate) {
                dataContainer.create(), deadlockDetection.create(), eviction.create(),
                expiration.create(), indexing.create(), invocationBatching.create(),
                jmxStatistics.create(), loaders.create(), locking.create(), storeAsBinary.create(),
-               transaction.create(), unsafe.create(), versioning.create(), modulesConfig,sites.create() ,
+               transaction.create(), unsafe.create(), versioning.create(), modulesConfig,sites.create(), compression.create(),
                classLoader == null ? null : classLoader.get());
    }
 
@@ -231,6 +238,7 @@ public ConfigurationBuilder read(Configuration template) {
       this.transaction.read(template.transaction());
       this.unsafe.read(template.unsafe());
       this.sites.read(template.sites());
+      this.compression.read(template.compression());
       this.versioning.read(template.versioning());
 
       for (Object c : template.modules().values()) {
@@ -262,6 +270,7 @@ public String toString() {
             ", versioning=" + versioning +
             ", unsafe=" + unsafe +
             ", sites=" + sites +
+            ", compression=" + compression +
             '}';
    }
 
@@ -52,5 +52,7 @@ public interface ConfigurationChildBuilder {
 
    SitesConfigurationBuilder sites();
 
+   CompressionConfigurationBuilder compression();
+
    Configuration build();
 }
@@ -37,6 +37,7 @@ private Configurations(){
    public static boolean isSecondPhaseAsync(Configuration cfg) {
       ClusteringConfiguration clusteringCfg = cfg.clustering();
       return !cfg.transaction().syncCommitPhase()
+            || cfg.transaction().pipelinedCommit()
             || clusteringCfg.async().useReplQueue()
             || !clusteringCfg.cacheMode().isSynchronous();
    }
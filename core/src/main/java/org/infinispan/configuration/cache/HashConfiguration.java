@@ -35,15 +35,18 @@ public class HashConfiguration {
    private final int numSegments;
    private final GroupsConfiguration groupsConfiguration;
    private final StateTransferConfiguration stateTransferConfiguration;
+   private final boolean topologyAwareReads;
 
    HashConfiguration(ConsistentHashFactory consistentHashFactory, Hash hash, int numOwners, int numSegments,
-                     GroupsConfiguration groupsConfiguration, StateTransferConfiguration stateTransferConfiguration) {
+                     GroupsConfiguration groupsConfiguration, StateTransferConfiguration stateTransferConfiguration,
+                     boolean topologyAwareReads) {
       this.consistentHashFactory = consistentHashFactory;
       this.hash = hash;
       this.numOwners = numOwners;
       this.numSegments = numSegments;
       this.groupsConfiguration = groupsConfiguration;
       this.stateTransferConfiguration = stateTransferConfiguration;
+      this.topologyAwareReads = topologyAwareReads;
    }
 
    /**
@@ -133,6 +136,15 @@ public GroupsConfiguration groups() {
       return groupsConfiguration;
    }
 
+   /**
+    * If true, remote reads are first sent only to the owners closest to this node in the cluster topology (same
+    * machine, then same rack, then same site), and the other owners are contacted only when none of the closest
+    * ones returns a value.
+    */
+   public boolean topologyAwareReads() {
+      return topologyAwareReads;
+   }
+
    @Override
    public String toString() {
       return "HashConfiguration{" +
@@ -142,6 +154,7 @@ public String toString() {
             ", numSegments=" + numSegments +
             ", groupsConfiguration=" + groupsConfiguration +
             ", stateTransferConfiguration=" + stateTransferConfiguration +
+            ", topologyAwareReads=" + topologyAwareReads +
             '}';
    }
 
@@ -154,6 +167,7 @@ public boolean equals(Object o) {
 
       if (numOwners != that.numOwners) return false;
       if (numSegments != that.numSegments) return false;
+      if (topologyAwareReads != that.topologyAwareReads) return false;
       if (consistentHashFactory != null ? !consistentHashFactory.equals(that.consistentHashFactory) : that.consistentHashFactory != null)
          return false;
       if (groupsConfiguration != null ? !groupsConfiguration.equals(that.groupsConfiguration) : that.groupsConfiguration != null)
@@ -174,6 +188,7 @@ public int hashCode() {
       result = 31 * result + numSegments;
       result = 31 * result + (groupsConfiguration != null ? groupsConfiguration.hashCode() : 0);
       result = 31 * result + (stateTransferConfiguration != null ? stateTransferConfiguration.hashCode() : 0);
+      result = 31 * result + (topologyAwareReads ? 1 : 0);
       return result;
    }
 
@@ -41,6 +41,7 @@ public class HashConfigurationBuilder extends AbstractClusteringConfigurationChi
    // With the default consistent hash factory, this default gives us an even spread for clusters
    // up to 6 members and the difference between nodes stays under 20% up to 12 members.
    private int numSegments = 60;
+   private boolean topologyAwareReads = false;
 
    private final GroupsConfigurationBuilder groupsConfigurationBuilder;
 
@@ -167,6 +168,17 @@ public HashConfigurationBuilder hash(Hash hash) {
       return this;
    }
 
+   /**
+    * If true, remote reads are first sent only to the owners closest to this node in the cluster topology (same
+    * machine, then same rack, then same site), and the other owners are contacted only when none of the closest
+    * ones returns a value. This lowers the traffic between racks and sites, at the cost of a second round trip for
+    * keys that do not exist. Only useful when the transport is configured with machine, rack or site ids.
+    */
+   public HashConfigurationBuilder topologyAwareReads(boolean topologyAwareReads) {
+      this.topologyAwareReads = topologyAwareReads;
+      return this;
+   }
+
    public GroupsConfigurationBuilder groups() {
       return groupsConfigurationBuilder;
    }
@@ -180,7 +192,7 @@ public void validate() {
    public HashConfiguration create() {
       // TODO stateTransfer().create() will create a duplicate StateTransferConfiguration instance. That's ok as long as none of the stateTransfer settings are modifiable at runtime.
       return new HashConfiguration(consistentHashFactory, hash, numOwners, numSegments,
-            groupsConfigurationBuilder.create(), stateTransfer().create());
+            groupsConfigurationBuilder.create(), stateTransfer().create(), topologyAwareReads);
    }
 
    @Override
@@ -189,6 +201,7 @@ public HashConfigurationBuilder read(HashConfiguration template) {
       this.hash = template.hash();
       this.numOwners = template.numOwners();
       this.numSegments = template.numSegments();
+      this.topologyAwareReads = template.topologyAwareReads();
       this.groupsConfigurationBuilder.read(template.groups());
       return this;
    }
@@ -200,6 +213,7 @@ public String toString() {
             ", hash=" + hash +
             ", numOwners=" + numOwners +
             ", numSegments=" + numSegments +
+            ", topologyAwareReads=" + topologyAwareReads +
             ", groups=" + groupsConfigurationBuilder +
             '}';
    }
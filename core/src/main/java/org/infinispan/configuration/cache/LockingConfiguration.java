@@ -32,15 +32,17 @@ public class LockingConfiguration {
    private final IsolationLevel isolationLevel;
    private long lockAcquisitionTimeout;
    private final boolean useLockStriping;
+   private final boolean usePooledLocks;
    private final boolean writeSkewCheck;
    private boolean supportsConcurrentUpdates;
 
    LockingConfiguration(int concurrencyLevel, IsolationLevel isolationLevel, long lockAcquisitionTimeout,
-         boolean useLockStriping, boolean writeSkewCheck, boolean supportsConcurrentUpdates) {
+         boolean useLockStriping, boolean usePooledLocks, boolean writeSkewCheck, boolean supportsConcurrentUpdates) {
       this.concurrencyLevel = concurrencyLevel;
       this.isolationLevel = isolationLevel;
       this.lockAcquisitionTimeout = lockAcquisitionTimeout;
       this.useLockStriping = useLockStriping;
+      this.usePooledLocks = usePooledLocks;
       this.writeSkewCheck = writeSkewCheck;
       this.supportsConcurrentUpdates = supportsConcurrentUpdates;
    }
@@ -94,6 +96,16 @@ public boolean useLockStriping() {
       return useLockStriping;
    }
 
+   /**
+    * If true, and lock striping is not used, the locks created per entry are returned to a pool once no longer
+    * referenced, and reused for the next entries to lock instead of allocating a new lock for each of them. The pool is
+    * bounded: it keeps at most 8 free locks per stripe, the number of stripes being the concurrency level rounded up to
+    * a power of two, and locks released while it is full are discarded.
+    */
+   public boolean usePooledLocks() {
+      return usePooledLocks;
+   }
+
    /**
     * This setting is only applicable in the case of REPEATABLE_READ. When write skew check is set
     * to false, if the writer at commit time discovers that the working entry and the underlying
@@ -111,6 +123,7 @@ public String toString() {
             ", isolationLevel=" + isolationLevel +
             ", lockAcquisitionTimeout=" + lockAcquisitionTimeout +
             ", useLockStriping=" + useLockStriping +
+            ", usePooledLocks=" + usePooledLocks +
             ", writeSkewCheck=" + writeSkewCheck +
             '}';
    }
@@ -125,6 +138,7 @@ public boolean equals(Object o) {
       if (concurrencyLevel != that.concurrencyLevel) return false;
       if (lockAcquisitionTimeout != that.lockAcquisitionTimeout) return false;
       if (useLockStriping != that.useLockStriping) return false;
+      if (usePooledLocks != that.usePooledLocks) return false;
       if (writeSkewCheck != that.writeSkewCheck) return false;
       if (isolationLevel != that.isolationLevel) return false;
 
@@ -137,6 +151,7 @@ public int hashCode() {
       result = 31 * result + (isolationLevel != null ? isolationLevel.hashCode() : 0);
       result = 31 * result + (int) (lockAcquisitionTimeout ^ (lockAcquisitionTimeout >>> 32));
       result = 31 * result + (useLockStriping ? 1 : 0);
+      result = 31 * result + (usePooledLocks ? 1 : 0);
       result = 31 * result + (writeSkewCheck ? 1 : 0);
       return result;
    }
@@ -37,6 +37,7 @@ public class LockingConfigurationBuilder extends AbstractConfigurationChildBuild
    IsolationLevel isolationLevel = IsolationLevel.READ_COMMITTED;
    private long lockAcquisitionTimeout = TimeUnit.SECONDS.toMillis(10);
    private boolean useLockStriping = false;
+   private boolean usePooledLocks = false;
    boolean writeSkewCheck = false;
    boolean supportsConcurrentUpdates = true;
 
@@ -98,6 +99,17 @@ public LockingConfigurationBuilder useLockStriping(boolean b) {
       return this;
    }
 
+   /**
+    * If true, and lock striping is not used, the locks created per entry are returned to a pool once no longer
+    * referenced, and reused for the next entries to lock instead of allocating a new lock for each of them. The pool is
+    * bounded: it keeps at most 8 free locks per stripe, the number of stripes being the concurrency level rounded up to
+    * a power of two, and locks released while it is full are discarded.
+    */
+   public LockingConfigurationBuilder usePooledLocks(boolean b) {
+      this.usePooledLocks = b;
+      return this;
+   }
+
    /**
     * This setting is only applicable in the case of REPEATABLE_READ. When write skew check is set
     * to false, if the writer at commit time discovers that the working entry and the underlying
@@ -137,7 +149,7 @@ && clustering().cacheMode() != CacheMode.LOCAL)
 
    @Override
    public LockingConfiguration create() {
-      return new LockingConfiguration(concurrencyLevel, isolationLevel, lockAcquisitionTimeout, useLockStriping, writeSkewCheck, supportsConcurrentUpdates);
+      return new LockingConfiguration(concurrencyLevel, isolationLevel, lockAcquisitionTimeout, useLockStriping, usePooledLocks, writeSkewCheck, supportsConcurrentUpdates);
    }
 
    @Override
@@ -146,6 +158,7 @@ public LockingConfigurationBuilder read(LockingConfiguration template) {
       isolationLevel = template.isolationLevel();
       lockAcquisitionTimeout = template.lockAcquisitionTimeout();
       useLockStriping = template.useLockStriping();
+      usePooledLocks = template.usePooledLocks();
       writeSkewCheck = template.writeSkewCheck();
       supportsConcurrentUpdates = template.supportsConcurrentUpdates();
 
@@ -159,6 +172,7 @@ public String toString() {
             ", isolationLevel=" + isolationLevel +
             ", lockAcquisitionTimeout=" + lockAcquisitionTimeout +
             ", useLockStriping=" + useLockStriping +
+            ", usePooledLocks=" + usePooledLocks +
             ", writeSkewCheck=" + writeSkewCheck +
             ", supportsConcurrentUpdates=" + supportsConcurrentUpdates +
             '}';
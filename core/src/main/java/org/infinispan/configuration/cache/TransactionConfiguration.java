@@ -49,13 +49,15 @@ public class TransactionConfiguration {
    private final long reaperWakeUpInterval;
    private final long completedTxTimeout;
    private final TransactionProtocol transactionProtocol; //2PC or Total order protocol
+   private final boolean pipelinedCommit;
 
 
    TransactionConfiguration(boolean autoCommit, long cacheStopTimeout, boolean eagerLockingSingleNode, LockingMode lockingMode,
                             boolean syncCommitPhase, boolean syncRollbackPhase, TransactionManagerLookup transactionManagerLookup,
                             TransactionSynchronizationRegistryLookup transactionSynchronizationRegistryLookup, TransactionMode transactionMode,
                             boolean useEagerLocking, boolean useSynchronization, boolean use1PcForAutoCommitTransactions,
-                            long reaperWakeUpInterval, long completedTxTimeout, RecoveryConfiguration recovery, TransactionProtocol transactionProtocol) {
+                            long reaperWakeUpInterval, long completedTxTimeout, RecoveryConfiguration recovery, TransactionProtocol transactionProtocol,
+                            boolean pipelinedCommit) {
       this.autoCommit = autoCommit;
       this.cacheStopTimeout = cacheStopTimeout;
       this.eagerLockingSingleNode = eagerLockingSingleNode;
@@ -72,6 +74,7 @@ public class TransactionConfiguration {
       this.reaperWakeUpInterval = reaperWakeUpInterval;
       this.completedTxTimeout = completedTxTimeout;
       this.transactionProtocol = transactionProtocol;
+      this.pipelinedCommit = pipelinedCommit;
    }
 
    /**
@@ -283,6 +286,15 @@ public boolean use1PcForAutoCommitTransactions() {
       return use1PcForAutoCommitTransactions;
    }
 
+   /**
+    * If true, each participant of a two-phase commit (2PC) transaction only receives the modifications
+    * for the keys it owns and the commit phase is sent in parallel without blocking the originator.
+    * Locks on the participants are released as soon as the commit has been applied there.
+    */
+   public boolean pipelinedCommit() {
+      return pipelinedCommit;
+   }
+
    @Override
    public String toString() {
       return "TransactionConfiguration{" +
@@ -301,6 +313,7 @@ public String toString() {
             ", reaperWakeUpInterval=" + reaperWakeUpInterval +
             ", completedTxTimeout=" + completedTxTimeout +
             ", use1PcForAutoCommitTransactions=" + use1PcForAutoCommitTransactions +
+            ", pipelinedCommit=" + pipelinedCommit +
             '}';
    }
 
@@ -320,6 +333,7 @@ public boolean equals(Object o) {
          return false;
       if (useEagerLocking != that.useEagerLocking) return false;
       if (useSynchronization != that.useSynchronization) return false;
+      if (pipelinedCommit != that.pipelinedCommit) return false;
       if (lockingMode != that.lockingMode) return false;
       if (recovery != null ? !recovery.equals(that.recovery) : that.recovery != null)
          return false;
@@ -351,6 +365,7 @@ public int hashCode() {
       result = 31 * result + (recovery != null ? recovery.hashCode() : 0);
       result = 31 * result + (use1PcForAutoCommitTransactions ? 1 : 0);
       result = 31 * result + (transactionProtocol != null ? transactionProtocol.hashCode() : 0);
+      result = 31 * result + (pipelinedCommit ? 1 : 0);
       return result;
    }
 
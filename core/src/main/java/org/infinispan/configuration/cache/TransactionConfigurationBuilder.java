@@ -56,6 +56,7 @@ public class TransactionConfigurationBuilder extends AbstractConfigurationChildB
    private long reaperWakeUpInterval = 1000;
    private long completedTxTimeout = 15000;
    private TransactionProtocol transactionProtocol = TransactionProtocol.DEFAULT;
+   private boolean pipelinedCommit = false;
 
 
    TransactionConfigurationBuilder(ConfigurationBuilder builder) {
@@ -156,6 +157,17 @@ public TransactionConfigurationBuilder syncRollbackPhase(boolean b) {
       return this;
    }
 
+   /**
+    * If true, each participant of a two-phase commit (2PC) transaction only receives the modifications
+    * for the keys it owns, and the commit phase is sent to all participants in parallel without the
+    * originator waiting for it. Failures of the commit phase are logged. Locks on the participants are
+    * released as soon as the commit has been applied there. Defaults to false.
+    */
+   public TransactionConfigurationBuilder pipelinedCommit(boolean b) {
+      this.pipelinedCommit = b;
+      return this;
+   }
+
    /**
     * Configure Transaction manager lookup directly using an instance of TransactionManagerLookup.
     * Calling this method marks the cache as transactional.
@@ -276,6 +288,10 @@ public void validate() {
          if (lockingMode != LockingMode.OPTIMISTIC) {
             throw new ConfigurationException("Total Order based protocol not available with " + lockingMode);
          }
+
+         if (pipelinedCommit) {
+            throw new ConfigurationException("Total Order based protocol not available with pipelined commit");
+         }
       }
    }
 
@@ -290,7 +306,8 @@ else if (transactionMode == null)
          transactionMode = TransactionMode.NON_TRANSACTIONAL;
       return new TransactionConfiguration(autoCommit, cacheStopTimeout, eagerLockingSingleNode, lockingMode, syncCommitPhase,
             syncRollbackPhase, transactionManagerLookup, transactionSynchronizationRegistryLookup, transactionMode,
-            useEagerLocking, useSynchronization, use1PcForAutoCommitTransactions, reaperWakeUpInterval, completedTxTimeout, recovery.create(), transactionProtocol);
+            useEagerLocking, useSynchronization, use1PcForAutoCommitTransactions, reaperWakeUpInterval, completedTxTimeout, recovery.create(), transactionProtocol,
+            pipelinedCommit);
    }
 
    @Override
@@ -311,6 +328,7 @@ public TransactionConfigurationBuilder read(TransactionConfiguration template) {
       this.reaperWakeUpInterval = template.reaperWakeUpInterval();
       this.completedTxTimeout = template.completedTxTimeout();
       this.transactionProtocol = template.transactionProtocol();
+      this.pipelinedCommit = template.pipelinedCommit();
 
       return this;
    }
@@ -333,6 +351,7 @@ public String toString() {
             ", use1PcForAutoCommitTransactions=" + use1PcForAutoCommitTransactions +
             ", completedTxTimeout=" + completedTxTimeout +
             ", reaperWakeUpInterval=" + reaperWakeUpInterval +
+            ", pipelinedCommit=" + pipelinedCommit +
             '}';
    }
 
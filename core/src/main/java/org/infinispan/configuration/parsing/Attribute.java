@@ -45,6 +45,10 @@ public enum Attribute {
     CHUNK_SIZE("chunkSize"),
     CLASS("class"),
     CLUSTER_NAME("clusterName"),
+    COMPRESS_BINARY_VALUES("compressBinaryValues"),
+    COMPRESS_RPC("compressRpc"),
+    COMPRESS_STORES("compressStores"),
+    COMPRESSOR("compressor"),
     CONCURRENCY_LEVEL("concurrencyLevel"),
     DISTRIBUTED_SYNC_TIMEOUT("distributedSyncTimeout"),
     EAGER_LOCK_SINGLE_NODE("eagerLockSingleNode"),
@@ -90,6 +94,7 @@ public enum Attribute {
     NUM_VIRTUAL_NODES("numVirtualNodes"),
     ON_REHASH("onRehash"),
     PASSIVATION("passivation"),
+    PIPELINED_COMMIT("pipelinedCommit"),
     POSITION("position"),
     PRELOAD("preload"),
     PURGE_ON_STARTUP("purgeOnStartup"),
@@ -106,6 +111,7 @@ public enum Attribute {
     REMOTE_CALL_TIMEOUT("remoteCallTimeout"),
     REPL_QUEUE_INTERVAL("replQueueInterval"),
     REPL_QUEUE_CLASS("replQueueClass"),
+    REPL_QUEUE_MAX_BYTES("replQueueMaxBytes"),
     REPL_QUEUE_MAX_ELEMENTS("replQueueMaxElements"),
     REPL_TIMEOUT("replTimeout"),
     RETRY_WAIT_TIME_INCREASE_FACTOR("retryWaitTimeIncreaseFactor"),
@@ -122,14 +128,17 @@ public enum Attribute {
     SYNC_ROLLBACK_PHASE("syncRollbackPhase"),
     STRICT_PEER_TO_PEER("strictPeerToPeer"),
     THREAD_POLICY("threadPolicy"),
+    THRESHOLD("threshold"),
     THREAD_POOL_SIZE("threadPoolSize"),
     TIMEOUT("timeout"),
+    TOPOLOGY_AWARE_READS("topologyAwareReads"),
     TRANSACTION_MANAGER_LOOKUP_CLASS("transactionManagerLookupClass"),
     TRANSACTION_MODE("transactionMode"),
     TRANSPORT_CLASS("transportClass"),
     UNRELIABLE_RETURN_VALUES("unreliableReturnValues"),
     USE_EAGER_LOCKING("useEagerLocking"),
     USE_LOCK_STRIPING("useLockStriping"),
+    USE_POOLED_LOCKS("usePooledLocks"),
     SUPPORTS_CONCURRENT_UPDATES("supportsConcurrentUpdates"),
     USE_REPL_QUEUE("useReplQueue"),
     USE_SYNCHRONIZAION("useSynchronization"),
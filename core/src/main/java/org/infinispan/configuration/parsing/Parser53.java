@@ -43,6 +43,7 @@
 import org.infinispan.loaders.file.FileCacheStore;
 import org.infinispan.marshall.AdvancedExternalizer;
 import org.infinispan.marshall.Marshaller;
+import org.infinispan.marshall.compression.Compressor;
 import org.infinispan.remoting.ReplicationQueue;
 import org.infinispan.remoting.transport.Transport;
 import org.infinispan.transaction.LockingMode;
@@ -149,6 +150,9 @@ private void parseCache(final XMLExtendedStreamReader reader, final Configuratio
             case CLUSTERING:
                parseClustering(reader, holder);
                break;
+            case COMPRESSION:
+               parseCompression(reader, holder);
+               break;
             case CUSTOM_INTERCEPTORS:
                parseCustomInterceptors(reader, holder);
                break;
@@ -390,6 +394,9 @@ private void parseTransaction(final XMLExtendedStreamReader reader, final Config
             case SYNC_COMMIT_PHASE:
                builder.transaction().syncCommitPhase(Boolean.parseBoolean(value));
                break;
+            case PIPELINED_COMMIT:
+               builder.transaction().pipelinedCommit(Boolean.parseBoolean(value));
+               break;
             case SYNC_ROLLBACK_PHASE:
                builder.transaction().syncRollbackPhase(Boolean.parseBoolean(value));
                break;
@@ -517,6 +524,40 @@ private void parseStoreAsBinary(final XMLExtendedStreamReader reader, final Conf
 
    }
 
+   private void parseCompression(final XMLExtendedStreamReader reader, final ConfigurationBuilderHolder holder) throws XMLStreamException {
+      ConfigurationBuilder builder = holder.getCurrentConfigurationBuilder();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         ParseUtils.requireNoNamespaceAttribute(reader, i);
+         String value = replaceProperties(reader.getAttributeValue(i));
+         Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+         switch (attribute) {
+            case ENABLED:
+               builder.compression().enabled(Boolean.parseBoolean(value));
+               break;
+            case THRESHOLD:
+               builder.compression().threshold(Integer.parseInt(value));
+               break;
+            case COMPRESSOR:
+               builder.compression().compressor(Util.<Compressor>getInstance(value, holder.getClassLoader()));
+               break;
+            case COMPRESS_RPC:
+               builder.compression().compressRpc(Boolean.parseBoolean(value));
+               break;
+            case COMPRESS_STORES:
+               builder.compression().compressStores(Boolean.parseBoolean(value));
+               break;
+            case COMPRESS_BINARY_VALUES:
+               builder.compression().compressBinaryValues(Boolean.parseBoolean(value));
+               break;
+            default:
+               throw ParseUtils.unexpectedAttribute(reader, i);
+         }
+      }
+
+      ParseUtils.requireNoContent(reader);
+
+   }
+
    private void parseLocking(final XMLExtendedStreamReader reader, final ConfigurationBuilderHolder holder) throws XMLStreamException {
       ConfigurationBuilder builder = holder.getCurrentConfigurationBuilder();
       for (int i = 0; i < reader.getAttributeCount(); i++) {
@@ -536,6 +577,9 @@ private void parseLocking(final XMLExtendedStreamReader reader, final Configurat
             case USE_LOCK_STRIPING:
                builder.locking().useLockStriping(Boolean.parseBoolean(value));
                break;
+            case USE_POOLED_LOCKS:
+               builder.locking().usePooledLocks(Boolean.parseBoolean(value));
+               break;
             case WRITE_SKEW_CHECK:
                builder.locking().writeSkewCheck(Boolean.parseBoolean(value));
                break;
@@ -1409,6 +1453,9 @@ private void parseHash(final XMLExtendedStreamReader reader, final Configuration
             case NUM_SEGMENTS:
                builder.clustering().hash().numSegments(Integer.parseInt(value));
                break;
+            case TOPOLOGY_AWARE_READS:
+               builder.clustering().hash().topologyAwareReads(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1487,6 +1534,9 @@ private void parseAsync(final XMLExtendedStreamReader reader, final Configuratio
             case REPL_QUEUE_MAX_ELEMENTS:
                builder.clustering().async().replQueueMaxElements(Integer.parseInt(value));
                break;
+            case REPL_QUEUE_MAX_BYTES:
+               builder.clustering().async().replQueueMaxBytes(Long.parseLong(value));
+               break;
             case USE_REPL_QUEUE:
                builder.clustering().async().useReplQueue(Boolean.parseBoolean(value));
                break;
@@ -89,6 +89,7 @@ public final CacheEntry wrapEntryForReading(InvocationContext ctx, Object key) t
                mvccEntry = createWrappedEntry(key, null, null, false, false, -1);
             } else {
                mvccEntry = createWrappedEntry(key, cacheEntry.getValue(), cacheEntry.getVersion(), false, false, cacheEntry.getLifespan());
+               if (mvccEntry != null) mvccEntry.setMaxIdle(cacheEntry.getMaxIdle());
                // If the original entry has changeable state, copy state flags to the new MVCC entry.
                if (cacheEntry instanceof StateChangingEntry && mvccEntry != null)
                   mvccEntry.copyStateFlagsFrom((StateChangingEntry) cacheEntry);
@@ -240,6 +241,8 @@ private MVCCEntry wrapMvccEntryForPut(InvocationContext ctx, Object key, CacheEn
 
    private MVCCEntry wrapInternalCacheEntryForPut(InvocationContext ctx, Object key, InternalCacheEntry cacheEntry) {
       MVCCEntry mvccEntry = createWrappedEntry(key, cacheEntry.getValue(), cacheEntry.getVersion(), false, false, cacheEntry.getLifespan());
+      // keep the expiration settings for commands which don't override them
+      if (mvccEntry != null) mvccEntry.setMaxIdle(cacheEntry.getMaxIdle());
       ctx.putLookedUpEntry(key, mvccEntry);
       return mvccEntry;
    }
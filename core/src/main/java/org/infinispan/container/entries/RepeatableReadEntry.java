@@ -65,14 +65,14 @@ public void performLocalWriteSkewCheck(DataContainer container, boolean alreadyC
       // the implicit "versioning" we have in R_R creates a new wrapper "value" instance for every update.
       if (actualValue != null && actualValue != valueToCompare) {
          log.unableToCopyEntryForUpdate(getKey());
-         throw new WriteSkewException("Detected write skew.");
+         throw new WriteSkewException("Detected write skew.", key);
       }
 
       if (ice == null && !isCreated()) {
          // We still have a write-skew here.  When this wrapper was created there was an entry in the data container
          // (hence isCreated() == false) but 'ice' is now null.
          log.unableToCopyEntryForUpdate(getKey());
-         throw new WriteSkewException("Detected write skew - concurrent removal of entry!");
+         throw new WriteSkewException("Detected write skew - concurrent removal of entry!", key);
       }
    }
 }
\ No newline at end of file
@@ -94,6 +94,16 @@ public interface InvocationContextContainer {
     */
    InvocationContext createSingleKeyNonTxInvocationContext();
 
+   /**
+    * Prepares an existing, reset, single key non-transactional context for a new invocation, in the same way {@link
+    * #createSingleKeyNonTxInvocationContext()} prepares a newly created one.  Used by callers which reuse a context
+    * across invocations instead of allocating one per invocation.
+    *
+    * @param ctx the context to reuse
+    * @return the context passed in
+    */
+   InvocationContext reuseSingleKeyNonTxInvocationContext(SingleKeyNonTxInvocationContext ctx);
+
    /**
     * Returns a {@link org.infinispan.context.impl.LocalTxInvocationContext}.
     */
@@ -83,6 +83,12 @@ public InvocationContext createSingleKeyNonTxInvocationContext() {
       return result;
    }
 
+   @Override
+   public InvocationContext reuseSingleKeyNonTxInvocationContext(SingleKeyNonTxInvocationContext ctx) {
+      ctxHolder.set(ctx);
+      return ctx;
+   }
+
    @Override
    public NonTxInvocationContext createRemoteInvocationContext(Address origin) {
       NonTxInvocationContext ctx = new NonTxInvocationContext(keyEq);
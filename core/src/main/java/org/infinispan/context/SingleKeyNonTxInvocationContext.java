@@ -138,6 +138,16 @@ public Object getKey() {
       return key;
    }
 
+   /**
+    * Clears all the state of this context, so that it can be reused for a subsequent invocation.
+    */
+   @Override
+   public void reset() {
+      super.reset();
+      clearLockedKeys();
+      isLocked = false;
+   }
+
    public CacheEntry getCacheEntry() {
       return cacheEntry;
    }
@@ -95,6 +95,15 @@ public InvocationContext createSingleKeyNonTxInvocationContext() {
       return ctx;
    }
 
+   @Override
+   public InvocationContext reuseSingleKeyNonTxInvocationContext(SingleKeyNonTxInvocationContext ctx) {
+      // Required only for marshaller is required, or cluster cache loader needed
+      if (isThreadLocalRequired)
+         ctxHolder.set(ctx);
+
+      return ctx;
+   }
+
    @Override
    public InvocationContext createInvocationContext(
          boolean isWrite, int keyCount) {
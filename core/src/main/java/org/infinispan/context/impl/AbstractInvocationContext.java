@@ -125,6 +125,15 @@ public void setUseFutureReturnType(boolean useFutureReturnType) {
       setContextFlag(ContextFlag.USE_FUTURE_RETURN_TYPE, useFutureReturnType);
    }
 
+   /**
+    * Clears the context flags, origin and class loader, for contexts that are reused across invocations.
+    */
+   protected void reset() {
+      contextFlags = 0;
+      origin = null;
+      classLoader = null;
+   }
+
    @Override
    public AbstractInvocationContext clone() {
       try {
@@ -22,6 +22,7 @@
  */
 package org.infinispan.distribution;
 
+import org.infinispan.commands.DataCommand;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
@@ -80,6 +81,23 @@ public interface DistributionManager {
     */
    Address getPrimaryLocation(Object key);  //todo [anistor] this has to take an additional parameter that specifies if the lookup is for read or write
 
+   /**
+    * Locates the key of a command in the write consistent hash of the current topology.  The owners are kept in the
+    * command, so the key is only hashed again if the topology changes.
+    *
+    * @param command command to locate the key of
+    * @return the segment and owners of the key
+    */
+   KeyOwners getKeyOwners(DataCommand command);
+
+   /**
+    * Same as {@link #getLocality(Object)} for the key of a command, using the owners kept in the command.
+    *
+    * @param command command to test the key of
+    * @return the data locality of the key
+    */
+   DataLocality getLocality(DataCommand command);
+
    /**
     * Locates a list of keys in a cluster.  Like {@link #locate(Object)} the returned addresses <i>may not</i> be owners
     * of the keys if a rehash happens to be in progress or is pending, so when querying these servers, invalid responses
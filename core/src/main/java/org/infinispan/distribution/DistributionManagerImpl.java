@@ -22,15 +22,20 @@
  */
 package org.infinispan.distribution;
 
+import org.infinispan.commands.DataCommand;
 import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.OwnershipStatistics;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.Parameter;
 import org.infinispan.statetransfer.StateTransferManager;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.TopologyAwareAddress;
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.util.Immutables;
 import org.infinispan.util.InfinispanCollections;
@@ -97,6 +102,17 @@ public DataLocality getLocality(Object key) {
       boolean local = topology == null
             || topology.getWriteConsistentHash().isKeyLocalToNode(getAddress(), key);
 
+      return getLocality(local, transferInProgress);
+   }
+
+   @Override
+   public DataLocality getLocality(DataCommand command) {
+      boolean transferInProgress = stateTransferManager.isStateTransferInProgressForKey(command.getKey());
+      boolean local = stateTransferManager.getCacheTopology() == null || getKeyOwners(command).isOwner(getAddress());
+      return getLocality(local, transferInProgress);
+   }
+
+   private static DataLocality getLocality(boolean local, boolean transferInProgress) {
       if (transferInProgress) {
          if (local) {
             return DataLocality.LOCAL_UNCERTAIN;
@@ -122,6 +138,17 @@ public Address getPrimaryLocation(Object key) {
       return getConsistentHash().locatePrimaryOwner(key);
    }
 
+   @Override
+   public KeyOwners getKeyOwners(DataCommand command) {
+      CacheTopology topology = stateTransferManager.getCacheTopology();
+      KeyOwners owners = command.getKeyOwners();
+      if (owners == null || owners.getTopologyId() != topology.getTopologyId()) {
+         owners = KeyOwners.locate(topology.getWriteConsistentHash(), topology.getTopologyId(), command.getKey());
+         command.setKeyOwners(owners);
+      }
+      return owners;
+   }
+
    @Override
    public Set<Address> locateAll(Collection<Object> keys) {
       return getConsistentHash().locateAllOwners(keys);
@@ -194,4 +221,47 @@ public List<String> locateKey(@Parameter(name = "key", description = "Key to loc
       for (Address a : locate(key)) l.add(a.toString());
       return l;
    }
+
+   @ManagedAttribute(description = "Number of hash space segments this node is the primary owner of", displayName = "Primary owned segments",
+                     displayType = DisplayType.SUMMARY)
+   public int getPrimaryOwnedSegments() {
+      OwnershipStatistics stats = getOwnershipStatistics();
+      return stats == null ? 0 : stats.getPrimaryOwned(getAddress());
+   }
+
+   @ManagedAttribute(description = "Number of hash space segments this node is a backup owner of", displayName = "Backup owned segments",
+                     displayType = DisplayType.SUMMARY)
+   public int getBackupOwnedSegments() {
+      OwnershipStatistics stats = getOwnershipStatistics();
+      return stats == null ? 0 : stats.getOwned(getAddress()) - stats.getPrimaryOwned(getAddress());
+   }
+
+   @ManagedOperation(
+         description = "Shows the number of primary and backup owned segments of every member, along with its site, rack and machine.",
+         displayName = "Show segment ownership"
+   )
+   public String printOwnershipStatistics() {
+      OwnershipStatistics stats = getOwnershipStatistics();
+      if (stats == null) return "";
+      StringBuilder sb = new StringBuilder();
+      for (Address member : getWriteConsistentHash().getMembers()) {
+         int primaryOwned = stats.getPrimaryOwned(member);
+         sb.append(member).append(": primary=").append(primaryOwned)
+               .append(", backup=").append(stats.getOwned(member) - primaryOwned);
+         if (member instanceof TopologyAwareAddress) {
+            TopologyAwareAddress taa = (TopologyAwareAddress) member;
+            sb.append(", site=").append(taa.getSiteId()).append(", rack=").append(taa.getRackId())
+                  .append(", machine=").append(taa.getMachineId());
+         }
+         sb.append('\n');
+      }
+      return sb.toString();
+   }
+
+   private OwnershipStatistics getOwnershipStatistics() {
+      CacheTopology topology = stateTransferManager.getCacheTopology();
+      if (topology == null) return null;
+      ConsistentHash ch = topology.getWriteConsistentHash();
+      return new OwnershipStatistics(ch, ch.getMembers());
+   }
 }
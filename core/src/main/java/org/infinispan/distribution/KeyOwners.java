@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.distribution;
+
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.remoting.transport.Address;
+
+import java.util.List;
+
+/**
+ * The segment and owners of a key in the write consistent hash of a given topology.  A {@link
+ * org.infinispan.commands.DataCommand} keeps the owners of its key once located, so that the key is hashed only once
+ * per topology however many interceptors need its owners.
+ *
+ * @since 5.3
+ */
+public final class KeyOwners {
+   private final int topologyId;
+   private final int segment;
+   private final List<Address> owners;
+
+   private KeyOwners(int topologyId, int segment, List<Address> owners) {
+      this.topologyId = topologyId;
+      this.segment = segment;
+      this.owners = owners;
+   }
+
+   /**
+    * Locates the owners of a key, hashing it once.
+    *
+    * @param ch the write consistent hash of the topology
+    * @param topologyId the id of the topology the consistent hash belongs to
+    * @param key the key to locate
+    * @return the segment and owners of the key
+    */
+   public static KeyOwners locate(ConsistentHash ch, int topologyId, Object key) {
+      int segment = ch.getSegment(key);
+      return new KeyOwners(topologyId, segment, ch.locateOwnersForSegment(segment));
+   }
+
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   public int getSegment() {
+      return segment;
+   }
+
+   public List<Address> getOwners() {
+      return owners;
+   }
+
+   public Address getPrimaryOwner() {
+      return owners.get(0);
+   }
+
+   public boolean isOwner(Address address) {
+      return owners.contains(address);
+   }
+
+   @Override
+   public String toString() {
+      return "KeyOwners{" +
+            "topologyId=" + topologyId +
+            ", segment=" + segment +
+            ", owners=" + owners +
+            '}';
+   }
+}
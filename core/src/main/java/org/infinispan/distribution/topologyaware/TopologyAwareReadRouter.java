@@ -0,0 +1,207 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.distribution.topologyaware;
+
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.TopologyAwareAddress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders the owners of a key by their distance to this node in the cluster topology, so that remote reads can be
+ * served by the closest owners, and counts the remote reads by the distance they travel.
+ * <p/>
+ * The distance is computed from the site, rack and machine ids of the {@link TopologyAwareAddress}es: an owner on the
+ * same machine is closer than one on the same rack, which is closer than one on the same site. Owners at the same
+ * distance keep their order in the consistent hash, so the primary owner is still preferred among equals. Without
+ * topology information all the owners are at the same distance.
+ *
+ * @since 5.3
+ */
+@MBean(objectName = "TopologyAwareReads", description = "Routes remote reads to the closest owners and counts remote reads by topology distance")
+public class TopologyAwareReadRouter {
+
+   private static final int SAME_MACHINE = 0;
+   private static final int SAME_RACK = 1;
+   private static final int SAME_SITE = 2;
+   private static final int OTHER_SITE = 3;
+   private static final int UNKNOWN = 4;
+
+   private final AtomicLong[] remoteReads = new AtomicLong[UNKNOWN + 1];
+
+   private RpcManager rpcManager;
+   private Configuration configuration;
+   private boolean topologyAwareReads;
+   private volatile boolean statisticsEnabled;
+
+   private final Comparator<Address> distanceComparator = new Comparator<Address>() {
+      @Override
+      public int compare(Address a1, Address a2) {
+         return distance(a1) - distance(a2);
+      }
+   };
+
+   public TopologyAwareReadRouter() {
+      for (int i = 0; i < remoteReads.length; i++) {
+         remoteReads[i] = new AtomicLong(0);
+      }
+   }
+
+   @Inject
+   public void inject(RpcManager rpcManager, Configuration configuration) {
+      this.rpcManager = rpcManager;
+      this.configuration = configuration;
+   }
+
+   @Start
+   public void start() {
+      topologyAwareReads = configuration.clustering().hash().topologyAwareReads();
+      statisticsEnabled = configuration.jmxStatistics().enabled();
+   }
+
+   /**
+    * Whether remote reads should be sent to the closest owners first.
+    */
+   public boolean isTopologyAwareReads() {
+      return topologyAwareReads;
+   }
+
+   /**
+    * Returns a copy of the given owners, closest to this node first. Owners at the same distance keep their relative
+    * order.
+    */
+   public List<Address> sortByDistance(List<Address> owners) {
+      List<Address> sorted = new ArrayList<Address>(owners);
+      // Collections.sort is stable, so the primary owner stays first among equally distant owners
+      Collections.sort(sorted, distanceComparator);
+      return sorted;
+   }
+
+   /**
+    * Returns the owners that are as close to this node as the first owner of a list sorted with
+    * {@link #sortByDistance(java.util.List)}.
+    */
+   public List<Address> closestOwners(List<Address> sortedOwners) {
+      if (sortedOwners.isEmpty()) return sortedOwners;
+      int closest = distance(sortedOwners.get(0));
+      int i = 1;
+      while (i < sortedOwners.size() && distance(sortedOwners.get(i)) == closest) i++;
+      return sortedOwners.subList(0, i);
+   }
+
+   /**
+    * Returns the owner closest to this node, the earliest in the list if several are equally close.
+    */
+   public Address closestOwner(List<Address> owners) {
+      Address closest = null;
+      int closestDistance = Integer.MAX_VALUE;
+      for (Address owner : owners) {
+         int d = distance(owner);
+         if (d < closestDistance) {
+            closest = owner;
+            closestDistance = d;
+         }
+      }
+      return closest;
+   }
+
+   /**
+    * Records a remote read sent to the given node.
+    */
+   public void remoteReadSent(Address target) {
+      if (statisticsEnabled) remoteReads[distance(target)].incrementAndGet();
+   }
+
+   private int distance(Address target) {
+      Address self = rpcManager.getAddress();
+      if (!(self instanceof TopologyAwareAddress) || !(target instanceof TopologyAwareAddress))
+         return UNKNOWN;
+      TopologyAwareAddress local = (TopologyAwareAddress) self;
+      TopologyAwareAddress remote = (TopologyAwareAddress) target;
+      if (local.isSameMachine(remote)) return SAME_MACHINE;
+      if (local.isSameRack(remote)) return SAME_RACK;
+      if (local.isSameSite(remote)) return SAME_SITE;
+      return OTHER_SITE;
+   }
+
+   @ManagedAttribute(description = "Number of remote reads sent to a node on the same machine", displayName = "Same machine remote reads",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getSameMachineRemoteReads() {
+      return remoteReads[SAME_MACHINE].get();
+   }
+
+   @ManagedAttribute(description = "Number of remote reads sent to a node on another machine of the same rack", displayName = "Same rack remote reads",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getSameRackRemoteReads() {
+      return remoteReads[SAME_RACK].get();
+   }
+
+   @ManagedAttribute(description = "Number of remote reads sent to a node on another rack of the same site", displayName = "Cross rack remote reads",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getCrossRackRemoteReads() {
+      return remoteReads[SAME_SITE].get();
+   }
+
+   @ManagedAttribute(description = "Number of remote reads sent to a node on another site", displayName = "Cross site remote reads",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getCrossSiteRemoteReads() {
+      return remoteReads[OTHER_SITE].get();
+   }
+
+   @ManagedAttribute(description = "Number of remote reads sent to a node without topology information", displayName = "Remote reads without topology",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getUnknownDistanceRemoteReads() {
+      return remoteReads[UNKNOWN].get();
+   }
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", displayName = "Statistics enabled",
+                     dataType = DataType.TRAIT, writable = true)
+   public boolean isStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   public void setStatisticsEnabled(boolean statisticsEnabled) {
+      this.statisticsEnabled = statisticsEnabled;
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      for (AtomicLong counter : remoteReads) {
+         counter.set(0);
+      }
+   }
+}
@@ -28,6 +28,7 @@
 import org.infinispan.factories.annotations.DefaultFactoryFor;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.SurvivesRestarts;
+import org.infinispan.factories.components.ComponentAccessor;
 import org.infinispan.factories.components.ComponentMetadata;
 import org.infinispan.factories.components.ComponentMetadataRepo;
 import org.infinispan.factories.scopes.Scope;
@@ -137,17 +138,7 @@ public void wireDependencies(Object target) throws ConfigurationException {
          if (metadata != null && metadata.getInjectMethods() != null && metadata.getInjectMethods().length != 0) {
             // search for anything we need to inject
             for (ComponentMetadata.InjectMetadata injectMetadata : metadata.getInjectMethods()) {
-               Class<?>[] methodParameters = injectMetadata.getParameterClasses();
-               if (methodParameters == null) {
-                  methodParameters = ReflectionUtil.toClassArray(injectMetadata.getParameters());
-                  injectMetadata.setParameterClasses(methodParameters);
-               }
-
-               Method method = injectMetadata.getMethod();
-               if (method == null) {
-                  method = ReflectionUtil.findMethod(targetClass, injectMetadata.getMethodName(), methodParameters);
-                  injectMetadata.setMethod(method);
-               }
+               resolveInjectMethod(metadata, injectMetadata, targetClass);
                invokeInjectionMethod(target, injectMetadata);
             }
          }
@@ -239,13 +230,50 @@ private void invokeInjectionMethod(Object o, ComponentMetadata.InjectMetadata in
       if (dependencies.length > 0) {
          Object[] params = new Object[dependencies.length];
          if (getLog().isTraceEnabled())
-            getLog().tracef("Injecting dependencies for method [%s] on an instance of [%s].", injectMetadata.getMethod(), o.getClass().getName());
+            getLog().tracef("Injecting dependencies for method [%s] on an instance of [%s].", injectMetadata.getMethodName(), o.getClass().getName());
          for (int i = 0; i < dependencies.length; i++) {
             String name = injectMetadata.getParameterName(i);
             boolean nameIsFQCN = !injectMetadata.isParameterNameSet(i);
             params[i] = getOrCreateComponent(dependencies[i], name, nameIsFQCN);
          }
-         ReflectionUtil.invokeAccessibly(o, injectMetadata.getMethod(), params);
+         ComponentAccessor accessor = injectMetadata.getAccessor();
+         if (accessor != null)
+            invokeDirectly(o, accessor, injectMetadata.getAccessorMethodId(), injectMetadata.getMethodName(), params);
+         else
+            ReflectionUtil.invokeAccessibly(o, injectMetadata.getMethod(), params);
+      }
+   }
+
+   /**
+    * Resolves how to invoke an injection method: directly, if a {@link ComponentAccessor} was generated for the
+    * component and knows the method, and using reflection otherwise.
+    */
+   private void resolveInjectMethod(ComponentMetadata metadata, ComponentMetadata.InjectMetadata injectMetadata, Class<?> componentClass)
+         throws ClassNotFoundException {
+      Class<?>[] parameterClasses = injectMetadata.getParameterClasses();
+      if (parameterClasses == null) {
+         parameterClasses = ReflectionUtil.toClassArray(injectMetadata.getParameters());
+         injectMetadata.setParameterClasses(parameterClasses);
+      }
+
+      if (injectMetadata.getAccessor() != null || injectMetadata.getMethod() != null) return;
+
+      ComponentAccessor accessor = getComponentMetadataRepo().findComponentAccessor(metadata, componentClass);
+      int methodId = accessor == null ? ComponentAccessor.UNKNOWN_METHOD :
+            accessor.getMethodId(injectMetadata.getMethodName(), injectMetadata.getParameters());
+      if (methodId != ComponentAccessor.UNKNOWN_METHOD) {
+         injectMetadata.setAccessor(accessor, methodId);
+      } else {
+         injectMetadata.setMethod(ReflectionUtil.findMethod(componentClass, injectMetadata.getMethodName(), parameterClasses));
+      }
+   }
+
+   private static void invokeDirectly(Object instance, ComponentAccessor accessor, int methodId, String methodName, Object[] parameters) {
+      try {
+         accessor.invoke(instance, methodId, parameters);
+      } catch (Throwable t) {
+         throw new CacheException("Unable to invoke method " + methodName + " on object of type " + instance.getClass().getSimpleName() +
+                                        (parameters != null ? " with parameters " + Arrays.asList(parameters) : ""), t);
       }
    }
 
@@ -482,9 +510,16 @@ private PrioritizedMethod[] processPrioritizedMethods(ComponentMetadata.Prioriti
             retval[i].component = c;
             retval[i].metadata = methodMetadata[i];
 
-            if (methodMetadata[i].getMethod() == null) {
-               Method method = ReflectionUtil.findMethod(componentClass, methodMetadata[i].getMethodName());
-               methodMetadata[i].setMethod(method);
+            if (methodMetadata[i].getMethod() == null && methodMetadata[i].getAccessor() == null) {
+               ComponentAccessor accessor = getComponentMetadataRepo().findComponentAccessor(c.metadata, componentClass);
+               int methodId = accessor == null ? ComponentAccessor.UNKNOWN_METHOD :
+                     accessor.getMethodId(methodMetadata[i].getMethodName(), null);
+               if (methodId != ComponentAccessor.UNKNOWN_METHOD) {
+                  methodMetadata[i].setAccessor(accessor, methodId);
+               } else {
+                  Method method = ReflectionUtil.findMethod(componentClass, methodMetadata[i].getMethodName());
+                  methodMetadata[i].setMethod(method);
+               }
             }
          }
          if (retval.length > 1) Arrays.sort(retval);
@@ -653,7 +688,7 @@ private void invokeStartMethods(Collection<PrioritizedMethod> startMethods) {
       boolean traceEnabled = getLog().isTraceEnabled();
       for (PrioritizedMethod em : startMethods) {
          if (traceEnabled)
-            getLog().tracef("Invoking start method %s on component %s", em.metadata.getMethod(), em.component.getName());
+            getLog().tracef("Invoking start method %s on component %s", em.metadata.getMethodName(), em.component.getName());
          em.invoke();
       }
    }
@@ -688,7 +723,7 @@ private void internalStop() {
       boolean traceEnabled = getLog().isTraceEnabled();
       for (PrioritizedMethod em : stopMethods) {
          if (traceEnabled)
-            getLog().tracef("Invoking stop method %s on component %s", em.metadata.getMethod(), em.component.getName());
+            getLog().tracef("Invoking stop method %s on component %s", em.metadata.getMethodName(), em.component.getName());
          try {
             em.invoke();
          } catch (Throwable t) {
@@ -831,18 +866,7 @@ public void buildInjectionMethodsList() throws ClassNotFoundException {
          injectionMethods = metadata.getInjectMethods();
          if (injectionMethods != null && injectionMethods.length > 0) {
             Class<?> clazz = instance.getClass();
-            for (ComponentMetadata.InjectMetadata meta: injectionMethods) {
-               Class<?>[] parameterClasses = meta.getParameterClasses();
-               if (parameterClasses == null) {
-                  parameterClasses = ReflectionUtil.toClassArray(meta.getParameters());
-                  meta.setParameterClasses(parameterClasses);
-               }
-               Method m = meta.getMethod();
-               if (m == null) {
-                  m = ReflectionUtil.findMethod(clazz, meta.getMethodName(), parameterClasses);
-                  meta.setMethod(m);
-               }
-            }
+            for (ComponentMetadata.InjectMetadata meta: injectionMethods) resolveInjectMethod(metadata, meta, clazz);
          }
       }
    }
@@ -883,13 +907,17 @@ public int hashCode() {
       }
 
       void invoke() {
-         ReflectionUtil.invokeAccessibly(component.instance, metadata.getMethod(), null);
+         ComponentAccessor accessor = metadata.getAccessor();
+         if (accessor != null)
+            invokeDirectly(component.instance, accessor, metadata.getAccessorMethodId(), metadata.getMethodName(), null);
+         else
+            ReflectionUtil.invokeAccessibly(component.instance, metadata.getMethod(), null);
       }
 
       @Override
       public String toString() {
          return "PrioritizedMethod{" +
-               "method=" + metadata.getMethod().getName() +
+               "method=" + metadata.getMethodName() +
                ", priority=" + metadata.getPriority() +
                '}';
       }
@@ -34,6 +34,7 @@
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.lifecycle.ModuleLifecycle;
 import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.marshall.compression.PayloadCompressor;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.remoting.responses.ResponseGenerator;
 import org.infinispan.statetransfer.StateTransferManager;
@@ -66,6 +67,7 @@ public final class ComponentRegistry extends AbstractComponentRegistry {
    private ResponseGenerator responseGenerator;
    private CommandsFactory commandsFactory;
    private TotalOrderManager totalOrderManager;
+   private PayloadCompressor payloadCompressor;
 
    protected final WeakReference<ClassLoader> defaultClassLoader;
 
@@ -283,6 +285,13 @@ public CommandsFactory getCommandsFactory() {
       return commandsFactory;
    }
 
+   /**
+    * Caching shortcut for #getComponent(PayloadCompressor.class);
+    */
+   public PayloadCompressor getPayloadCompressor() {
+      return payloadCompressor;
+   }
+
    /**
     * Invoked last after all services are wired
     */
@@ -292,6 +301,7 @@ public void cacheComponents() {
       responseGenerator = getOrCreateComponent(ResponseGenerator.class);
       commandsFactory = getLocalComponent(CommandsFactory.class);
       totalOrderManager = getOrCreateComponent(TotalOrderManager.class);
+      payloadCompressor = getOrCreateComponent(PayloadCompressor.class);
    }
 
    @Override
@@ -33,6 +33,7 @@
 import org.infinispan.context.TransactionalInvocationContextContainer;
 import org.infinispan.distribution.L1Manager;
 import org.infinispan.distribution.L1ManagerImpl;
+import org.infinispan.distribution.topologyaware.TopologyAwareReadRouter;
 import org.infinispan.eviction.ActivationManager;
 import org.infinispan.eviction.ActivationManagerImpl;
 import org.infinispan.eviction.EvictionManager;
@@ -43,16 +44,19 @@
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.loaders.CacheLoaderManager;
 import org.infinispan.loaders.CacheLoaderManagerImpl;
+import org.infinispan.marshall.compression.PayloadCompressor;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.notifications.cachelistener.CacheNotifierImpl;
 import org.infinispan.statetransfer.StateTransferLock;
 import org.infinispan.statetransfer.StateTransferLockImpl;
+import org.infinispan.stats.HotKeyProfiler;
 import org.infinispan.transaction.TransactionCoordinator;
 import org.infinispan.transaction.totalorder.TotalOrderManager;
 import org.infinispan.transaction.xa.TransactionFactory;
 import org.infinispan.transaction.xa.recovery.RecoveryAdminOperations;
 import org.infinispan.util.concurrent.locks.containers.LockContainer;
 import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPerEntryLockContainer;
+import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPooledLockContainer;
 import org.infinispan.util.concurrent.locks.containers.OwnableReentrantStripedLockContainer;
 import org.infinispan.util.concurrent.locks.containers.ReentrantPerEntryLockContainer;
 import org.infinispan.util.concurrent.locks.containers.ReentrantStripedLockContainer;
@@ -75,7 +79,8 @@
                               TransactionCoordinator.class, RecoveryAdminOperations.class, StateTransferLock.class,
                               ClusteringDependentLogic.class, LockContainer.class,
                               L1Manager.class, TransactionFactory.class, BackupSender.class,
-                              TotalOrderManager.class})
+                              TotalOrderManager.class, HotKeyProfiler.class,
+                              TopologyAwareReadRouter.class, PayloadCompressor.class})
 public class EmptyConstructorNamedCacheFactory extends AbstractNamedCacheComponentFactory implements AutoInstantiableFactory {
 
    @Override
@@ -124,6 +129,8 @@ public <T> T construct(Class<T> componentType) {
             LockContainer<?> lockContainer = configuration.locking().useLockStriping() ?
                   notTransactional ? new ReentrantStripedLockContainer(configuration.locking().concurrencyLevel())
                         : new OwnableReentrantStripedLockContainer(configuration.locking().concurrencyLevel()) :
+                  configuration.locking().usePooledLocks() ?
+                        new OwnableReentrantPooledLockContainer(configuration.locking().concurrencyLevel()) :
                   notTransactional ? new ReentrantPerEntryLockContainer(configuration.locking().concurrencyLevel())
                         : new OwnableReentrantPerEntryLockContainer(configuration.locking().concurrencyLevel());
             return (T) lockContainer;
@@ -133,6 +140,12 @@ public <T> T construct(Class<T> componentType) {
             return (T) new TransactionFactory();
          } else if (componentType.equals(BackupSender.class)) {
             return (T) new BackupSenderImpl(globalConfiguration.sites().localSite());
+         } else if (componentType.equals(HotKeyProfiler.class)) {
+            return (T) new HotKeyProfiler();
+         } else if (componentType.equals(TopologyAwareReadRouter.class)) {
+            return (T) new TopologyAwareReadRouter();
+         } else if (componentType.equals(PayloadCompressor.class)) {
+            return (T) new PayloadCompressor();
          } else if (componentType.equals(TotalOrderManager.class)) {
             return (T) new TotalOrderManager();
          }
@@ -52,7 +52,7 @@ public class NamedExecutorsFactory extends NamedComponentFactory implements Auto
 
    private ExecutorService notificationExecutor;
    private ExecutorService asyncTransportExecutor;
-   private ExecutorService remoteCommandsExecutor;
+   private BlockingTaskAwareExecutorService remoteCommandsExecutor;
    private ScheduledExecutorService evictionExecutor;
    private ScheduledExecutorService asyncReplicationExecutor;
    private BlockingTaskAwareExecutorService totalOrderExecutor;
@@ -105,7 +105,7 @@ public <T> T construct(Class<T> componentType, String componentName) {
          } else if (componentName.equals(REMOTE_COMMAND_EXECUTOR)) {
             synchronized (this) {
                if (remoteCommandsExecutor == null) {
-                  remoteCommandsExecutor = buildAndConfigureExecutorService(
+                  remoteCommandsExecutor = buildAndConfigureBlockingTaskAwareExecutorService(
                         globalConfiguration.remoteCommandsExecutor().factory(),
                         globalConfiguration.remoteCommandsExecutor().properties(), componentName, nodeName);
                }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA
+ */
+
+package org.infinispan.factories.components;
+
+import java.util.Arrays;
+
+/**
+ * Base class of the {@link ComponentAccessor}s generated at build-time by the <tt>ComponentAccessorGenerator</tt> of
+ * the build tools, which relies on {@link #getAccessorClassName(String)} to name them.
+ * <p />
+ * The accessor of a component class handles the methods declared by that class, and extends the accessor of its
+ * superclass for the inherited ones.  Method ids are allocated from {@link #NEXT_ID} of the superclass accessor
+ * onwards, so they are unique along the hierarchy.
+ *
+ * @since 5.3
+ */
+public abstract class AbstractComponentAccessor implements ComponentAccessor {
+
+   public static final int NEXT_ID = 0;
+
+   private static final String[] NO_PARAMETERS = {};
+
+   /**
+    * @return the name of the accessor generated for the given component class
+    */
+   public static String getAccessorClassName(String componentClassName) {
+      return componentClassName.replace('$', '_') + "_ComponentAccessor";
+   }
+
+   @Override
+   public int getMethodId(String methodName, String[] parameterTypes) {
+      return UNKNOWN_METHOD;
+   }
+
+   @Override
+   public void invoke(Object component, int methodId, Object[] parameters) throws Throwable {
+      throw new IllegalArgumentException("Unknown method id " + methodId + " for component " + component.getClass().getName());
+   }
+
+   protected static boolean matches(String methodName, String[] parameterTypes, String expectedMethodName,
+                                    String... expectedParameterTypes) {
+      return methodName.equals(expectedMethodName)
+            && Arrays.equals(parameterTypes == null ? NO_PARAMETERS : parameterTypes, expectedParameterTypes);
+   }
+}
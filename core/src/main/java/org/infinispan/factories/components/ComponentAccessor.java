@@ -0,0 +1,58 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA
+ */
+
+package org.infinispan.factories.components;
+
+/**
+ * Invokes the methods of a component annotated with {@link org.infinispan.factories.annotations.Inject},
+ * {@link org.infinispan.factories.annotations.Start} or {@link org.infinispan.factories.annotations.Stop} directly,
+ * rather than through reflection.
+ * <p />
+ * Implementations are generated at build-time for the components of the Infinispan modules, by the
+ * <tt>ComponentAccessorGenerator</tt> of the build tools, and located by the {@link ComponentMetadataRepo}.  They only
+ * handle non-private methods; components without an accessor, and private methods, are invoked using reflection.
+ *
+ * @since 5.3
+ */
+public interface ComponentAccessor {
+
+   /**
+    * Returned by {@link #getMethodId(String, String[])} for methods that can't be invoked by this accessor.
+    */
+   int UNKNOWN_METHOD = -1;
+
+   /**
+    * Looks up the id of a method, to be passed in to {@link #invoke(Object, int, Object[])}.
+    *
+    * @param methodName     name of the method
+    * @param parameterTypes fully qualified names of the method's parameter types, or null if it has no parameters
+    * @return the id of the method, or {@link #UNKNOWN_METHOD} if it can't be invoked by this accessor
+    */
+   int getMethodId(String methodName, String[] parameterTypes);
+
+   /**
+    * Invokes a method on a component.
+    *
+    * @param component  component to invoke the method on
+    * @param methodId   id of the method, as returned by {@link #getMethodId(String, String[])}
+    * @param parameters method parameters, or null if it has no parameters
+    * @throws Throwable anything thrown by the method itself
+    */
+   void invoke(Object component, int methodId, Object[] parameters) throws Throwable;
+}
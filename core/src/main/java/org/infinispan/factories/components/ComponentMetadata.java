@@ -205,6 +205,8 @@ public String toString() {
    public static class PrioritizedMethodMetadata implements Serializable {
       String methodName;
       transient Method method;
+      transient ComponentAccessor accessor;
+      transient int accessorMethodId;
       int priority;
 
       public PrioritizedMethodMetadata(String methodName, int priority) {
@@ -224,6 +226,19 @@ public void setMethod(Method method) {
          this.method = method;
       }
 
+      public ComponentAccessor getAccessor() {
+         return accessor;
+      }
+
+      public int getAccessorMethodId() {
+         return accessorMethodId;
+      }
+
+      public void setAccessor(ComponentAccessor accessor, int methodId) {
+         this.accessor = accessor;
+         this.accessorMethodId = methodId;
+      }
+
       public int getPriority() {
          return priority;
       }
@@ -239,6 +254,8 @@ public static class InjectMetadata implements Serializable {
 
       String methodName;
       transient Method method;
+      transient ComponentAccessor accessor;
+      transient int accessorMethodId;
       String[] parameters;
       transient Class<?>[] parameterClasses;
       Map<Integer, String> parameterNames; 
@@ -277,6 +294,19 @@ public synchronized void setMethod(Method method) {
          this.method = method;
       }
 
+      public synchronized ComponentAccessor getAccessor() {
+         return accessor;
+      }
+
+      public synchronized int getAccessorMethodId() {
+         return accessorMethodId;
+      }
+
+      public synchronized void setAccessor(ComponentAccessor accessor, int methodId) {
+         this.accessor = accessor;
+         this.accessorMethodId = methodId;
+      }
+
       public synchronized Class<?>[] getParameterClasses() {
          return parameterClasses;
       }
@@ -29,8 +29,12 @@
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This is a repository of component metadata, which is populated when the Infinispan core jar is loaded up.  Actual
@@ -41,9 +45,11 @@
  * @see ComponentMetadata
  */
 public class ComponentMetadataRepo {
+   private static final Object NO_ACCESSOR = new Object();
    final Map<String, ComponentMetadata> componentMetadataMap = new HashMap<String, ComponentMetadata>(128);
    final Map<String, String> factories = new HashMap<String, String>(16);
    private final ComponentMetadata dependencyFreeComponent = new ComponentMetadata();
+   private final ConcurrentMap<String, Object> accessors = new ConcurrentHashMap<String, Object>(128);
 
    @SuppressWarnings("unchecked")
    public synchronized void readMetadata(URL metadataFile) throws IOException, ClassNotFoundException {
@@ -106,6 +112,47 @@ public ComponentMetadata findComponentMetadata(String componentName) {
       return componentMetadataMap.get(componentName);
    }
 
+   /**
+    * Locates the accessor generated at build-time to invoke the injection and lifecycle methods of a component
+    * directly.
+    *
+    * @param metadata       metadata of the component
+    * @param componentClass class of the component instance, which may be a subclass of the class the metadata was
+    *                       generated for
+    * @return an accessor, or null if none was generated for the component, e.g. because it belongs to a third party
+    *         module, in which case its methods need to be invoked using reflection
+    */
+   public ComponentAccessor findComponentAccessor(ComponentMetadata metadata, Class<?> componentClass) {
+      String componentName = metadata.getName();
+      if (componentName == null) return null;
+
+      Object accessor = accessors.get(componentName);
+      if (accessor == null) {
+         // load the accessor along with the class the metadata was generated for
+         Class<?> metadataClass = componentClass;
+         while (metadataClass != null && !metadataClass.getName().equals(componentName))
+            metadataClass = metadataClass.getSuperclass();
+         ClassLoader cl = (metadataClass != null ? metadataClass : componentClass).getClassLoader();
+         try {
+            accessor = Class.forName(AbstractComponentAccessor.getAccessorClassName(componentName), true, cl).newInstance();
+         } catch (ClassNotFoundException e) {
+            accessor = NO_ACCESSOR;
+         } catch (Exception e) {
+            throw new CacheException("Unable to instantiate the accessor for component " + componentName, e);
+         }
+         Object existing = accessors.putIfAbsent(componentName, accessor);
+         if (existing != null) accessor = existing;
+      }
+      return accessor == NO_ACCESSOR ? null : (ComponentAccessor) accessor;
+   }
+
+   /**
+    * @return the metadata of all the components registered in this repository
+    */
+   public synchronized Collection<ComponentMetadata> getAllComponentMetadata() {
+      return new ArrayList<ComponentMetadata>(componentMetadataMap.values());
+   }
+
    /**
     * Locates the fully qualified class name of a factory capable of constructing an instance of <pre>componentType</pre>.
     * Typically this is a factory annotated with {@link DefaultFactoryFor}.
@@ -138,6 +185,8 @@ public void initialize(Iterable<ModuleMetadataFileFinder> moduleMetadataFiles, C
             throw new CacheException("Unable to load component metadata in file " + finder.getMetadataFilename(), e);
          }
       }
+
+      accessors.clear();
    }
 
    /**
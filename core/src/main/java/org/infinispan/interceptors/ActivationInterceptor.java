@@ -23,6 +23,7 @@
 package org.infinispan.interceptors;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -108,6 +109,13 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return retval;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      Object retval = super.visitGetAllCommand(ctx, command);
+      removeFromStoreIfNeeded(command.getKeys().toArray());
+      return retval;
+   }
+
    @Override
    protected void sendNotification(Object key, Object value, boolean pre,
          InvocationContext ctx, FlagAffectedCommand cmd) {
@@ -23,6 +23,7 @@
 package org.infinispan.interceptors;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.*;
 import org.infinispan.configuration.cache.CacheStoreConfiguration;
@@ -122,6 +123,17 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return invokeNextInterceptor(ctx, command);
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (enabled) {
+         // there's no multi-key lookup in the loader SPI, but all keys are loaded in this one pass
+         for (Object key : command.getKeys()) {
+            loadIfNeededAndUpdateStats(ctx, key, true, command);
+         }
+      }
+      return invokeNextInterceptor(ctx, command);
+   }
+
    @Override
    public Object visitInvalidateCommand(InvocationContext ctx, InvalidateCommand command) throws Throwable {
       if (enabled) {
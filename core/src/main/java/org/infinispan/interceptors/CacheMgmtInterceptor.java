@@ -22,11 +22,13 @@
  */
 package org.infinispan.interceptors;
 
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.EvictCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.VersionedPutKeyValueCommand;
 import org.infinispan.container.DataContainer;
 import org.infinispan.context.InvocationContext;
@@ -38,6 +40,7 @@
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.jmx.annotations.Units;
+import org.infinispan.stats.HotKeyProfiler;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -66,6 +69,7 @@ public class CacheMgmtInterceptor extends JmxStatsCommandInterceptor {
    private final AtomicLong removeMisses = new AtomicLong(0);
 
    private DataContainer dataContainer;
+   private HotKeyProfiler hotKeyProfiler;
 
    private static final Log log = LogFactory.getLog(CacheMgmtInterceptor.class);
 
@@ -76,8 +80,9 @@ protected Log getLog() {
 
    @Inject
    @SuppressWarnings("unused")
-   public void setDependencies(DataContainer dataContainer) {
+   public void setDependencies(DataContainer dataContainer, HotKeyProfiler hotKeyProfiler) {
       this.dataContainer = dataContainer;
+      this.hotKeyProfiler = hotKeyProfiler;
    }
 
    @Override
@@ -89,6 +94,7 @@ public Object visitEvictCommand(InvocationContext ctx, EvictCommand command) thr
 
    @Override
    public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
+      hotKeyProfiler.keyAccessed(command.getKey());
       long t1 = System.nanoTime();
       Object retval = invokeNextInterceptor(ctx, command);
       long t2 = System.nanoTime();
@@ -105,9 +111,32 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return retval;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      for (Object key : command.getKeys()) hotKeyProfiler.keyAccessed(key);
+      long t1 = System.nanoTime();
+      Map<?, ?> retval = (Map<?, ?>) invokeNextInterceptor(ctx, command);
+      long t2 = System.nanoTime();
+      int requests = command.getKeys().size();
+      if (ctx.isOriginLocal() && requests > 0) {
+         // the time is shared out between hits and misses according to the number of each
+         long intervalMilliseconds = nanosecondsIntervalToMilliseconds(t1, t2);
+         int hitCount = retval.size();
+         int missCount = requests - hitCount;
+         hitTimes.getAndAdd(intervalMilliseconds * hitCount / requests);
+         hits.getAndAdd(hitCount);
+         missTimes.getAndAdd(intervalMilliseconds * missCount / requests);
+         misses.getAndAdd(missCount);
+      }
+      return retval;
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       final Map<Object, Object> data = command.getMap();
+      if (data != null) {
+         for (Object key : data.keySet()) hotKeyProfiler.keyAccessed(key);
+      }
       final long t1 = System.nanoTime();
       final Object retval = invokeNextInterceptor(ctx, command);
       final long t2 = System.nanoTime();
@@ -122,6 +151,7 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
    @Override
    //Map.put(key,value) :: oldValue
    public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
+      hotKeyProfiler.keyAccessed(command.getKey());
       long t1 = System.nanoTime();
       Object retval = invokeNextInterceptor(ctx, command);
       if (ctx.isOriginLocal() && command.isSuccessful()) {
@@ -135,6 +165,7 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
 
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
+      hotKeyProfiler.keyAccessed(command.getKey());
       Object retval = invokeNextInterceptor(ctx, command);
       if (ctx.isOriginLocal()) {
          if (retval == null) {
@@ -146,6 +177,12 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
       return retval;
    }
 
+   @Override
+   public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
+      hotKeyProfiler.keyAccessed(command.getKey());
+      return invokeNextInterceptor(ctx, command);
+   }
+
    @ManagedAttribute(
          description = "Number of cache attribute hits",
          displayName = "Number of cache hits",
@@ -246,6 +246,24 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
       return returnValue;
    }
 
+   @Override
+   public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+      Object returnValue = invokeNextInterceptor(ctx, command);
+      if (skip(ctx, command) || ctx.isInTxScope() || !command.isSuccessful()) return returnValue;
+
+      Object key = command.getKey();
+      if (command.isRemoval()) {
+         boolean resp = store.remove(key);
+         if (getLog().isTraceEnabled()) getLog().tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+      } else {
+         InternalCacheEntry se = getStoredEntry(key, ctx);
+         store.store(se);
+         if (getLog().isTraceEnabled()) getLog().tracef("Stored entry %s under key %s", se, key);
+         if (getStatisticsEnabled()) cacheStores.incrementAndGet();
+      }
+      return returnValue;
+   }
+
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       Object returnValue = invokeNextInterceptor(ctx, command);
@@ -368,6 +386,17 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
          return null;
       }
 
+      @Override
+      public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+         Object key = command.getKey();
+         if (!command.isRemoval()) return visitSingleStore(ctx, key);
+         if (!skipKey(key)) {
+            modifications.add(new Remove(key));
+            affectedKeys.add(key);
+         }
+         return null;
+      }
+
       @Override
       public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
          Object key = command.getKey();
@@ -25,6 +25,7 @@
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.EntryFactory;
@@ -39,6 +40,12 @@
 import org.infinispan.statetransfer.StateTransferManager;
 import org.infinispan.util.concurrent.locks.LockManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.infinispan.util.Util.toStr;
 
 /**
@@ -78,15 +85,18 @@ protected boolean isNeedReliableReturnValues(FlagAffectedCommand command) {
    }
 
    protected boolean needsRemoteGet(InvocationContext ctx, AbstractDataCommand command) {
+      return needsRemoteGet(ctx, command.getKey(), command);
+   }
+
+   protected boolean needsRemoteGet(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       if (command.hasFlag(Flag.CACHE_MODE_LOCAL)
             || command.hasFlag(Flag.SKIP_REMOTE_LOOKUP)
             || command.hasFlag(Flag.IGNORE_RETURN_VALUES)) {
          return false;
       }
       boolean shouldFetchFromRemote = false;
-      CacheEntry entry = ctx.lookupEntry(command.getKey());
+      CacheEntry entry = ctx.lookupEntry(key);
       if (entry == null || entry.isNull()) {
-         Object key = command.getKey();
          ConsistentHash ch = stateTransferManager.getCacheTopology().getReadConsistentHash();
          shouldFetchFromRemote = ctx.isOriginLocal() && !ch.isKeyLocalToNode(rpcManager.getAddress(), key) && !dataContainer.containsKey(key);
          if (!shouldFetchFromRemote && getLog().isTraceEnabled()) {
@@ -96,6 +106,63 @@ protected boolean needsRemoteGet(InvocationContext ctx, AbstractDataCommand comm
       return shouldFetchFromRemote;
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      Map<Object, Object> result = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      if (!ctx.isOriginLocal()) return result;
+
+      List<Object> remoteKeys = null;
+      for (Object key : command.getKeys()) {
+         if (!result.containsKey(key) && needsRemoteGet(ctx, key, command)) {
+            if (remoteKeys == null) remoteKeys = new ArrayList<Object>();
+            remoteKeys.add(key);
+         }
+      }
+      if (remoteKeys == null) return result;
+
+      Map<Object, InternalCacheEntry> remoteEntries = retrieveAllFromRemoteSources(remoteKeys, ctx, command);
+      for (Object key : remoteKeys) {
+         InternalCacheEntry ice = remoteEntries.get(key);
+         if (ice != null) {
+            remoteEntryRetrieved(ctx, key, ice);
+         } else if (!ctx.isEntryRemovedInContext(key)) {
+            // the key might have been brought in by state transfer in the meantime
+            ice = dataContainer.get(key);
+            if (ice != null && !ctx.replaceValue(key, ice)) ctx.putLookedUpEntry(key, ice);
+         }
+         if (ice != null && ice.getValue() != null)
+            result.put(key, command.isReturnEntries() ? ice : ice.getValue());
+      }
+      return result;
+   }
+
+   /**
+    * Retrieves several cache entries from remote sources.  The default implementation looks up each key on its own with
+    * {@link #retrieveFromRemoteSource(Object, InvocationContext, boolean, FlagAffectedCommand)}; subclasses that know
+    * where the keys live can batch the lookups.
+    *
+    * @param keys keys to look up
+    * @return a map of the keys that could be located to their internal cache entries
+    */
+   protected Map<Object, InternalCacheEntry> retrieveAllFromRemoteSources(Collection<Object> keys, InvocationContext ctx,
+                                                                         FlagAffectedCommand command) throws Exception {
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>();
+      for (Object key : keys) {
+         InternalCacheEntry ice = retrieveFromRemoteSource(key, ctx, false, command);
+         if (ice != null) entries.put(key, ice);
+      }
+      return entries;
+   }
+
+   /**
+    * Invoked for every entry fetched remotely by a {@link GetAllCommand}.  By default the entry is stored in the
+    * invocation context, so that repeated reads in the same transaction see the same value.
+    */
+   protected void remoteEntryRetrieved(InvocationContext ctx, Object key, InternalCacheEntry ice) {
+      if (!ctx.replaceValue(key, ice)) ctx.putLookedUpEntry(key, ice);
+   }
+
    /**
     * For conditional operations (replace, remove, put if absent) Used only for optimistic transactional caches, to solve the following situation:
     * <pre>
@@ -25,6 +25,7 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.InvokeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -136,6 +137,23 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
       return retval;
    }
 
+   @Override
+   public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+      Object returnValue = invokeNextInterceptor(ctx, command);
+      Object key = command.getKey();
+      if (skip(ctx, key, command) || ctx.isInTxScope() || !command.isSuccessful()) return returnValue;
+      if (command.isRemoval()) {
+         boolean resp = store.remove(key);
+         log.tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+      } else {
+         InternalCacheEntry se = getStoredEntry(key, ctx);
+         store.store(se);
+         log.tracef("Stored entry %s under key %s", se, key);
+         if (getStatisticsEnabled()) cacheStores.incrementAndGet();
+      }
+      return returnValue;
+   }
+
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
          throws Throwable {
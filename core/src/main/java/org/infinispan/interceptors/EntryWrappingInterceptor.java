@@ -21,8 +21,10 @@
 
 import org.infinispan.commands.AbstractVisitor;
 import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.DataCommand;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
@@ -124,6 +126,20 @@ public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCo
       }
    }
 
+   @Override
+   public final Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      try {
+         for (Object key : command.getKeys()) {
+            checkIfKeyRead(ctx, key, command);
+            entryFactory.wrapEntryForReading(ctx, key);
+         }
+         return invokeNextInterceptor(ctx, command);
+      } finally {
+         if (!ctx.isInTxScope())
+            commitContextEntries(ctx, command, null);
+      }
+   }
+
    @Override
    public final Object visitInvalidateCommand(InvocationContext ctx, InvalidateCommand command) throws Throwable {
       if (command.getKeys() != null) {
@@ -182,9 +198,9 @@ private boolean shouldWrap(Object key, InvocationContext ctx, FlagAffectedComman
          result = true;
       } else {
          if (isUsingLockDelegation) {
-            result = cdl.localNodeIsPrimaryOwner(key) || (cdl.localNodeIsOwner(key) && !ctx.isOriginLocal());
+            result = localNodeIsPrimaryOwner(key, command) || (localNodeIsOwner(key, command) && !ctx.isOriginLocal());
          } else {
-            result = cdl.localNodeIsOwner(key);
+            result = localNodeIsOwner(key, command);
          }
       }
 
@@ -194,6 +210,21 @@ private boolean shouldWrap(Object key, InvocationContext ctx, FlagAffectedComman
       return result;
    }
 
+   private boolean localNodeIsOwner(Object key, FlagAffectedCommand command) {
+      return isKeyOf(key, command) ? cdl.localNodeIsOwner((DataCommand) command) : cdl.localNodeIsOwner(key);
+   }
+
+   private boolean localNodeIsPrimaryOwner(Object key, FlagAffectedCommand command) {
+      return isKeyOf(key, command) ? cdl.localNodeIsPrimaryOwner((DataCommand) command) : cdl.localNodeIsPrimaryOwner(key);
+   }
+
+   /**
+    * Single key commands keep the owners of their key, so the key need not be located again.
+    */
+   private static boolean isKeyOf(Object key, FlagAffectedCommand command) {
+      return command instanceof DataCommand && ((DataCommand) command).getKey() == key;
+   }
+
    @Override
    public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand command) throws Throwable {
       entryFactory.wrapEntryForDelta(ctx, command.getKey(), command.getDelta());
@@ -358,7 +389,7 @@ public Object visitInvalidateCommand(InvocationContext ctx, InvalidateCommand co
 
       @Override
       public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
-         if (cdl.localNodeIsOwner(command.getKey())) {
+         if (cdl.localNodeIsOwner(command)) {
             entryFactory.wrapEntryForRemove(ctx, command.getKey());
             invokeNextInterceptor(ctx, command);
          }
@@ -367,7 +398,7 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
 
       @Override
       public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
-         if (cdl.localNodeIsOwner(command.getKey())) {
+         if (cdl.localNodeIsOwner(command)) {
             entryFactory.wrapEntryForPut(ctx, command.getKey(), null, !command.isPutIfAbsent(), command);
             invokeNextInterceptor(ctx, command);
          }
@@ -376,7 +407,7 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
 
       @Override
       public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand command) throws Throwable {
-         if (cdl.localNodeIsOwner(command.getKey())) {
+         if (cdl.localNodeIsOwner(command)) {
             entryFactory.wrapEntryForDelta(ctx, command.getKey(), command.getDelta());
             invokeNextInterceptor(ctx, command);
          }
@@ -385,7 +416,7 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
 
       @Override
       public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
-         if (cdl.localNodeIsOwner(command.getKey())) {
+         if (cdl.localNodeIsOwner(command)) {
             if (command.isIgnorePreviousValue()) {
                //wrap it for put, as the previous value might not be present by now (e.g. might have been deleted)
                // but we still need to apply the new value.
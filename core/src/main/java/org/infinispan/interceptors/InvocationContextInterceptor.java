@@ -39,6 +39,7 @@
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.manager.CacheContainer;
+import org.infinispan.stats.HotKeyProfiler;
 import org.infinispan.transaction.TransactionTable;
 import org.infinispan.transaction.WriteSkewException;
 import org.infinispan.util.logging.Log;
@@ -59,6 +60,7 @@ public class InvocationContextInterceptor extends CommandInterceptor {
    private ComponentRegistry componentRegistry;
    private TransactionTable txTable;
    private InvocationContextContainer invocationContextContainer;
+   private HotKeyProfiler hotKeyProfiler;
 
    private static final Log log = LogFactory.getLog(InvocationContextInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -80,11 +82,13 @@ private void setStopStatus() {
    }
 
    @Inject
-   public void init(TransactionManager tm, ComponentRegistry componentRegistry, TransactionTable txTable, InvocationContextContainer invocationContextContainer) {
+   public void init(TransactionManager tm, ComponentRegistry componentRegistry, TransactionTable txTable,
+                    InvocationContextContainer invocationContextContainer, HotKeyProfiler hotKeyProfiler) {
       this.tm = tm;
       this.componentRegistry = componentRegistry;
       this.txTable = txTable;
       this.invocationContextContainer = invocationContextContainer;
+      this.hotKeyProfiler = hotKeyProfiler;
    }
 
    @Override
@@ -144,6 +148,7 @@ private Object handleAll(InvocationContext ctx, VisitableCommand command) throws
                   if (th instanceof WriteSkewException) {
                      // We log this as DEBUG rather than ERROR - see ISPN-2076
                      log.debug("Exception executing call", th);
+                     hotKeyProfiler.writeSkewDetected(((WriteSkewException) th).getKey());
                   } else {
                      log.executionError(th);
                   }
@@ -24,10 +24,12 @@
 
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.write.InvalidateCommand;
+import org.infinispan.commands.write.InvokeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -42,6 +44,7 @@
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.marshall.MarshalledValue;
 import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.marshall.compression.PayloadCompressor;
 import org.infinispan.util.Immutables;
 import org.infinispan.util.InfinispanCollections;
 import org.infinispan.util.logging.Log;
@@ -52,6 +55,8 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -76,6 +81,8 @@ public class MarshalledValueInterceptor extends CommandInterceptor {
    private StreamingMarshaller marshaller;
    private boolean wrapKeys = true;
    private boolean wrapValues = true;
+   private boolean compressBinaryValues = false;
+   private PayloadCompressor payloadCompressor;
    private InternalEntryFactory entryFactory;
 
    private static final Log log = LogFactory.getLog(MarshalledValueInterceptor.class);
@@ -87,15 +94,18 @@ protected Log getLog() {
    }
 
    @Inject
-   protected void injectMarshaller(@ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller, InternalEntryFactory entryFactory) {
+   protected void injectMarshaller(@ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller, InternalEntryFactory entryFactory,
+                                   PayloadCompressor payloadCompressor) {
       this.marshaller = marshaller;
       this.entryFactory = entryFactory;
+      this.payloadCompressor = payloadCompressor;
    }
 
    @Start
    protected void start() {
       wrapKeys = cacheConfiguration.storeAsBinary().storeKeysAsBinary();
       wrapValues = cacheConfiguration.storeAsBinary().storeValuesAsBinary();
+      compressBinaryValues = cacheConfiguration.compression().enabled() && cacheConfiguration.compression().compressBinaryValues();
    }
 
    @Override
@@ -163,6 +173,21 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
       }
    }
 
+   @Override
+   public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+      MarshalledValue key = null;
+      if (wrapKeys) {
+         if (!isTypeExcluded(command.getKey().getClass())) {
+            key = createMarshalledValue(command.getKey(), ctx);
+            command.setKey(key);
+         }
+      }
+      // the return value is the result of the processor rather than a cached value
+      Object retVal = invokeNextInterceptor(ctx, command);
+      compact(key);
+      return retVal;
+   }
+
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       MarshalledValue value = null;
@@ -206,6 +231,39 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return processRetVal(retVal, ctx);
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      Set<MarshalledValue> marshalledValues = null;
+      if (wrapKeys) {
+         marshalledValues = new HashSet<MarshalledValue>();
+         List<Object> keys = new ArrayList<Object>(command.getKeys().size());
+         for (Object key : command.getKeys()) {
+            if (!isTypeExcluded(key.getClass())) {
+               MarshalledValue mv = createMarshalledValue(key, ctx);
+               marshalledValues.add(mv);
+               compact(mv);
+               key = mv;
+            }
+            keys.add(key);
+         }
+         command.setKeys(keys);
+      }
+      Map<Object, Object> map = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      if (marshalledValues != null) {
+         for (MarshalledValue mv : marshalledValues) compact(mv);
+      }
+      if (!ctx.isOriginLocal() || command.isReturnEntries()) return map;
+
+      Map<Object, Object> copy = new LinkedHashMap<Object, Object>(map.size());
+      for (Map.Entry<Object, Object> entry : map.entrySet()) {
+         Object key = entry.getKey();
+         if (key instanceof MarshalledValue) key = ((MarshalledValue) key).get();
+         copy.put(key, processRetVal(entry.getValue(), ctx));
+      }
+      return copy;
+   }
+
    @Override
    @SuppressWarnings("unchecked")
    public Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) throws Throwable {
@@ -351,6 +409,6 @@ protected Map<Object, Object> wrapMap(Map<Object, Object> m, Set<MarshalledValue
    }
 
    protected MarshalledValue createMarshalledValue(Object toWrap, InvocationContext ctx) {
-      return new MarshalledValue(toWrap, ctx.isOriginLocal(), marshaller);
+      return new MarshalledValue(toWrap, ctx.isOriginLocal(), marshaller, compressBinaryValues ? payloadCompressor : null);
    }
 }
@@ -93,6 +93,10 @@ private void sendCommitCommand(CommitCommand command)
          throws TimeoutException, InterruptedException {
       // may need to resend, so make the commit command synchronous
       // TODO keep the list of prepared nodes or the view id when the prepare command was sent to know whether we need to resend the prepare info
+      if (isPipelinedCommit()) {
+         sendPipelinedCommit(null, command);
+         return;
+      }
       rpcManager.invokeRemotely(null, command, rpcManager.getDefaultRpcOptions(
             cacheConfiguration.transaction().syncCommitPhase(), false));
    }
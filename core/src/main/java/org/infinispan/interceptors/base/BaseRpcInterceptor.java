@@ -23,6 +23,7 @@
 package org.infinispan.interceptors.base;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.context.Flag;
 import org.infinispan.context.impl.LocalTxInvocationContext;
@@ -39,11 +40,15 @@
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.statetransfer.StateConsumer;
 import org.infinispan.transaction.LocalTransaction;
+import org.infinispan.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.NotifyingFutureImpl;
 
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Acts as a base for all RPC calls
@@ -164,6 +169,35 @@ protected final boolean isSyncCommitPhase() {
       return cacheConfiguration.transaction().syncCommitPhase();
    }
 
+   protected final boolean isPipelinedCommit() {
+      return cacheConfiguration.transaction().pipelinedCommit();
+   }
+
+   /**
+    * Sends the commit synchronously on a separate thread so that the caller does not wait for the slowest
+    * participant. Completion is tracked through the returned future and failures are logged with the transaction
+    * they belong to.
+    */
+   protected final Future<Object> sendPipelinedCommit(final Collection<Address> recipients, final CommitCommand command) {
+      NotifyingFutureImpl<Object> future = new NotifyingFutureImpl<Object>(null);
+      future.attachListener(new FutureListener<Object>() {
+         @Override
+         public void futureDone(Future<Object> done) {
+            try {
+               done.get();
+               if (getLog().isTraceEnabled())
+                  getLog().tracef("Pipelined commit of %s completed on %s", command.getGlobalTransaction(), recipients);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+               getLog().pipelinedCommitFailed(command.getGlobalTransaction(), recipients, e.getCause());
+            }
+         }
+      });
+      rpcManager.invokeRemotelyInFuture(recipients, command, rpcManager.getDefaultRpcOptions(true, false), future);
+      return future;
+   }
+
    protected final ResponseFilter getSelfDeliverFilter() {
       return new SelfDeliverFilter(rpcManager.getAddress());
    }
@@ -69,6 +69,12 @@ public abstract class CommandInterceptor extends AbstractVisitor {
 
    private CommandInterceptor next;
 
+   /**
+    * Whether this interceptor does anything with single key reads, i.e. whether it overrides any of the methods that a
+    * {@link GetKeyValueCommand} visit ends up in.  Interceptors which don't are skipped when passing reads up the chain.
+    */
+   private final boolean interestedInReads = isInterestedInReads(getClass());
+
    protected Configuration cacheConfiguration;
 
    protected Log getLog() {
@@ -115,7 +121,12 @@ public final void setNext(CommandInterceptor next) {
     * @throws Throwable in the event of problems
     */
    public final Object invokeNextInterceptor(InvocationContext ctx, VisitableCommand command) throws Throwable {
-      return command.acceptVisitor(ctx, next);
+      CommandInterceptor target = next;
+      if (target != null && command instanceof GetKeyValueCommand) {
+         // walking the chain is much cheaper than visiting interceptors that would just pass the read along
+         while (!target.interestedInReads && target.next != null) target = target.next;
+      }
+      return command.acceptVisitor(ctx, target);
    }
 
    /**
@@ -144,4 +155,25 @@ protected final boolean hasSkipLocking(FlagAffectedCommand command) {
       return command.hasFlag(Flag.SKIP_LOCKING);
    }
 
+   private static boolean isInterestedInReads(Class<?> interceptorClass) {
+      return overrides(interceptorClass, "visitGetKeyValueCommand", InvocationContext.class, GetKeyValueCommand.class)
+            || overrides(interceptorClass, "visitGetCacheEntryCommand", InvocationContext.class, GetKeyValueCommand.class)
+            || overrides(interceptorClass, "handleDefault", InvocationContext.class, VisitableCommand.class);
+   }
+
+   private static boolean overrides(Class<?> interceptorClass, String methodName, Class<?>... parameterTypes) {
+      for (Class<?> c = interceptorClass; c != null && c != CommandInterceptor.class; c = c.getSuperclass()) {
+         try {
+            c.getDeclaredMethod(methodName, parameterTypes);
+            return true;
+         } catch (NoSuchMethodException e) {
+            // keep looking in the super class
+         } catch (SecurityException e) {
+            // can't tell, so assume it does
+            return true;
+         }
+      }
+      return false;
+   }
+
 }
\ No newline at end of file
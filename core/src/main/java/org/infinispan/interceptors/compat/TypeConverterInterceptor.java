@@ -1,6 +1,8 @@
 package org.infinispan.interceptors.compat;
 
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.InvokeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
@@ -11,6 +13,10 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.base.CommandInterceptor;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * An interceptor that applies type conversion to the data stored in the cache.
  *
@@ -41,6 +47,13 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
       return typeConverter.unboxValue(key, ret);
    }
 
+   @Override
+   public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+      command.setKey(typeConverter.boxKey(command.getKey()));
+      // the return value is the result of the processor rather than a cached value
+      return invokeNextInterceptor(ctx, command);
+   }
+
    @Override
    public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
       Object key = command.getKey();
@@ -66,6 +79,23 @@ public Object visitGetCacheEntryCommand(InvocationContext ctx, GetKeyValueComman
       return null;
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (command.isReturnEntries()) return invokeNextInterceptor(ctx, command);
+      Map<Object, Object> boxedKeys = new LinkedHashMap<Object, Object>();
+      for (Object key : command.getKeys())
+         boxedKeys.put(typeConverter.boxKey(key), key);
+      command.setKeys(new ArrayList<Object>(boxedKeys.keySet()));
+      Map<Object, Object> ret = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      Map<Object, Object> unboxed = new LinkedHashMap<Object, Object>(ret.size());
+      for (Map.Entry<Object, Object> entry : ret.entrySet()) {
+         Object key = boxedKeys.get(entry.getKey());
+         unboxed.put(key, typeConverter.unboxValue(key, entry.getValue()));
+      }
+      return unboxed;
+   }
+
 
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
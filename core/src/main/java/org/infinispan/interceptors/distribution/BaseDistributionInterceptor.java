@@ -22,7 +22,9 @@
  */
 package org.infinispan.interceptors.distribution;
 
+import org.infinispan.commands.DataCommand;
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -34,6 +36,8 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.topologyaware.TopologyAwareReadRouter;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.ClusteringInterceptor;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
@@ -46,10 +50,16 @@
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.Immutables;
+import org.infinispan.util.concurrent.BaseNotifyingFuture;
+import org.infinispan.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Base class for distribution of entries across a cluster.
@@ -66,6 +76,8 @@ public abstract class BaseDistributionInterceptor extends ClusteringInterceptor
 
    protected ClusteringDependentLogic cdl;
 
+   protected TopologyAwareReadRouter readRouter;
+
    private static final Log log = LogFactory.getLog(BaseDistributionInterceptor.class);
 
    @Override
@@ -74,9 +86,11 @@ protected Log getLog() {
    }
 
    @Inject
-   public void injectDependencies(DistributionManager distributionManager, ClusteringDependentLogic cdl) {
+   public void injectDependencies(DistributionManager distributionManager, ClusteringDependentLogic cdl,
+                                  TopologyAwareReadRouter readRouter) {
       this.dm = distributionManager;
       this.cdl = cdl;
+      this.readRouter = readRouter;
    }
 
    @Override
@@ -87,6 +101,27 @@ protected InternalCacheEntry retrieveFromRemoteSource(Object key, InvocationCont
       List<Address> targets = new ArrayList<Address>(stateTransferManager.getCacheTopology().getReadConsistentHash().locateOwners(key));
       // if any of the recipients has left the cluster since the command was issued, just don't wait for its response
       targets.retainAll(rpcManager.getTransport().getMembers());
+
+      if (readRouter.isTopologyAwareReads() && !acquireRemoteLock) {
+         // ask the closest owners first, the others only need to be contacted if none of them has the value
+         targets.remove(rpcManager.getAddress());
+         List<Address> sortedTargets = readRouter.sortByDistance(targets);
+         List<Address> closestTargets = readRouter.closestOwners(sortedTargets);
+         if (closestTargets.size() < sortedTargets.size()) {
+            InternalCacheEntry ice = remoteGet(key, get, closestTargets);
+            if (ice != null) return ice;
+            if (getLog().isTraceEnabled())
+               getLog().tracef("Closest owners %s returned no value for key %s, asking the other owners", closestTargets, key);
+            targets = sortedTargets.subList(closestTargets.size(), sortedTargets.size());
+         }
+      }
+      return remoteGet(key, get, targets);
+   }
+
+   private InternalCacheEntry remoteGet(Object key, ClusteredGetCommand get, List<Address> targets) {
+      for (Address target : targets) {
+         if (!target.equals(rpcManager.getAddress())) readRouter.remoteReadSent(target);
+      }
       ResponseFilter filter = new ClusteredGetResponseValidityFilter(targets, rpcManager.getAddress());
       RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.WAIT_FOR_VALID_RESPONSE, false)
             .responseFilter(filter).build();
@@ -107,6 +142,79 @@ protected InternalCacheEntry retrieveFromRemoteSource(Object key, InvocationCont
       return null;
    }
 
+   /**
+    * Groups the keys by the primary owner in the read consistent hash (or by the closest owner, with
+    * {@link org.infinispan.configuration.cache.HashConfiguration#topologyAwareReads()}) and sends a single {@link ClusteredGetAllCommand}
+    * to each owner, with all the owners being contacted in parallel.  The keys the owners could not give an
+    * authoritative answer for (e.g. because of a rehash or because the owner left) are then looked up one by one, on
+    * all their owners.
+    */
+   @Override
+   @SuppressWarnings("unchecked")
+   protected Map<Object, InternalCacheEntry> retrieveAllFromRemoteSources(Collection<Object> keys, InvocationContext ctx,
+                                                                         FlagAffectedCommand command) throws Exception {
+      ConsistentHash ch = stateTransferManager.getCacheTopology().getReadConsistentHash();
+      List<Address> members = rpcManager.getTransport().getMembers();
+      Map<Address, List<Object>> keysByOwner = new HashMap<Address, List<Object>>();
+      List<Object> unresolvedKeys = new ArrayList<Object>();
+      boolean topologyAwareReads = readRouter.isTopologyAwareReads();
+      for (Object key : keys) {
+         Address owner = topologyAwareReads ? readRouter.closestOwner(ch.locateOwners(key)) : ch.locatePrimaryOwner(key);
+         if (owner.equals(rpcManager.getAddress()) || !members.contains(owner)) {
+            unresolvedKeys.add(key);
+            continue;
+         }
+         List<Object> ownerKeys = keysByOwner.get(owner);
+         if (ownerKeys == null) {
+            ownerKeys = new ArrayList<Object>();
+            keysByOwner.put(owner, ownerKeys);
+         }
+         ownerKeys.add(key);
+      }
+
+      // send to all the owners before waiting for any response
+      RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS, false).build();
+      Map<Address, ResponseFuture> futures = new HashMap<Address, ResponseFuture>(keysByOwner.size());
+      for (Map.Entry<Address, List<Object>> e : keysByOwner.entrySet()) {
+         if (getLog().isTraceEnabled())
+            getLog().tracef("Doing a remote get for keys %s on %s", e.getValue(), e.getKey());
+         ClusteredGetAllCommand get = cf.buildClusteredGetAllCommand(e.getValue(), command.getFlags());
+         readRouter.remoteReadSent(e.getKey());
+         ResponseFuture future = new ResponseFuture();
+         rpcManager.invokeRemotelyInFuture(Collections.singleton(e.getKey()), get, options, future);
+         futures.put(e.getKey(), future);
+      }
+
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>(keys.size());
+      for (Map.Entry<Address, ResponseFuture> e : futures.entrySet()) {
+         Address owner = e.getKey();
+         List<Object> ownerKeys = keysByOwner.get(owner);
+         Map<Object, InternalCacheValue> values = null;
+         try {
+            Map<Address, Response> responses = (Map<Address, Response>) e.getValue().get();
+            Response response = responses == null ? null : responses.get(owner);
+            if (response instanceof SuccessfulResponse)
+               values = (Map<Object, InternalCacheValue>) ((SuccessfulResponse) response).getResponseValue();
+         } catch (ExecutionException ee) {
+            getLog().tracef(ee.getCause(), "Remote get for keys %s failed on %s", ownerKeys, owner);
+         }
+         for (Object key : ownerKeys) {
+            if (values != null && values.containsKey(key)) {
+               InternalCacheValue value = values.get(key);
+               if (value != null) entries.put(key, value.toInternalCacheEntry(key));
+            } else {
+               unresolvedKeys.add(key);
+            }
+         }
+      }
+
+      for (Object key : unresolvedKeys) {
+         InternalCacheEntry ice = retrieveFromRemoteSource(key, ctx, false, command);
+         if (ice != null) entries.put(key, ice);
+      }
+      return entries;
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       // don't bother with a remote get for the PutMapCommand!
@@ -118,13 +226,13 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
 
       return handleWriteCommand(ctx, command,
-                                new SingleKeyRecipientGenerator(command.getKey()), false, false);
+                                new SingleKeyRecipientGenerator(command), false, false);
    }
 
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       return handleWriteCommand(ctx, command,
-                                new SingleKeyRecipientGenerator(command.getKey()), false, false);
+                                new SingleKeyRecipientGenerator(command), false, false);
    }
 
    protected abstract Object handleWriteCommand(InvocationContext ctx, WriteCommand command, RecipientGenerator recipientGenerator, boolean skipRemoteGet, boolean skipL1Invalidation) throws Throwable;
@@ -140,6 +248,44 @@ protected boolean isSingleOwnerAndLocal(RecipientGenerator recipientGenerator) {
             && recipients.get(0).equals(rpcManager.getTransport().getAddress());
    }
 
+   /**
+    * Gives access to the responses of a remote invocation made with
+    * {@link org.infinispan.remoting.rpc.RpcManager#invokeRemotelyInFuture(Collection, org.infinispan.commands.ReplicableCommand, RpcOptions, NotifyingNotifiableFuture)}.
+    */
+   private static class ResponseFuture extends BaseNotifyingFuture<Object> implements NotifyingNotifiableFuture<Object> {
+      private volatile Future<Object> networkFuture;
+
+      @Override
+      public void setNetworkFuture(Future<Object> future) {
+         this.networkFuture = future;
+      }
+
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning) {
+         return networkFuture.cancel(mayInterruptIfRunning);
+      }
+
+      @Override
+      public boolean isCancelled() {
+         return networkFuture.isCancelled();
+      }
+
+      @Override
+      public boolean isDone() {
+         return networkFuture.isDone();
+      }
+
+      @Override
+      public Object get() throws InterruptedException, ExecutionException {
+         return networkFuture.get();
+      }
+
+      @Override
+      public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+         return networkFuture.get(timeout, unit);
+      }
+   }
+
    interface KeyGenerator {
       Collection<Object> getKeys();
    }
@@ -149,18 +295,18 @@ interface RecipientGenerator extends KeyGenerator {
    }
 
    class SingleKeyRecipientGenerator implements RecipientGenerator {
-      private final Object key;
+      private final DataCommand command;
       private final Set<Object> keys;
       private List<Address> recipients = null;
 
-      SingleKeyRecipientGenerator(Object key) {
-         this.key = key;
-         keys = Collections.singleton(key);
+      SingleKeyRecipientGenerator(DataCommand command) {
+         this.command = command;
+         keys = Collections.singleton(command.getKey());
       }
 
       @Override
       public List<Address> generateRecipients() {
-         if (recipients == null) recipients = dm.locate(key);
+         if (recipients == null) recipients = dm.getKeyOwners(command).getOwners();
          return recipients;
       }
 
@@ -157,12 +157,12 @@ private Object handleDataWriteCommand(InvocationContext ctx, DataWriteCommand co
 
    private void removeFromLocalL1(InvocationContext ctx, DataWriteCommand command) throws InterruptedException {
       if (useLockForwarding) {
-         if (ctx.isOriginLocal() && !cdl.localNodeIsOwner(command.getKey())) {
+         if (ctx.isOriginLocal() && !cdl.localNodeIsOwner(command)) {
             removeFromL1(ctx, command.getKey());
          } else {
             log.tracef("Allowing entry to commit as local node is owner");
          }
-      } else if (!cdl.localNodeIsOwner(command.getKey())) {
+      } else if (!cdl.localNodeIsOwner(command)) {
          removeFromL1(ctx, command.getKey());
       }
    }
@@ -183,7 +183,7 @@ private void processInvalidationResult(InvocationContext ctx, FlagAffectedComman
 
    private Future<Object> invalidateL1(InvocationContext ctx, DataWriteCommand command, boolean assumeOriginKeptEntryInL1) {
       Future<Object> l1InvalidationFuture = null;
-      if (cdl.localNodeIsOwner(command.getKey())) {
+      if (cdl.localNodeIsOwner(command)) {
          l1InvalidationFuture = l1Manager.flushCache(Collections.singletonList(command.getKey()), ctx.getOrigin(), assumeOriginKeptEntryInL1);
       } else  {
          log.tracef("Not invalidating key '%' as local node(%s) is not owner", command.getKey(), rpcManager.getAddress());
@@ -113,7 +113,7 @@ protected Object handleLocalWrite(InvocationContext ctx, WriteCommand command, R
    protected void handleRemoteWrite(InvocationContext ctx, WriteCommand command, RecipientGenerator recipientGenerator, boolean skipL1Invalidation, boolean sync) throws Throwable {
       if (command instanceof DataCommand) {
          DataCommand dataCommand = (DataCommand) command;
-         Address primaryOwner = cdl.getPrimaryOwner(dataCommand.getKey());
+         Address primaryOwner = cdl.getPrimaryOwner(dataCommand);
          if (primaryOwner.equals(rpcManager.getAddress())) {
             rpcManager.invokeRemotely(recipientGenerator.generateRecipients(), command, rpcManager.getDefaultRpcOptions(sync));
          }
@@ -23,6 +23,7 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.InvokeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -37,6 +38,7 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -104,10 +106,29 @@ public Object visitGetCacheEntryCommand(InvocationContext ctx, GetKeyValueComman
 
    @Override
    public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
-      SingleKeyRecipientGenerator skrg = new SingleKeyRecipientGenerator(command.getKey());
+      SingleKeyRecipientGenerator skrg = new SingleKeyRecipientGenerator(command);
       return handleWriteCommand(ctx, command, skrg, command.hasFlag(Flag.PUT_FOR_STATE_TRANSFER), false);
    }
 
+   /**
+    * Entry processors run on the primary owner, under the entry lock, so the processor is shipped there unless this
+    * node is the primary owner itself.  The primary owner then sends the outcome to the backup owners.
+    */
+   @Override
+   public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+      if (ctx.isOriginLocal() && !isLocalModeForced(command)) {
+         Address primaryOwner = cdl.getPrimaryOwner(command);
+         if (!primaryOwner.equals(rpcManager.getAddress())) {
+            if (trace) log.tracef("Sending entry processor for key %s to its primary owner %s", command.getKey(), primaryOwner);
+            // the caller always needs the result of the processing
+            Map<Address, Response> responseMap = rpcManager.invokeRemotely(Collections.singletonList(primaryOwner), command,
+                                                                           rpcManager.getDefaultRpcOptions(true));
+            return getResponseFromPrimaryOwner(primaryOwner, responseMap);
+         }
+      }
+      return visitPutKeyValueCommand(ctx, command);
+   }
+
    /**
     * Don't forward in the case of clear commands, just acquire local locks and broadcast.
     */
@@ -209,7 +230,13 @@ protected Object handleLocalWrite(InvocationContext ctx, WriteCommand command, R
       return returnValue;
    }
 
-   protected void handleRemoteWrite(InvocationContext ctx, WriteCommand command, RecipientGenerator recipientGenerator, boolean skipL1Invalidation, boolean sync) throws Throwable {}
+   protected void handleRemoteWrite(InvocationContext ctx, WriteCommand command, RecipientGenerator recipientGenerator, boolean skipL1Invalidation, boolean sync) throws Throwable {
+      // an entry processor shipped to us as primary owner: pass its outcome on to the backup owners
+      if (command instanceof InvokeCommand && ((InvokeCommand) command).getProcessor() != null && command.isSuccessful()
+            && cdl.localNodeIsPrimaryOwner((InvokeCommand) command)) {
+         rpcManager.invokeRemotely(recipientGenerator.generateRecipients(), command, rpcManager.getDefaultRpcOptions(sync));
+      }
+   }
 
    private InternalCacheEntry remoteGetCacheEntry(InvocationContext ctx, Object key, GetKeyValueCommand command) throws Throwable {
       if (trace) log.tracef("Doing a remote get for key %s", key);
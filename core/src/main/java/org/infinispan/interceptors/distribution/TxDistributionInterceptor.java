@@ -37,18 +37,28 @@
 import org.infinispan.context.impl.LocalTxInvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.L1Manager;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.transaction.LocalTransaction;
 import org.infinispan.transaction.LockingMode;
 import org.infinispan.util.InfinispanCollections;
+import org.infinispan.util.concurrent.NotifyingFutureImpl;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 
@@ -131,7 +141,7 @@ public void start() {
 
    @Override
    public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
-      SingleKeyRecipientGenerator skrg = new SingleKeyRecipientGenerator(command.getKey());
+      SingleKeyRecipientGenerator skrg = new SingleKeyRecipientGenerator(command);
       Object returnValue = handleWriteCommand(ctx, command, skrg, command.hasFlag(Flag.PUT_FOR_STATE_TRANSFER), false);
       if (ignorePreviousValueOnBackup(command, ctx)) {
          command.setPutIfAbsent(false);
@@ -187,6 +197,14 @@ private Object visitGetCommand(InvocationContext ctx, GetKeyValueCommand command
       }
    }
 
+   @Override
+   protected void remoteEntryRetrieved(InvocationContext ctx, Object key, InternalCacheEntry ice) {
+      if (useClusteredWriteSkewCheck && ctx.isInTxScope()) {
+         ((TxInvocationContext)ctx).getCacheTransaction().putLookedUpRemoteVersion(key, ice.getVersion());
+      }
+      super.remoteEntryRetrieved(ctx, key, ice);
+   }
+
    protected void lockAndWrap(InvocationContext ctx, Object key, InternalCacheEntry ice, FlagAffectedCommand command) throws InterruptedException {
       boolean skipLocking = hasSkipLocking(command);
       long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
@@ -222,7 +240,7 @@ public Object visitCommitCommand(TxInvocationContext ctx, CommitCommand command)
    }
 
    private void blockOnL1FutureIfNeeded(Future<?> f) {
-      if (f != null && cacheConfiguration.transaction().syncCommitPhase()) {
+      if (f != null && cacheConfiguration.transaction().syncCommitPhase() && !isPipelinedCommit()) {
          try {
             f.get();
          } catch (Exception e) {
@@ -254,11 +272,59 @@ public Object visitPrepareCommand(TxInvocationContext ctx, PrepareCommand comman
       return retVal;
    }
 
-   protected void prepareOnAffectedNodes(TxInvocationContext ctx, PrepareCommand command, Collection<Address> recipients, boolean sync) {
+   protected void prepareOnAffectedNodes(TxInvocationContext ctx, PrepareCommand command, Collection<Address> recipients, boolean sync) throws Throwable {
+      if (sync && isPipelinedCommit() && !ctx.getCacheTransaction().hasModification(ClearCommand.class)
+            && !dm.isRehashInProgress()) {
+         prepareOwnedModificationsOnAffectedNodes(command, recipients);
+         return;
+      }
       // this method will return immediately if we're the only member (because exclude_self=true)
       rpcManager.invokeRemotely(recipients, command, rpcManager.getDefaultRpcOptions(sync));
    }
 
+   /**
+    * Sends every recipient a prepare holding only the modifications of the keys it owns, to all the recipients
+    * before waiting for any response. A recipient owning none of the modified keys (e.g. it only holds locks)
+    * still gets an empty prepare so that it can complete the transaction.
+    */
+   private void prepareOwnedModificationsOnAffectedNodes(PrepareCommand command, Collection<Address> recipients) throws Throwable {
+      ConsistentHash ch = dm.getWriteConsistentHash();
+      Map<Address, List<WriteCommand>> modificationsByOwner = new HashMap<Address, List<WriteCommand>>();
+      for (Address recipient : recipients) {
+         if (!recipient.equals(rpcManager.getAddress()))
+            modificationsByOwner.put(recipient, new ArrayList<WriteCommand>());
+      }
+      for (WriteCommand modification : command.getModifications()) {
+         Set<Address> owners = new HashSet<Address>();
+         for (Object key : modification.getAffectedKeys()) {
+            owners.addAll(ch.locateOwners(key));
+         }
+         for (Address owner : owners) {
+            List<WriteCommand> ownerModifications = modificationsByOwner.get(owner);
+            if (ownerModifications != null) ownerModifications.add(modification);
+         }
+      }
+
+      RpcOptions options = rpcManager.getDefaultRpcOptions(true);
+      Map<Address, NotifyingFutureImpl<Object>> futures = new HashMap<Address, NotifyingFutureImpl<Object>>(modificationsByOwner.size());
+      for (Map.Entry<Address, List<WriteCommand>> e : modificationsByOwner.entrySet()) {
+         PrepareCommand prepare = cf.buildPrepareCommand(command.getGlobalTransaction(), e.getValue(), command.isOnePhaseCommit());
+         prepare.setTopologyId(command.getTopologyId());
+         if (trace) log.tracef("Sending %d of %d modifications of %s to %s", e.getValue().size(),
+                               command.getModifications().length, command.getGlobalTransaction(), e.getKey());
+         NotifyingFutureImpl<Object> future = new NotifyingFutureImpl<Object>(null);
+         rpcManager.invokeRemotelyInFuture(Collections.singleton(e.getKey()), prepare, options, future);
+         futures.put(e.getKey(), future);
+      }
+      for (NotifyingFutureImpl<Object> future : futures.values()) {
+         try {
+            future.get();
+         } catch (ExecutionException ee) {
+            throw ee.getCause();
+         }
+      }
+   }
+
    @Override
    public Object visitRollbackCommand(TxInvocationContext ctx, RollbackCommand command) throws Throwable {
       if (shouldInvokeRemoteTxCommand(ctx)) {
@@ -278,6 +344,10 @@ private Collection<Address> getCommitNodes(TxInvocationContext ctx) {
 
    protected void sendCommitCommand(TxInvocationContext ctx, CommitCommand command) throws TimeoutException, InterruptedException {
       Collection<Address> recipients = getCommitNodes(ctx);
+      if (isPipelinedCommit()) {
+         sendPipelinedCommit(recipients, command);
+         return;
+      }
       boolean syncCommitPhase = cacheConfiguration.transaction().syncCommitPhase();
       rpcManager.invokeRemotely(recipients, command, rpcManager.getDefaultRpcOptions(syncCommitPhase, false));
    }
@@ -23,6 +23,7 @@
 
 package org.infinispan.interceptors.locking;
 
+import org.infinispan.commands.DataCommand;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.tx.VersionedPrepareCommand;
 import org.infinispan.commands.tx.totalorder.TotalOrderPrepareCommand;
@@ -71,6 +72,24 @@ public interface ClusteringDependentLogic {
 
    Address getPrimaryOwner(Object key);
 
+   /**
+    * Same as {@link #localNodeIsOwner(Object)} for the key of the command, without locating the key again if the
+    * command already located it in the current topology.
+    */
+   boolean localNodeIsOwner(DataCommand command);
+
+   /**
+    * Same as {@link #localNodeIsPrimaryOwner(Object)} for the key of the command, without locating the key again if
+    * the command already located it in the current topology.
+    */
+   boolean localNodeIsPrimaryOwner(DataCommand command);
+
+   /**
+    * Same as {@link #getPrimaryOwner(Object)} for the key of the command, without locating the key again if the
+    * command already located it in the current topology.
+    */
+   Address getPrimaryOwner(DataCommand command);
+
    void commitEntry(CacheEntry entry, EntryVersion newVersion, FlagAffectedCommand command, InvocationContext ctx);
 
    Collection<Address> getOwners(Collection<Object> keys);
@@ -91,6 +110,21 @@ public void init(DataContainer dataContainer, CacheNotifier notifier) {
          this.notifier = notifier;
       }
 
+      @Override
+      public boolean localNodeIsOwner(DataCommand command) {
+         return localNodeIsOwner(command.getKey());
+      }
+
+      @Override
+      public boolean localNodeIsPrimaryOwner(DataCommand command) {
+         return localNodeIsPrimaryOwner(command.getKey());
+      }
+
+      @Override
+      public Address getPrimaryOwner(DataCommand command) {
+         return getPrimaryOwner(command.getKey());
+      }
+
       protected void notifyCommitEntry(boolean created, boolean removed,
             boolean evicted, CacheEntry entry, InvocationContext ctx,
             FlagAffectedCommand command) {
@@ -362,6 +396,21 @@ public Address getPrimaryOwner(Object key) {
          return dm.getPrimaryLocation(key);
       }
 
+      @Override
+      public boolean localNodeIsOwner(DataCommand command) {
+         return dm.getLocality(command).isLocal();
+      }
+
+      @Override
+      public boolean localNodeIsPrimaryOwner(DataCommand command) {
+         return dm.getKeyOwners(command).getPrimaryOwner().equals(rpcManager.getAddress());
+      }
+
+      @Override
+      public Address getPrimaryOwner(DataCommand command) {
+         return dm.getKeyOwners(command).getPrimaryOwner();
+      }
+
       @Override
       public void commitEntry(CacheEntry entry, EntryVersion newVersion, FlagAffectedCommand command, InvocationContext ctx) {
          // Don't allow the CH to change (and state transfer to invalidate entries)
@@ -373,7 +422,7 @@ public void commitEntry(CacheEntry entry, EntryVersion newVersion, FlagAffectedC
             boolean skipOwnershipCheck = command != null &&
                   command.hasFlag(Flag.SKIP_OWNERSHIP_CHECK);
 
-            boolean isForeignOwned = !skipOwnershipCheck && !localNodeIsOwner(entry.getKey());
+            boolean isForeignOwned = !skipOwnershipCheck && !isOwner(entry.getKey(), command);
             if (isForeignOwned && !entry.isRemoved()) {
                if (configuration.clustering().l1().enabled()) {
                   // transform for L1
@@ -406,6 +455,13 @@ public void commitEntry(CacheEntry entry, EntryVersion newVersion, FlagAffectedC
          }
       }
 
+      private boolean isOwner(Object key, FlagAffectedCommand command) {
+         if (command instanceof DataCommand && ((DataCommand) command).getKey() == key) {
+            return localNodeIsOwner((DataCommand) command);
+         }
+         return localNodeIsOwner(key);
+      }
+
       @Override
       public Collection<Address> getOwners(Collection<Object> keys) {
          return dm.getAffectedNodes(keys);
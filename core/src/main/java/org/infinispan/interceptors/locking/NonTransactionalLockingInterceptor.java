@@ -67,7 +67,7 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
    public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
       assertNonTransactional(ctx);
       try {
-         if (!shouldLock(command.getKey(), command))
+         if (!shouldLock(command))
             return invokeNextInterceptor(ctx, command);
          lockKey(ctx, command);
          return invokeNextInterceptor(ctx, command);
@@ -120,7 +120,7 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       assertNonTransactional(ctx);
       try {
-         if (!shouldLock(command.getKey(), command))
+         if (!shouldLock(command))
             return invokeNextInterceptor(ctx, command);
          lockKey(ctx, command);
          return invokeNextInterceptor(ctx, command);
@@ -135,7 +135,7 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       assertNonTransactional(ctx);
       try {
-         if (!shouldLock(command.getKey(), command))
+         if (!shouldLock(command))
             return invokeNextInterceptor(ctx, command);
          lockKey(ctx, command);
          return invokeNextInterceptor(ctx, command);
@@ -172,6 +172,16 @@ private boolean shouldLock(Object key, FlagAffectedCommand command) {
       return shouldLock;
    }
 
+   private boolean shouldLock(DataWriteCommand command) {
+      if (hasSkipLocking(command))
+         return false;
+      if (!cacheConfiguration.clustering().cacheMode().isClustered())
+         return true;
+      boolean shouldLock = cdl.localNodeIsPrimaryOwner(command);
+      log.tracef("Are (%s) we the lock owners for key '%s'? %s", cdl.getAddress(), command.getKey(), shouldLock);
+      return shouldLock;
+   }
+
    private void lockKey(InvocationContext ctx, DataWriteCommand command) throws InterruptedException {
       boolean skipLocking = hasSkipLocking(command);
       long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
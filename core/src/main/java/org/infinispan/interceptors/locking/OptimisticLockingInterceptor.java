@@ -243,7 +243,7 @@ private void lockAndRecord(TxInvocationContext txC, boolean skipLocking, long lo
 
       @Override
       public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand command) throws Throwable {
-         if (cdl.localNodeIsOwner(command.getKey())) {
+         if (cdl.localNodeIsOwner(command)) {
             Object[] compositeKeys = command.getCompositeKeys();
             TxInvocationContext txC = (TxInvocationContext) ctx;
             boolean skipLocking = hasSkipLocking(command);
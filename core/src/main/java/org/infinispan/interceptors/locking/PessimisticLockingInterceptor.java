@@ -114,13 +114,13 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
       try {
          // The primary owner check doesn't work for preload, as we don't have a topology yet
          boolean localOnly = command.hasFlag(Flag.CACHE_MODE_LOCAL);
-         boolean localLock = localOnly || cdl.localNodeIsPrimaryOwner(command.getKey());
+         boolean localLock = localOnly || cdl.localNodeIsPrimaryOwner(command);
          acquireRemoteIfNeeded(ctx, command, localLock);
          if (localLock) {
             boolean skipLocking = hasSkipLocking(command);
             long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
             lockKeyAndCheckOwnership(ctx, command.getKey(), lockTimeout, skipLocking);
-         } else if (cdl.localNodeIsOwner(command.getKey())) {
+         } else if (cdl.localNodeIsOwner(command)) {
             txContext.getCacheTransaction().addBackupLockForKey(command.getKey());
          }
          return invokeNextInterceptor(ctx, command);
@@ -150,7 +150,7 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       try {
-         final boolean localNodeOwnsLock = cdl.localNodeIsPrimaryOwner(command.getKey());
+         final boolean localNodeOwnsLock = cdl.localNodeIsPrimaryOwner(command);
          acquireRemoteIfNeeded(ctx, command, localNodeOwnsLock);
          final TxInvocationContext txContext = (TxInvocationContext) ctx;
          boolean skipLocking = hasSkipLocking(command);
@@ -172,7 +172,7 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
          acquireRemoteIfNeeded(ctx, keysToLock, command);
          boolean skipLocking = hasSkipLocking(command);
          long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
-         if (cdl.localNodeIsOwner(command.getKey())) {
+         if (cdl.localNodeIsOwner(command)) {
             for (Object key : compositeKeys) {
                lockKey(ctx, key, lockTimeout, skipLocking);
             }      
@@ -186,7 +186,7 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       try {
-         final boolean localNodeOwnsLock = cdl.localNodeIsPrimaryOwner(command.getKey());
+         final boolean localNodeOwnsLock = cdl.localNodeIsPrimaryOwner(command);
          acquireRemoteIfNeeded(ctx, command, localNodeOwnsLock);
          final TxInvocationContext txContext = (TxInvocationContext) ctx;
          boolean skipLocking = hasSkipLocking(command);
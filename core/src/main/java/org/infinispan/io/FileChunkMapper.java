@@ -22,14 +22,31 @@
  */
 package org.infinispan.io;
 
+import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
+import org.infinispan.CacheException;
+import org.infinispan.context.Flag;
 import org.jgroups.logging.Log;
 import org.jgroups.logging.LogFactory;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 /**
  * Takes care of properly storing and retrieving file chunks from/to cache.
  * Each chunk's key is composed of the file path and the chunk's number. The value is a byte array, which
  * is either chunkSize bytes long or less than that in the case of the last chunk.
+ * <p/>
+ * Sequential readers can have the chunks following the one being read fetched ahead of time, and writers can have
+ * a bounded number of chunk writes in flight, so that a stream isn't stalled by a round trip per chunk. A chunk
+ * fetched ahead is discarded if the file's modification time, which writers update in the replicated metadata once
+ * their chunk writes have completed, changed in the meantime, or if a chunk mapping to the same write counter of the
+ * file's {@link GridFilesystem} was written since, which also covers the writes of this node not flushed yet.
  *
  * @author Marko Luksa
  */
@@ -38,11 +55,31 @@ class FileChunkMapper {
    private static final Log log = LogFactory.getLog(FileChunkMapper.class);
 
    private final GridFile file;
+   private final GridFilesystem fs;
    private final Cache<String, byte[]> cache;
+   private final AdvancedCache<String, byte[]> writeCache;
+   private final int readAhead;
+   private final int writeWindow;
+
+   private final Map<Integer, Prefetch> prefetched = new HashMap<Integer, Prefetch>();
+   private final LinkedList<PendingWrite> pendingWrites = new LinkedList<PendingWrite>();
 
    public FileChunkMapper(GridFile file, Cache<String, byte[]> cache) {
+      this(file, cache, 0, 0);
+   }
+
+   /**
+    * @param readAhead the number of chunks fetched ahead of the chunk being read
+    * @param writeWindow the maximum number of chunk writes in flight, 0 to write chunks synchronously
+    */
+   public FileChunkMapper(GridFile file, Cache<String, byte[]> cache, int readAhead, int writeWindow) {
       this.file = file;
+      this.fs = file.getFilesystem();
       this.cache = cache;
+      // The previous chunk is never needed when overwriting it
+      this.writeCache = cache.getAdvancedCache().withFlags(Flag.SKIP_REMOTE_LOOKUP, Flag.IGNORE_RETURN_VALUES);
+      this.readAhead = readAhead;
+      this.writeWindow = writeWindow;
    }
 
    public int getChunkSize() {
@@ -57,19 +94,121 @@ public byte[] fetchChunk(int chunkNumber) {
       return val;
    }
 
-   public void storeChunk(int chunkNumber, byte[] buffer, int length) {
+   /**
+    * Returns the given chunk of a file being read sequentially, fetching the chunks up to readAhead chunks after it,
+    * but not past lastChunkNumber, in the background.
+    */
+   public byte[] readChunk(int chunkNumber, int lastChunkNumber) {
+      if (readAhead <= 0)
+         return fetchChunk(chunkNumber);
+
+      String key = getChunkKey(chunkNumber);
+      // read the metadata before fetching any chunk, so that a write published while the chunks are fetched
+      // invalidates them
+      long modificationTime = file.lastModified();
+      Prefetch prefetch = prefetched.remove(chunkNumber);
+      Future<byte[]> current = null;
+      if (prefetch != null) {
+         if (prefetch.modificationTime == modificationTime && prefetch.writes == fs.getChunkWrites(key)) {
+            current = prefetch.future;
+         } else {
+            // The chunk may have been rewritten after it was fetched
+            prefetch.future.cancel(false);
+         }
+      }
+      // Chunks before the requested one won't be read any more, e.g. after a seek
+      for (Iterator<Map.Entry<Integer, Prefetch>> it = prefetched.entrySet().iterator(); it.hasNext(); ) {
+         Map.Entry<Integer, Prefetch> e = it.next();
+         int prefetchedNumber = e.getKey();
+         if (prefetchedNumber < chunkNumber || prefetchedNumber > chunkNumber + readAhead) {
+            e.getValue().future.cancel(false);
+            it.remove();
+         }
+      }
+      if (current == null)
+         current = cache.getAsync(key);
+      for (int i = chunkNumber + 1; i <= Math.min(chunkNumber + readAhead, lastChunkNumber); i++) {
+         if (!prefetched.containsKey(i)) {
+            String prefetchKey = getChunkKey(i);
+            // read the counter first, so that a write completing while the chunk is fetched invalidates it
+            long writes = fs.getChunkWrites(prefetchKey);
+            prefetched.put(i, new Prefetch(cache.getAsync(prefetchKey), modificationTime, writes));
+         }
+      }
+
+      try {
+         byte[] val = current.get();
+         if (log.isTraceEnabled())
+            log.trace("fetched key=" + key + ": " + (val != null ? val.length + " bytes" : "null"));
+         return val;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      } catch (ExecutionException e) {
+         throw new CacheException(e.getCause());
+      }
+   }
+
+   /**
+    * Cancels the fetches of the chunks after the one read last.
+    */
+   public void cancelPrefetches() {
+      for (Prefetch prefetch : prefetched.values())
+         prefetch.future.cancel(false);
+      prefetched.clear();
+   }
+
+   /**
+    * Stores the given chunk, whose array is handed over to the cache and must not be modified afterwards. The
+    * write is asynchronous if a write window was configured, waiting only while the window is full.
+    */
+   public void storeChunkAsync(int chunkNumber, byte[] chunk) throws IOException {
       String key = getChunkKey(chunkNumber);
-      byte[] val = trim(buffer, length);
-      cache.put(key, val);
+      if (writeWindow <= 0) {
+         writeCache.put(key, chunk);
+         chunkWritten(key);
+      } else {
+         if (pendingWrites.size() >= writeWindow)
+            waitFor(pendingWrites.removeFirst());
+         pendingWrites.add(new PendingWrite(key, writeCache.putAsync(key, chunk)));
+      }
       if (log.isTraceEnabled())
-         log.trace("put(): key=" + key + ": " + val.length + " bytes");
+         log.trace("put(): key=" + key + ": " + chunk.length + " bytes");
+   }
+
+   /**
+    * Waits for all the chunk writes in flight to complete.
+    */
+   public void waitForWrites() throws IOException {
+      while (!pendingWrites.isEmpty())
+         waitFor(pendingWrites.removeFirst());
+   }
+
+   private void waitFor(PendingWrite write) throws IOException {
+      try {
+         write.future.get();
+         chunkWritten(write.key);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IOException("Interrupted while writing a chunk of " + file.getAbsolutePath());
+      } catch (ExecutionException e) {
+         IOException ioe = new IOException("Failed writing a chunk of " + file.getAbsolutePath());
+         ioe.initCause(e.getCause());
+         throw ioe;
+      }
    }
 
    public void removeChunk(int chunkNumber) {
-      cache.remove(getChunkKey(chunkNumber));
+      String key = getChunkKey(chunkNumber);
+      cache.remove(key);
+      chunkWritten(key);
+   }
+
+   private void chunkWritten(String key) {
+      fs.chunkWritten(key);
    }
 
-   private byte[] trim(byte[] buffer, int length) {
+   byte[] trim(byte[] buffer, int length) {
       byte[] val = new byte[length];
       System.arraycopy(buffer, 0, val, 0, length);
       return val;
@@ -82,4 +221,26 @@ private String getChunkKey(int chunkNumber) {
    static String getChunkKey(String absoluteFilePath, int chunkNumber) {
       return absoluteFilePath + ".#" + chunkNumber;
    }
+
+   private static final class Prefetch {
+      final Future<byte[]> future;
+      final long modificationTime;
+      final long writes;
+
+      Prefetch(Future<byte[]> future, long modificationTime, long writes) {
+         this.future = future;
+         this.modificationTime = modificationTime;
+         this.writes = writes;
+      }
+   }
+
+   private static final class PendingWrite {
+      final String key;
+      final Future<byte[]> future;
+
+      PendingWrite(String key, Future<byte[]> future) {
+         this.key = key;
+         this.future = future;
+      }
+   }
 }
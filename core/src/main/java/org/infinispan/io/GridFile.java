@@ -270,6 +270,10 @@ public File getParentFile() {
       return new GridFile(parentPath, metadataCache, chunkSize, fs);
    }
 
+   GridFilesystem getFilesystem() {
+      return fs;
+   }
+
    @Override
    public long lastModified() {
       Metadata metadata = getMetadata();
@@ -33,6 +33,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static org.infinispan.context.Flag.FORCE_ASYNCHRONOUS;
 import static org.infinispan.context.Flag.FORCE_SYNCHRONOUS;
@@ -50,6 +51,14 @@ public class GridFilesystem {
    protected final Cache<String, byte[]> data;
    protected final Cache<String, GridFile.Metadata> metadata;
    protected final int defaultChunkSize;
+   protected final int readAheadChunks;
+   protected final int writeWindowChunks;
+
+   /**
+    * Counts the chunk writes completed through this filesystem, striped by chunk key, so that readers can discard
+    * the chunks they fetched ahead before a write of this filesystem completed
+    */
+   private final AtomicLongArray chunkWrites = new AtomicLongArray(1024);
 
    /**
     * Creates an instance. The data and metadata caches should already have been setup and started
@@ -59,6 +68,22 @@ public class GridFilesystem {
     * @param defaultChunkSize the default size of the file chunks
     */
    public GridFilesystem(Cache<String, byte[]> data, Cache<String, GridFile.Metadata> metadata, int defaultChunkSize) {
+      this(data, metadata, defaultChunkSize, 0, 0);
+   }
+
+   /**
+    * Creates an instance. The data and metadata caches should already have been setup and started
+    *
+    * @param data the cache where the actual file contents are stored
+    * @param metadata the cache where file meta-data is stored
+    * @param defaultChunkSize the default size of the file chunks
+    * @param readAheadChunks the number of chunks input streams and readable channels fetch ahead of the one being
+    *                        read, 0 to fetch each chunk only when it is read
+    * @param writeWindowChunks the number of chunk writes output streams and writable channels keep in flight
+    *                          before waiting for the oldest one, 0 to write each chunk synchronously
+    */
+   public GridFilesystem(Cache<String, byte[]> data, Cache<String, GridFile.Metadata> metadata, int defaultChunkSize,
+                         int readAheadChunks, int writeWindowChunks) {
       if(metadata.getCacheConfiguration().clustering().cacheMode().isClustered() &&
             !metadata.getCacheConfiguration().clustering().cacheMode().isSynchronous()){
          log.warn("Cache used for Grid metadata should be synchronous.");
@@ -66,6 +91,8 @@ public GridFilesystem(Cache<String, byte[]> data, Cache<String, GridFile.Metadat
       this.data = data;
       this.metadata = metadata;
       this.defaultChunkSize = defaultChunkSize;
+      this.readAheadChunks = readAheadChunks;
+      this.writeWindowChunks = writeWindowChunks;
    }
 
    public GridFilesystem(Cache<String, byte[]> data, Cache<String, GridFile.Metadata> metadata) {
@@ -146,7 +173,7 @@ public OutputStream getOutput(String pathname, boolean append, int chunkSize) th
       GridFile file = (GridFile) getFile(pathname, chunkSize);
       checkIsNotDirectory(file);
       createIfNeeded(file);
-      return new GridOutputStream(file, append, data);
+      return new GridOutputStream(file, append, data, writeWindowChunks);
    }
 
    /**
@@ -158,7 +185,7 @@ public OutputStream getOutput(String pathname, boolean append, int chunkSize) th
    public OutputStream getOutput(GridFile file) throws IOException {
       checkIsNotDirectory(file);
       createIfNeeded(file);
-      return new GridOutputStream(file, false, data);
+      return new GridOutputStream(file, false, data, writeWindowChunks);
    }
 
    private void checkIsNotDirectory(GridFile file) throws FileNotFoundException {
@@ -181,7 +208,7 @@ private void createIfNeeded(GridFile file) throws IOException {
    public InputStream getInput(String pathname) throws FileNotFoundException {
       GridFile file = (GridFile) getFile(pathname);
       checkFileIsReadable(file);
-      return new GridInputStream(file, data);
+      return new GridInputStream(file, data, readAheadChunks);
    }
 
    private void checkFileIsReadable(GridFile file) throws FileNotFoundException {
@@ -215,7 +242,7 @@ public InputStream getInput(File file) throws FileNotFoundException {
    public ReadableGridFileChannel getReadableChannel(String pathname) throws FileNotFoundException {
       GridFile file = (GridFile) getFile(pathname);
       checkFileIsReadable(file);
-      return new ReadableGridFileChannel(file, data);
+      return new ReadableGridFileChannel(file, data, readAheadChunks);
    }
 
    /**
@@ -255,7 +282,7 @@ public WritableGridFileChannel getWritableChannel(String pathname, boolean appen
       GridFile file = (GridFile) getFile(pathname, chunkSize);
       checkIsNotDirectory(file);
       createIfNeeded(file);
-      return new WritableGridFileChannel(file, data, append);
+      return new WritableGridFileChannel(file, data, append, writeWindowChunks);
    }
 
    /**
@@ -277,4 +304,19 @@ void remove(String absolutePath, boolean synchronous) {
       for (int i = 0; i < numChunks; i++)
          advancedCache.remove(FileChunkMapper.getChunkKey(absolutePath, i));
    }
+
+   void chunkWritten(String chunkKey) {
+      chunkWrites.incrementAndGet(writeStripe(chunkKey));
+   }
+
+   long getChunkWrites(String chunkKey) {
+      return chunkWrites.get(writeStripe(chunkKey));
+   }
+
+   private int writeStripe(String chunkKey) {
+      int h = chunkKey.hashCode();
+      h ^= (h >>> 20) ^ (h >>> 12);
+      h ^= (h >>> 7) ^ (h >>> 4);
+      return h & (chunkWrites.length() - 1);
+   }
 }
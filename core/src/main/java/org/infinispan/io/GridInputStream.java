@@ -40,8 +40,8 @@ public class GridInputStream extends InputStream {
    private boolean closed = false;
    private FileChunkMapper fileChunkMapper;
 
-   GridInputStream(GridFile file, Cache<String, byte[]> cache) {
-      fileChunkMapper = new FileChunkMapper(file, cache);
+   GridInputStream(GridFile file, Cache<String, byte[]> cache, int readAhead) {
+      fileChunkMapper = new FileChunkMapper(file, cache, readAhead, 0);
       fileSize = (int)file.length();
    }
 
@@ -120,6 +120,7 @@ public int available() throws IOException {
    public void close() throws IOException {
       localIndex = index = 0;
       closed = true;
+      fileChunkMapper.cancelPrefetches();
    }
 
    private boolean isEndReached() {
@@ -141,7 +142,7 @@ private int getBytesRemainingInStream() {
    }
 
    private void fetchChunk() {
-      currentBuffer = fileChunkMapper.fetchChunk(getChunkNumber());
+      currentBuffer = fileChunkMapper.readChunk(getChunkNumber(), getLastChunkNumber());
       localIndex = 0;
    }
 
@@ -149,6 +150,10 @@ private int getChunkNumber() {
       return index / getChunkSize();
    }
 
+   private int getLastChunkNumber() {
+      return (fileSize - 1) / getChunkSize();
+   }
+
    private int getChunkSize() {
       return fileChunkMapper.getChunkSize();
    }
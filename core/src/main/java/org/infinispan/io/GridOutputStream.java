@@ -35,15 +35,15 @@ public class GridOutputStream extends OutputStream {
 
    private int index;                     // index into the file for writing
    private int localIndex;
-   private final byte[] currentBuffer;
+   private byte[] currentBuffer;
    private int numberOfChunksWhenOpened;
 
    private FileChunkMapper fileChunkMapper;
    private GridFile file;
    private boolean closed;
 
-   GridOutputStream(GridFile file, boolean append, Cache<String, byte[]> cache) {
-      fileChunkMapper = new FileChunkMapper(file, cache);
+   GridOutputStream(GridFile file, boolean append, Cache<String, byte[]> cache, int writeWindow) {
+      fileChunkMapper = new FileChunkMapper(file, cache, 0, writeWindow);
       this.file = file;
 
       index = append ? (int) file.length() : 0;
@@ -83,10 +83,8 @@ private int getLastChunkNumber() {
    public void write(int b) throws IOException {
       checkClosed();
       int remaining = getBytesRemainingInChunk();
-      if (remaining == 0) {
-         flush();
-         localIndex = 0;
-      }
+      if (remaining == 0)
+         storeFullChunk();
       currentBuffer[localIndex] = (byte) b;
       localIndex++;
       index++;
@@ -120,8 +118,7 @@ public void write(byte[] b, int off, int len) throws IOException {
    private int writeToChunk(byte[] b, int off, int len) throws IOException {
       int remaining = getBytesRemainingInChunk();
       if (remaining == 0) {
-         flush();
-         localIndex = 0;
+         storeFullChunk();
          remaining = getChunkSize();
       }
       int bytesToWrite = Math.min(remaining, len);
@@ -151,11 +148,22 @@ private void removeExcessChunks() {
    @Override
    public void flush() throws IOException {
       storeChunk();
+      fileChunkMapper.waitForWrites();
       file.setLength(index);
    }
 
-   private void storeChunk() {
-      fileChunkMapper.storeChunk(getChunkNumber(index - 1), currentBuffer, localIndex);
+   private void storeChunk() throws IOException {
+      fileChunkMapper.storeChunkAsync(getChunkNumber(index - 1), fileChunkMapper.trim(currentBuffer, localIndex));
+   }
+
+   /**
+    * Stores the chunk just filled without waiting for the write nor updating the file's metadata, which is only
+    * done when flushing. The buffer is handed over to the cache, so a new one is used for the next chunk.
+    */
+   private void storeFullChunk() throws IOException {
+      fileChunkMapper.storeChunkAsync(getChunkNumber(index - 1), currentBuffer);
+      currentBuffer = createEmptyChunk();
+      localIndex = 0;
    }
 
    private int getBytesRemainingInChunk() {
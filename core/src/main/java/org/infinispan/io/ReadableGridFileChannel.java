@@ -43,8 +43,8 @@ public class ReadableGridFileChannel implements ReadableByteChannel {
    private FileChunkMapper fileChunkMapper;
    private long fileLength;
 
-   ReadableGridFileChannel(GridFile file, Cache<String, byte[]> cache) {
-      fileChunkMapper = new FileChunkMapper(file, cache);
+   ReadableGridFileChannel(GridFile file, Cache<String, byte[]> cache, int readAhead) {
+      fileChunkMapper = new FileChunkMapper(file, cache, readAhead, 0);
       fileLength = (int) file.length();
    }
 
@@ -76,7 +76,7 @@ private int readFromChunk(ByteBuffer dst, long len) {
 
    private void fetchNextChunk() {
       int chunkNumber = getChunkNumber(position);
-      currentBuffer = fileChunkMapper.fetchChunk(chunkNumber);
+      currentBuffer = fileChunkMapper.readChunk(chunkNumber, getLastChunkNumber());
       localIndex = 0;
    }
 
@@ -93,6 +93,7 @@ public boolean isOpen() {
    public void close() throws IOException {
       reset();
       closed = true;
+      fileChunkMapper.cancelPrefetches();
    }
 
    public long position() throws IOException {
@@ -109,7 +110,7 @@ public void position(long newPosition) throws IOException {
       int newPos = (int) newPosition;
       int chunkNumberOfNewPosition = getChunkNumber(newPos);
       if (getChunkNumber(position - 1) != chunkNumberOfNewPosition) {
-         currentBuffer = fileChunkMapper.fetchChunk(chunkNumberOfNewPosition);
+         currentBuffer = fileChunkMapper.readChunk(chunkNumberOfNewPosition, getLastChunkNumber());
       }
       position = newPos;
       localIndex = newPos % getChunkSize();
@@ -129,6 +130,10 @@ private int getChunkNumber(int position) {
       return position < 0 ? -1 : (position / getChunkSize());
    }
 
+   private int getLastChunkNumber() {
+      return getChunkNumber((int) fileLength - 1);
+   }
+
    private int getChunkSize() {
       return fileChunkMapper.getChunkSize();
    }
@@ -43,8 +43,8 @@ public class WritableGridFileChannel implements WritableByteChannel {
    private FileChunkMapper fileChunkMapper;
    private GridFile file;
 
-   WritableGridFileChannel(GridFile file, Cache<String, byte[]> cache, boolean append) {
-      fileChunkMapper = new FileChunkMapper(file, cache);
+   WritableGridFileChannel(GridFile file, Cache<String, byte[]> cache, boolean append, int writeWindow) {
+      fileChunkMapper = new FileChunkMapper(file, cache, 0, writeWindow);
       this.file = file;
 
       if (append)
@@ -105,8 +105,7 @@ public int write(ByteBuffer src) throws IOException {
    private int writeToChunk(ByteBuffer src) throws IOException {
       int remainingInChunk = getBytesRemainingInChunk();
       if (remainingInChunk == 0) {
-         flush();
-         localIndex = 0;
+         storeFullChunk();
          remainingInChunk = getChunkSize();
       }
 
@@ -123,6 +122,7 @@ private int getBytesRemainingInChunk() {
 
    public void flush() throws IOException {
       storeChunkInCache();
+      fileChunkMapper.waitForWrites();
       updateFileLength();
    }
 
@@ -130,8 +130,18 @@ private void updateFileLength() {
       file.setLength(position);
    }
 
-   private void storeChunkInCache() {
-      fileChunkMapper.storeChunk(getChunkNumberOfPreviousByte(), currentBuffer, localIndex);
+   private void storeChunkInCache() throws IOException {
+      fileChunkMapper.storeChunkAsync(getChunkNumberOfPreviousByte(), fileChunkMapper.trim(currentBuffer, localIndex));
+   }
+
+   /**
+    * Stores the chunk just filled without waiting for the write nor updating the file's length, which is only done
+    * when flushing. The buffer is handed over to the cache, so a new one is used for the next chunk.
+    */
+   private void storeFullChunk() throws IOException {
+      fileChunkMapper.storeChunkAsync(getChunkNumberOfPreviousByte(), currentBuffer);
+      currentBuffer = createEmptyChunk();
+      localIndex = 0;
    }
 
    private int getChunkNumberOfPreviousByte() {
@@ -27,6 +27,7 @@
 import org.infinispan.loaders.modifications.Remove;
 import org.infinispan.loaders.modifications.Store;
 import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.marshall.compression.CompressingMarshaller;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.CollectionFactory;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
@@ -64,6 +65,15 @@ public abstract class AbstractCacheStore extends AbstractCacheLoader implements
    public void init(CacheLoaderConfig config, Cache<?, ?> cache, StreamingMarshaller m) throws CacheLoaderException{
       super.init(config, cache, m);
       this.config = (AbstractCacheStoreConfig) config;
+      if (this.config.isCompactEntryFormat()) {
+         if (marshaller instanceof CompressingMarshaller) {
+            // compress the compact records, which don't go through the byte array methods of the cache's marshaller
+            CompressingMarshaller compressing = (CompressingMarshaller) marshaller;
+            marshaller = compressing.withDelegate(new CompactEntryMarshaller(compressing.getDelegate()));
+         } else {
+            marshaller = new CompactEntryMarshaller(marshaller);
+         }
+      }
    }
 
    protected final int getConcurrencyLevel() {
@@ -42,6 +42,9 @@
  * default, this is set to <tt>false</tt>.</li>
  * <li><tt>purgerThreads</tt> - number of threads to use when purging. Defaults to <tt>1</tt> if
  * <tt>purgeSynchronously</tt> is <tt>true</tt>, ignored if <tt>false</tt>.</li>
+ * <li><tt>compactEntryFormat</tt> - whether entries are written in the format of
+ * {@link CompactEntryMarshaller} rather than through the cache's marshaller. By default, this is set to
+ * <tt>false</tt>.</li>
  * </ul>
  * 
  * 
@@ -76,6 +79,8 @@ public class AbstractCacheStoreConfig extends AbstractCacheLoaderConfig implemen
    @ConfigurationDocRef(bean=AbstractCacheStoreConfig.class,targetElement="setPurgerThreads")
    protected Integer purgerThreads = 1;
 
+   protected Boolean compactEntryFormat = false;
+
    protected SingletonStoreConfig singletonStore = new SingletonStoreConfig();
 
    protected AsyncStoreConfig async = new AsyncStoreConfig();
@@ -264,6 +269,24 @@ public void setPurgeOnStartup(Boolean purgeOnStartup) {
       this.purgeOnStartup = purgeOnStartup;
    }
 
+   @XmlTransient
+   public Boolean isCompactEntryFormat() {
+      return compactEntryFormat;
+   }
+
+   /**
+    * If true, entries are written in a compact binary format instead of through the cache's marshaller. Existing
+    * records remain readable, but records written in the compact format cannot be read once it is disabled again.
+    * When store compression is enabled, the compact records are compressed as well.
+    *
+    * @param compactEntryFormat
+    * @see CompactEntryMarshaller
+    */
+   public void setCompactEntryFormat(Boolean compactEntryFormat) {
+      testImmutability("compactEntryFormat");
+      this.compactEntryFormat = compactEntryFormat;
+   }
+
    @Override
    @XmlElement(name="singletonStore")
    public SingletonStoreConfig getSingletonStoreConfig() {
@@ -314,7 +337,8 @@ protected boolean equalsExcludingProperties(Object obj) {
             && Util.safeEquals(this.singletonStore, other.singletonStore)
             && Util.safeEquals(this.async, other.async)
             && Util.safeEquals(this.purgeSynchronously, other.purgeSynchronously)
-            && Util.safeEquals(this.purgerThreads, other.purgerThreads);
+            && Util.safeEquals(this.purgerThreads, other.purgerThreads)
+            && Util.safeEquals(this.compactEntryFormat, other.compactEntryFormat);
    }
 
    @Override
@@ -331,6 +355,7 @@ protected int hashCodeExcludingProperties() {
       result = 31 * result + (async == null ? 0 : async.hashCode());
       result = 31 * result + (purgeOnStartup ? 0 : 1);
       result = 31 * result + (purgerThreads);
+      result = 31 * result + (compactEntryFormat ? 0 : 1);
       return result;
    }
 
@@ -345,6 +370,7 @@ public String toString() {
             .append(", async{").append(async).append('}')
             .append(", purgeSynchronously{").append(purgeSynchronously).append('}')
             .append(", purgerThreads{").append(purgerThreads).append('}')
+            .append(", compactEntryFormat{").append(compactEntryFormat).append('}')
             .toString();
    }
 
@@ -57,6 +57,8 @@
 import org.infinispan.loaders.decorators.SingletonStore;
 import org.infinispan.loaders.decorators.SingletonStoreConfig;
 import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.marshall.compression.CompressingMarshaller;
+import org.infinispan.marshall.compression.PayloadCompressor;
 import org.infinispan.util.InfinispanCollections;
 import org.infinispan.util.Util;
 import org.infinispan.util.logging.Log;
@@ -76,9 +78,14 @@ public class CacheLoaderManagerImpl implements CacheLoaderManager {
    @Inject
    public void inject(AdvancedCache<Object, Object> cache,
                       @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller,
-                      Configuration configuration, InvocationContextContainer icc, TransactionManager transactionManager) {
+                      Configuration configuration, InvocationContextContainer icc, TransactionManager transactionManager,
+                      PayloadCompressor payloadCompressor) {
       this.cache = cache;
-      this.m = marshaller;
+      if (configuration.compression().enabled() && configuration.compression().compressStores()) {
+         this.m = new CompressingMarshaller(marshaller, payloadCompressor);
+      } else {
+         this.m = marshaller;
+      }
       this.configuration = configuration;
       this.icc = icc;
       this.transactionManager = transactionManager;
@@ -0,0 +1,345 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.loaders;
+
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.InternalEntryFactoryImpl;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.container.entries.versioned.Versioned;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.io.ByteBuffer;
+import org.infinispan.io.ExposedByteArrayOutputStream;
+import org.infinispan.io.UnsignedNumeric;
+import org.infinispan.loaders.bucket.Bucket;
+import org.infinispan.marshall.AbstractDelegatingMarshaller;
+import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.marshall.compression.CompressedPayloads;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A marshaller for cache stores which writes {@link InternalCacheEntry}, {@link InternalCacheValue} and {@link Bucket}
+ * instances in a compact format of its own, and delegates everything else to the cache's marshaller.
+ * <p/>
+ * A record starts with a two byte magic number and a format version, followed by the record type. An entry is then
+ * written as a flags byte, the key and the value when they are <tt>byte[]</tt>, as in caches used through Hot Rod, as
+ * length-prefixed byte arrays, and the expiration timestamps only when the entry is mortal or transient. Lengths and
+ * timestamps are variable length encoded. A bucket is an entry count followed by its entries. Keys and values of
+ * other types and the versions are all written, in order, by the delegate into a single marshalled section at the
+ * end of the record, so a record pays for at most one marshaller header.
+ * <p/>
+ * Reading accepts both this format and the delegate's, compressed or not, so a store can be switched over without
+ * migrating its contents. Records written in this format can only be read back with the compact format enabled.
+ *
+ * @see AbstractCacheStoreConfig#setCompactEntryFormat(Boolean)
+ * @since 5.3
+ */
+public class CompactEntryMarshaller extends AbstractDelegatingMarshaller {
+
+   private static final byte MAGIC_0 = (byte) 0xCE;
+   private static final byte MAGIC_1 = (byte) 0x7A;
+   public static final byte FORMAT_VERSION = 1;
+
+   private static final byte TYPE_ENTRY = 1;
+   private static final byte TYPE_VALUE = 2;
+   private static final byte TYPE_BUCKET = 3;
+
+   private static final int MORTAL = 1;
+   private static final int TRANSIENT = 1 << 1;
+   private static final int RAW_KEY = 1 << 2;
+   private static final int RAW_VALUE = 1 << 3;
+   private static final int VERSIONED = 1 << 4;
+
+   private static final int MARSHALLED = 1 << 7;
+
+   private static final int HEADER_LENGTH = 4;
+   private static final int TYPE_OFFSET = 3;
+
+   private final InternalEntryFactory entryFactory = new InternalEntryFactoryImpl();
+
+   public CompactEntryMarshaller(StreamingMarshaller marshaller) {
+      this.marshaller = marshaller;
+   }
+
+   /**
+    * Tells whether the given bytes start with a record written by this marshaller.
+    */
+   public static boolean isCompact(byte[] buf, int offset, int length) {
+      return length >= HEADER_LENGTH && buf[offset] == MAGIC_0 && buf[offset + 1] == MAGIC_1;
+   }
+
+   @Override
+   public void start() {
+      // the lifecycle of the delegate belongs to the cache
+   }
+
+   @Override
+   public void stop() {
+      // the lifecycle of the delegate belongs to the cache
+   }
+
+   @Override
+   public ByteBuffer objectToBuffer(Object o) throws IOException, InterruptedException {
+      ExposedByteArrayOutputStream out = encode(o);
+      return out == null ? marshaller.objectToBuffer(o) : new ByteBuffer(out.getRawBuffer(), 0, out.size());
+   }
+
+   @Override
+   public byte[] objectToByteBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
+      ExposedByteArrayOutputStream out = encode(obj);
+      return out == null ? marshaller.objectToByteBuffer(obj, estimatedSize) : toByteArray(out);
+   }
+
+   @Override
+   public byte[] objectToByteBuffer(Object obj) throws IOException, InterruptedException {
+      ExposedByteArrayOutputStream out = encode(obj);
+      return out == null ? marshaller.objectToByteBuffer(obj) : toByteArray(out);
+   }
+
+   @Override
+   public Object objectFromByteBuffer(byte[] buf) throws IOException, ClassNotFoundException {
+      return objectFromByteBuffer(buf, 0, buf.length);
+   }
+
+   @Override
+   public Object objectFromByteBuffer(byte[] buf, int offset, int length) throws IOException, ClassNotFoundException {
+      if (CompressedPayloads.isCompressed(buf, offset, length)) {
+         // compact records are compressed as a whole when store compression is enabled
+         ByteBuffer uncompressed = CompressedPayloads.decompress(buf, offset, length);
+         buf = uncompressed.getBuf();
+         offset = uncompressed.getOffset();
+         length = uncompressed.getLength();
+      }
+      if (!isCompact(buf, offset, length)) {
+         return marshaller.objectFromByteBuffer(buf, offset, length);
+      }
+      return decode(java.nio.ByteBuffer.wrap(buf, offset, length));
+   }
+
+   @Override
+   public Object objectFromInputStream(InputStream is) throws IOException, ClassNotFoundException {
+      ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream(Math.max(is.available(), 128));
+      byte[] buf = new byte[1024];
+      int bytesRead;
+      while ((bytesRead = is.read(buf, 0, buf.length)) != -1) {
+         bytes.write(buf, 0, bytesRead);
+      }
+      return objectFromByteBuffer(bytes.getRawBuffer(), 0, bytes.size());
+   }
+
+   private ExposedByteArrayOutputStream encode(Object o) throws IOException, InterruptedException {
+      ExposedByteArrayOutputStream out;
+      List<Object> marshalled = new ArrayList<Object>(4);
+      if (o instanceof InternalCacheEntry) {
+         InternalCacheEntry ice = (InternalCacheEntry) o;
+         out = startRecord(TYPE_ENTRY);
+         writeEntry(out, marshalled, ice.getKey(), ice.getValue(), ice.getVersion(), ice.getCreated(),
+                    ice.getLifespan(), ice.getLastUsed(), ice.getMaxIdle(), true);
+      } else if (o instanceof InternalCacheValue) {
+         InternalCacheValue icv = (InternalCacheValue) o;
+         out = startRecord(TYPE_VALUE);
+         writeEntry(out, marshalled, null, icv.getValue(), icv instanceof Versioned ? ((Versioned) icv).getVersion() : null,
+                    icv.getCreated(), icv.getLifespan(), icv.getLastUsed(), icv.getMaxIdle(), false);
+      } else if (o instanceof Bucket) {
+         Bucket bucket = (Bucket) o;
+         out = startRecord(TYPE_BUCKET);
+         UnsignedNumeric.writeUnsignedInt(out, bucket.getNumEntries());
+         for (InternalCacheEntry ice : bucket.getStoredEntries()) {
+            writeEntry(out, marshalled, ice.getKey(), ice.getValue(), ice.getVersion(), ice.getCreated(),
+                       ice.getLifespan(), ice.getLastUsed(), ice.getMaxIdle(), true);
+         }
+      } else {
+         return null;
+      }
+      if (!marshalled.isEmpty()) {
+         out.getRawBuffer()[TYPE_OFFSET] |= MARSHALLED;
+         ObjectOutput oo = marshaller.startObjectOutput(out, false, 128);
+         try {
+            for (Object obj : marshalled) marshaller.objectToObjectStream(obj, oo);
+         } finally {
+            marshaller.finishObjectOutput(oo);
+         }
+      }
+      return out;
+   }
+
+   private ExposedByteArrayOutputStream startRecord(byte type) {
+      ExposedByteArrayOutputStream out = new ExposedByteArrayOutputStream(128);
+      out.write(MAGIC_0);
+      out.write(MAGIC_1);
+      out.write(FORMAT_VERSION);
+      out.write(type);
+      return out;
+   }
+
+   /**
+    * Writes the flags, the raw fields and the timestamps of an entry, and queues the fields which are not
+    * <tt>byte[]</tt> for the marshalled section of the record.
+    */
+   private static void writeEntry(ExposedByteArrayOutputStream out, List<Object> marshalled, Object key, Object value,
+                                  EntryVersion version, long created, long lifespan, long lastUsed, long maxIdle,
+                                  boolean withKey) throws IOException {
+      int flags = 0;
+      if (lifespan > -1) flags |= MORTAL;
+      if (maxIdle > -1) flags |= TRANSIENT;
+      if (withKey && key instanceof byte[]) flags |= RAW_KEY;
+      if (value instanceof byte[]) flags |= RAW_VALUE;
+      if (version != null) flags |= VERSIONED;
+      out.write(flags);
+      if (withKey) {
+         if ((flags & RAW_KEY) != 0) writeBytes(out, (byte[]) key); else marshalled.add(key);
+      }
+      if ((flags & RAW_VALUE) != 0) writeBytes(out, (byte[]) value); else marshalled.add(value);
+      if (version != null) marshalled.add(version);
+      if ((flags & MORTAL) != 0) {
+         UnsignedNumeric.writeUnsignedLong(out, Math.max(created, 0));
+         UnsignedNumeric.writeUnsignedLong(out, lifespan);
+      }
+      if ((flags & TRANSIENT) != 0) {
+         UnsignedNumeric.writeUnsignedLong(out, Math.max(lastUsed, 0));
+         UnsignedNumeric.writeUnsignedLong(out, maxIdle);
+      }
+   }
+
+   private static void writeBytes(ExposedByteArrayOutputStream out, byte[] bytes) throws IOException {
+      UnsignedNumeric.writeUnsignedInt(out, bytes.length);
+      out.write(bytes);
+   }
+
+   private Object decode(java.nio.ByteBuffer in) throws IOException, ClassNotFoundException {
+      in.position(in.position() + 2);
+      byte version = in.get();
+      if (version != FORMAT_VERSION) {
+         throw new IOException("Unsupported compact entry format version " + version);
+      }
+      int type = in.get() & 0xFF;
+      boolean withKey = true;
+      EntryRecord[] records;
+      switch (type & ~MARSHALLED) {
+         case TYPE_ENTRY:
+            records = new EntryRecord[] {readEntry(in, true)};
+            break;
+         case TYPE_VALUE:
+            withKey = false;
+            records = new EntryRecord[] {readEntry(in, false)};
+            break;
+         case TYPE_BUCKET:
+            records = new EntryRecord[UnsignedNumeric.readUnsignedInt(in)];
+            for (int i = 0; i < records.length; i++) {
+               records[i] = readEntry(in, true);
+            }
+            break;
+         default:
+            throw new IOException("Unknown compact record type " + type);
+      }
+      if ((type & MARSHALLED) != 0) readMarshalled(in, records, withKey);
+
+      switch (type & ~MARSHALLED) {
+         case TYPE_ENTRY:
+            return records[0].toEntry(entryFactory);
+         case TYPE_VALUE:
+            return records[0].toEntry(entryFactory).toInternalCacheValue();
+         default:
+            Bucket bucket = new Bucket();
+            for (EntryRecord record : records) {
+               bucket.addEntry(record.toEntry(entryFactory));
+            }
+            return bucket;
+      }
+   }
+
+   private static EntryRecord readEntry(java.nio.ByteBuffer in, boolean withKey) throws IOException {
+      EntryRecord record = new EntryRecord();
+      int flags = in.get();
+      record.flags = flags;
+      if (withKey && (flags & RAW_KEY) != 0) record.key = readBytes(in);
+      if ((flags & RAW_VALUE) != 0) record.value = readBytes(in);
+      if ((flags & MORTAL) != 0) {
+         record.created = UnsignedNumeric.readUnsignedLong(in);
+         record.lifespan = UnsignedNumeric.readUnsignedLong(in);
+      }
+      if ((flags & TRANSIENT) != 0) {
+         record.lastUsed = UnsignedNumeric.readUnsignedLong(in);
+         record.maxIdle = UnsignedNumeric.readUnsignedLong(in);
+      }
+      return record;
+   }
+
+   private static byte[] readBytes(java.nio.ByteBuffer in) throws IOException {
+      int length = UnsignedNumeric.readUnsignedInt(in);
+      if (length > in.remaining()) {
+         throw new IOException("Truncated compact entry record");
+      }
+      byte[] bytes = new byte[length];
+      in.get(bytes);
+      return bytes;
+   }
+
+   /**
+    * Reads the fields which were not <tt>byte[]</tt> from the marshalled section at the end of the record, in the
+    * order they were queued by {@link #writeEntry}.
+    */
+   private void readMarshalled(java.nio.ByteBuffer in, EntryRecord[] records, boolean withKey)
+         throws IOException, ClassNotFoundException {
+      ObjectInput oi = marshaller.startObjectInput(
+            new ByteArrayInputStream(in.array(), in.arrayOffset() + in.position(), in.remaining()), false);
+      try {
+         for (EntryRecord record : records) {
+            if (withKey && (record.flags & RAW_KEY) == 0) record.key = marshaller.objectFromObjectStream(oi);
+            if ((record.flags & RAW_VALUE) == 0) record.value = marshaller.objectFromObjectStream(oi);
+            if ((record.flags & VERSIONED) != 0) record.version = (EntryVersion) marshaller.objectFromObjectStream(oi);
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IOException("Interrupted while reading a compact entry record", e);
+      } finally {
+         marshaller.finishObjectInput(oi);
+      }
+   }
+
+   private static byte[] toByteArray(ExposedByteArrayOutputStream out) {
+      byte[] raw = out.getRawBuffer();
+      return raw.length == out.size() ? raw : Arrays.copyOf(raw, out.size());
+   }
+
+   private static final class EntryRecord {
+      int flags;
+      Object key;
+      Object value;
+      EntryVersion version;
+      long created = -1, lifespan = -1, lastUsed = -1, maxIdle = -1;
+
+      InternalCacheEntry toEntry(InternalEntryFactory entryFactory) {
+         return entryFactory.create(key, value, version, created, lifespan, lastUsed, maxIdle);
+      }
+   }
+}
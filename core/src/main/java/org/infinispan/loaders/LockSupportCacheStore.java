@@ -24,6 +24,7 @@
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.List;
 import java.util.Set;
 
 import org.infinispan.Cache;
@@ -92,6 +93,20 @@ protected final void lockForWriting(L key) {
       locks.acquireLock(key, true);
    }
 
+   /**
+    * Acquires write locks on all the given keys, in an order that cannot deadlock with other callers of this method.
+    */
+   protected final void lockAllForWriting(List<Object> keys) {
+      locks.acquireAllLocks(keys, true);
+   }
+
+   /**
+    * Releases the locks acquired through {@link #lockAllForWriting(java.util.List)}.
+    */
+   protected final void unlockAll(List<Object> keys) {
+      locks.releaseAllLocks(keys);
+   }
+
    /**
     * Acquires read lock on the given key.
     */
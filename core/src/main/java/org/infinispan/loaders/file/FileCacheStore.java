@@ -28,9 +28,11 @@
 import org.infinispan.loaders.CacheLoaderConfig;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.CacheLoaderMetadata;
+import org.infinispan.loaders.CompactEntryMarshaller;
 import org.infinispan.loaders.bucket.Bucket;
 import org.infinispan.loaders.bucket.BucketBasedCacheStore;
 import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.marshall.compression.CompressedPayloads;
 import org.infinispan.util.CollectionFactory;
 import org.infinispan.util.Util;
 import org.infinispan.util.logging.Log;
@@ -427,6 +429,10 @@ private Object objectFromInputStreamInReentrantMode(InputStream is) throws IOExc
          while ((bytesRead = is.read(buf, 0, buf.length)) != -1) {
             bytes.write(buf, 0, bytesRead);
          }
+         if (CompactEntryMarshaller.isCompact(bytes.getRawBuffer(), 0, bytes.size())
+               || CompressedPayloads.isCompressed(bytes.getRawBuffer(), 0, bytes.size())) {
+            return marshaller.objectFromByteBuffer(bytes.getRawBuffer(), 0, bytes.size());
+         }
          is = new ByteArrayInputStream(bytes.getRawBuffer(), 0, bytes.size());
          ObjectInput unmarshaller = marshaller.startObjectInput(is, false);
          try {
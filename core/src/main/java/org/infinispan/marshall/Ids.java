@@ -125,4 +125,5 @@ public interface Ids {
    int TOPOLOGY_AWARE_SYNC_CONSISTENT_HASH_FACTORY = 95;
    int SIMPLE_CLUSTERED_VERSION = 96;
    int DELTA_COMPOSITE_KEY = 97;
+   int MIME_CACHE_ENTRY = 98;
 }
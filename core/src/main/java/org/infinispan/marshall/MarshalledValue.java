@@ -24,10 +24,12 @@
 
 import org.infinispan.CacheException;
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.io.ByteBuffer;
 import org.infinispan.io.ExpandableMarshalledValueByteStream;
 import org.infinispan.io.ImmutableMarshalledValueByteStream;
 import org.infinispan.io.MarshalledValueByteStream;
 import org.infinispan.io.UnsignedNumeric;
+import org.infinispan.marshall.compression.PayloadCompressor;
 import org.infinispan.marshall.jboss.ExtendedRiverUnmarshaller;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.transaction.xa.GlobalTransaction;
@@ -79,18 +81,27 @@ public final class MarshalledValue implements Serializable {
    private transient volatile boolean equalityPreferenceForInstance = true;
    // A marshaller is needed at construction time to handle equals/hashCode impls
    private transient final StreamingMarshaller marshaller;
+   // Compresses the serialized form, if configured
+   private transient final PayloadCompressor compressor;
 
    public MarshalledValue(Object instance, boolean equalityPreferenceForInstance, StreamingMarshaller marshaller) {
+      this(instance, equalityPreferenceForInstance, marshaller, null);
+   }
+
+   public MarshalledValue(Object instance, boolean equalityPreferenceForInstance, StreamingMarshaller marshaller,
+                          PayloadCompressor compressor) {
       if (instance == null) throw new NullPointerException("Null values cannot be wrapped as MarshalledValues!");
 
       this.instance = instance;
       this.equalityPreferenceForInstance = equalityPreferenceForInstance;
       this.marshaller = marshaller;
+      this.compressor = compressor;
    }
 
    private MarshalledValue(byte[] raw, int cachedHashCode, StreamingMarshaller marshaller) {
       init(raw, cachedHashCode);
       this.marshaller = marshaller;
+      this.compressor = null;
    }
 
    private void init(byte[] raw, int cachedHashCode) {
@@ -122,7 +133,16 @@ private MarshalledValueByteStream serialize0() {
             }
             serialisedSize = baos.size();
             localRaw = baos;
-            raw = baos;
+            if (compressor != null) {
+               // the compressed form is deterministic, so it can still be used for equality checks
+               ByteBuffer compressed = compressor.compress(baos.getRaw(), 0, baos.size());
+               if (compressed != null) {
+                  byte[] compressedBytes = new byte[compressed.getLength()];
+                  System.arraycopy(compressed.getBuf(), compressed.getOffset(), compressedBytes, 0, compressedBytes.length);
+                  localRaw = new ImmutableMarshalledValueByteStream(compressedBytes);
+               }
+            }
+            raw = localRaw;
          } catch (Exception e) {
             throw new CacheException("Unable to marshall value " + instance, e);
          }
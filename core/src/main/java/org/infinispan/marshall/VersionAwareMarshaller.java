@@ -28,6 +28,7 @@
 import org.infinispan.context.InvocationContextContainer;
 import org.infinispan.io.ByteBuffer;
 import org.infinispan.io.ExposedByteArrayOutputStream;
+import org.infinispan.marshall.compression.CompressedPayloads;
 import org.infinispan.marshall.jboss.ExternalizerTable;
 import org.infinispan.marshall.jboss.JBossMarshaller;
 import org.infinispan.util.logging.Log;
@@ -44,7 +45,8 @@
 /**
  * A delegate to various other marshallers like {@link JBossMarshaller}. This delegating marshaller adds versioning
  * information to the stream when marshalling objects and is able to pick the appropriate marshaller to delegate to
- * based on the versioning information when unmarshalling objects.
+ * based on the versioning information when unmarshalling objects. Byte arrays compressed by a
+ * {@link org.infinispan.marshall.compression.PayloadCompressor} are decompressed before being unmarshalled.
  *
  * @author Manik Surtani
  * @author Galder Zamarreño
@@ -109,6 +111,12 @@ protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOExce
 
    @Override
    public Object objectFromByteBuffer(byte[] bytes, int offset, int len) throws IOException, ClassNotFoundException {
+      if (CompressedPayloads.isCompressed(bytes, offset, len)) {
+         ByteBuffer uncompressed = CompressedPayloads.decompress(bytes, offset, len);
+         bytes = uncompressed.getBuf();
+         offset = uncompressed.getOffset();
+         len = uncompressed.getLength();
+      }
       ByteArrayInputStream is = new ByteArrayInputStream(bytes, offset, len);
       ObjectInput in = startObjectInput(is, false);
       Object o = null;
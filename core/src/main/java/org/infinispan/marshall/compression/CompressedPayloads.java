@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.marshall.compression;
+
+import org.infinispan.io.ByteBuffer;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads and writes compressed marshalled payloads.
+ * <p/>
+ * A compressed payload starts with the {@link #MAGIC} byte, followed by the id of the {@link Compressor} that
+ * produced it, the uncompressed length as a 4 byte int and the compressed bytes. Payloads produced by the marshaller
+ * always start with the JBoss Marshalling protocol version, a small positive number, so compressed and uncompressed
+ * payloads can be told apart and the {@link org.infinispan.marshall.VersionAwareMarshaller} reads both.
+ *
+ * @since 5.3
+ */
+public final class CompressedPayloads {
+
+   public static final byte MAGIC = (byte) 0xC5;
+
+   static final int HEADER_LENGTH = 6;
+
+   private static final ConcurrentMap<Byte, Compressor> compressors = new ConcurrentHashMap<Byte, Compressor>();
+
+   static {
+      registerCompressor(new LZ4Compressor());
+   }
+
+   private CompressedPayloads() {
+   }
+
+   /**
+    * Makes a compressor available for decompressing payloads. Compressors configured for a cache are registered
+    * automatically when the cache starts.
+    *
+    * @throws IllegalArgumentException if a compressor of a different type is already registered with the same id
+    */
+   public static void registerCompressor(Compressor compressor) {
+      Compressor existing = compressors.putIfAbsent(compressor.getId(), compressor);
+      if (existing != null && existing.getClass() != compressor.getClass())
+         throw new IllegalArgumentException("Compressor id " + compressor.getId() + " of " + compressor
+                                                  + " is already used by " + existing);
+   }
+
+   public static boolean isCompressed(byte[] buf, int offset, int length) {
+      return length > HEADER_LENGTH && buf[offset] == MAGIC;
+   }
+
+   /**
+    * Compresses the given bytes.
+    *
+    * @return the compressed payload, or <tt>null</tt> if compressing would not make the payload smaller
+    */
+   public static ByteBuffer compress(Compressor compressor, byte[] buf, int offset, int length) {
+      byte[] compressed = new byte[HEADER_LENGTH + compressor.maxCompressedLength(length)];
+      compressed[0] = MAGIC;
+      compressed[1] = compressor.getId();
+      compressed[2] = (byte) (length >>> 24);
+      compressed[3] = (byte) (length >>> 16);
+      compressed[4] = (byte) (length >>> 8);
+      compressed[5] = (byte) length;
+      int compressedLength = HEADER_LENGTH + compressor.compress(buf, offset, length, compressed, HEADER_LENGTH);
+      if (compressedLength >= length) return null;
+      return new ByteBuffer(compressed, 0, compressedLength);
+   }
+
+   /**
+    * Decompresses a payload for which {@link #isCompressed(byte[], int, int)} returns true.
+    */
+   public static ByteBuffer decompress(byte[] buf, int offset, int length) throws IOException {
+      Compressor compressor = compressors.get(buf[offset + 1]);
+      if (compressor == null)
+         throw new IOException("Unknown compressor id " + buf[offset + 1] + ", is the compressor configured on this node?");
+      int uncompressedLength = ((buf[offset + 2] & 0xFF) << 24) | ((buf[offset + 3] & 0xFF) << 16)
+            | ((buf[offset + 4] & 0xFF) << 8) | (buf[offset + 5] & 0xFF);
+      if (uncompressedLength < 0) throw new IOException("Malformed compressed payload");
+      byte[] uncompressed = new byte[uncompressedLength];
+      compressor.decompress(buf, offset + HEADER_LENGTH, length - HEADER_LENGTH, uncompressed, 0, uncompressedLength);
+      return new ByteBuffer(uncompressed, 0, uncompressedLength);
+   }
+}
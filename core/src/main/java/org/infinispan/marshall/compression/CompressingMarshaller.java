@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.marshall.compression;
+
+import org.infinispan.io.ByteBuffer;
+import org.infinispan.marshall.AbstractDelegatingMarshaller;
+import org.infinispan.marshall.StreamingMarshaller;
+
+import java.io.IOException;
+
+/**
+ * A marshaller that compresses the byte arrays produced by another marshaller with a {@link PayloadCompressor}. It is
+ * handed to the cache stores when store compression is enabled, so that every store compresses the entries it
+ * writes without being aware of it.
+ * <p/>
+ * Only the byte array methods compress; streams are passed through unchanged. Reading does not need any special
+ * handling, as the wrapped marshaller recognizes compressed payloads.  Stores writing entries in the compact format
+ * compress the compact records instead, see {@link #withDelegate(StreamingMarshaller)}.
+ *
+ * @since 5.3
+ */
+public class CompressingMarshaller extends AbstractDelegatingMarshaller {
+
+   private final PayloadCompressor compressor;
+
+   public CompressingMarshaller(StreamingMarshaller marshaller, PayloadCompressor compressor) {
+      this.marshaller = marshaller;
+      this.compressor = compressor;
+   }
+
+   /**
+    * @return the marshaller whose byte arrays are compressed
+    */
+   public StreamingMarshaller getDelegate() {
+      return marshaller;
+   }
+
+   /**
+    * @return a marshaller compressing the byte arrays produced by the given marshaller, with the same compressor
+    */
+   public CompressingMarshaller withDelegate(StreamingMarshaller marshaller) {
+      return new CompressingMarshaller(marshaller, compressor);
+   }
+
+   @Override
+   public ByteBuffer objectToBuffer(Object o) throws IOException, InterruptedException {
+      return compressor.compress(marshaller.objectToBuffer(o));
+   }
+
+   @Override
+   public byte[] objectToByteBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
+      return compress(marshaller.objectToByteBuffer(obj, estimatedSize));
+   }
+
+   @Override
+   public byte[] objectToByteBuffer(Object obj) throws IOException, InterruptedException {
+      return compress(marshaller.objectToByteBuffer(obj));
+   }
+
+   private byte[] compress(byte[] bytes) {
+      ByteBuffer compressed = compressor.compress(bytes, 0, bytes.length);
+      if (compressed == null) return bytes;
+      byte[] result = new byte[compressed.getLength()];
+      System.arraycopy(compressed.getBuf(), compressed.getOffset(), result, 0, result.length);
+      return result;
+   }
+
+   @Override
+   public void start() {
+      // the lifecycle of the wrapped marshaller is managed by the component registry
+   }
+
+   @Override
+   public void stop() {
+      // the lifecycle of the wrapped marshaller is managed by the component registry
+   }
+}
@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.marshall.compression;
+
+import java.io.IOException;
+
+/**
+ * A block compression codec used to compress marshalled payloads.
+ * <p/>
+ * Implementations must be thread safe and deterministic: compressing the same bytes must always produce the same
+ * output, since the compressed form of a {@link org.infinispan.marshall.MarshalledValue} can be used for equality
+ * checks. Compressed payloads carry the {@link #getId() id} of the compressor that produced them, so every node must
+ * be able to resolve it, see {@link CompressedPayloads#registerCompressor(Compressor)}.
+ *
+ * @since 5.3
+ * @see LZ4Compressor
+ */
+public interface Compressor {
+
+   /**
+    * A unique id identifying the compression format. Ids up to 31 are reserved for the compressors shipped with
+    * Infinispan.
+    */
+   byte getId();
+
+   /**
+    * The maximum size of the output of {@link #compress(byte[], int, int, byte[], int)} for an input of the given
+    * length.
+    */
+   int maxCompressedLength(int length);
+
+   /**
+    * Compresses <tt>srcLength</tt> bytes of <tt>src</tt> into <tt>dest</tt>, which must have at least
+    * {@link #maxCompressedLength(int)} bytes available after <tt>destOffset</tt>.
+    *
+    * @return the number of bytes written to <tt>dest</tt>
+    */
+   int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset);
+
+   /**
+    * Decompresses <tt>srcLength</tt> bytes of <tt>src</tt> into exactly <tt>destLength</tt> bytes of <tt>dest</tt>.
+    *
+    * @throws IOException if the input is malformed or does not decompress to <tt>destLength</tt> bytes
+    */
+   void decompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength) throws IOException;
+}
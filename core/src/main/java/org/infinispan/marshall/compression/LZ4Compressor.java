@@ -0,0 +1,255 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.marshall.compression;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A pure Java implementation of the <a href="http://code.google.com/p/lz4/">LZ4</a> block format.
+ * <p/>
+ * LZ4 trades compression ratio for speed: it only looks for matches through a small hash table of recent positions,
+ * so compression runs at several hundred MB/s per core and decompression is mostly array copies. That makes it a good
+ * fit for payloads that are compressed on every write and sent over the network, such as marshalled cache values.
+ *
+ * @since 5.3
+ */
+public final class LZ4Compressor implements Compressor {
+
+   public static final byte ID = 1;
+
+   private static final int MIN_MATCH = 4;
+   private static final int LAST_LITERALS = 5;
+   private static final int MF_LIMIT = 12;
+   private static final int MIN_LENGTH = MF_LIMIT + 1;
+   private static final int MAX_DISTANCE = (1 << 16) - 1;
+   private static final int ML_BITS = 4;
+   private static final int ML_MASK = (1 << ML_BITS) - 1;
+   private static final int RUN_MASK = (1 << (8 - ML_BITS)) - 1;
+   private static final int HASH_LOG = 12;
+   private static final int SKIP_STRENGTH = 6;
+
+   // the hash table is only used for the duration of a compress() call, so each thread can keep reusing its own
+   private static final ThreadLocal<int[]> HASH_TABLE = new ThreadLocal<int[]>() {
+      @Override
+      protected int[] initialValue() {
+         return new int[1 << HASH_LOG];
+      }
+   };
+
+   @Override
+   public byte getId() {
+      return ID;
+   }
+
+   @Override
+   public int maxCompressedLength(int length) {
+      return length + length / 255 + 16;
+   }
+
+   @Override
+   public int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset) {
+      final int srcEnd = srcOffset + srcLength;
+      final int mfLimit = srcEnd - MF_LIMIT;
+      final int matchLimit = srcEnd - LAST_LITERALS;
+
+      int sOff = srcOffset;
+      int dOff = destOffset;
+      int anchor = sOff;
+
+      if (srcLength >= MIN_LENGTH) {
+         // positions of the last occurrence of each 4 byte sequence, by hash
+         final int[] hashTable = HASH_TABLE.get();
+         Arrays.fill(hashTable, -1);
+         hashTable[hash(readInt(src, sOff))] = sOff;
+         sOff++;
+
+         main:
+         while (true) {
+            // find a match, skipping faster through incompressible data
+            int forwardOff = sOff;
+            int ref;
+            int step = 1;
+            int searchMatchNb = 1 << SKIP_STRENGTH;
+            do {
+               sOff = forwardOff;
+               forwardOff += step;
+               step = searchMatchNb++ >>> SKIP_STRENGTH;
+               if (forwardOff > mfLimit) break main;
+               int h = hash(readInt(src, sOff));
+               ref = hashTable[h];
+               hashTable[h] = sOff;
+            } while (ref < srcOffset || sOff - ref > MAX_DISTANCE || readInt(src, ref) != readInt(src, sOff));
+
+            // extend the match backwards
+            while (sOff > anchor && ref > srcOffset && src[sOff - 1] == src[ref - 1]) {
+               sOff--;
+               ref--;
+            }
+
+            // literals
+            int literalLength = sOff - anchor;
+            int tokenOff = dOff++;
+            if (literalLength >= RUN_MASK) {
+               dest[tokenOff] = (byte) (RUN_MASK << ML_BITS);
+               dOff = writeLength(literalLength - RUN_MASK, dest, dOff);
+            } else {
+               dest[tokenOff] = (byte) (literalLength << ML_BITS);
+            }
+            System.arraycopy(src, anchor, dest, dOff, literalLength);
+            dOff += literalLength;
+
+            while (true) {
+               // match offset, little endian
+               int offset = sOff - ref;
+               dest[dOff++] = (byte) offset;
+               dest[dOff++] = (byte) (offset >>> 8);
+
+               // match length
+               sOff += MIN_MATCH;
+               ref += MIN_MATCH;
+               int matchLength = 0;
+               while (sOff < matchLimit && src[sOff] == src[ref]) {
+                  sOff++;
+                  ref++;
+                  matchLength++;
+               }
+               if (matchLength >= ML_MASK) {
+                  dest[tokenOff] |= ML_MASK;
+                  dOff = writeLength(matchLength - ML_MASK, dest, dOff);
+               } else {
+                  dest[tokenOff] |= matchLength;
+               }
+
+               anchor = sOff;
+               if (sOff > mfLimit) break main;
+
+               hashTable[hash(readInt(src, sOff - 2))] = sOff - 2;
+
+               // a match starting right after the previous one needs no literals
+               int h = hash(readInt(src, sOff));
+               ref = hashTable[h];
+               hashTable[h] = sOff;
+               if (ref < srcOffset || sOff - ref > MAX_DISTANCE || readInt(src, ref) != readInt(src, sOff)) break;
+               tokenOff = dOff++;
+               dest[tokenOff] = 0;
+            }
+            sOff++;
+         }
+      }
+
+      // the last literals
+      int literalLength = srcEnd - anchor;
+      if (literalLength >= RUN_MASK) {
+         dest[dOff++] = (byte) (RUN_MASK << ML_BITS);
+         dOff = writeLength(literalLength - RUN_MASK, dest, dOff);
+      } else {
+         dest[dOff++] = (byte) (literalLength << ML_BITS);
+      }
+      System.arraycopy(src, anchor, dest, dOff, literalLength);
+      dOff += literalLength;
+      return dOff - destOffset;
+   }
+
+   @Override
+   public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength) throws IOException {
+      final int srcEnd = srcOffset + srcLength;
+      final int destEnd = destOffset + destLength;
+      int sOff = srcOffset;
+      int dOff = destOffset;
+      try {
+         while (true) {
+            int token = src[sOff++] & 0xFF;
+
+            int literalLength = token >>> ML_BITS;
+            if (literalLength == RUN_MASK) {
+               int b;
+               do {
+                  b = src[sOff++] & 0xFF;
+                  literalLength += b;
+               } while (b == 0xFF);
+            }
+            if (sOff + literalLength > srcEnd || dOff + literalLength > destEnd)
+               throw malformed(sOff);
+            System.arraycopy(src, sOff, dest, dOff, literalLength);
+            sOff += literalLength;
+            dOff += literalLength;
+
+            // the last sequence only has literals
+            if (sOff == srcEnd) break;
+
+            int offset = (src[sOff] & 0xFF) | ((src[sOff + 1] & 0xFF) << 8);
+            sOff += 2;
+            int ref = dOff - offset;
+            if (offset == 0 || ref < destOffset) throw malformed(sOff);
+
+            int matchLength = token & ML_MASK;
+            if (matchLength == ML_MASK) {
+               int b;
+               do {
+                  b = src[sOff++] & 0xFF;
+                  matchLength += b;
+               } while (b == 0xFF);
+            }
+            matchLength += MIN_MATCH;
+            if (dOff + matchLength > destEnd) throw malformed(sOff);
+
+            // the match may overlap with the bytes being written, so copy byte by byte
+            for (int end = dOff + matchLength; dOff < end; ) {
+               dest[dOff++] = dest[ref++];
+            }
+         }
+      } catch (ArrayIndexOutOfBoundsException e) {
+         throw malformed(sOff);
+      }
+      if (dOff != destEnd) throw malformed(sOff);
+   }
+
+   private static IOException malformed(int offset) {
+      return new IOException("Malformed LZ4 input at offset " + offset);
+   }
+
+   private static int writeLength(int length, byte[] dest, int dOff) {
+      while (length >= 0xFF) {
+         dest[dOff++] = (byte) 0xFF;
+         length -= 0xFF;
+      }
+      dest[dOff++] = (byte) length;
+      return dOff;
+   }
+
+   private static int readInt(byte[] buf, int offset) {
+      return (buf[offset] & 0xFF) | ((buf[offset + 1] & 0xFF) << 8)
+            | ((buf[offset + 2] & 0xFF) << 16) | ((buf[offset + 3] & 0xFF) << 24);
+   }
+
+   private static int hash(int i) {
+      return (i * -1640531535) >>> (32 - HASH_LOG);
+   }
+
+   @Override
+   public String toString() {
+      return "LZ4Compressor";
+   }
+}
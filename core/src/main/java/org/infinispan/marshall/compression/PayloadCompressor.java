@@ -0,0 +1,181 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.marshall.compression;
+
+import org.infinispan.configuration.cache.CompressionConfiguration;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.io.ByteBuffer;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compresses the marshalled payloads of a cache according to its {@link CompressionConfiguration}, and keeps track
+ * of the compression ratio and time.
+ * <p/>
+ * Only payloads at least {@link CompressionConfiguration#threshold()} bytes long are compressed, and only if
+ * compressing them saves space; the others are returned unchanged. Compressed payloads are decompressed transparently
+ * by the {@link org.infinispan.marshall.VersionAwareMarshaller}, see {@link CompressedPayloads}.
+ *
+ * @since 5.3
+ */
+@MBean(objectName = "Compression", description = "Compresses the marshalled payloads of the cache")
+public class PayloadCompressor {
+
+   private Configuration configuration;
+   private Compressor compressor;
+   private int threshold;
+   private boolean compressRpc;
+   private boolean compressStores;
+   private boolean compressBinaryValues;
+   private volatile boolean statisticsEnabled;
+
+   private final AtomicLong compressedPayloads = new AtomicLong(0);
+   private final AtomicLong incompressiblePayloads = new AtomicLong(0);
+   private final AtomicLong uncompressedBytes = new AtomicLong(0);
+   private final AtomicLong compressedBytes = new AtomicLong(0);
+   private final AtomicLong compressionNanos = new AtomicLong(0);
+
+   @Inject
+   public void inject(Configuration configuration) {
+      this.configuration = configuration;
+   }
+
+   @Start
+   public void start() {
+      CompressionConfiguration cfg = configuration.compression();
+      if (cfg.enabled()) {
+         compressor = cfg.compressor();
+         CompressedPayloads.registerCompressor(compressor);
+         threshold = cfg.threshold();
+         compressRpc = cfg.compressRpc();
+         compressStores = cfg.compressStores();
+         compressBinaryValues = cfg.compressBinaryValues();
+      }
+      statisticsEnabled = configuration.jmxStatistics().enabled();
+   }
+
+   public boolean isCompressRpc() {
+      return compressRpc;
+   }
+
+   public boolean isCompressStores() {
+      return compressStores;
+   }
+
+   public boolean isCompressBinaryValues() {
+      return compressBinaryValues;
+   }
+
+   /**
+    * Compresses the given payload if it is large enough and compresses well.
+    *
+    * @return the compressed payload, or <tt>null</tt> if the payload should be kept as it is
+    */
+   public ByteBuffer compress(byte[] buf, int offset, int length) {
+      if (compressor == null || length < threshold) return null;
+      long start = statisticsEnabled ? System.nanoTime() : 0;
+      ByteBuffer compressed = CompressedPayloads.compress(compressor, buf, offset, length);
+      if (statisticsEnabled) {
+         compressionNanos.addAndGet(System.nanoTime() - start);
+         if (compressed != null) {
+            compressedPayloads.incrementAndGet();
+            uncompressedBytes.addAndGet(length);
+            compressedBytes.addAndGet(compressed.getLength());
+         } else {
+            incompressiblePayloads.incrementAndGet();
+         }
+      }
+      return compressed;
+   }
+
+   /**
+    * Same as {@link #compress(byte[], int, int)}, but returns the original payload if it is not compressed.
+    */
+   public ByteBuffer compress(ByteBuffer payload) {
+      ByteBuffer compressed = compress(payload.getBuf(), payload.getOffset(), payload.getLength());
+      return compressed != null ? compressed : payload;
+   }
+
+   @ManagedAttribute(description = "Number of payloads that were compressed", displayName = "Compressed payloads",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getCompressedPayloads() {
+      return compressedPayloads.get();
+   }
+
+   @ManagedAttribute(description = "Number of payloads above the threshold that were kept uncompressed because compressing them did not save space",
+                     displayName = "Incompressible payloads", measurementType = MeasurementType.TRENDSUP)
+   public long getIncompressiblePayloads() {
+      return incompressiblePayloads.get();
+   }
+
+   @ManagedAttribute(description = "Ratio between the original and the compressed size of the compressed payloads",
+                     displayName = "Compression ratio", displayType = DisplayType.SUMMARY)
+   public double getCompressionRatio() {
+      long compressed = compressedBytes.get();
+      return compressed == 0 ? 0 : (double) uncompressedBytes.get() / compressed;
+   }
+
+   @ManagedAttribute(description = "Number of bytes saved by compression", displayName = "Bytes saved",
+                     measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getBytesSaved() {
+      return uncompressedBytes.get() - compressedBytes.get();
+   }
+
+   @ManagedAttribute(description = "Average time spent compressing a payload above the threshold", displayName = "Average compression time",
+                     units = Units.MILLISECONDS, displayType = DisplayType.SUMMARY)
+   public double getAverageCompressionTime() {
+      long count = compressedPayloads.get() + incompressiblePayloads.get();
+      if (count == 0) return 0;
+      return (double) compressionNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+   }
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", displayName = "Statistics enabled",
+                     dataType = DataType.TRAIT, writable = true)
+   public boolean isStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   public void setStatisticsEnabled(boolean statisticsEnabled) {
+      this.statisticsEnabled = statisticsEnabled;
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      compressedPayloads.set(0);
+      incompressiblePayloads.set(0);
+      uncompressedBytes.set(0);
+      compressedBytes.set(0);
+      compressionNanos.set(0);
+   }
+}
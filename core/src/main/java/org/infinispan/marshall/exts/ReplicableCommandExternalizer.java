@@ -139,7 +139,7 @@ public Set<Class<? extends ReplicableCommand>> getTypeClasses() {
             CacheTopologyControlCommand.class, DistributedExecuteCommand.class, GetKeyValueCommand.class,
             ClearCommand.class, EvictCommand.class, ApplyDeltaCommand.class,
             InvalidateCommand.class, InvalidateL1Command.class,
-            PutKeyValueCommand.class, VersionedPutKeyValueCommand.class,
+            PutKeyValueCommand.class, VersionedPutKeyValueCommand.class, InvokeCommand.class,
             PutMapCommand.class, RemoveCommand.class,
             ReplaceCommand.class, VersionedReplaceCommand.class);
       // Search only those commands that replicable and not cache specific replicable commands
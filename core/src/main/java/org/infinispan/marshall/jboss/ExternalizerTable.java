@@ -83,6 +83,7 @@
 import org.infinispan.marshall.exts.SingletonListExternalizer;
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.statetransfer.TransactionInfo;
+import org.infinispan.remoting.MIMECacheEntry;
 import org.infinispan.remoting.responses.ExceptionResponse;
 import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.responses.UnsuccessfulResponse;
@@ -287,6 +288,7 @@ private void loadInternalMarshallables() {
       addInternalExternalizer(new ClearOperation.Externalizer());
       addInternalExternalizer(new JGroupsTopologyAwareAddress.Externalizer());
       addInternalExternalizer(new ByteArrayKey.Externalizer());
+      addInternalExternalizer(new MIMECacheEntry.Externalizer());
 
       addInternalExternalizer(new SerializableXid.XidExternalizer());
       addInternalExternalizer(new InDoubtTxInfoImpl.Externalizer());
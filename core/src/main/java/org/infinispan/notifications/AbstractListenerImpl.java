@@ -23,13 +23,14 @@
 package org.infinispan.notifications;
 
 import org.infinispan.CacheException;
+import org.infinispan.config.ConfigurationException;
+import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.util.ReflectionUtil;
-import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
 
 import java.lang.annotation.Annotation;
@@ -45,7 +46,12 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Functionality common to both {@link org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifierImpl} and
@@ -55,22 +61,51 @@
  */
 public abstract class AbstractListenerImpl {
 
-   protected final Map<Class<? extends Annotation>, List<ListenerInvocation>> listenersMap = new HashMap<Class<? extends Annotation>, List<ListenerInvocation>>(16, 0.99f);
+   /**
+    * Name of the property of the asynchronous listener executor setting the maximum number of undelivered events
+    * buffered for each asynchronous listener.  When the buffer is full, events are delivered in the caller's thread
+    * instead, which throttles producers to the rate at which the listener can keep up.  Waiting for room is not an
+    * option, as it could deadlock when the listener itself writes to the cache.
+    */
+   public static final String ASYNC_QUEUE_CAPACITY_PROPERTY = "listenerQueueSize";
+
+   static final int DEFAULT_ASYNC_QUEUE_CAPACITY = 1024;
+
+   /**
+    * Minimum interval between two warnings about the events of an asynchronous listener delivered in the caller's
+    * thread.
+    */
+   static final long QUEUE_FULL_WARNING_INTERVAL = TimeUnit.SECONDS.toNanos(10);
 
+   /**
+    * Maximum number of events delivered to an asynchronous listener by a single task before yielding the executor
+    * thread to other listeners.
+    */
+   static final int ASYNC_BATCH_SIZE = 64;
+
+   protected final Map<Class<? extends Annotation>, List<ListenerInvocation>> listenersMap = new HashMap<Class<? extends Annotation>, List<ListenerInvocation>>(16, 0.99f);
 
-   // two separate executor services, one for sync and one for async listeners
-   protected ExecutorService syncProcessor;
    protected ExecutorService asyncProcessor;
 
+   private int asyncQueueCapacity = DEFAULT_ASYNC_QUEUE_CAPACITY;
+
+   private volatile boolean stopped;
+
 
    @Inject
-   void injectExecutor(@ComponentName(KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR) ExecutorService executor) {
+   void injectExecutor(@ComponentName(KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR) ExecutorService executor,
+                       GlobalConfiguration globalConfiguration) {
       this.asyncProcessor = executor;
+      this.asyncQueueCapacity = globalConfiguration.asyncListenerExecutor().properties()
+            .getIntProperty(ASYNC_QUEUE_CAPACITY_PROPERTY, DEFAULT_ASYNC_QUEUE_CAPACITY);
+      if (asyncQueueCapacity <= 0)
+         throw new ConfigurationException("The " + ASYNC_QUEUE_CAPACITY_PROPERTY + " property of the asynchronous " +
+                                                "listener executor must be positive, but is " + asyncQueueCapacity);
    }
 
    @Start (priority = 9)
    public void start() {
-      syncProcessor = new WithinThreadExecutor();
+      stopped = false;
    }
 
    /**
@@ -78,11 +113,10 @@ public void start() {
     */
    @Stop(priority = 99)
    void stop() {
+      stopped = true;
       for (List<ListenerInvocation> list : listenersMap.values()) {
          if (list != null) list.clear();
       }
-
-      if (syncProcessor != null) syncProcessor.shutdownNow();
    }
 
    protected abstract Log getLog();
@@ -134,7 +168,7 @@ public Set<Object> getListeners() {
     */
    @SuppressWarnings("unchecked")
    private void validateAndAddListenerInvocation(Object listener, ClassLoader classLoader) {
-      boolean sync = testListenerClassValidity(listener.getClass());
+      Listener l = testListenerClassValidity(listener.getClass());
       boolean foundMethods = false;
       Map<Class<? extends Annotation>, Class<?>> allowedListeners = getAllowedMethodAnnotations();
       // now try all methods on the listener for anything that we like.  Note that only PUBLIC methods are scanned.
@@ -145,7 +179,7 @@ private void validateAndAddListenerInvocation(Object listener, ClassLoader class
             Class<?> value = annotationEntry.getValue();
             if (m.isAnnotationPresent(key)) {
                testListenerMethodValidity(m, value, key.getName());
-               addListenerInvocation(key, new ListenerInvocation(listener, m, sync, classLoader));
+               addListenerInvocation(key, new ListenerInvocation(listener, m, l.sync(), l.observation(), classLoader));
                foundMethods = true;
             }
          }
@@ -161,19 +195,19 @@ private void addListenerInvocation(Class<? extends Annotation> annotation, Liste
    }
 
    /**
-    * Tests if a class is properly annotated as a CacheListener and returns whether callbacks on this class should be
-    * invoked synchronously or asynchronously.
+    * Tests if a class is properly annotated as a CacheListener and returns the annotation, which determines whether
+    * callbacks on this class should be invoked synchronously or asynchronously and which phases they observe.
     *
     * @param listenerClass class to inspect
-    * @return true if callbacks on this class should use the syncProcessor; false if it should use the asyncProcessor.
+    * @return the {@link Listener} annotation of the class
     */
-   protected static boolean testListenerClassValidity(Class<?> listenerClass) {
+   protected static Listener testListenerClassValidity(Class<?> listenerClass) {
       Listener l = ReflectionUtil.getAnnotation(listenerClass, Listener.class);
       if (l == null)
          throw new IncorrectListenerException(String.format("Cache listener class %s must be annotated with org.infinispan.notifications.annotation.Listener", listenerClass.getName()));
       if (!Modifier.isPublic(listenerClass.getModifiers()))
          throw new IncorrectListenerException(String.format("Cache listener class %s must be public!", listenerClass.getName()));
-      return l.sync();
+      return l;
    }
 
    protected static void testListenerMethodValidity(Method m, Class<?> allowedParameter, String annotationName) {
@@ -186,58 +220,181 @@ protected static void testListenerMethodValidity(Method m, Class<?> allowedParam
    /**
     * Class that encapsulates a valid invocation for a given registered listener - containing a reference to the method
     * to be invoked as well as the target object.
+    * <p/>
+    * Synchronous listeners are invoked directly in the caller's thread.  Asynchronous listeners get their own bounded
+    * queue of pending events, which is drained in batches by a single task at a time on the asynchronous notification
+    * executor, so a listener receives its events in order and no task is submitted per event.  Events which don't fit
+    * in the queue are delivered in the caller's thread, after the queued events if no task is draining them at the
+    * time, and reported by a periodic warning.
     */
    protected class ListenerInvocation {
       public final Object target;
       public final Method method;
       public final boolean sync;
+      public final Listener.Observation observation;
       public final WeakReference<ClassLoader> classLoader;
+      private final BlockingQueue<Object> pendingEvents;
+      private final AtomicBoolean draining;
+      private final AtomicLong overflowingEvents;
+      private volatile long lastQueueFullWarning;
 
       public ListenerInvocation(Object target, Method method, boolean sync, ClassLoader classLoader) {
+         this(target, method, sync, Listener.Observation.BOTH, classLoader);
+      }
+
+      public ListenerInvocation(Object target, Method method, boolean sync, Listener.Observation observation,
+                                ClassLoader classLoader) {
          this.target = target;
          this.method = method;
          this.sync = sync;
+         this.observation = observation;
          this.classLoader = new WeakReference<ClassLoader>(classLoader);
+         this.pendingEvents = sync ? null : new ArrayBlockingQueue<Object>(asyncQueueCapacity);
+         this.draining = sync ? null : new AtomicBoolean();
+         this.overflowingEvents = sync ? null : new AtomicLong();
+         // listener classes are public, but the method may be declared by a non-public super class; suppressing the
+         // access checks once here also makes every subsequent reflective call cheaper
+         makeAccessible(method);
       }
 
-      public void invoke(final Object event) {
-         Runnable r = new Runnable() {
+      /**
+       * @return true if this listener wants to be notified of events in the given phase
+       */
+      public boolean observes(boolean pre) {
+         return observation.observes(pre);
+      }
 
-            @Override
-            public void run() {
-               ClassLoader contextClassLoader = null;
-               if (classLoader != null && classLoader.get() != null) {
-                  contextClassLoader = setContextClassLoader(classLoader.get());
-               }
-               try {
-                  method.invoke(target, event);
-               }
-               catch (InvocationTargetException exception) {
-                  Throwable cause = getRealException(exception);
-                  if (sync) {
-                     throw new CacheException(String.format(
-                        "Caught exception [%s] while invoking method [%s] on listener instance: %s"
-                        , cause.getClass().getName(), method, target
-                     ), cause);
-                  } else {
-                     getLog().unableToInvokeListenerMethod(method, target, cause);
-                  }
-               }
-               catch (IllegalAccessException exception) {
-                  getLog().unableToInvokeListenerMethod(method, target, exception);
-                  removeListener(target);
-               } finally {
-                  if (classLoader != null && classLoader.get() != null) {
-                     setContextClassLoader(contextClassLoader);
+      public void invoke(Object event) {
+         if (sync) {
+            deliver(event);
+         } else if (pendingEvents.offer(event)) {
+            scheduleDrain();
+         } else {
+            // the listener can't keep up, throttle the producer
+            overflowingEvents.incrementAndGet();
+            warnQueueFull();
+            if (draining.compareAndSet(false, true)) {
+               // no task is delivering the queued events, so deliver them first to keep the events in order
+               drainAll();
+            }
+            deliver(event);
+         }
+      }
+
+      private void warnQueueFull() {
+         long now = System.nanoTime();
+         long last = lastQueueFullWarning;
+         if (last != 0 && now - last < QUEUE_FULL_WARNING_INTERVAL) return;
+         synchronized (overflowingEvents) {
+            if (lastQueueFullWarning != last) return; // another thread just warned
+            lastQueueFullWarning = now == 0 ? 1 : now;
+         }
+         getLog().asyncListenerQueueFull(overflowingEvents.getAndSet(0), method, target, asyncQueueCapacity);
+      }
+
+      private void drainAll() {
+         try {
+            // other producers may keep filling the queue, only deliver what this caller found in it
+            Object event;
+            for (int i = 0; i < asyncQueueCapacity && !stopped && (event = pendingEvents.poll()) != null; i++)
+               deliver(event);
+         } finally {
+            draining.set(false);
+         }
+         if (!pendingEvents.isEmpty()) scheduleDrain();
+      }
+
+      private void scheduleDrain() {
+         if (draining.compareAndSet(false, true)) {
+            try {
+               asyncProcessor.execute(new Runnable() {
+                  @Override
+                  public void run() {
+                     drain();
                   }
+               });
+            } catch (RuntimeException e) {
+               // e.g. rejected by the executor, let the next event try again
+               draining.set(false);
+               throw e;
+            }
+         }
+      }
+
+      private void drain() {
+         try {
+            Object event;
+            int delivered = 0;
+            while (delivered < ASYNC_BATCH_SIZE && (event = pendingEvents.poll()) != null) {
+               if (stopped) {
+                  pendingEvents.clear();
+                  break;
                }
+               deliver(event);
+               delivered++;
             }
-         };
+         } finally {
+            draining.set(false);
+         }
+         // events added after the last poll, or left over after a full batch, need another task
+         if (!pendingEvents.isEmpty()) scheduleDrain();
+      }
 
-         if (sync)
-            syncProcessor.execute(r);
-         else
-            asyncProcessor.execute(r);
+      private void deliver(Object event) {
+         ClassLoader contextClassLoader = null;
+         ClassLoader listenerClassLoader = classLoader.get();
+         if (listenerClassLoader != null) {
+            contextClassLoader = setContextClassLoader(listenerClassLoader);
+         }
+         try {
+            method.invoke(target, event);
+         }
+         catch (InvocationTargetException exception) {
+            Throwable cause = getRealException(exception);
+            if (sync) {
+               throw new CacheException(String.format(
+                  "Caught exception [%s] while invoking method [%s] on listener instance: %s"
+                  , cause.getClass().getName(), method, target
+               ), cause);
+            } else {
+               getLog().unableToInvokeListenerMethod(method, target, cause);
+            }
+         }
+         catch (IllegalAccessException exception) {
+            getLog().unableToInvokeListenerMethod(method, target, exception);
+            removeListener(target);
+         } finally {
+            if (listenerClassLoader != null) {
+               setContextClassLoader(contextClassLoader);
+            }
+         }
+      }
+   }
+
+   /**
+    * Tests whether any of the given listeners observes events in the given phase, so that notifiers can skip creating
+    * an event nobody is interested in.
+    */
+   protected static boolean hasObservers(List<ListenerInvocation> listeners, boolean pre) {
+      if (listeners.isEmpty()) return false;
+      for (ListenerInvocation li : listeners) {
+         if (li.observes(pre)) return true;
+      }
+      return false;
+   }
+
+   private static void makeAccessible(final Method method) {
+      if (method.isAccessible()) return;
+      try {
+         AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            @Override
+            public Void run() {
+               method.setAccessible(true);
+               return null;
+            }
+         });
+      } catch (SecurityException e) {
+         // not allowed by the security manager, keep using the access checked invocation
       }
    }
 
@@ -56,7 +56,10 @@
  * which provides the above semantics.  Alternatively, if you set <tt>sync</tt> to <tt>false</tt>, then invocations are
  * made in a <i>separate</i> thread, which will not cause any blocking on the caller or network thread.  The separate
  * thread is taken from a pool, which can be configured using {@link org.infinispan.config.GlobalConfiguration#setAsyncListenerExecutorProperties(java.util.Properties)}
- * and {@link org.infinispan.config.GlobalConfiguration#setAsyncListenerExecutorFactoryClass(String)}.
+ * and {@link org.infinispan.config.GlobalConfiguration#setAsyncListenerExecutorFactoryClass(String)}.  Each
+ * asynchronous listener receives its events in order, through a bounded buffer; if the listener falls too far behind,
+ * further events are delivered in the caller's thread until it catches up.  The size of the buffer defaults to 1024
+ * events, and can be changed with the <tt>listenerQueueSize</tt> property of the asynchronous listener executor.
  * <p/>
  * <b>Summary of Notification Annotations</b> <table border="1" cellpadding="1" cellspacing="1" summary="Summary of
  * notification annotations"> <tr> <th bgcolor="#CCCCFF" align="left">Annotation</th> <th bgcolor="#CCCCFF"
@@ -224,4 +227,48 @@
     * @since 4.0
     */
    boolean sync() default true;
+
+   /**
+    * Specifies whether the listener wants to be notified before ({@link Observation#PRE}), after
+    * ({@link Observation#POST}) or both before and after ({@link Observation#BOTH}) an entry is modified.  Events that
+    * have no notion of a pre and post phase, such as transaction or eviction events, are always delivered.  Narrowing
+    * the observed phase lets the notifier skip creating events that the listener would ignore anyway.  Defaults to
+    * {@link Observation#BOTH}.
+    *
+    * @return the phases this listener is interested in
+    * @since 5.3
+    */
+   Observation observation() default Observation.BOTH;
+
+   /**
+    * Enumerates the phases of an event which a listener can observe.
+    *
+    * @since 5.3
+    */
+   enum Observation {
+      PRE {
+         @Override
+         public boolean observes(boolean pre) {
+            return pre;
+         }
+      },
+      POST {
+         @Override
+         public boolean observes(boolean pre) {
+            return !pre;
+         }
+      },
+      BOTH {
+         @Override
+         public boolean observes(boolean pre) {
+            return true;
+         }
+      };
+
+      /**
+       * @param pre true for the notification sent before the change, false for the one sent after it
+       * @return true if a listener with this observation should receive the notification
+       */
+      public abstract boolean observes(boolean pre);
+   }
 }
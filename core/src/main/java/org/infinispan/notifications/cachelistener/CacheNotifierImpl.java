@@ -139,7 +139,7 @@ protected Map<Class<? extends Annotation>, Class<?>> getAllowedMethodAnnotations
    @Override
    public void notifyCacheEntryCreated(Object key, Object value, boolean pre,
          InvocationContext ctx, FlagAffectedCommand command) {
-      if (!cacheEntryCreatedListeners.isEmpty()) {
+      if (hasObservers(cacheEntryCreatedListeners, pre)) {
          boolean originLocal = ctx.isOriginLocal();
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_CREATED);
          e.setOriginLocal(originLocal);
@@ -150,7 +150,7 @@ public void notifyCacheEntryCreated(Object key, Object value, boolean pre,
          e.setPre(pre);
          e.setKey(key);
          setTx(ctx, e);
-         for (ListenerInvocation listener : cacheEntryCreatedListeners) listener.invoke(e);
+         invokeListeners(cacheEntryCreatedListeners, e, pre);
       }
    }
 
@@ -158,7 +158,7 @@ public void notifyCacheEntryCreated(Object key, Object value, boolean pre,
    public void notifyCacheEntryModified(Object key, Object value,
          boolean created, boolean pre, InvocationContext ctx,
          FlagAffectedCommand command) {
-      if (!cacheEntryModifiedListeners.isEmpty()) {
+      if (hasObservers(cacheEntryModifiedListeners, pre)) {
          boolean originLocal = ctx.isOriginLocal();
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_MODIFIED);
          e.setOriginLocal(originLocal);
@@ -174,14 +174,14 @@ public void notifyCacheEntryModified(Object key, Object value,
          // want to fire it when isPre=false.
          e.setCreated(created);
          setTx(ctx, e);
-         for (ListenerInvocation listener : cacheEntryModifiedListeners) listener.invoke(e);
+         invokeListeners(cacheEntryModifiedListeners, e, pre);
       }
    }
 
    @Override
    public void notifyCacheEntryRemoved(Object key, Object value, Object oldValue,
          boolean pre, InvocationContext ctx, FlagAffectedCommand command) {
-      if (isNotificationAllowed(command, cacheEntryRemovedListeners)) {
+      if (isNotificationAllowed(command, cacheEntryRemovedListeners, pre)) {
          boolean originLocal = ctx.isOriginLocal();
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_REMOVED);
          e.setOriginLocal(originLocal);
@@ -190,19 +190,19 @@ public void notifyCacheEntryRemoved(Object key, Object value, Object oldValue,
          e.setPre(pre);
          e.setKey(key);
          setTx(ctx, e);
-         for (ListenerInvocation listener : cacheEntryRemovedListeners) listener.invoke(e);
+         invokeListeners(cacheEntryRemovedListeners, e, pre);
       }
    }
 
    @Override
    public void notifyCacheEntryVisited(Object key, Object value, boolean pre, InvocationContext ctx, FlagAffectedCommand command) {
-      if (isNotificationAllowed(command, cacheEntryVisitedListeners)) {
+      if (isNotificationAllowed(command, cacheEntryVisitedListeners, pre)) {
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_VISITED);
          e.setPre(pre);
          e.setKey(key);
          e.setValue(value);
          setTx(ctx, e);
-         for (ListenerInvocation listener : cacheEntryVisitedListeners) listener.invoke(e);
+         invokeListeners(cacheEntryVisitedListeners, e, pre);
       }
    }
 
@@ -272,7 +272,7 @@ public void notifyCacheEntryEvicted(Object key, Object value,
    @Override
    public void notifyCacheEntryInvalidated(final Object key, Object value, final boolean pre,
          InvocationContext ctx, FlagAffectedCommand command) {
-      if (isNotificationAllowed(command, cacheEntryInvalidatedListeners)) {
+      if (isNotificationAllowed(command, cacheEntryInvalidatedListeners, pre)) {
          final boolean originLocal = ctx.isOriginLocal();
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_INVALIDATED);
          e.setOriginLocal(originLocal);
@@ -280,14 +280,14 @@ public void notifyCacheEntryInvalidated(final Object key, Object value, final bo
          e.setKey(key);
          e.setValue(value);
          setTx(ctx, e);
-         for (ListenerInvocation listener : cacheEntryInvalidatedListeners) listener.invoke(e);
+         invokeListeners(cacheEntryInvalidatedListeners, e, pre);
       }
    }
 
    @Override
    public void notifyCacheEntryLoaded(Object key, Object value, boolean pre,
          InvocationContext ctx, FlagAffectedCommand command) {
-      if (isNotificationAllowed(command, cacheEntryLoadedListeners)) {
+      if (isNotificationAllowed(command, cacheEntryLoadedListeners, pre)) {
          boolean originLocal = ctx.isOriginLocal();
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_LOADED);
          e.setOriginLocal(originLocal);
@@ -295,13 +295,13 @@ public void notifyCacheEntryLoaded(Object key, Object value, boolean pre,
          e.setKey(key);
          e.setValue(value);
          setTx(ctx, e);
-         for (ListenerInvocation listener : cacheEntryLoadedListeners) listener.invoke(e);
+         invokeListeners(cacheEntryLoadedListeners, e, pre);
       }
    }
 
    @Override
    public void notifyCacheEntryActivated(Object key, Object value, boolean pre, InvocationContext ctx, FlagAffectedCommand command) {
-      if (isNotificationAllowed(command, cacheEntryActivatedListeners)) {
+      if (isNotificationAllowed(command, cacheEntryActivatedListeners, pre)) {
          boolean originLocal = ctx.isOriginLocal();
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_ACTIVATED);
          e.setOriginLocal(originLocal);
@@ -309,7 +309,7 @@ public void notifyCacheEntryActivated(Object key, Object value, boolean pre, Inv
          e.setKey(key);
          e.setValue(value);
          setTx(ctx, e);
-         for (ListenerInvocation listener : cacheEntryActivatedListeners) listener.invoke(e);
+         invokeListeners(cacheEntryActivatedListeners, e, pre);
       }
    }
 
@@ -322,12 +322,12 @@ private void setTx(InvocationContext ctx, EventImpl<Object, Object> e) {
 
    @Override
    public void notifyCacheEntryPassivated(Object key, Object value, boolean pre, InvocationContext ctx, FlagAffectedCommand command) {
-      if (isNotificationAllowed(command, cacheEntryPassivatedListeners)) {
+      if (isNotificationAllowed(command, cacheEntryPassivatedListeners, pre)) {
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, CACHE_ENTRY_PASSIVATED);
          e.setPre(pre);
          e.setKey(key);
          e.setValue(value);
-         for (ListenerInvocation listener : cacheEntryPassivatedListeners) listener.invoke(e);
+         invokeListeners(cacheEntryPassivatedListeners, e, pre);
       }
    }
 
@@ -356,25 +356,25 @@ public void notifyTransactionRegistered(GlobalTransaction globalTransaction, Inv
 
    @Override
    public void notifyDataRehashed(ConsistentHash oldCH, ConsistentHash newCH, int newTopologyId, boolean pre) {
-      if (!dataRehashedListeners.isEmpty()) {
+      if (hasObservers(dataRehashedListeners, pre)) {
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, DATA_REHASHED);
          e.setPre(pre);
          e.setConsistentHashAtStart(oldCH);
          e.setConsistentHashAtEnd(newCH);
          e.setNewTopologyId(newTopologyId);
-         for (ListenerInvocation listener : dataRehashedListeners) listener.invoke(e);
+         invokeListeners(dataRehashedListeners, e, pre);
       }
    }
 
    @Override
    public void notifyTopologyChanged(ConsistentHash oldConsistentHash, ConsistentHash newConsistentHash, int newTopologyId, boolean pre) {
-      if (!topologyChangedListeners.isEmpty()) {
+      if (hasObservers(topologyChangedListeners, pre)) {
          EventImpl<Object, Object> e = EventImpl.createEvent(cache, TOPOLOGY_CHANGED);
          e.setPre(pre);
          e.setConsistentHashAtStart(oldConsistentHash);
          e.setConsistentHashAtEnd(newConsistentHash);
          e.setNewTopologyId(newTopologyId);
-         for (ListenerInvocation listener : topologyChangedListeners) listener.invoke(e);
+         invokeListeners(topologyChangedListeners, e, pre);
       }
    }
 
@@ -384,4 +384,16 @@ public boolean isNotificationAllowed(
             && !listeners.isEmpty();
    }
 
+   private boolean isNotificationAllowed(
+         FlagAffectedCommand cmd, List<ListenerInvocation> listeners, boolean pre) {
+      return (cmd == null || !cmd.hasFlag(Flag.SKIP_LISTENER_NOTIFICATION))
+            && hasObservers(listeners, pre);
+   }
+
+   private void invokeListeners(List<ListenerInvocation> listeners, EventImpl<Object, Object> e, boolean pre) {
+      for (ListenerInvocation listener : listeners) {
+         if (listener.observes(pre)) listener.invoke(e);
+      }
+   }
+
 }
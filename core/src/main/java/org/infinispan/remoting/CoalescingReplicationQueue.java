@@ -0,0 +1,343 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.remoting;
+
+import org.infinispan.atomic.Delta;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.DataWriteCommand;
+import org.infinispan.commands.write.InvalidateCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.PutMapCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.context.Flag;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.marshall.MarshalledValue;
+import org.infinispan.util.ByteArrayKey;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A replication queue which collapses the writes buffered for a key into the latest one. An unconditional put or
+ * remove supersedes whatever was queued for its key since the last flush, so a key updated many times within the
+ * replication interval is replicated once. Conditional writes, deltas and commands which are not about a single
+ * key are replicated as they are, in order, and a clear drops every write queued before it.
+ * <p/>
+ * Single key writes are buffered in stripes selected by the key's hash, so writers of different keys don't contend
+ * on one queue, while the writes to one key keep their order. Commands spanning several keys seal the stripes
+ * buffered so far, so they are replicated after the writes which preceded them. Besides the element count, the queue
+ * is flushed once the estimated size of the buffered payloads reaches
+ * {@link org.infinispan.configuration.cache.AsyncConfiguration#replQueueMaxBytes()}.
+ * <p/>
+ * Replicas apply the writes of different keys in no particular order, which is no weaker than what asynchronous
+ * replication guarantees anyway.
+ *
+ * @since 5.3
+ */
+@MBean(objectName = "ReplicationQueue", description = "Buffers and coalesces asynchronously replicated writes.")
+public class CoalescingReplicationQueue extends ReplicationQueueImpl {
+
+   private static final int COMMAND_OVERHEAD = 32;
+   private static final int UNKNOWN_SIZE = 64;
+
+   private final Stripe[] stripes;
+   private final int mask;
+
+   /**
+    * Excluded by commands which seal the stripes and by flushes, shared by single key writes
+    */
+   private final ReadWriteLock sealLock = new ReentrantReadWriteLock();
+
+   /**
+    * Commands which are replicated in this order before the contents of the stripes, guarded by the seal lock
+    */
+   private List<ReplicableCommand> sealed = new LinkedList<ReplicableCommand>();
+
+   private final AtomicInteger pendingCount = new AtomicInteger();
+   private final AtomicLong pendingBytes = new AtomicLong();
+   private final AtomicLong added = new AtomicLong();
+   private final AtomicLong coalesced = new AtomicLong();
+
+   private long maxBytes;
+   private long maxElements;
+
+   public CoalescingReplicationQueue() {
+      this(Runtime.getRuntime().availableProcessors() * 4);
+   }
+
+   /**
+    * @param concurrencyLevel the expected number of concurrent writers, rounded up to a power of two stripes
+    */
+   public CoalescingReplicationQueue(int concurrencyLevel) {
+      int size = 1;
+      while (size < concurrencyLevel) size <<= 1;
+      stripes = new Stripe[size];
+      for (int i = 0; i < size; i++) stripes[i] = new Stripe();
+      mask = size - 1;
+   }
+
+   @Override
+   public void start() {
+      super.start();
+      maxElements = getConfiguration().clustering().async().replQueueMaxElements();
+      maxBytes = getConfiguration().clustering().async().replQueueMaxBytes();
+   }
+
+   @Override
+   public void add(ReplicableCommand job) {
+      if (job == null)
+         throw new NullPointerException("job is null");
+      added.incrementAndGet();
+      long size = estimateSize(job);
+      if (isSingleKeyWrite(job)) {
+         sealLock.readLock().lock();
+         try {
+            Object key = ((DataWriteCommand) job).getKey();
+            Stripe stripe = stripes[spread(key.hashCode()) & mask];
+            synchronized (stripe) {
+               stripe.add(key, job, size, supersedesPrevious(job));
+            }
+         } finally {
+            sealLock.readLock().unlock();
+         }
+      } else {
+         sealLock.writeLock().lock();
+         try {
+            if (job instanceof ClearCommand) {
+               dropWrites();
+            } else {
+               seal();
+            }
+            sealed.add(job);
+            pendingCount.incrementAndGet();
+            pendingBytes.addAndGet(size);
+         } finally {
+            sealLock.writeLock().unlock();
+         }
+      }
+      if (pendingCount.get() >= maxElements || (maxBytes > 0 && pendingBytes.get() >= maxBytes)) flush();
+   }
+
+   @Override
+   protected List<ReplicableCommand> drainReplQueue() {
+      sealLock.writeLock().lock();
+      try {
+         seal();
+         List<ReplicableCommand> toReplicate = sealed;
+         sealed = new LinkedList<ReplicableCommand>();
+         pendingCount.set(0);
+         pendingBytes.set(0);
+         return toReplicate;
+      } finally {
+         sealLock.writeLock().unlock();
+      }
+   }
+
+   @Override
+   public int getElementsCount() {
+      return pendingCount.get();
+   }
+
+   @Override
+   public void reset() {
+      drainReplQueue();
+   }
+
+   @ManagedAttribute(description = "Number of writes added to the queue", displayName = "Number of writes queued", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getAddedCount() {
+      return added.get();
+   }
+
+   @ManagedAttribute(description = "Number of queued writes dropped because a later write superseded them", displayName = "Number of writes coalesced", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getCoalescedCount() {
+      return coalesced.get();
+   }
+
+   @ManagedAttribute(description = "Coalesced writes as a ratio of the writes queued", displayName = "Coalescing ratio", units = Units.PERCENTAGE, displayType = DisplayType.SUMMARY)
+   public double getCoalescingRatio() {
+      long total = added.get();
+      return total == 0 ? 0 : (double) coalesced.get() / total;
+   }
+
+   @ManagedAttribute(description = "Number of writes waiting to be replicated", displayName = "Number of pending writes", displayType = DisplayType.SUMMARY)
+   public int getPendingCount() {
+      return pendingCount.get();
+   }
+
+   @ManagedAttribute(description = "Estimated size in bytes of the writes waiting to be replicated", displayName = "Pending bytes", displayType = DisplayType.SUMMARY)
+   public long getPendingBytes() {
+      return pendingBytes.get();
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      added.set(0);
+      coalesced.set(0);
+   }
+
+   /**
+    * Moves the contents of the stripes to the end of the sealed commands. Must be called with the seal lock held
+    * exclusively.
+    */
+   private void seal() {
+      for (Stripe stripe : stripes) {
+         synchronized (stripe) {
+            for (KeyWrites writes : stripe.writes.values()) {
+               sealed.addAll(writes.commands);
+            }
+            stripe.writes.clear();
+         }
+      }
+   }
+
+   /**
+    * Drops every buffered write, which a clear supersedes, keeping any other command. Must be called with the seal
+    * lock held exclusively.
+    */
+   private void dropWrites() {
+      for (Stripe stripe : stripes) {
+         synchronized (stripe) {
+            for (KeyWrites writes : stripe.writes.values()) {
+               superseded(writes.commands.size(), writes.bytes);
+            }
+            stripe.writes.clear();
+         }
+      }
+      for (Iterator<ReplicableCommand> it = sealed.iterator(); it.hasNext(); ) {
+         ReplicableCommand command = it.next();
+         if (command instanceof WriteCommand) {
+            it.remove();
+            superseded(1, estimateSize(command));
+         }
+      }
+   }
+
+   private void superseded(int count, long bytes) {
+      coalesced.addAndGet(count);
+      pendingCount.addAndGet(-count);
+      pendingBytes.addAndGet(-bytes);
+   }
+
+   private static boolean isSingleKeyWrite(ReplicableCommand command) {
+      return command instanceof DataWriteCommand && !(command instanceof InvalidateCommand);
+   }
+
+   /**
+    * Whether the write leaves its key in the same state regardless of what was written to the key before.
+    */
+   private static boolean supersedesPrevious(ReplicableCommand command) {
+      if (command instanceof PutKeyValueCommand) {
+         PutKeyValueCommand put = (PutKeyValueCommand) command;
+         return !put.isConditional() && !put.hasFlag(Flag.DELTA_WRITE) && !(put.getValue() instanceof Delta);
+      }
+      return command instanceof RemoveCommand && !((RemoveCommand) command).isConditional();
+   }
+
+   /**
+    * Estimates the size of the keys and values carried by a command. Override for a more accurate estimate of
+    * application specific types.
+    */
+   protected long estimateSize(ReplicableCommand command) {
+      long size = COMMAND_OVERHEAD;
+      if (command instanceof DataWriteCommand) {
+         size += estimateSize(((DataWriteCommand) command).getKey());
+         if (command instanceof PutKeyValueCommand)
+            size += estimateSize(((PutKeyValueCommand) command).getValue());
+         else if (command instanceof ReplaceCommand)
+            size += estimateSize(((ReplaceCommand) command).getNewValue());
+      } else if (command instanceof PutMapCommand) {
+         for (Map.Entry<Object, Object> entry : ((PutMapCommand) command).getMap().entrySet())
+            size += estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+      }
+      return size;
+   }
+
+   protected long estimateSize(Object o) {
+      if (o == null) return 1;
+      if (o instanceof byte[]) return ((byte[]) o).length;
+      if (o instanceof String) return ((String) o).length();
+      if (o instanceof ByteArrayKey) return ((ByteArrayKey) o).getData().length;
+      if (o instanceof MIMECacheEntry) {
+         byte[] data = ((MIMECacheEntry) o).data;
+         return data == null ? UNKNOWN_SIZE : data.length;
+      }
+      if (o instanceof MarshalledValue) {
+         MarshalledValue mv = (MarshalledValue) o;
+         return mv.getRaw() == null ? UNKNOWN_SIZE : mv.getRaw().size();
+      }
+      if (o instanceof Number || o instanceof Boolean || o instanceof Character) return 8;
+      return UNKNOWN_SIZE;
+   }
+
+   private static int spread(int h) {
+      h ^= (h >>> 20) ^ (h >>> 12);
+      return h ^ (h >>> 7) ^ (h >>> 4);
+   }
+
+   private final class Stripe {
+      final Map<Object, KeyWrites> writes = new LinkedHashMap<Object, KeyWrites>();
+
+      void add(Object key, ReplicableCommand command, long size, boolean supersedes) {
+         KeyWrites keyWrites = writes.get(key);
+         if (keyWrites != null && supersedes) {
+            // Queue the key behind the others again, it is now the most recently written one
+            writes.remove(key);
+            superseded(keyWrites.commands.size(), keyWrites.bytes);
+            keyWrites = null;
+         }
+         if (keyWrites == null) {
+            keyWrites = new KeyWrites();
+            writes.put(key, keyWrites);
+         }
+         keyWrites.commands.add(command);
+         keyWrites.bytes += size;
+         pendingCount.incrementAndGet();
+         pendingBytes.addAndGet(size);
+      }
+   }
+
+   /**
+    * The writes buffered for a key since the last one which superseded its predecessors
+    */
+   private static final class KeyWrites {
+      final List<ReplicableCommand> commands = new ArrayList<ReplicableCommand>(1);
+      long bytes;
+   }
+}
@@ -53,7 +53,7 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Sets the cache interceptor chain on an RPCCommand before calling it to perform
@@ -69,13 +69,15 @@ public class InboundInvocationHandlerImpl implements InboundInvocationHandler {
    private GlobalConfiguration globalConfiguration;
    private Transport transport;
    private CancellationService cancelService;
-   private ExecutorService remoteCommandsExecutor;
+   private BlockingTaskAwareExecutorService remoteCommandsExecutor;
    private BlockingTaskAwareExecutorService totalOrderExecutorService;
+   private ScheduledExecutorService scheduledExecutor;
 
    @Inject
    public void inject(GlobalComponentRegistry gcr, Transport transport,
-                      @ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) ExecutorService remoteCommandsExecutor,
+                      @ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) BlockingTaskAwareExecutorService remoteCommandsExecutor,
                       @ComponentName(KnownComponentNames.TOTAL_ORDER_EXECUTOR) BlockingTaskAwareExecutorService totalOrderExecutorService,
+                      @ComponentName(KnownComponentNames.EVICTION_SCHEDULED_EXECUTOR) ScheduledExecutorService scheduledExecutor,
                       GlobalConfiguration globalConfiguration, CancellationService cancelService) {
       this.gcr = gcr;
       this.transport = transport;
@@ -83,6 +85,7 @@ public void inject(GlobalComponentRegistry gcr, Transport transport,
       this.cancelService = cancelService;
       this.remoteCommandsExecutor = remoteCommandsExecutor;
       this.totalOrderExecutorService = totalOrderExecutorService;
+      this.scheduledExecutor = scheduledExecutor;
    }
 
    @Override
@@ -182,9 +185,10 @@ public void run() {
          });
          return;
       } else if (!preserveOrder && cmd.canBlock()) {
-         remoteCommandsExecutor.execute(new Runnable() {
+         // parked, without holding a thread, while it would block on a lock or on the state transfer
+         remoteCommandsExecutor.execute(new RemoteCommandRunnable(cmd, cr, remoteCommandsExecutor, scheduledExecutor) {
             @Override
-            public void run() {
+            protected void runCommand() {
                Response resp;
                try {
                   resp = handleInternal(cmd, cr);
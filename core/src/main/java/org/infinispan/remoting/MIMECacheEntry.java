@@ -22,8 +22,17 @@
  */
 package org.infinispan.remoting;
 
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.marshall.AbstractExternalizer;
+import org.infinispan.marshall.Ids;
+import org.infinispan.util.Util;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Set;
 
 /**
  * Wrapper object for entries that arrive via RESTful PUT/POST interface.
@@ -34,6 +43,8 @@ public class MIMECacheEntry implements Serializable {
 
    private static final long serialVersionUID = -7857224258673285445L;
 
+   private static final MurmurHash3 HASH = new MurmurHash3();
+
    /**
      * The MIME <a href="http://en.wikipedia.org/wiki/MIME">Content type</a>
      * value, for example application/octet-stream.
@@ -48,13 +59,43 @@ public class MIMECacheEntry implements Serializable {
      */
     public byte[] data;
 
-    public MIMECacheEntry() {}
+   /**
+    * The entity tag of the payload, computed when the entry is created and marshalled along with it, so that reads
+    * and conditional requests don't hash the payload again. Null for entries created empty or deserialized from a
+    * form predating the tag.
+    */
+   private final String etag;
+
+    public MIMECacheEntry() {
+        this.etag = null;
+    }
 
     public MIMECacheEntry(String contentType, byte[] data) {
-        this.contentType = contentType;
-        this.data = data;
+        this(contentType, data, computeETag(contentType, data));
     }
 
+   private MIMECacheEntry(String contentType, byte[] data, String etag) {
+      this.contentType = contentType;
+      this.data = data;
+      this.etag = etag;
+   }
+
+   /**
+    * Returns the opaque entity tag for this entry, i.e. the content type followed by the hash of the payload.
+    * The tag is computed when the entry is created, so the payload must not be modified afterwards.
+    */
+   public String getETag() {
+      return etag != null ? etag : computeETag(contentType, data);
+   }
+
+   /**
+    * Computes the entity tag of a payload of the given content type, the same way {@link #getETag()} does. Used for
+    * payloads which are stored as they are rather than wrapped in a MIMECacheEntry.
+    */
+   public static String computeETag(String contentType, byte[] data) {
+      return data == null ? contentType : contentType + HASH.hash(data);
+   }
+
    @Override
    public boolean equals(Object o) {
       if (this == o) return true;
@@ -69,4 +110,41 @@ public boolean equals(Object o) {
    public int hashCode() {
       return 31 * (contentType != null ? contentType.hashCode() : 0) + (data != null ? Arrays.hashCode(data) : 0);
    }
+
+   public static class Externalizer extends AbstractExternalizer<MIMECacheEntry> {
+      @Override
+      public void writeObject(ObjectOutput output, MIMECacheEntry entry) throws IOException {
+         output.writeObject(entry.contentType);
+         if (entry.data == null) {
+            output.writeInt(-1);
+         } else {
+            output.writeInt(entry.data.length);
+            output.write(entry.data);
+         }
+         output.writeObject(entry.etag);
+      }
+
+      @Override
+      public MIMECacheEntry readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         String contentType = (String) input.readObject();
+         int length = input.readInt();
+         byte[] data = null;
+         if (length >= 0) {
+            data = new byte[length];
+            input.readFully(data);
+         }
+         String etag = (String) input.readObject();
+         return new MIMECacheEntry(contentType, data, etag);
+      }
+
+      @Override
+      public Integer getId() {
+         return Ids.MIME_CACHE_ENTRY;
+      }
+
+      @Override
+      public Set<Class<? extends MIMECacheEntry>> getTypeClasses() {
+         return Util.<Class<? extends MIMECacheEntry>>asSet(MIMECacheEntry.class);
+      }
+   }
 }
@@ -0,0 +1,192 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.remoting;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.TopologyAffectedCommand;
+import org.infinispan.commands.control.LockControlCommand;
+import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.tx.TransactionBoundaryCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.statetransfer.StateTransferLock;
+import org.infinispan.util.concurrent.BlockingRunnable;
+import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
+import org.infinispan.util.concurrent.locks.LockAcquisitionDeadline;
+import org.infinispan.util.concurrent.locks.LockManager;
+
+import java.util.Collection;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A remote cache command waiting to be executed in the remote commands executor. It is only reported as ready when it
+ * is not expected to block the executing thread, that is when the transaction data for the command's topology has
+ * been received and none of the keys it is going to lock is held by another lock owner. Until then the command stays
+ * parked in the {@link org.infinispan.util.concurrent.BlockingTaskAwareExecutorService}, which is notified when a new
+ * topology is installed or when a key the command waits for is released.
+ * <p/>
+ * The lock acquisition timeout of the command starts when it is received.  When the command is parked, a re-check is
+ * scheduled for the moment its timeout expires, so it then runs and fails promptly, and a command which runs after
+ * having been parked only gets the remainder of the timeout to acquire its locks.
+ *
+ * @since 5.3
+ */
+public abstract class RemoteCommandRunnable implements BlockingRunnable {
+
+   private final BlockingTaskAwareExecutorService executor;
+   private final ScheduledExecutorService timeoutExecutor;
+   private final StateTransferLock stateTransferLock;
+   private final LockManager lockManager;
+   private final int topologyId;
+   private final Collection<Object> keysToLock;
+   private final Object lockOwner;
+   private final long deadline;
+   private final AtomicBoolean parked = new AtomicBoolean();
+   private volatile ScheduledFuture<?> timeoutCheck;
+
+   protected RemoteCommandRunnable(CacheRpcCommand command, ComponentRegistry cr,
+                                   BlockingTaskAwareExecutorService executor, ScheduledExecutorService timeoutExecutor) {
+      this(command, cr.getComponent(StateTransferLock.class), cr.getComponent(LockManager.class),
+           cr.getComponent(Configuration.class).locking().lockAcquisitionTimeout(), executor, timeoutExecutor);
+   }
+
+   RemoteCommandRunnable(CacheRpcCommand command, StateTransferLock stateTransferLock, LockManager lockManager,
+                         long lockAcquisitionTimeout, BlockingTaskAwareExecutorService executor,
+                         ScheduledExecutorService timeoutExecutor) {
+      this.executor = executor;
+      this.timeoutExecutor = timeoutExecutor;
+      this.stateTransferLock = stateTransferLock;
+      this.lockManager = lockManager;
+      topologyId = topologyId(command);
+      keysToLock = keysToLock(command);
+      // the lock owner of a remote transaction is its global transaction, a non transactional command owns no lock yet
+      lockOwner = command instanceof TransactionBoundaryCommand ?
+            ((TransactionBoundaryCommand) command).getGlobalTransaction() : null;
+      deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lockAcquisitionTimeout);
+   }
+
+   @Override
+   public boolean isReady() {
+      if (System.nanoTime() - deadline >= 0) {
+         return true;
+      }
+      if (isBlocked()) {
+         if (!parked.compareAndSet(false, true)) {
+            return false;
+         }
+         park();
+         // a key may have been released before the waiters were registered, and then nobody would notify us
+         return !isBlocked();
+      }
+      return true;
+   }
+
+   @Override
+   public final void run() {
+      if (parked.get()) {
+         unpark();
+      }
+      LockAcquisitionDeadline.set(deadline);
+      try {
+         runCommand();
+      } finally {
+         LockAcquisitionDeadline.clear();
+      }
+   }
+
+   /**
+    * Executes the command, in a remote commands executor thread.
+    */
+   protected abstract void runCommand();
+
+   private boolean isBlocked() {
+      if (topologyId >= 0 && !stateTransferLock.transactionDataReceived(topologyId)) {
+         return true;
+      }
+      if (keysToLock != null) {
+         for (Object key : keysToLock) {
+            Object owner = lockManager.getOwner(key);
+            if (owner != null && !owner.equals(lockOwner)) {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   private void park() {
+      if (keysToLock != null) {
+         for (Object key : keysToLock) {
+            lockManager.addParkedWaiter(key);
+         }
+      }
+      // the scheduled executor measures delays with System.nanoTime() too, so the deadline has passed when this runs
+      timeoutCheck = timeoutExecutor.schedule(new Runnable() {
+         @Override
+         public void run() {
+            executor.checkForReadyTasks();
+         }
+      }, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+   }
+
+   private void unpark() {
+      if (keysToLock != null) {
+         for (Object key : keysToLock) {
+            lockManager.removeParkedWaiter(key);
+         }
+      }
+      ScheduledFuture<?> check = timeoutCheck;
+      if (check != null) {
+         check.cancel(false);
+      }
+   }
+
+   private static int topologyId(CacheRpcCommand command) {
+      ReplicableCommand topologyAffected = command instanceof SingleRpcCommand ?
+            ((SingleRpcCommand) command).getCommand() : command;
+      return topologyAffected instanceof TopologyAffectedCommand ?
+            ((TopologyAffectedCommand) topologyAffected).getTopologyId() : -1;
+   }
+
+   private static Collection<Object> keysToLock(CacheRpcCommand command) {
+      if (command instanceof PrepareCommand) {
+         return ((PrepareCommand) command).getAffectedKeys();
+      } else if (command instanceof LockControlCommand) {
+         return ((LockControlCommand) command).getKeys();
+      } else if (command instanceof SingleRpcCommand) {
+         ReplicableCommand wrapped = ((SingleRpcCommand) command).getCommand();
+         if (wrapped instanceof WriteCommand) {
+            return ((WriteCommand) wrapped).getAffectedKeys();
+         }
+      }
+      return null;
+   }
+}
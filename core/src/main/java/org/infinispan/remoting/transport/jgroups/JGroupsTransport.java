@@ -330,7 +330,7 @@ public org.jgroups.Address generateAddress() {
    private void initChannelAndRPCDispatcher() throws CacheException {
       initChannel();
       dispatcher = new CommandAwareRpcDispatcher(channel, this, asyncExecutor, remoteCommandsExecutor, inboundInvocationHandler, gcr, backupReceiverRepository);
-      MarshallerAdapter adapter = new MarshallerAdapter(marshaller);
+      MarshallerAdapter adapter = new MarshallerAdapter(marshaller, gcr);
       dispatcher.setRequestMarshaller(adapter);
       dispatcher.setResponseMarshaller(adapter);
       dispatcher.start();
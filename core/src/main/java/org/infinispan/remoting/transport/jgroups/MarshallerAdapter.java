@@ -22,27 +22,48 @@
  */
 package org.infinispan.remoting.transport.jgroups;
 
+import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.io.ByteBuffer;
 import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.marshall.compression.PayloadCompressor;
 import org.jgroups.blocks.RpcDispatcher;
 import org.jgroups.util.Buffer;
 
 /**
- * Bridge between JGroups and Infinispan marshallers
+ * Bridge between JGroups and Infinispan marshallers.
+ * <p/>
+ * Commands addressed to a cache that has RPC compression enabled are compressed by the cache's
+ * {@link PayloadCompressor}; the marshaller decompresses them transparently on the receiving side.
  *
  * @author Manik Surtani
  * @since 4.0
  */
 public class MarshallerAdapter implements RpcDispatcher.Marshaller {
    StreamingMarshaller m;
+   private final GlobalComponentRegistry gcr;
 
    public MarshallerAdapter(StreamingMarshaller m) {
+      this(m, null);
+   }
+
+   public MarshallerAdapter(StreamingMarshaller m, GlobalComponentRegistry gcr) {
       this.m = m;
+      this.gcr = gcr;
    }
 
    @Override
    public Buffer objectToBuffer(Object obj) throws Exception {
-      return toBuffer(m.objectToBuffer(obj));
+      ByteBuffer bb = m.objectToBuffer(obj);
+      if (gcr != null && obj instanceof CacheRpcCommand) {
+         ComponentRegistry cr = gcr.getNamedComponentRegistry(((CacheRpcCommand) obj).getCacheName());
+         PayloadCompressor compressor = cr != null ? cr.getPayloadCompressor() : null;
+         if (compressor != null && compressor.isCompressRpc()) {
+            bb = compressor.compress(bb);
+         }
+      }
+      return toBuffer(bb);
    }
 
    @Override
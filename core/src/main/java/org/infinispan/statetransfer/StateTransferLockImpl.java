@@ -23,6 +23,10 @@
 
 package org.infinispan.statetransfer;
 
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -48,6 +52,13 @@ public class StateTransferLockImpl implements StateTransferLock {
    private volatile int transactionDataTopologyId;
    private final Object transactionDataLock = new Object();
 
+   private BlockingTaskAwareExecutorService remoteCommandsExecutor;
+
+   @Inject
+   public void inject(@ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) BlockingTaskAwareExecutorService remoteCommandsExecutor) {
+      this.remoteCommandsExecutor = remoteCommandsExecutor;
+   }
+
    @Override
    public void acquireExclusiveTopologyLock() {
       ownershipLock.writeLock().lock();
@@ -81,6 +92,15 @@ public void notifyTransactionDataReceived(int topologyId) {
       synchronized (transactionDataLock) {
          transactionDataLock.notifyAll();
       }
+      // remote commands parked until they have the transaction data may now be executed
+      if (remoteCommandsExecutor != null) {
+         remoteCommandsExecutor.checkForReadyTasks();
+      }
+   }
+
+   @Override
+   public boolean transactionDataReceived(int expectedTopologyId) {
+      return transactionDataTopologyId >= expectedTopologyId;
    }
 
    @Override
@@ -0,0 +1,319 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.stats;
+
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Parameter;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.marshall.MarshalledValue;
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.Equivalence;
+import org.infinispan.util.EquivalentHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.infinispan.util.Util.toHexString;
+
+/**
+ * Keeps track of the hot spots of a cache: the most accessed keys, the keys whose locks are most often contended
+ * and the keys failing write skew checks, along with lock wait and hold times.
+ * <p/>
+ * The top keys are approximated with {@link StreamSummary} sketches of bounded size. Each category is split into
+ * stripes picked by the calling thread, so concurrent samples rarely compete for the same sketch, and the stripes are
+ * only merged when a report is read. The hold time of a lock is measured from a start time kept in the lock itself.
+ * It is enabled together with the JMX statistics of the cache.
+ *
+ * @since 5.3
+ */
+@MBean(objectName = "HotKeyProfiler", description = "Tracks the most accessed and most contended keys of the cache")
+public class HotKeyProfiler {
+
+   public static final int DEFAULT_CAPACITY = 100;
+
+   /**
+    * Acquisitions that waited longer than this are counted as contended: an uncontended acquisition only takes the
+    * time of a map lookup and a CAS, so checking whether another owner holds the lock beforehand is not worth its cost.
+    */
+   static final long CONTENDED_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+   private final int capacity;
+   private Sampler accessedKeys;
+   private Sampler contendedKeys;
+   private Sampler writeSkewKeys;
+
+   private final AtomicLong lockAcquisitions = new AtomicLong(0);
+   private final AtomicLong contendedLockAcquisitions = new AtomicLong(0);
+   private final AtomicLong lockWaitNanos = new AtomicLong(0);
+   private final AtomicLong lockTimeouts = new AtomicLong(0);
+   private final AtomicLong lockReleases = new AtomicLong(0);
+   private final AtomicLong lockHoldNanos = new AtomicLong(0);
+   private final AtomicLong writeSkewFailures = new AtomicLong(0);
+
+   private Configuration configuration;
+   private volatile boolean statisticsEnabled;
+
+   public HotKeyProfiler() {
+      this(DEFAULT_CAPACITY);
+   }
+
+   public HotKeyProfiler(int capacity) {
+      this.capacity = capacity;
+   }
+
+   @Inject
+   public void inject(Configuration configuration) {
+      this.configuration = configuration;
+   }
+
+   @Start
+   @SuppressWarnings("unchecked")
+   public void start() {
+      Equivalence<Object> keyEquivalence = configuration.dataContainer().keyEquivalence();
+      accessedKeys = new Sampler(capacity, keyEquivalence);
+      contendedKeys = new Sampler(capacity, keyEquivalence);
+      writeSkewKeys = new Sampler(capacity, keyEquivalence);
+      statisticsEnabled = configuration.jmxStatistics().enabled();
+   }
+
+   public void keyAccessed(Object key) {
+      if (statisticsEnabled) accessedKeys.offer(key);
+   }
+
+   /**
+    * Records an attempt to acquire the lock of a key. The attempt is counted as contended if it timed out or waited
+    * longer than {@link #CONTENDED_WAIT_NANOS}.
+    *
+    * @param waitNanos how long the attempt took
+    * @param acquired  false if the attempt timed out
+    */
+   public void lockAttempted(Object key, long waitNanos, boolean acquired) {
+      if (!statisticsEnabled) return;
+      lockAcquisitions.incrementAndGet();
+      lockWaitNanos.addAndGet(waitNanos);
+      if (!acquired || waitNanos > CONTENDED_WAIT_NANOS) {
+         contendedLockAcquisitions.incrementAndGet();
+         contendedKeys.offer(key);
+      }
+      if (!acquired) lockTimeouts.incrementAndGet();
+   }
+
+   /**
+    * Records the release of a lock by its owner.
+    *
+    * @param holdNanos how long the owner held the lock
+    */
+   public void lockHeld(long holdNanos) {
+      if (!statisticsEnabled) return;
+      lockReleases.incrementAndGet();
+      lockHoldNanos.addAndGet(holdNanos);
+   }
+
+   public void writeSkewDetected(Object key) {
+      if (!statisticsEnabled) return;
+      writeSkewFailures.incrementAndGet();
+      if (key != null) writeSkewKeys.offer(key);
+   }
+
+   @ManagedOperation(description = "Returns the most accessed keys with their approximate access counts", displayName = "Top accessed keys")
+   public Map<String, Long> topAccessedKeys(@Parameter(name = "n", description = "Number of keys to return") int n) {
+      return accessedKeys.top(n);
+   }
+
+   @ManagedOperation(description = "Returns the keys whose locks were most often contended or timed out, with approximate counts", displayName = "Top contended keys")
+   public Map<String, Long> topContendedKeys(@Parameter(name = "n", description = "Number of keys to return") int n) {
+      return contendedKeys.top(n);
+   }
+
+   @ManagedOperation(description = "Returns the keys that most often failed a write skew check, with approximate counts", displayName = "Top write skew keys")
+   public Map<String, Long> topWriteSkewKeys(@Parameter(name = "n", description = "Number of keys to return") int n) {
+      return writeSkewKeys.top(n);
+   }
+
+   @ManagedOperation(description = "Prints a report of the hottest keys and lock times", displayName = "Print hot keys")
+   public String printHotKeys(@Parameter(name = "n", description = "Number of keys to list per category") int n) {
+      StringBuilder sb = new StringBuilder();
+      sb.append("topAccessedKeys: ").append(topAccessedKeys(n)).append('\n');
+      sb.append("topContendedKeys: ").append(topContendedKeys(n)).append('\n');
+      sb.append("topWriteSkewKeys: ").append(topWriteSkewKeys(n)).append('\n');
+      sb.append("averageLockWaitTime: ").append(getAverageLockWaitTime()).append(" ms\n");
+      sb.append("averageLockHoldTime: ").append(getAverageLockHoldTime()).append(" ms\n");
+      sb.append("contendedLockAcquisitions: ").append(getContendedLockAcquisitions()).append('\n');
+      sb.append("lockTimeouts: ").append(getLockTimeouts()).append('\n');
+      sb.append("writeSkewFailures: ").append(getWriteSkewFailures()).append('\n');
+      return sb.toString();
+   }
+
+   @ManagedAttribute(description = "Average time spent acquiring a lock", displayName = "Average lock wait time",
+                     units = Units.MILLISECONDS, displayType = DisplayType.SUMMARY)
+   public double getAverageLockWaitTime() {
+      return averageMillis(lockWaitNanos.get(), lockAcquisitions.get());
+   }
+
+   @ManagedAttribute(description = "Average time a lock is held", displayName = "Average lock hold time",
+                     units = Units.MILLISECONDS, displayType = DisplayType.SUMMARY)
+   public double getAverageLockHoldTime() {
+      return averageMillis(lockHoldNanos.get(), lockReleases.get());
+   }
+
+   @ManagedAttribute(description = "Number of lock acquisitions that found the lock held by another owner or timed out",
+                     displayName = "Contended lock acquisitions", measurementType = MeasurementType.TRENDSUP)
+   public long getContendedLockAcquisitions() {
+      return contendedLockAcquisitions.get();
+   }
+
+   @ManagedAttribute(description = "Number of lock acquisitions that timed out", displayName = "Lock timeouts",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getLockTimeouts() {
+      return lockTimeouts.get();
+   }
+
+   @ManagedAttribute(description = "Number of failed write skew checks", displayName = "Write skew failures",
+                     measurementType = MeasurementType.TRENDSUP)
+   public long getWriteSkewFailures() {
+      return writeSkewFailures.get();
+   }
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", displayName = "Statistics enabled",
+                     dataType = DataType.TRAIT, writable = true)
+   public boolean isStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   public void setStatisticsEnabled(boolean statisticsEnabled) {
+      this.statisticsEnabled = statisticsEnabled;
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      accessedKeys.clear();
+      contendedKeys.clear();
+      writeSkewKeys.clear();
+      lockAcquisitions.set(0);
+      contendedLockAcquisitions.set(0);
+      lockWaitNanos.set(0);
+      lockTimeouts.set(0);
+      lockReleases.set(0);
+      lockHoldNanos.set(0);
+      writeSkewFailures.set(0);
+   }
+
+   private static double averageMillis(long nanos, long count) {
+      if (count == 0) return 0;
+      return (double) nanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+   }
+
+   /**
+    * Stripes the samples of one category over several {@link StreamSummary} sketches, picked by the sampling thread,
+    * and merges them when read.
+    */
+   private static class Sampler {
+      private final ReentrantLock[] locks;
+      private final StreamSummary<Object>[] summaries;
+      private final int mask;
+      private final Equivalence<Object> equivalence;
+
+      @SuppressWarnings("unchecked")
+      Sampler(int capacity, Equivalence<Object> equivalence) {
+         int stripes = 1;
+         while (stripes < Runtime.getRuntime().availableProcessors()) stripes <<= 1;
+         this.locks = new ReentrantLock[stripes];
+         this.summaries = new StreamSummary[stripes];
+         for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+            summaries[i] = new StreamSummary<Object>(capacity, equivalence);
+         }
+         this.mask = stripes - 1;
+         this.equivalence = equivalence;
+      }
+
+      void offer(Object key) {
+         int i = (int) Thread.currentThread().getId() & mask;
+         locks[i].lock();
+         try {
+            summaries[i].offer(key);
+         } finally {
+            locks[i].unlock();
+         }
+      }
+
+      Map<String, Long> top(int n) {
+         Map<Object, Long> merged = new EquivalentHashMap<Object, Long>(equivalence, AnyEquivalence.LONG);
+         for (int i = 0; i < summaries.length; i++) {
+            Map<Object, Long> top;
+            locks[i].lock();
+            try {
+               top = summaries[i].top(n);
+            } finally {
+               locks[i].unlock();
+            }
+            for (Map.Entry<Object, Long> e : top.entrySet()) {
+               Long count = merged.get(e.getKey());
+               merged.put(e.getKey(), count == null ? e.getValue() : count + e.getValue());
+            }
+         }
+         List<Map.Entry<Object, Long>> sorted = new ArrayList<Map.Entry<Object, Long>>(merged.entrySet());
+         Collections.sort(sorted, new Comparator<Map.Entry<Object, Long>>() {
+            @Override
+            public int compare(Map.Entry<Object, Long> e1, Map.Entry<Object, Long> e2) {
+               return e2.getValue().compareTo(e1.getValue());
+            }
+         });
+         Map<String, Long> result = new LinkedHashMap<String, Long>(Math.min(n, sorted.size()));
+         for (Map.Entry<Object, Long> e : sorted.subList(0, Math.min(n, sorted.size()))) {
+            Object key = e.getKey();
+            if (key instanceof MarshalledValue) key = ((MarshalledValue) key).get();
+            // print byte array keys in full, truncated ones would collide
+            result.put(key instanceof byte[] ? "[B0x" + toHexString((byte[]) key) : String.valueOf(key), e.getValue());
+         }
+         return result;
+      }
+
+      void clear() {
+         for (int i = 0; i < summaries.length; i++) {
+            locks[i].lock();
+            try {
+               summaries[i].clear();
+            } finally {
+               locks[i].unlock();
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,175 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.stats;
+
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.Equivalence;
+import org.infinispan.util.EquivalentHashMap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximates the most frequent items of an unbounded stream in constant space, using the Space-Saving algorithm
+ * (Metwally, Agrawal, El Abbadi: "Efficient Computation of Frequent and Top-k Elements in Data Streams").
+ * <p/>
+ * At most {@code capacity} items are monitored. When a new item arrives and all the counters are in use, the item
+ * with the lowest count is replaced and the new item inherits its count, which is then the maximum over-estimation
+ * for that item. Counters are kept in buckets sorted by count so that every update is O(1).
+ * <p/>
+ * This class is not thread safe.
+ *
+ * @since 5.3
+ */
+public final class StreamSummary<T> {
+
+   private final int capacity;
+   private final Map<T, Counter<T>> counters;
+   private Bucket<T> head; // the bucket with the lowest count
+
+   @SuppressWarnings("unchecked")
+   public StreamSummary(int capacity) {
+      this(capacity, (Equivalence<T>) AnyEquivalence.OBJECT);
+   }
+
+   /**
+    * @param equivalence decides which items are the same, e.g. to count byte array keys by content
+    */
+   @SuppressWarnings("unchecked")
+   public StreamSummary(int capacity, Equivalence<T> equivalence) {
+      if (capacity < 1) throw new IllegalArgumentException("Capacity must be > 0, was " + capacity);
+      this.capacity = capacity;
+      this.counters = new EquivalentHashMap<T, Counter<T>>(capacity * 4 / 3 + 1, equivalence,
+                                                           (Equivalence<Counter<T>>) (Equivalence<?>) AnyEquivalence.OBJECT);
+   }
+
+   /**
+    * Counts one more occurrence of the item.
+    */
+   public void offer(T item) {
+      Counter<T> counter = counters.get(item);
+      if (counter == null) {
+         if (counters.size() < capacity) {
+            counter = new Counter<T>();
+         } else {
+            counter = head.counters.iterator().next();
+            counters.remove(counter.item);
+            counter.error = counter.count;
+         }
+         counter.item = item;
+         counters.put(item, counter);
+      }
+      increment(counter);
+   }
+
+   /**
+    * @return up to {@code n} items with their estimated counts, most frequent first
+    */
+   public Map<T, Long> top(int n) {
+      Map<T, Long> top = new LinkedHashMap<T, Long>();
+      Bucket<T> bucket = head;
+      while (bucket != null && bucket.next != null) bucket = bucket.next;
+      for (; bucket != null && top.size() < n; bucket = bucket.prev) {
+         for (Counter<T> counter : bucket.counters) {
+            if (top.size() == n) break;
+            top.put(counter.item, counter.count);
+         }
+      }
+      return top;
+   }
+
+   /**
+    * @return the maximum amount by which the count of the item may have been over-estimated, or -1 if the item is
+    *         not monitored
+    */
+   public long error(T item) {
+      Counter<T> counter = counters.get(item);
+      return counter == null ? -1 : counter.error;
+   }
+
+   public int size() {
+      return counters.size();
+   }
+
+   public void clear() {
+      counters.clear();
+      head = null;
+   }
+
+   private void increment(Counter<T> counter) {
+      Bucket<T> old = counter.bucket;
+      Bucket<T> next = old == null ? head : old.next;
+      long count = counter.count + 1;
+      Bucket<T> target;
+      if (next != null && next.count == count) {
+         target = next;
+      } else {
+         target = new Bucket<T>(count);
+         target.prev = old;
+         target.next = next;
+         if (next != null) next.prev = target;
+         if (old != null) old.next = target; else head = target;
+      }
+      if (old != null) {
+         old.counters.remove(counter);
+         if (old.counters.isEmpty()) unlink(old);
+      }
+      counter.count = count;
+      counter.bucket = target;
+      target.counters.add(counter);
+   }
+
+   private void unlink(Bucket<T> bucket) {
+      if (bucket.prev != null) bucket.prev.next = bucket.next; else head = bucket.next;
+      if (bucket.next != null) bucket.next.prev = bucket.prev;
+   }
+
+   @Override
+   public String toString() {
+      List<String> items = new ArrayList<String>(counters.size());
+      for (Map.Entry<T, Long> e : top(counters.size()).entrySet()) items.add(e.getKey() + "=" + e.getValue());
+      return "StreamSummary{capacity=" + capacity + ", top=" + items + '}';
+   }
+
+   private static final class Counter<T> {
+      T item;
+      long count;
+      long error;
+      Bucket<T> bucket;
+   }
+
+   private static final class Bucket<T> {
+      final long count;
+      final LinkedHashSet<Counter<T>> counters = new LinkedHashSet<Counter<T>>();
+      Bucket<T> prev;
+      Bucket<T> next;
+
+      Bucket(long count) {
+         this.count = count;
+      }
+   }
+}
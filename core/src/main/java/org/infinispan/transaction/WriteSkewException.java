@@ -28,18 +28,36 @@
  * @since 5.1
  */
 public class WriteSkewException extends CacheException {
+   private final transient Object key;
+
    public WriteSkewException() {
+      key = null;
    }
 
    public WriteSkewException(Throwable cause) {
       super(cause);
+      key = null;
    }
 
    public WriteSkewException(String msg) {
       super(msg);
+      key = null;
+   }
+
+   public WriteSkewException(String msg, Object key) {
+      super(msg);
+      this.key = key;
    }
 
    public WriteSkewException(String msg, Throwable cause) {
       super(msg, cause);
+      key = null;
+   }
+
+   /**
+    * @return the key that failed the write skew check, or null if unknown
+    */
+   public Object getKey() {
+      return key;
    }
 }
@@ -91,7 +91,7 @@ public static EntryVersionsMap performWriteSkewCheckAndReturnNewVersions(Version
                   uv.put(k, newVersion);
                } else {
                   // Write skew check detected!
-                  throw new WriteSkewException("Write skew detected on key " + k + " for transaction " + context.getTransaction());
+                  throw new WriteSkewException("Write skew detected on key " + k + " for transaction " + context.getTransaction(), k);
                }
             }
          }
@@ -123,7 +123,7 @@ public static EntryVersionsMap performTotalOrderWriteSkewCheckAndReturnNewVersio
                   uv.put(k, null);
                } else {
                   // Write skew check detected!
-                  throw new WriteSkewException("Write skew detected on key " + k + " for transaction " + context.getTransaction());
+                  throw new WriteSkewException("Write skew detected on key " + k + " for transaction " + context.getTransaction(), k);
                }
             }
          }
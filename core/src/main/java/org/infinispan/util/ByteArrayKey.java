@@ -22,6 +22,7 @@
  */
 package org.infinispan.util;
 
+import org.infinispan.commons.hash.MurmurHash3;
 import org.infinispan.marshall.AbstractExternalizer;
 import org.infinispan.marshall.Ids;
 
@@ -49,6 +50,7 @@ public final class ByteArrayKey implements Serializable {
    private static final long serialVersionUID = 7305972805432411725L;
    private final byte[] data;
    private final int hashCode;
+   private transient int murmurHash3;
 
    public ByteArrayKey(byte[] data) {
       this.data = data;
@@ -59,6 +61,23 @@ public byte[] getData() {
       return data;
    }
 
+   /**
+    * Hashes the wrapped data with MurmurHash3, which is what locates the owners of the key in a distributed cache.
+    * The hash is only computed the first time, as the owners of a key are looked up several times per operation.
+    *
+    * @param hashFunction MurmurHash3 instance to compute the hash with
+    * @return the MurmurHash3 hash of the data
+    */
+   public int murmurHash3(MurmurHash3 hashFunction) {
+      // benign data race, as with String.hashCode()
+      int h = murmurHash3;
+      if (h == 0) {
+         h = hashFunction.hash(data);
+         murmurHash3 = h;
+      }
+      return h;
+   }
+
    @Override
    public boolean equals(Object obj) {
       if (this == obj) return true;
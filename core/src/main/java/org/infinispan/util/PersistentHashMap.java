@@ -0,0 +1,554 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map backed by a persistent hash array mapped trie (HAMT).  Trie nodes are never modified once published, so a
+ * {@link #clone()} is O(1) and simply shares the current root, while every subsequent write only copies the O(log n)
+ * nodes along the path to the affected key.
+ * <p/>
+ * Writers must be externally synchronized, as with any other non-concurrent map.  Readers, however, never observe a
+ * partially applied write: lookups and iterators work against the root that was current when they started, so they
+ * can run without locking concurrently with a writer.  Iterators never throw
+ * {@link java.util.ConcurrentModificationException}; they simply reflect the contents of the map at the time they were
+ * created.
+ * <p/>
+ * Null keys are <i>not</i> supported.
+ *
+ * @since 5.3
+ */
+public class PersistentHashMap<K, V> extends AbstractMap<K, V> implements Cloneable, Serializable {
+
+   private static final long serialVersionUID = 2958512963016346742L;
+
+   private static final int BITS = 5;
+   private static final int MASK = (1 << BITS) - 1;
+
+   /**
+    * 32 bit hashes consumed 5 bits at a time give 7 trie levels, plus one level for collision nodes.
+    */
+   private static final int MAX_DEPTH = 8;
+
+   private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+   private static final Root EMPTY_ROOT = new Root(EMPTY, 0);
+
+   /**
+    * The trie root and the size are published together, so that readers never see one without the other.
+    */
+   private transient volatile Root current = EMPTY_ROOT;
+   private transient Set<Map.Entry<K, V>> entrySet;
+
+   public PersistentHashMap() {
+   }
+
+   public PersistentHashMap(Map<? extends K, ? extends V> map) {
+      if (map instanceof PersistentHashMap) {
+         PersistentHashMap<? extends K, ? extends V> other = (PersistentHashMap<? extends K, ? extends V>) map;
+         this.current = other.current;
+      } else {
+         putAll(map);
+      }
+   }
+
+   @Override
+   public int size() {
+      return current.size;
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return current.size == 0;
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      return findLeaf(current.node, key) != null;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public V get(Object key) {
+      Leaf leaf = findLeaf(current.node, key);
+      return leaf == null ? null : (V) leaf.value;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public V put(K key, V value) {
+      assertKeyNotNull(key);
+      Root root = current;
+      Change change = new Change();
+      BitmapNode newRoot = (BitmapNode) put(root.node, 0, hash(key), key, value, change);
+      if (newRoot != root.node) {
+         current = new Root(newRoot, change.found ? root.size : root.size + 1);
+      }
+      return (V) change.oldValue;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public V remove(Object key) {
+      if (key == null) return null;
+      Root root = current;
+      Change change = new Change();
+      Object newRoot = remove(root.node, 0, hash(key), key, change);
+      if (change.found) {
+         current = new Root(newRoot == null ? EMPTY : (BitmapNode) newRoot, root.size - 1);
+      }
+      return (V) change.oldValue;
+   }
+
+   @Override
+   public void clear() {
+      current = EMPTY_ROOT;
+   }
+
+   @Override
+   public Set<Map.Entry<K, V>> entrySet() {
+      if (entrySet == null) entrySet = new EntrySet();
+      return entrySet;
+   }
+
+   /**
+    * Returns a read-only view of the current contents of this map.  Unlike {@link #clone()} the returned map can not
+    * be written to, and unlike the map itself it is unaffected by writes that happen after this method returns.
+    */
+   public Map<K, V> snapshot() {
+      return Collections.unmodifiableMap(clone());
+   }
+
+   /**
+    * Creates a shallow copy of this map in constant time.  Both maps share all trie nodes until either of them is
+    * modified, at which point only the path to the modified key is copied.
+    */
+   @Override
+   @SuppressWarnings("unchecked")
+   public PersistentHashMap<K, V> clone() {
+      PersistentHashMap<K, V> clone;
+      try {
+         clone = (PersistentHashMap<K, V>) super.clone();
+      } catch (CloneNotSupportedException e) {
+         throw new AssertionError(e);
+      }
+      // the views are bound to the originating map
+      clone.entrySet = null;
+      return clone;
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      out.defaultWriteObject();
+      Root root = current;
+      out.writeInt(root.size);
+      for (Iterator<Map.Entry<K, V>> it = new EntryIterator(root.node); it.hasNext(); ) {
+         Map.Entry<K, V> e = it.next();
+         out.writeObject(e.getKey());
+         out.writeObject(e.getValue());
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      current = EMPTY_ROOT;
+      int n = in.readInt();
+      for (int i = 0; i < n; i++) put((K) in.readObject(), (V) in.readObject());
+   }
+
+   // The normal bit spreader, same as in FastCopyHashMap
+   private static int hash(Object key) {
+      int h = key.hashCode();
+      h ^= (h >>> 20) ^ (h >>> 12);
+      return h ^ (h >>> 7) ^ (h >>> 4);
+   }
+
+   private static boolean eq(Object o1, Object o2) {
+      return o1 == o2 || (o1 != null && o1.equals(o2));
+   }
+
+   private static void assertKeyNotNull(Object key) {
+      if (key == null) throw new NullPointerException("Null keys are not supported!");
+   }
+
+   private static int index(int hash, int shift) {
+      return (hash >>> shift) & MASK;
+   }
+
+   private static Leaf findLeaf(BitmapNode root, Object key) {
+      if (key == null) return null;
+      int hash = hash(key);
+      Object node = root;
+      int shift = 0;
+      while (true) {
+         if (node instanceof BitmapNode) {
+            BitmapNode bn = (BitmapNode) node;
+            int bit = 1 << index(hash, shift);
+            if ((bn.bitmap & bit) == 0) return null;
+            node = bn.slots[bn.slotIndex(bit)];
+            shift += BITS;
+         } else if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            return leaf.hash == hash && eq(leaf.key, key) ? leaf : null;
+         } else {
+            CollisionNode cn = (CollisionNode) node;
+            if (cn.hash != hash) return null;
+            int i = cn.indexOf(key);
+            return i < 0 ? null : cn.leaves[i];
+         }
+      }
+   }
+
+   private static int hashOf(Object node) {
+      return node instanceof Leaf ? ((Leaf) node).hash : ((CollisionNode) node).hash;
+   }
+
+   /**
+    * Builds the smallest sub-trie holding two leaves or collision nodes whose hashes differ.
+    */
+   private static BitmapNode merge(Object a, int hashA, Object b, int hashB, int shift) {
+      int ia = index(hashA, shift);
+      int ib = index(hashB, shift);
+      if (ia == ib)
+         return new BitmapNode(1 << ia, new Object[]{merge(a, hashA, b, hashB, shift + BITS)});
+      return ia < ib ? new BitmapNode((1 << ia) | (1 << ib), new Object[]{a, b})
+            : new BitmapNode((1 << ia) | (1 << ib), new Object[]{b, a});
+   }
+
+   /**
+    * Returns the node replacing {@code node} after the put, or {@code node} itself if nothing changed.
+    */
+   private static Object put(Object node, int shift, int hash, Object key, Object value, Change change) {
+      if (node instanceof BitmapNode) {
+         BitmapNode bn = (BitmapNode) node;
+         int bit = 1 << index(hash, shift);
+         int i = bn.slotIndex(bit);
+         if ((bn.bitmap & bit) == 0)
+            return bn.insert(bit, i, new Leaf(hash, key, value));
+         Object child = bn.slots[i];
+         Object newChild = put(child, shift + BITS, hash, key, value, change);
+         return newChild == child ? bn : bn.replace(i, newChild);
+      } else if (node instanceof Leaf) {
+         Leaf leaf = (Leaf) node;
+         if (leaf.hash == hash) {
+            if (eq(leaf.key, key)) {
+               change.found = true;
+               change.oldValue = leaf.value;
+               return leaf.value == value ? leaf : new Leaf(hash, leaf.key, value);
+            }
+            return new CollisionNode(hash, new Leaf[]{leaf, new Leaf(hash, key, value)});
+         }
+         return merge(leaf, leaf.hash, new Leaf(hash, key, value), hash, shift);
+      } else {
+         CollisionNode cn = (CollisionNode) node;
+         if (cn.hash != hash)
+            return merge(cn, cn.hash, new Leaf(hash, key, value), hash, shift);
+         int i = cn.indexOf(key);
+         if (i < 0) {
+            Leaf[] leaves = new Leaf[cn.leaves.length + 1];
+            System.arraycopy(cn.leaves, 0, leaves, 0, cn.leaves.length);
+            leaves[cn.leaves.length] = new Leaf(hash, key, value);
+            return new CollisionNode(hash, leaves);
+         }
+         Leaf old = cn.leaves[i];
+         change.found = true;
+         change.oldValue = old.value;
+         if (old.value == value) return cn;
+         Leaf[] leaves = cn.leaves.clone();
+         leaves[i] = new Leaf(hash, old.key, value);
+         return new CollisionNode(hash, leaves);
+      }
+   }
+
+   /**
+    * Returns the node replacing {@code node} after the removal, {@code null} if the node is now empty, or {@code node}
+    * itself if the key was not found.  Bitmap nodes left with a single leaf or collision node are collapsed into their
+    * parent, so that the trie stays as shallow as possible.
+    */
+   private static Object remove(Object node, int shift, int hash, Object key, Change change) {
+      if (node instanceof BitmapNode) {
+         BitmapNode bn = (BitmapNode) node;
+         int bit = 1 << index(hash, shift);
+         if ((bn.bitmap & bit) == 0) return bn;
+         int i = bn.slotIndex(bit);
+         Object child = bn.slots[i];
+         Object newChild = remove(child, shift + BITS, hash, key, change);
+         if (newChild == child) return bn;
+         if (newChild == null) return bn.slots.length == 1 ? null : bn.delete(bit, i);
+         if (newChild instanceof BitmapNode) {
+            BitmapNode newBn = (BitmapNode) newChild;
+            if (newBn.slots.length == 1 && !(newBn.slots[0] instanceof BitmapNode))
+               newChild = newBn.slots[0];
+         }
+         return bn.replace(i, newChild);
+      } else if (node instanceof Leaf) {
+         Leaf leaf = (Leaf) node;
+         if (leaf.hash != hash || !eq(leaf.key, key)) return leaf;
+         change.found = true;
+         change.oldValue = leaf.value;
+         return null;
+      } else {
+         CollisionNode cn = (CollisionNode) node;
+         if (cn.hash != hash) return cn;
+         int i = cn.indexOf(key);
+         if (i < 0) return cn;
+         change.found = true;
+         change.oldValue = cn.leaves[i].value;
+         if (cn.leaves.length == 2) return cn.leaves[1 - i];
+         Leaf[] leaves = new Leaf[cn.leaves.length - 1];
+         System.arraycopy(cn.leaves, 0, leaves, 0, i);
+         System.arraycopy(cn.leaves, i + 1, leaves, i, leaves.length - i);
+         return new CollisionNode(hash, leaves);
+      }
+   }
+
+   /**
+    * Outcome of a single put or remove.
+    */
+   private static final class Change {
+      boolean found;
+      Object oldValue;
+   }
+
+   /**
+    * Immutable pairing of a trie root with the number of entries it holds.
+    */
+   private static final class Root {
+      final BitmapNode node;
+      final int size;
+
+      Root(BitmapNode node, int size) {
+         this.node = node;
+         this.size = size;
+      }
+   }
+
+   private static final class BitmapNode {
+      final int bitmap;
+      final Object[] slots;
+
+      BitmapNode(int bitmap, Object[] slots) {
+         this.bitmap = bitmap;
+         this.slots = slots;
+      }
+
+      int slotIndex(int bit) {
+         return Integer.bitCount(bitmap & (bit - 1));
+      }
+
+      BitmapNode insert(int bit, int i, Object slot) {
+         Object[] newSlots = new Object[slots.length + 1];
+         System.arraycopy(slots, 0, newSlots, 0, i);
+         newSlots[i] = slot;
+         System.arraycopy(slots, i, newSlots, i + 1, slots.length - i);
+         return new BitmapNode(bitmap | bit, newSlots);
+      }
+
+      BitmapNode replace(int i, Object slot) {
+         Object[] newSlots = slots.clone();
+         newSlots[i] = slot;
+         return new BitmapNode(bitmap, newSlots);
+      }
+
+      BitmapNode delete(int bit, int i) {
+         Object[] newSlots = new Object[slots.length - 1];
+         System.arraycopy(slots, 0, newSlots, 0, i);
+         System.arraycopy(slots, i + 1, newSlots, i, newSlots.length - i);
+         return new BitmapNode(bitmap & ~bit, newSlots);
+      }
+   }
+
+   private static final class CollisionNode {
+      final int hash;
+      final Leaf[] leaves;
+
+      CollisionNode(int hash, Leaf[] leaves) {
+         this.hash = hash;
+         this.leaves = leaves;
+      }
+
+      int indexOf(Object key) {
+         for (int i = 0; i < leaves.length; i++) {
+            if (eq(leaves[i].key, key)) return i;
+         }
+         return -1;
+      }
+   }
+
+   private static final class Leaf {
+      final int hash;
+      final Object key;
+      final Object value;
+
+      Leaf(int hash, Object key, Object value) {
+         this.hash = hash;
+         this.key = key;
+         this.value = value;
+      }
+   }
+
+   private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+         return new EntryIterator(current.node);
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) return false;
+         Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+         Leaf leaf = findLeaf(current.node, e.getKey());
+         return leaf != null && eq(leaf.value, e.getValue());
+      }
+
+      @Override
+      public boolean remove(Object o) {
+         if (!contains(o)) return false;
+         PersistentHashMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+         return true;
+      }
+
+      @Override
+      public int size() {
+         return current.size;
+      }
+
+      @Override
+      public void clear() {
+         PersistentHashMap.this.clear();
+      }
+   }
+
+   /**
+    * Depth-first walk over an immutable root, hence unaffected by concurrent writes to the map.
+    */
+   private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+      private final Object[][] stack = new Object[MAX_DEPTH][];
+      private final int[] positions = new int[MAX_DEPTH];
+      private int depth;
+      private Leaf next;
+      private Leaf current;
+
+      EntryIterator(BitmapNode root) {
+         stack[0] = root.slots;
+         next = advance();
+      }
+
+      private Leaf advance() {
+         while (depth >= 0) {
+            Object[] slots = stack[depth];
+            int i = positions[depth];
+            if (i >= slots.length) {
+               depth--;
+               continue;
+            }
+            positions[depth] = i + 1;
+            Object slot = slots[i];
+            if (slot instanceof Leaf) return (Leaf) slot;
+            depth++;
+            stack[depth] = slot instanceof BitmapNode ? ((BitmapNode) slot).slots : ((CollisionNode) slot).leaves;
+            positions[depth] = 0;
+         }
+         return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return next != null;
+      }
+
+      @Override
+      public Map.Entry<K, V> next() {
+         if (next == null) throw new NoSuchElementException();
+         current = next;
+         next = advance();
+         return new WriteThroughEntry(current);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public void remove() {
+         if (current == null) throw new IllegalStateException();
+         PersistentHashMap.this.remove(current.key);
+         current = null;
+      }
+   }
+
+   private final class WriteThroughEntry implements Map.Entry<K, V> {
+      private final K key;
+      private V value;
+
+      @SuppressWarnings("unchecked")
+      WriteThroughEntry(Leaf leaf) {
+         this.key = (K) leaf.key;
+         this.value = (V) leaf.value;
+      }
+
+      @Override
+      public K getKey() {
+         return key;
+      }
+
+      @Override
+      public V getValue() {
+         return value;
+      }
+
+      @Override
+      public V setValue(V value) {
+         V old = this.value;
+         this.value = value;
+         put(key, value);
+         return old;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (!(o instanceof Map.Entry)) return false;
+         Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+         return eq(key, e.getKey()) && eq(value, e.getValue());
+      }
+
+      @Override
+      public int hashCode() {
+         return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+      }
+
+      @Override
+      public String toString() {
+         return key + "=" + value;
+      }
+   }
+}
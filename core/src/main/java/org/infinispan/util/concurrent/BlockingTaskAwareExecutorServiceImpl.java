@@ -63,6 +63,10 @@ public final void execute(BlockingRunnable runnable) {
          doExecute(runnable);
       } else {
          blockedTasks.offer(runnable);
+         // the task may have become ready before it was queued, in which case nobody would check it again
+         if (runnable.isReady() && blockedTasks.remove(runnable)) {
+            doExecute(runnable);
+         }
       }
       if (log.isTraceEnabled()) {
          log.tracef("Added a new task: %s task(s) are waiting", blockedTasks.size());
@@ -107,6 +111,9 @@ public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedE
 
    @Override
    public final void checkForReadyTasks() {
+      if (blockedTasks.isEmpty()) {
+         return;
+      }
       List<BlockingRunnable> runnableReadyList = new ArrayList<BlockingRunnable>(blockedTasks.size());
       synchronized (blockedTasks) {
          for (Iterator<BlockingRunnable> iterator = blockedTasks.iterator(); iterator.hasNext(); ) {
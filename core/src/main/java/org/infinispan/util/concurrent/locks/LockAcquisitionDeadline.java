@@ -0,0 +1,64 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.util.concurrent.locks;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the time the current thread may spend acquiring locks.  A remote command that was parked before being executed
+ * has already used up part of its lock acquisition timeout while waiting, so only the remainder is granted to the locks
+ * it acquires once it runs.
+ *
+ * @since 5.3
+ */
+public final class LockAcquisitionDeadline {
+
+   private static final ThreadLocal<Long> deadline = new ThreadLocal<Long>();
+
+   private LockAcquisitionDeadline() {
+   }
+
+   /**
+    * Sets the time, as returned by {@link System#nanoTime()}, by which the locks acquired by the current thread must
+    * be acquired.  Must be followed by {@link #clear()} in a finally block.
+    */
+   public static void set(long deadlineNanos) {
+      deadline.set(deadlineNanos);
+   }
+
+   public static void clear() {
+      deadline.remove();
+   }
+
+   /**
+    * @return the given lock acquisition timeout, reduced to the time left until the current thread's deadline if any
+    */
+   public static long remaining(long timeoutMillis) {
+      Long d = deadline.get();
+      if (d == null) {
+         return timeoutMillis;
+      }
+      return Math.min(timeoutMillis, Math.max(0, TimeUnit.NANOSECONDS.toMillis(d - System.nanoTime())));
+   }
+}
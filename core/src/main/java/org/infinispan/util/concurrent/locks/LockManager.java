@@ -150,4 +150,15 @@ public interface LockManager {
     */
    boolean acquireLockNoCheck(InvocationContext ctx, Object key, long timeoutMillis, boolean skipLocking) throws InterruptedException, TimeoutException;
 
+   /**
+    * Records that a remote command is parked until the given key is released, so that releasing it re-checks the
+    * parked commands.  Each call must be paired with a call to {@link #removeParkedWaiter(Object)}.
+    */
+   void addParkedWaiter(Object key);
+
+   /**
+    * Undoes a previous {@link #addParkedWaiter(Object)}.
+    */
+   void removeParkedWaiter(Object key);
+
 }
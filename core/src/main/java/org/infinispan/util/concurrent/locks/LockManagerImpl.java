@@ -25,12 +25,17 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.jmx.annotations.DataType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.marshall.MarshalledValue;
+import org.infinispan.stats.HotKeyProfiler;
+import org.infinispan.util.CollectionFactory;
 import org.infinispan.util.Util;
+import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.concurrent.locks.containers.*;
 import org.infinispan.util.logging.Log;
@@ -41,6 +46,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -57,6 +64,9 @@
 public class LockManagerImpl implements LockManager {
    protected Configuration configuration;
    protected volatile LockContainer<?> lockContainer;
+   private BlockingTaskAwareExecutorService remoteCommandsExecutor;
+   private final ConcurrentMap<Object, AtomicInteger> parkedWaiters = CollectionFactory.makeConcurrentMap();
+   private HotKeyProfiler hotKeyProfiler;
    private static final Log log = LogFactory.getLog(LockManagerImpl.class);
    protected static final boolean trace = log.isTraceEnabled();
    private static final String ANOTHER_THREAD = "(another thread)";
@@ -67,10 +77,29 @@ public void injectDependencies(Configuration configuration, LockContainer<?> loc
       this.lockContainer = lockContainer;
    }
 
+   @Inject
+   public void injectRemoteCommandsExecutor(@ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) BlockingTaskAwareExecutorService remoteCommandsExecutor) {
+      this.remoteCommandsExecutor = remoteCommandsExecutor;
+   }
+
+   @Inject
+   public void injectHotKeyProfiler(HotKeyProfiler hotKeyProfiler) {
+      this.hotKeyProfiler = hotKeyProfiler;
+   }
+
    @Override
    public boolean lockAndRecord(Object key, InvocationContext ctx, long timeoutMillis) throws InterruptedException {
       if (trace) log.tracef("Attempting to lock %s with acquisition timeout of %s millis", toStr(key), timeoutMillis);
-      if (lockContainer.acquireLock(ctx.getLockOwner(), key, timeoutMillis, MILLISECONDS) != null) {
+      boolean profile = hotKeyProfiler != null && hotKeyProfiler.isStatisticsEnabled();
+      long start = profile ? System.nanoTime() : 0;
+      Lock lock = lockContainer.acquireLock(ctx.getLockOwner(), key, timeoutMillis, MILLISECONDS);
+      boolean acquired = lock != null;
+      if (profile) {
+         long now = System.nanoTime();
+         hotKeyProfiler.lockAttempted(key, now - start, acquired);
+         if (acquired) markHoldStart(lock, ctx.getLockOwner(), now);
+      }
+      if (acquired) {
          if (trace) log.tracef("Successfully acquired lock %s!", toStr(key));
          return true;
       }
@@ -95,17 +124,110 @@ public boolean lockAndRecord(Object key, InvocationContext ctx, long timeoutMill
    @Override
    public void unlock(Collection<Object> lockedKeys, Object lockOwner) {
       log.tracef("Attempting to unlock keys %s", lockedKeys);
-      for (Object k : lockedKeys) lockContainer.releaseLock(lockOwner, k);
+      boolean waited = false;
+      boolean profile = hotKeyProfiler != null && hotKeyProfiler.isStatisticsEnabled();
+      for (Object k : lockedKeys) {
+         if (profile) recordHoldTime(k, lockOwner);
+         lockContainer.releaseLock(lockOwner, k);
+         waited |= hasParkedWaiters(k);
+      }
+      if (waited) notifyLocksReleased();
    }
 
    @Override
    @SuppressWarnings("unchecked")
    public void unlockAll(InvocationContext ctx) {
+      boolean waited = false;
+      boolean profile = hotKeyProfiler != null && hotKeyProfiler.isStatisticsEnabled();
       for (Object k : ctx.getLockedKeys()) {
          if (trace) log.tracef("Attempting to unlock %s", toStr(k));
+         if (profile) recordHoldTime(k, ctx.getLockOwner());
          lockContainer.releaseLock(ctx.getLockOwner(), k);
+         waited |= hasParkedWaiters(k);
       }
       ctx.clearLockedKeys();
+      if (waited) notifyLocksReleased();
+   }
+
+   /**
+    * Remembers when the owner acquired the lock in the lock itself, unless it already held it.
+    */
+   private static void markHoldStart(Lock lock, Object owner, long now) {
+      if (lock instanceof OwnableReentrantLock) {
+         OwnableReentrantLock l = (OwnableReentrantLock) lock;
+         if (l.getHoldCount(owner) == 1) l.holdStart = now;
+      } else if (lock instanceof VisibleOwnerReentrantLock) {
+         VisibleOwnerReentrantLock l = (VisibleOwnerReentrantLock) lock;
+         if (l.getHoldCount() == 1) l.holdStart = now;
+      }
+   }
+
+   /**
+    * Reports how long the lock of the key was held, if the owner is about to release it for good.
+    */
+   private void recordHoldTime(Object key, Object owner) {
+      Lock lock = lockContainer.getLock(key);
+      long holdStart = 0;
+      if (lock instanceof OwnableReentrantLock) {
+         OwnableReentrantLock l = (OwnableReentrantLock) lock;
+         if (l.getHoldCount(owner) == 1) holdStart = l.holdStart;
+      } else if (lock instanceof VisibleOwnerReentrantLock) {
+         VisibleOwnerReentrantLock l = (VisibleOwnerReentrantLock) lock;
+         if (l.getHoldCount() == 1) holdStart = l.holdStart;
+      }
+      // 0 if profiling was enabled while the lock was held
+      if (holdStart != 0) hotKeyProfiler.lockHeld(System.nanoTime() - holdStart);
+   }
+
+   @Override
+   public void addParkedWaiter(Object key) {
+      Object waitedLock = waitedLock(key);
+      AtomicInteger waiters = parkedWaiters.get(waitedLock);
+      while (true) {
+         if (waiters == null) {
+            waiters = new AtomicInteger(1);
+            AtomicInteger existing = parkedWaiters.putIfAbsent(waitedLock, waiters);
+            if (existing == null) return;
+            waiters = existing;
+         }
+         int count = waiters.get();
+         if (count > 0) {
+            if (waiters.compareAndSet(count, count + 1)) return;
+         } else {
+            // being removed by the last waiter, replace it
+            parkedWaiters.remove(waitedLock, waiters);
+            waiters = null;
+         }
+      }
+   }
+
+   @Override
+   public void removeParkedWaiter(Object key) {
+      Object waitedLock = waitedLock(key);
+      AtomicInteger waiters = parkedWaiters.get(waitedLock);
+      if (waiters != null && waiters.decrementAndGet() == 0) {
+         parkedWaiters.remove(waitedLock, waiters);
+      }
+   }
+
+   private boolean hasParkedWaiters(Object key) {
+      return !parkedWaiters.isEmpty() && parkedWaiters.containsKey(waitedLock(key));
+   }
+
+   /**
+    * With lock striping a key may be held because another key sharing its lock is, so waiters are tracked per stripe.
+    */
+   private Object waitedLock(Object key) {
+      return configuration.locking().useLockStriping() ? lockContainer.getLockId(key) : key;
+   }
+
+   /**
+    * Remote commands parked because they would have waited for one of the released locks may now be executed.
+    */
+   private void notifyLocksReleased() {
+      if (remoteCommandsExecutor != null) {
+         remoteCommandsExecutor.checkForReadyTasks();
+      }
    }
 
    @Override
@@ -202,6 +324,8 @@ public final boolean acquireLockNoCheck(InvocationContext ctx, Object key, long
    }
 
    private boolean lock(InvocationContext ctx, Object key, long timeoutMillis) throws InterruptedException {
+      // a remote command which was parked before running only gets what is left of its timeout
+      timeoutMillis = LockAcquisitionDeadline.remaining(timeoutMillis);
       if (lockAndRecord(key, ctx, timeoutMillis)) {
          ctx.addLockedKey(key);
          return true;
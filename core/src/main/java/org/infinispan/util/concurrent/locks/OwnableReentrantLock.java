@@ -50,6 +50,8 @@ public class OwnableReentrantLock extends AbstractQueuedSynchronizer implements
    private static final long serialVersionUID = 4932974734462848792L;
    private transient Object owner;
    private final ThreadLocal<Object> requestorOnStack = new ThreadLocal<Object>();
+   // when the current owner acquired the lock, only maintained while the hot key profiler is enabled
+   transient volatile long holdStart;
 
    /**
     * @return a GlobalTransaction instance if the current call is participating in a transaction, or the current thread
@@ -26,6 +26,9 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -184,13 +187,23 @@ public void releaseAllLocks(List<Object> keys) {
    }
 
    /**
-    * Acquires locks on keys passed in.  Makes multiple calls to {@link #acquireLock(Object, boolean)}
+    * Acquires locks on keys passed in.  Makes multiple calls to {@link #acquireLock(Object, boolean)}, visiting the
+    * stripes in index order so that two callers locking overlapping key sets cannot deadlock.
     *
     * @param keys      keys to unlock
     * @param exclusive whether locks are exclusive.
     */
    public void acquireAllLocks(List<Object> keys, boolean exclusive) {
-      for (Object k : keys) {
+      List<Object> ordered = new ArrayList<Object>(keys);
+      Collections.sort(ordered, new Comparator<Object>() {
+         @Override
+         public int compare(Object o1, Object o2) {
+            int i1 = hashToIndex(o1);
+            int i2 = hashToIndex(o2);
+            return i1 < i2 ? -1 : (i1 == i2 ? 0 : 1);
+         }
+      });
+      for (Object k : ordered) {
         acquireLock(k, exclusive);
     }
    }
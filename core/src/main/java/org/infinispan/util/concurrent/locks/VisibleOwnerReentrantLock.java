@@ -22,12 +22,16 @@
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
-* Extends {@link ReentrantLock} only to make the {@link #getOwner()} method public.
+* Extends {@link ReentrantLock} to make the {@link #getOwner()} method public, and to remember when the lock was
+* acquired for the {@link org.infinispan.stats.HotKeyProfiler}.
 *
 * @author Dan Berindei
 * @since 5.2
 */
 public class VisibleOwnerReentrantLock extends ReentrantLock {
+   // when the current owner acquired the lock, only maintained while the hot key profiler is enabled
+   transient volatile long holdStart;
+
    @Override
    public Thread getOwner() {
       return super.getOwner();
@@ -23,7 +23,6 @@
 package org.infinispan.util.concurrent.locks.containers;
 
 import org.infinispan.util.AnyEquivalence;
-import org.infinispan.util.ByRef;
 import org.infinispan.util.Util;
 import org.infinispan.util.concurrent.jdk8backported.EquivalentConcurrentHashMapV8;
 import org.infinispan.util.concurrent.locks.RefCountingLock;
@@ -44,6 +43,42 @@
    // We specifically need a CHMV8, to be able to use methods like computeIfAbsent, computeIfPresent and compute
    protected final EquivalentConcurrentHashMapV8<Object, L> locks;
 
+   // Stateless, so that acquiring and releasing a lock doesn't allocate a function
+   private final EquivalentConcurrentHashMapV8.BiFun<Object, L, L> referenceFunction = new EquivalentConcurrentHashMapV8.BiFun<Object, L, L>() {
+      @Override
+      public L apply(Object key, L lock) {
+         // This happens atomically in the CHM
+         if (lock == null) {
+            Log log = getLog();
+            if (log.isTraceEnabled())
+               log.tracef("Creating new lock instance for key %s", toStr(key));
+            return newLock(key);
+         }
+
+         // No need to worry about concurrent updates - there can't be a release in progress at the same time
+         int refCount = lock.getReferenceCounter().incrementAndGet();
+         if (refCount <= 1) {
+            throw new IllegalStateException("Lock " + key + " acquired although it should have been removed: " + lock);
+         }
+         return lock;
+      }
+   };
+
+   private final EquivalentConcurrentHashMapV8.BiFun<Object, L, L> dereferenceFunction = new EquivalentConcurrentHashMapV8.BiFun<Object, L, L>() {
+      @Override
+      public L apply(Object key, L lock) {
+         // This happens atomically in the CHM
+         // We have a reference, so value can't be null
+         int refCount = lock.getReferenceCounter().decrementAndGet();
+         if (refCount < 0) {
+            throw new IllegalStateException("Negative reference count for lock " + key + ": " + lock);
+         }
+         if (refCount > 0) return lock;
+         lockRemoved(key, lock);
+         return null;
+      }
+   };
+
    protected AbstractPerEntryLockContainer(int concurrencyLevel) {
       locks = new EquivalentConcurrentHashMapV8<Object, L>(
             16, concurrencyLevel, AnyEquivalence.OBJECT, new AnyEquivalence<L>());
@@ -51,6 +86,24 @@ protected AbstractPerEntryLockContainer(int concurrencyLevel) {
 
    protected abstract L newLock();
 
+   /**
+    * Provides the lock to bind to a key which isn't locked by anyone.  Invoked atomically with respect to other
+    * acquisitions and releases of the same key.  By default a new lock is created for every such key, but containers
+    * may reuse the locks previously passed to {@link #lockRemoved(Object, RefCountingLock)}.
+    *
+    * @return an unlocked lock, with a reference count of 1
+    */
+   protected L newLock(Object key) {
+      return newLock();
+   }
+
+   /**
+    * Invoked, atomically with respect to other acquisitions and releases of the same key, once a lock is no longer
+    * referenced by any lock owner and has been unbound from its key.  Does nothing by default.
+    */
+   protected void lockRemoved(Object key, L lock) {
+   }
+
    @Override
    public final L getLock(Object key) {
       return locks.get(key);
@@ -68,82 +121,34 @@ public int size() {
 
    @Override
    public L acquireLock(final Object lockOwner, final Object key, final long timeout, final TimeUnit unit) throws InterruptedException {
-      final ByRef<Boolean> lockAcquired = ByRef.create(Boolean.FALSE);
-      L lock = locks.compute(key, new EquivalentConcurrentHashMapV8.BiFun<Object, L, L>() {
-         @Override
-         public L apply(Object key, L lock) {
-            // This happens atomically in the CHM
-            if (lock == null) {
-               Log log = getLog();
-               if (log.isTraceEnabled())
-                  log.tracef("Creating and acquiring new lock instance for key %s", toStr(key));
-
-               lock = newLock();
-               // Since this is a new lock, it is certainly uncontended.
-               lock(lock, lockOwner);
-               lockAcquired.set(Boolean.TRUE);
-               return lock;
-            }
-
-            // No need to worry about concurrent updates - there can't be a release in progress at the same time
-            int refCount = lock.getReferenceCounter().incrementAndGet();
-            if (refCount <= 1) {
-               throw new IllegalStateException("Lock " + key + " acquired although it should have been removed: " + lock);
-            }
-            return lock;
-         }
-      });
+      // Once referenced, the lock stays bound to the key until the reference is dropped, so it can be acquired outside
+      // of the CHM.  A new lock is uncontended unless another owner referenced it in the meantime.
+      L lock = locks.compute(key, referenceFunction);
+      if (tryLock(lock, timeout, unit, lockOwner))
+         return lock;
 
-      if (!lockAcquired.get()) {
-         // We retrieved a lock that was already present,
-         lockAcquired.set(tryLock(lock, timeout, unit, lockOwner));
-      }
+      getLog().tracef("Timed out attempting to acquire lock for key %s after %s", key, Util.prettyPrintTime(timeout, unit));
 
-      if (lockAcquired.get())
-         return lock;
-      else {
-         getLog().tracef("Timed out attempting to acquire lock for key %s after %s", key, Util.prettyPrintTime(timeout, unit));
-
-         // We didn't acquire the lock, but we still incremented the reference count.
-         // We may need to delete the entry if the owner thread released it just after we timed out.
-         // We use an atomic operation here as another thread might be trying to increment the ref count
-         // at the same time (otherwise it would make the acquire function at the beginning more complicated).
-         locks.computeIfPresent(key, new EquivalentConcurrentHashMapV8.BiFun<Object, L, L>() {
-            @Override
-            public L apply(Object key, L lock) {
-               // This will happen atomically in the CHM
-               // We have a reference, so value can't be null
-               boolean remove = lock.getReferenceCounter().decrementAndGet() == 0;
-               return remove ? null : lock;
-            }
-         });
-         return null;
-      }
+      // We didn't acquire the lock, but we still incremented the reference count.
+      // We may need to delete the entry if the owner thread released it just after we timed out.
+      // We use an atomic operation here as another thread might be trying to increment the ref count
+      // at the same time (otherwise it would make the acquire function at the beginning more complicated).
+      locks.computeIfPresent(key, dereferenceFunction);
+      return null;
    }
 
    @Override
    public void releaseLock(final Object lockOwner, Object key) {
-      locks.computeIfPresent(key, new EquivalentConcurrentHashMapV8.BiFun<Object, L, L>() {
-         @Override
-         public L apply(Object key, L lock) {
-            // This will happen atomically in the CHM
-            // We have a reference, so value can't be null
-            Log log = getLog();
-            if (log.isTraceEnabled())
-               log.tracef("Unlocking lock instance for key %s", toStr(key));
-
-            unlock(lock, lockOwner);
+      L lock = locks.get(key);
+      if (lock == null) return;
 
-            int refCount = lock.getReferenceCounter().decrementAndGet();
-            boolean remove = refCount == 0;
-            if (refCount < 0) {
-               throw new IllegalStateException("Negative reference count for lock " + key + ": " + lock);
-            }
+      Log log = getLog();
+      if (log.isTraceEnabled())
+         log.tracef("Unlocking lock instance for key %s", toStr(key));
 
-            // Ok, unlock was successful.  If the unlock was not successful, an exception will propagate and the entry will not be changed.
-            return remove ? null : lock;
-         }
-      });
+      // If the unlock is not successful, an exception will propagate and the reference will not be dropped.
+      unlock(lock, lockOwner);
+      locks.computeIfPresent(key, dereferenceFunction);
    }
 
    @Override
@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.util.concurrent.locks.containers;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.util.concurrent.locks.OwnableRefCountingReentrantLock;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-per-entry container which recycles its locks instead of creating and discarding a lock object for every
+ * key it locks, as {@link OwnableReentrantPerEntryLockContainer} does.
+ * <p/>
+ * Like the per-entry container, the locks are bound to a key for as long as some lock owner references them, so two
+ * keys never share a lock, unlike with {@link OwnableReentrantStripedLockContainer}.  Once a lock is no longer
+ * referenced it is returned to a striped pool of free locks, where the next key hashing to the same stripe picks it up
+ * with a single CAS.  The pool holds at most 8 locks per stripe, the number of stripes being the concurrency level
+ * rounded up to a power of two; a lock returned to a full stripe is left to the garbage collector.
+ *
+ * @since 5.3
+ * @see org.infinispan.configuration.cache.LockingConfiguration#usePooledLocks()
+ */
+@ThreadSafe
+public class OwnableReentrantPooledLockContainer extends AbstractPerEntryLockContainer<OwnableReentrantPooledLockContainer.PooledLock> {
+
+   private static final Log log = LogFactory.getLog(OwnableReentrantPooledLockContainer.class);
+
+   static final int FREE_LOCKS_PER_STRIPE = 8;
+
+   private final AtomicReferenceArray<PooledLock> freeLocks;
+   private final int stripeMask;
+
+   public OwnableReentrantPooledLockContainer(int concurrencyLevel) {
+      super(concurrencyLevel);
+      int numStripes = 1;
+      while (numStripes < concurrencyLevel) numStripes <<= 1;
+      freeLocks = new AtomicReferenceArray<PooledLock>(numStripes * FREE_LOCKS_PER_STRIPE);
+      stripeMask = numStripes - 1;
+   }
+
+   @Override
+   protected Log getLog() {
+      return log;
+   }
+
+   @Override
+   protected PooledLock newLock() {
+      return new PooledLock();
+   }
+
+   @Override
+   protected PooledLock newLock(Object key) {
+      int first = (AbstractStripedLockContainer.hash(key) & stripeMask) * FREE_LOCKS_PER_STRIPE;
+      PooledLock lock = null;
+      for (int i = first; i < first + FREE_LOCKS_PER_STRIPE && lock == null; i++) {
+         PooledLock free = freeLocks.get(i);
+         if (free != null && freeLocks.compareAndSet(i, free, null)) lock = free;
+      }
+      if (lock == null) {
+         lock = newLock();
+      } else {
+         lock.getReferenceCounter().set(1);
+      }
+      lock.key = key;
+      return lock;
+   }
+
+   @Override
+   protected void lockRemoved(Object key, PooledLock lock) {
+      lock.key = null;
+      int first = (AbstractStripedLockContainer.hash(key) & stripeMask) * FREE_LOCKS_PER_STRIPE;
+      for (int i = first; i < first + FREE_LOCKS_PER_STRIPE; i++) {
+         if (freeLocks.get(i) == null && freeLocks.compareAndSet(i, null, lock)) {
+            return;
+         }
+      }
+   }
+
+   @Override
+   public boolean ownsLock(Object key, Object owner) {
+      PooledLock lock = locks.get(key);
+      if (lock == null) return false;
+      Object lockOwner = lock.getOwner();
+      // the lock may have been returned to the pool and bound to another key since the lookup
+      return owner.equals(lockOwner) && lock.isBoundTo(key);
+   }
+
+   @Override
+   public boolean isLocked(Object key) {
+      PooledLock lock = locks.get(key);
+      return lock != null && lock.isLocked() && lock.isBoundTo(key);
+   }
+
+   @Override
+   public int size() {
+      int free = 0;
+      for (int i = 0; i < freeLocks.length(); i++) {
+         if (freeLocks.get(i) != null) free++;
+      }
+      return locks.size() + free;
+   }
+
+   @Override
+   protected boolean tryLock(PooledLock lock, long timeout, TimeUnit unit, Object lockOwner) throws InterruptedException {
+      return lock.tryLock(lockOwner, timeout, unit);
+   }
+
+   @Override
+   protected void lock(PooledLock lock, Object lockOwner) {
+      lock.lock(lockOwner);
+   }
+
+   @Override
+   protected void unlock(PooledLock lock, Object lockOwner) {
+      lock.unlock(lockOwner);
+   }
+
+   @Override
+   public String toString() {
+      return "OwnableReentrantPooledLockContainer{" +
+            "locksHeld=" + getNumLocksHeld() +
+            ", pooledLocks=" + size() +
+            '}';
+   }
+
+   /**
+    * An {@link OwnableRefCountingReentrantLock} which remembers the key it is bound to while it is referenced by at
+    * least one lock owner.
+    */
+   public static final class PooledLock extends OwnableRefCountingReentrantLock {
+
+      private static final long serialVersionUID = -6264412919305932153L;
+
+      private transient volatile Object key;
+
+      boolean isBoundTo(Object key) {
+         return key.equals(this.key);
+      }
+
+      @Override
+      public String toString() {
+         return super.toString() + "[Key: " + key + "]";
+      }
+   }
+}
@@ -876,5 +876,13 @@ void asyncStoreShutdownTimeoutTooHigh(long configuredAsyncStopTimeout,
 
    @Message(value = "Error while initializing SSL context", id = 226)
    ConfigurationException sslInitializationException(@Cause Throwable e);
-}
 
+   @LogMessage(level = WARN)
+   @Message(value = "Pipelined commit of transaction %s failed on %s", id = 227)
+   void pipelinedCommitFailed(GlobalTransaction gtx, Collection<Address> recipients, @Cause Throwable e);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Delivered %d events for asynchronous listener method %s on %s in the caller's thread, as it " +
+         "can't keep up with the %d events it may have pending", id = 228)
+   void asyncListenerQueueFull(long events, Method m, Object target, int capacity);
+}
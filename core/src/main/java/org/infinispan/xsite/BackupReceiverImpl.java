@@ -28,6 +28,7 @@
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.InvokeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -102,6 +103,24 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
                                                                      command.getMaxIdleTimeMillis(), TimeUnit.MILLISECONDS);
       }
 
+      @Override
+      @SuppressWarnings("unchecked")
+      public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+         log.tracef("Processing a remote invoke %s", command);
+         if (command.getProcessor() != null) {
+            return backupCache.invoke(command.getKey(), command.getProcessor());
+         }
+         if (command.isRemoval()) {
+            return backupCache.remove(command.getKey());
+         }
+         if (command.getValue() != null) {
+            return backupCache.put(command.getKey(), command.getValue(),
+                                   command.getLifespanMillis(), TimeUnit.MILLISECONDS,
+                                   command.getMaxIdleTimeMillis(), TimeUnit.MILLISECONDS);
+         }
+         return null;
+      }
+
       @Override
       public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
          if (command.isConditional()) {
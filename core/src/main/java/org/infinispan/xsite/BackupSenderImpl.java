@@ -28,6 +28,7 @@
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.InvokeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -281,6 +282,15 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
          return null;
       }
 
+      @Override
+      public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+         if (command.isRemoval())
+            failurePolicy.handleRemoveFailure(site, command.getKey(), command.getPreviousValue());
+         else if (command.getValue() != null)
+            failurePolicy.handlePutFailure(site, command.getKey(), command.getValue(), false);
+         return null;
+      }
+
       @Override
       public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
          failurePolicy.handleRemoveFailure(site, command.getKey(), command.getValue());
@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.affinity;
+
+import org.infinispan.Cache;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.Address;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Tests for {@link SegmentKeyAffinityServiceImpl}.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "affinity.SegmentKeyAffinityServiceTest")
+public class SegmentKeyAffinityServiceTest extends BaseKeyAffinityServiceTest {
+
+   private SegmentKeyAffinityServiceImpl<Object> segmentService;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      super.INIT_CLUSTER_SIZE = 2;
+      super.createCacheManagers();
+      assertEquals(2, topology(caches.get(0).getCacheManager()).size());
+
+      segmentService = (SegmentKeyAffinityServiceImpl<Object>) KeyAffinityServiceFactory.newSegmentKeyAffinityService(
+            manager(0).getCache(cacheName), executor, new RndKeyGenerator(), 10);
+   }
+
+   @AfterTest(alwaysRun = true)
+   public void stopSegmentService() {
+      if (segmentService != null) segmentService.stop();
+   }
+
+   public void testKeysForSegments() throws Exception {
+      assertEventualFullSegments();
+      ConsistentHash ch = consistentHash();
+      for (int segment = 0; segment < ch.getNumSegments(); segment++) {
+         for (int i = 0; i < 20; i++) {
+            assertEquals(segment, ch.getSegment(segmentService.getKeyForSegment(segment)));
+         }
+      }
+   }
+
+   @Test(dependsOnMethods = "testKeysForSegments")
+   public void testKeysForAddresses() throws Exception {
+      assertKeysArePrimaryOwned();
+   }
+
+   @Test(dependsOnMethods = "testKeysForAddresses")
+   public void testCollocatedKey() {
+      ConsistentHash ch = consistentHash();
+      for (int i = 0; i < 1000; i++) {
+         Object collocatedKey = segmentService.getCollocatedKey(i);
+         assertEquals(ch.getSegment(i), ch.getSegment(collocatedKey));
+         assertEquals(ch.locateOwners(i), ch.locateOwners(collocatedKey));
+      }
+   }
+
+   @Test(dependsOnMethods = "testCollocatedKey")
+   public void testServerAdded() throws Exception {
+      EmbeddedCacheManager cm = addClusterEnabledCacheManager();
+      cm.defineConfiguration(cacheName, configuration.build());
+      Cache<Object, String> cache = cm.getCache(cacheName);
+      caches.add(cache);
+      waitForClusterToResize();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (Address address : topology()) {
+               try {
+                  Object key = segmentService.getKeyForAddress(address);
+                  if (!address.equals(consistentHash().locatePrimaryOwner(key))) return false;
+               } catch (IllegalStateException e) {
+                  return false;
+               }
+            }
+            return true;
+         }
+      });
+      assertEventualFullSegments();
+      assertKeysArePrimaryOwned();
+   }
+
+   public void testOutOfRangeSegment() {
+      try {
+         segmentService.getKeyForSegment(consistentHash().getNumSegments());
+         assert false : "Expected IllegalArgumentException";
+      } catch (IllegalArgumentException e) {
+         // expected
+      }
+   }
+
+   private void assertKeysArePrimaryOwned() {
+      ConsistentHash ch = consistentHash();
+      for (Address address : topology()) {
+         for (int i = 0; i < 100; i++) {
+            Object key = segmentService.getKeyForAddress(address);
+            assertEquals(address, ch.locatePrimaryOwner(key));
+         }
+      }
+   }
+
+   private void assertEventualFullSegments() {
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return segmentService.existingKeyCount.get() == segmentService.getMaxNumberOfKeys();
+         }
+      });
+      ConsistentHash ch = consistentHash();
+      for (int segment = 0; segment < ch.getNumSegments(); segment++) {
+         assertEquals(10, segmentService.getSegment2KeysMapping().get(segment).size());
+         for (Object key : segmentService.getSegment2KeysMapping().get(segment)) {
+            assertEquals(segment, ch.getSegment(key));
+         }
+      }
+   }
+
+   private ConsistentHash consistentHash() {
+      return caches.get(0).getAdvancedCache().getDistributionManager().getConsistentHash();
+   }
+}
@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.api;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryVisited;
+import org.infinispan.notifications.cachelistener.event.CacheEntryVisitedEvent;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that single key reads, which reuse a per-thread command and invocation context, behave like reads using
+ * freshly allocated ones, including when reads are nested or fail.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "api.ReusableReadTest")
+public class ReusableReadTest extends SingleCacheManagerTest {
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      return TestCacheManagerFactory.createLocalCacheManager(false);
+   }
+
+   public void testConsecutiveReads() {
+      cache.put("k1", "v1");
+      cache.put("k2", "v2");
+      assertEquals("v1", cache.get("k1"));
+      assertEquals("v2", cache.get("k2"));
+      assertNull(cache.get("k3"));
+      assertEquals("v1", cache.getAdvancedCache().withFlags(Flag.SKIP_CACHE_LOAD).get("k1"));
+      assertEquals("v1", cache.get("k1"));
+   }
+
+   public void testNestedReadFromListener() {
+      cache.put("outer", "v1");
+      cache.put("inner", "v2");
+      NestedReadListener listener = new NestedReadListener(cache);
+      cache.addListener(listener);
+      try {
+         assertEquals("v1", cache.get("outer"));
+         assertEquals("v2", listener.innerValue);
+      } finally {
+         cache.removeListener(listener);
+      }
+   }
+
+   public void testReadAfterFailedRead() {
+      cache.put("k", "v");
+      FailingListener listener = new FailingListener();
+      cache.addListener(listener);
+      try {
+         cache.get("k");
+         assert false : "Expected the listener to fail the read";
+      } catch (RuntimeException expected) {
+      } finally {
+         cache.removeListener(listener);
+      }
+      assertEquals("v", cache.get("k"));
+   }
+
+   @Listener
+   public static class NestedReadListener {
+      private final Cache<Object, Object> cache;
+      volatile Object innerValue;
+
+      public NestedReadListener(Cache<Object, Object> cache) {
+         this.cache = cache;
+      }
+
+      @CacheEntryVisited
+      public void entryVisited(CacheEntryVisitedEvent<Object, Object> e) {
+         if (e.isPre() && "outer".equals(e.getKey())) innerValue = cache.get("inner");
+      }
+   }
+
+   @Listener
+   public static class FailingListener {
+      @CacheEntryVisited
+      public void entryVisited(CacheEntryVisitedEvent<Object, Object> e) {
+         throw new IllegalStateException("Induced failure");
+      }
+   }
+}
@@ -87,4 +87,27 @@ public void testDeltasWithRepeatedChanges() {
       assert newMap.get("k1").equals("v3");
       assert newMap.size() == 1;
    }
+
+   public void testCopyIsIsolatedFromOriginal() {
+      AtomicHashMap<String, String> m = new AtomicHashMap<String, String>();
+      m.initForWriting();
+      m.put("k1", "v1");
+      m.put("k2", "v2");
+      m.commit();
+
+      AtomicHashMap<String, String> copy = m.copy();
+      copy.initForWriting();
+      copy.put("k1", "v3");
+      copy.remove("k2");
+      assert m.get("k1").equals("v1");
+      assert m.containsKey("k2");
+      assert copy.get("k1").equals("v3");
+      assert !copy.containsKey("k2");
+
+      AtomicHashMapDelta d = (AtomicHashMapDelta) copy.delta();
+      assert d.getChangeLogSize() == 2;
+      m = (AtomicHashMap<String, String>) d.merge(m);
+      assert m.get("k1").equals("v3");
+      assert m.size() == 1;
+   }
 }
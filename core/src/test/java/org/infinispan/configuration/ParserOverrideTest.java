@@ -158,7 +158,7 @@ public void testDefaultAndNamedCacheOverride() throws Exception {
             "   </default>\n" +
             "   <namedCache name=\"" + cacheName + "\">\n" +
             "      <clustering>\n" +
-            "         <async useReplQueue=\"true\" replQueueInterval=\"105\" replQueueMaxElements=\"341\"/>\n" +
+            "         <async useReplQueue=\"true\" replQueueInterval=\"105\" replQueueMaxElements=\"341\" replQueueMaxBytes=\"4096\"/>\n" +
             "      </clustering>\n" +
             "      <jmxStatistics enabled=\"true\"/>\n" +
             "      <deadlockDetection enabled=\"true\" spinDuration=\"502\"/>\n" +
@@ -203,6 +203,7 @@ public void call() {
             Assert.assertEquals(c.clustering().async().useReplQueue(), false);
             Assert.assertEquals(c.clustering().async().replQueueInterval(), 105);
             Assert.assertEquals(c.clustering().async().replQueueMaxElements(), 341);
+            Assert.assertEquals(c.clustering().async().replQueueMaxBytes(), 4096);
             Assert.assertEquals(c.jmxStatistics().enabled(), true);
             Assert.assertEquals(c.locking().isolationLevel(), IsolationLevel.READ_COMMITTED);
             Assert.assertEquals(c.locking().concurrencyLevel(), 30);
@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.distribution;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.util.CountingRpcManager;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests {@link AdvancedCache#getAll(java.util.Set)} on a distributed cache.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "distribution.GetAllTest")
+public class GetAllTest extends MultipleCacheManagersTest {
+
+   private static final int KEYS_PER_OWNER = 20;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testGetAllSendsOneCommandPerOwner() {
+      Map<Object, Object> expected = populate("a");
+      CountingRpcManager rpc = CountingRpcManager.replaceRpcManager(cache(0));
+      Map<Object, Object> result = advancedCache(0).getAll(expected.keySet());
+      assertEquals(expected, result);
+      assertEquals(0, rpc.clusterGet);
+      assertEquals(2, rpc.clusterGetAll);
+   }
+
+   public void testGetAllLeavesOutMissingKeys() {
+      Map<Object, Object> expected = populate("b");
+      Set<Object> keys = new LinkedHashSet<Object>(expected.keySet());
+      keys.add(new MagicKey("b-missing-local", cache(0)));
+      keys.add(new MagicKey("b-missing-remote", cache(2)));
+      Map<Object, Object> result = advancedCache(0).getAll(keys);
+      assertEquals(expected, result);
+   }
+
+   public void testGetAllPreservesKeyOrder() {
+      Map<Object, Object> expected = populate("c");
+      Set<Object> keys = new LinkedHashSet<Object>(expected.keySet());
+      Map<Object, Object> result = advancedCache(1).getAll(keys);
+      assertEquals(keys.size(), result.size());
+      assertTrue(keys.containsAll(result.keySet()));
+      assertEquals(keys.iterator().next(), result.keySet().iterator().next());
+   }
+
+   public void testGetAllWithSkipRemoteLookup() {
+      Map<Object, Object> expected = populate("d");
+      Map<Object, Object> result = advancedCache(0).withFlags(Flag.SKIP_REMOTE_LOOKUP).getAll(expected.keySet());
+      for (Map.Entry<Object, Object> e : expected.entrySet()) {
+         if (((MagicKey) e.getKey()).address.equals(address(0).toString()))
+            assertEquals(e.getValue(), result.get(e.getKey()));
+         else
+            assertTrue(!result.containsKey(e.getKey()));
+      }
+   }
+
+   public void testGetAllAsync() throws Exception {
+      Map<Object, Object> expected = populate("e");
+      Map<Object, Object> result = advancedCache(2).getAllAsync(expected.keySet()).get();
+      assertEquals(expected, result);
+   }
+
+   private Map<Object, Object> populate(String prefix) {
+      Map<Object, Object> data = new HashMap<Object, Object>();
+      for (Cache<Object, Object> owner : this.<Object, Object>caches()) {
+         for (int i = 0; i < KEYS_PER_OWNER; i++) {
+            MagicKey key = new MagicKey(prefix + i, owner);
+            data.put(key, prefix + "-value" + i);
+         }
+      }
+      cache(0).putAll(data);
+      return data;
+   }
+}
@@ -0,0 +1,162 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.distribution;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.EntryProcessor;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests {@link AdvancedCache#invoke(Object, EntryProcessor)} on a distributed cache.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "distribution.InvokeTest")
+public class InvokeTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2).l1().disable();
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testInvokeFromNonOwner() {
+      MagicKey key = new MagicKey("a", cache(0), cache(1));
+      cache(0).put(key, 1);
+      assertEquals(Integer.valueOf(1), advancedCache(2).invoke(key, new Increment()));
+      assertEquals(Integer.valueOf(2), advancedCache(1).invoke(key, new Increment()));
+      assertStoredValue(key, 3);
+   }
+
+   public void testInvokeCreatesEntry() {
+      MagicKey key = new MagicKey("b", cache(1), cache(2));
+      assertNull(advancedCache(0).invoke(key, new Increment()));
+      assertStoredValue(key, 1);
+   }
+
+   public void testInvokeRemovesEntry() {
+      MagicKey key = new MagicKey("c", cache(1), cache(2));
+      cache(0).put(key, 5);
+      assertEquals(Boolean.TRUE, advancedCache(0).invoke(key, new Remove()));
+      for (Cache<Object, Object> c : this.<Object, Object>caches()) {
+         assertFalse(c.getAdvancedCache().getDataContainer().containsKey(key));
+      }
+      assertEquals(Boolean.FALSE, advancedCache(2).invoke(key, new Remove()));
+   }
+
+   public void testInvokeKeepsExpiration() {
+      MagicKey key = new MagicKey("f", cache(0), cache(1));
+      cache(0).put(key, 1, 10, TimeUnit.MINUTES, 5, TimeUnit.MINUTES);
+      assertEquals(Integer.valueOf(1), advancedCache(2).invoke(key, new Increment()));
+      assertStoredValue(key, 2);
+      for (Cache<Object, Object> c : this.<Object, Object>caches()) {
+         InternalCacheEntry ice = c.getAdvancedCache().getDataContainer().get(key);
+         if (ice != null) {
+            assertEquals(TimeUnit.MINUTES.toMillis(10), ice.getLifespan());
+            assertEquals(TimeUnit.MINUTES.toMillis(5), ice.getMaxIdle());
+         }
+      }
+   }
+
+   public void testInvokeWithoutChanges() {
+      MagicKey key = new MagicKey("d", cache(2), cache(0));
+      cache(1).put(key, 7);
+      assertEquals(Integer.valueOf(7), advancedCache(1).invoke(key, new Read()));
+      assertStoredValue(key, 7);
+   }
+
+   public void testConcurrentInvocations() throws Exception {
+      final MagicKey key = new MagicKey("e", cache(0), cache(1));
+      final int invocationsPerThread = 50;
+      Thread[] threads = new Thread[3];
+      for (int i = 0; i < threads.length; i++) {
+         final AdvancedCache<Object, Object> cache = advancedCache(i);
+         threads[i] = new Thread() {
+            @Override
+            public void run() {
+               for (int j = 0; j < invocationsPerThread; j++)
+                  cache.invoke(key, new Increment());
+            }
+         };
+         threads[i].start();
+      }
+      for (Thread t : threads) t.join();
+      assertStoredValue(key, threads.length * invocationsPerThread);
+   }
+
+   private void assertStoredValue(MagicKey key, int expected) {
+      int owners = 0;
+      for (Cache<Object, Object> c : this.<Object, Object>caches()) {
+         InternalCacheEntry ice = c.getAdvancedCache().getDataContainer().get(key);
+         if (ice != null) {
+            assertEquals(expected, ice.getValue());
+            owners++;
+         }
+         assertEquals(expected, c.get(key));
+      }
+      assertEquals(2, owners);
+   }
+
+   private static class Increment implements EntryProcessor<Object, Object, Integer>, Serializable {
+      @Override
+      public Integer process(MutableEntry<Object, Object> entry) {
+         Integer current = (Integer) entry.getValue();
+         entry.setValue(current == null ? 1 : current + 1);
+         return current;
+      }
+   }
+
+   private static class Remove implements EntryProcessor<Object, Object, Boolean>, Serializable {
+      @Override
+      public Boolean process(MutableEntry<Object, Object> entry) {
+         boolean existed = entry.exists();
+         entry.remove();
+         return existed;
+      }
+   }
+
+   private static class Read implements EntryProcessor<Object, Object, Integer>, Serializable {
+      @Override
+      public Integer process(MutableEntry<Object, Object> entry) {
+         assertTrue(entry.exists());
+         return (Integer) entry.getValue();
+      }
+   }
+}
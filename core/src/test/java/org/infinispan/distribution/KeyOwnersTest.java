@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.distribution;
+
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.distribution.ch.DefaultConsistentHash;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.topology.CacheTopology;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests that the owners of the key of a command are located once per topology, however many times the distribution
+ * manager and the clustering dependent logic are asked for them.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "distribution.KeyOwnersTest")
+public class KeyOwnersTest extends AbstractInfinispanTest {
+
+   private DefaultConsistentHash ch;
+   private StateTransferManager stateTransferManager;
+   private DistributionManagerImpl dm;
+   private ClusteringDependentLogic.DistributionLogic cdl;
+
+   @BeforeMethod
+   public void setUp() {
+      List<Address> members = new ArrayList<Address>();
+      for (int i = 0; i < 4; i++) members.add(new TestAddress(i));
+      ch = new DefaultConsistentHashFactory().create(new MurmurHash3(), 2, 60, members);
+
+      RpcManager rpcManager = mock(RpcManager.class);
+      when(rpcManager.getAddress()).thenReturn(members.get(0));
+      stateTransferManager = mock(StateTransferManager.class);
+      when(stateTransferManager.getCacheTopology()).thenReturn(new CacheTopology(1, ch, null));
+
+      dm = new DistributionManagerImpl();
+      dm.init(rpcManager, stateTransferManager);
+      cdl = new ClusteringDependentLogic.DistributionLogic();
+      cdl.init(dm, null, rpcManager, null);
+   }
+
+   public void testOwnersAreLocatedOncePerCommand() {
+      CountingKey key = new CountingKey("k");
+      GetKeyValueCommand command = new GetKeyValueCommand(key, null);
+
+      List<Address> owners = dm.getKeyOwners(command).getOwners();
+      dm.getLocality(command);
+      cdl.localNodeIsOwner(command);
+      cdl.localNodeIsPrimaryOwner(command);
+      cdl.getPrimaryOwner(command);
+      assertEquals(1, key.hashes);
+
+      assertEquals(ch.locateOwners(new CountingKey("k")), owners);
+      assertEquals(ch.locateOwners(new CountingKey("k")).get(0), cdl.getPrimaryOwner(command));
+      assertEquals(1, key.hashes);
+   }
+
+   public void testOwnersAreLocatedAgainAfterTopologyChange() {
+      CountingKey key = new CountingKey("k");
+      GetKeyValueCommand command = new GetKeyValueCommand(key, null);
+
+      cdl.localNodeIsOwner(command);
+      assertEquals(1, key.hashes);
+      assertEquals(1, command.getKeyOwners().getTopologyId());
+
+      when(stateTransferManager.getCacheTopology()).thenReturn(new CacheTopology(2, ch, null));
+      cdl.localNodeIsOwner(command);
+      cdl.localNodeIsPrimaryOwner(command);
+      assertEquals(2, key.hashes);
+      assertEquals(2, command.getKeyOwners().getTopologyId());
+   }
+
+   public void testOwnersAreLocatedAgainForANewKey() {
+      CountingKey key = new CountingKey("k");
+      GetKeyValueCommand command = new GetKeyValueCommand(key, null);
+      dm.getKeyOwners(command);
+
+      CountingKey other = new CountingKey("other");
+      command.setKey(other);
+      assertEquals(ch.locateOwners(new CountingKey("other")), dm.getKeyOwners(command).getOwners());
+      assertEquals(1, key.hashes);
+      assertEquals(1, other.hashes);
+   }
+
+   /**
+    * Counts how many times it is hashed to locate its owners.
+    */
+   private static class CountingKey {
+      final String name;
+      int hashes;
+
+      CountingKey(String name) {
+         this.name = name;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         return o instanceof CountingKey && name.equals(((CountingKey) o).name);
+      }
+
+      @Override
+      public int hashCode() {
+         hashes++;
+         return name.hashCode();
+      }
+   }
+}
@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.distribution.topologyaware;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.TestTopologyAwareAddress;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link TopologyAwareReadRouter}.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "distribution.topologyaware.TopologyAwareReadRouterTest")
+public class TopologyAwareReadRouterTest {
+
+   private final Address self = new TestTopologyAwareAddress(0, "s0", "r0", "m0");
+   private final Address sameMachine = new TestTopologyAwareAddress(1, "s0", "r0", "m0");
+   private final Address sameRack = new TestTopologyAwareAddress(2, "s0", "r0", "m1");
+   private final Address otherRack = new TestTopologyAwareAddress(3, "s0", "r1", "m2");
+   private final Address otherRack2 = new TestTopologyAwareAddress(4, "s0", "r1", "m3");
+   private final Address otherSite = new TestTopologyAwareAddress(5, "s1", "r0", "m0");
+
+   private TopologyAwareReadRouter router;
+
+   @BeforeMethod
+   public void setUp() {
+      router = createRouter(self);
+   }
+
+   public void testSortByDistance() {
+      List<Address> owners = Arrays.asList(otherSite, otherRack, sameRack, otherRack2, sameMachine);
+      assertEquals(Arrays.asList(sameMachine, sameRack, otherRack, otherRack2, otherSite), router.sortByDistance(owners));
+   }
+
+   public void testClosestOwners() {
+      List<Address> sorted = router.sortByDistance(Arrays.asList(otherSite, otherRack2, otherRack));
+      // equally distant owners keep their consistent hash order
+      assertEquals(Arrays.asList(otherRack2, otherRack), router.closestOwners(sorted));
+      assertEquals(otherRack2, router.closestOwner(Arrays.asList(otherSite, otherRack2, otherRack)));
+      assertEquals(sameRack, router.closestOwner(Arrays.asList(otherRack, sameRack)));
+   }
+
+   public void testNoTopologyInformation() {
+      TopologyAwareReadRouter plainRouter = createRouter(new TestAddress(0));
+      List<Address> owners = Arrays.asList(otherSite, otherRack, sameMachine);
+      assertEquals(owners, plainRouter.sortByDistance(owners));
+      assertEquals(owners, plainRouter.closestOwners(owners));
+      assertEquals(otherSite, plainRouter.closestOwner(owners));
+   }
+
+   public void testRemoteReadCounters() {
+      router.remoteReadSent(sameMachine);
+      router.remoteReadSent(sameRack);
+      router.remoteReadSent(otherRack);
+      router.remoteReadSent(otherRack2);
+      router.remoteReadSent(otherSite);
+      router.remoteReadSent(new TestAddress(6));
+      assertEquals(1, router.getSameMachineRemoteReads());
+      assertEquals(1, router.getSameRackRemoteReads());
+      assertEquals(2, router.getCrossRackRemoteReads());
+      assertEquals(1, router.getCrossSiteRemoteReads());
+      assertEquals(1, router.getUnknownDistanceRemoteReads());
+
+      router.resetStatistics();
+      assertEquals(0, router.getCrossRackRemoteReads());
+
+      router.setStatisticsEnabled(false);
+      router.remoteReadSent(otherRack);
+      assertEquals(0, router.getCrossRackRemoteReads());
+   }
+
+   private TopologyAwareReadRouter createRouter(Address localAddress) {
+      RpcManager rpcManager = mock(RpcManager.class);
+      when(rpcManager.getAddress()).thenReturn(localAddress);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.clustering().cacheMode(CacheMode.DIST_SYNC).hash().topologyAwareReads(true);
+      builder.jmxStatistics().enable();
+      TopologyAwareReadRouter router = new TopologyAwareReadRouter();
+      router.inject(rpcManager, builder.build());
+      router.start();
+      assertTrue(router.isTopologyAwareReads());
+      return router;
+   }
+}
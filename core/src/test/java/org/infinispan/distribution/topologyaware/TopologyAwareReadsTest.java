@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.distribution.topologyaware;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests that remote reads are routed to the closest owners of a key, in a cluster of three nodes: the first two share
+ * a rack, and the third one is the only node of another rack.  With two owners spread across racks, the keys the first
+ * node doesn't own are owned by the second and third nodes, and the first node should read them from the second.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "distribution.topologyaware.TopologyAwareReadsTest")
+public class TopologyAwareReadsTest extends MultipleCacheManagersTest {
+
+   private static final String[][] TOPOLOGY = {{"s0", "r0", "m0"}, {"s0", "r0", "m1"}, {"s0", "r1", "m2"}};
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2).topologyAwareReads(true)
+            .l1().disable()
+            .jmxStatistics().enable();
+      for (String[] ids : TOPOLOGY) {
+         GlobalConfigurationBuilder global = GlobalConfigurationBuilder.defaultClusteredBuilder();
+         global.transport().siteId(ids[0]).rackId(ids[1]).machineId(ids[2]);
+         addClusterEnabledCacheManager(global, builder);
+      }
+      waitForClusterToForm();
+   }
+
+   @BeforeMethod
+   public void resetRouter() {
+      router(0).resetStatistics();
+   }
+
+   public void testGetGoesToClosestOwnerOnly() {
+      Object key = keyNotOwnedByFirstNode("get");
+      cache(1).put(key, "v");
+
+      assertEquals("v", cache(0).get(key));
+      assertEquals(1, router(0).getSameRackRemoteReads());
+      assertEquals(0, router(0).getCrossRackRemoteReads());
+   }
+
+   public void testGetFallsBackToOtherOwners() {
+      Object key = keyNotOwnedByFirstNode("fallback");
+      cache(1).put(key, "v");
+      // the closest owner lost its copy, so it returns no value
+      TestingUtil.extractComponent(cache(1), DataContainer.class).remove(key);
+
+      assertEquals("v", cache(0).get(key));
+      assertEquals(1, router(0).getSameRackRemoteReads());
+      assertEquals(1, router(0).getCrossRackRemoteReads());
+   }
+
+   public void testGetAllGroupsKeysByClosestOwner() {
+      Map<Object, Object> values = new HashMap<Object, Object>();
+      for (int i = 0; i < 5; i++) values.put(keyNotOwnedByFirstNode("getAll" + i), "v" + i);
+      cache(1).putAll(values);
+
+      AdvancedCache<Object, Object> cache0 = this.<Object, Object>cache(0).getAdvancedCache();
+      assertEquals(values, cache0.getAll(values.keySet()));
+      // a single command for all the keys, sent to their closest owner
+      assertEquals(1, router(0).getSameRackRemoteReads());
+      assertEquals(0, router(0).getCrossRackRemoteReads());
+   }
+
+   private Object keyNotOwnedByFirstNode(String prefix) {
+      Cache<Object, Object> cache0 = cache(0);
+      ConsistentHash ch = cache0.getAdvancedCache().getDistributionManager().getReadConsistentHash();
+      Set<Address> expectedOwners = new HashSet<Address>(Arrays.asList(address(1), address(2)));
+      for (int i = 0; ; i++) {
+         String key = prefix + i;
+         if (expectedOwners.equals(new HashSet<Address>(ch.locateOwners(key)))) return key;
+      }
+   }
+
+   private TopologyAwareReadRouter router(int index) {
+      return TestingUtil.extractComponent(cache(index), TopologyAwareReadRouter.class);
+   }
+}
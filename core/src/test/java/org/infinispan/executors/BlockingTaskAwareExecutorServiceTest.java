@@ -104,6 +104,24 @@ public boolean isSatisfied() throws Exception {
       }
    }
 
+   public void testReadyWhileBeingQueued() throws Exception {
+      BlockingTaskAwareExecutorService executorService = createExecutorService();
+      try {
+         // becomes ready right after the first check, before anybody calls checkForReadyTasks()
+         final ReadyAfterFirstCheck doSomething = new ReadyAfterFirstCheck();
+         executorService.execute(doSomething);
+
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return doSomething.isExecuted();
+            }
+         });
+      } finally {
+         executorService.shutdownNow();
+      }
+   }
+
    private BlockingTaskAwareExecutorServiceImpl createExecutorService() {
       return new BlockingTaskAwareExecutorServiceImpl(new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(1000), new DummyThreadFactory()));
    }
@@ -139,4 +157,26 @@ public synchronized final boolean isExecuted() {
          return executed;
       }
    }
+
+   public static class ReadyAfterFirstCheck implements BlockingRunnable {
+
+      private boolean checked = false;
+      private volatile boolean executed = false;
+
+      @Override
+      public synchronized boolean isReady() {
+         boolean ready = checked;
+         checked = true;
+         return ready;
+      }
+
+      @Override
+      public void run() {
+         executed = true;
+      }
+
+      public boolean isExecuted() {
+         return executed;
+      }
+   }
 }
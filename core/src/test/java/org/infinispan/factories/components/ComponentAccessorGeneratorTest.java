@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA
+ */
+
+package org.infinispan.factories.components;
+
+import org.infinispan.Cache;
+import org.infinispan.factories.GlobalComponentRegistry;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.interceptors.InvalidationInterceptor;
+import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the accessors generated for the core components at build-time, and the reflective fallback for the methods
+ * and components they don't handle.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "factories.components.ComponentAccessorGeneratorTest")
+public class ComponentAccessorGeneratorTest {
+
+   public void testAccessorsAreGenerated() throws Exception {
+      ComponentAccessor accessor = accessor("org.infinispan.eviction.EvictionManagerImpl");
+      assertTrue(accessor.getMethodId("start", null) != ComponentAccessor.UNKNOWN_METHOD);
+      assertEquals(ComponentAccessor.UNKNOWN_METHOD, accessor.getMethodId("start", new String[]{"java.lang.String"}));
+   }
+
+   public void testPrivateMethodsAreLeftToReflection() {
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createLocalCacheManager(false);
+      try {
+         // the only lifecycle method of the InterceptorChain is private, so it gets no accessor
+         ComponentMetadataRepo repo = TestingUtil.extractGlobalComponentRegistry(cm).getComponentMetadataRepo();
+         ComponentMetadata metadata = repo.findComponentMetadata(InterceptorChain.class);
+         assertEquals(InterceptorChain.class.getName(), metadata.getName());
+         assertNull(repo.findComponentAccessor(metadata, InterceptorChain.class));
+      } finally {
+         TestingUtil.killCacheManagers(cm);
+      }
+   }
+
+   public void testComponentWithoutAccessorIsWiredByReflection() throws Exception {
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createLocalCacheManager(false);
+      try {
+         GlobalComponentRegistry gcr = TestingUtil.extractGlobalComponentRegistry(cm);
+         // as if the component belonged to a module built without the accessor generator
+         Method inject = ComponentWithoutAccessor.class.getDeclaredMethod("inject", GlobalComponentRegistry.class);
+         ComponentMetadata metadata = new ComponentMetadata(ComponentWithoutAccessor.class, Collections.singletonList(inject),
+                                                            null, null, true, false);
+         ComponentMetadataRepo repo = gcr.getComponentMetadataRepo();
+         repo.componentMetadataMap.put(metadata.getName(), metadata);
+         assertNull(repo.findComponentAccessor(metadata, ComponentWithoutAccessor.class));
+
+         ComponentWithoutAccessor component = new ComponentWithoutAccessor();
+         gcr.registerComponent(component, ComponentWithoutAccessor.class);
+         assertSame(gcr, component.registry);
+      } finally {
+         TestingUtil.killCacheManagers(cm);
+      }
+   }
+
+   public void testInheritedMethods() throws Exception {
+      ComponentAccessor accessor = accessor(InvalidationInterceptor.class.getName());
+      int declaredId = accessor.getMethodId("injectDependencies", new String[]{"org.infinispan.commands.CommandsFactory"});
+      int inheritedId = accessor.getMethodId("injectConfiguration", new String[]{"org.infinispan.configuration.cache.Configuration"});
+      assertTrue(declaredId != ComponentAccessor.UNKNOWN_METHOD);
+      assertTrue(inheritedId != ComponentAccessor.UNKNOWN_METHOD);
+      assertTrue(declaredId != inheritedId);
+      // private, so invoked using reflection
+      assertEquals(ComponentAccessor.UNKNOWN_METHOD, accessor.getMethodId("start", null));
+   }
+
+   public void testCacheStartsWithGeneratedAccessors() {
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createLocalCacheManager(false);
+      try {
+         Cache<String, String> cache = cm.getCache();
+         cache.put("k", "v");
+         assertEquals("v", cache.get("k"));
+      } finally {
+         TestingUtil.killCacheManagers(cm);
+      }
+   }
+
+   public static class ComponentWithoutAccessor {
+      GlobalComponentRegistry registry;
+
+      @Inject
+      private void inject(GlobalComponentRegistry registry) {
+         this.registry = registry;
+      }
+   }
+
+   private ComponentAccessor accessor(String componentClassName) throws Exception {
+      return (ComponentAccessor) Class.forName(AbstractComponentAccessor.getAccessorClassName(componentClassName)).newInstance();
+   }
+}
@@ -262,6 +262,38 @@ public void testOverwritingFileDoesNotLeaveExcessChunksInCache() throws Exceptio
       assertEquals(numberOfChunksInCache(), 1);
    }
 
+   public void testFileLengthIsOnlyUpdatedOnFlush() throws Exception {
+      OutputStream out = fs.getOutput("pipelined.txt", false, 5);
+      out.write("12345abcde12345abcde123".getBytes());
+      assertEquals(fs.getFile("pipelined.txt").length(), 0);
+      out.close();
+      assertEquals(fs.getFile("pipelined.txt").length(), 23);
+      assertEquals(getContents("pipelined.txt"), "12345abcde12345abcde123");
+   }
+
+   public void testPipelinedChunkAccess() throws Exception {
+      fs = new GridFilesystem(dataCache, metadataCache, 4, 4, 8);
+      writeToFile("pipelined.txt", "This text spans multiple chunks.");
+      assertEquals(getContents("pipelined.txt"), "This text spans multiple chunks.");
+   }
+
+   public void testRewrittenChunksAreNotReadFromPrefetches() throws Exception {
+      fs = new GridFilesystem(dataCache, metadataCache, 5, 4, 8);
+      writeToFile("rewritten.txt", "aaaaabbbbbccccc", 5);
+      InputStream in = fs.getInput("rewritten.txt");
+      try {
+         // reading the first chunk fetches the other two ahead
+         assertEquals(in.read(), 'a');
+         writeToFile("rewritten.txt", "xxxxxyyyyyzzzzz", 5);
+         byte[] rest = new byte[14];
+         int read = 0;
+         while (read < rest.length) read += in.read(rest, read, rest.length - read);
+         assertEquals(new String(rest), "aaaayyyyyzzzzz");
+      } finally {
+         in.close();
+      }
+   }
+
     //ISPN-2157
     public void testWriteAndReadNegativeByte() throws Exception {
         String filePath = "negative.dat";
@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.loaders;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.loaders.bucket.Bucket;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStore;
+import org.infinispan.marshall.StreamingMarshaller;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.marshall.compression.CompressingMarshaller;
+import org.infinispan.marshall.compression.PayloadCompressor;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link CompactEntryMarshaller}.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "loaders.CompactEntryMarshallerTest")
+public class CompactEntryMarshallerTest {
+
+   private final StreamingMarshaller delegate = new TestObjectStreamMarshaller();
+   private final CompactEntryMarshaller marshaller = new CompactEntryMarshaller(delegate);
+
+   public void testEntryRoundTrip() throws Exception {
+      assertRoundTrip(TestInternalCacheEntryFactory.create("k", "v"));
+      assertRoundTrip(TestInternalCacheEntryFactory.create("k", "v", 1000, 5000, -1, -1));
+      assertRoundTrip(TestInternalCacheEntryFactory.create("k", "v", -1, -1, 1000, 3000));
+      assertRoundTrip(TestInternalCacheEntryFactory.create("k", 42, 1000, 5000, 2000, 3000));
+   }
+
+   public void testRawBytesAreWrittenAsIs() throws Exception {
+      byte[] key = {1, 2, 3};
+      byte[] value = new byte[100];
+      Arrays.fill(value, (byte) 7);
+      byte[] bytes = marshaller.objectToByteBuffer(TestInternalCacheEntryFactory.create(key, value));
+      // header, flags, two length bytes and the payloads themselves
+      assertEquals(4 + 1 + 1 + key.length + 1 + value.length, bytes.length);
+      InternalCacheEntry read = (InternalCacheEntry) marshaller.objectFromByteBuffer(bytes);
+      assertTrue(Arrays.equals(key, (byte[]) read.getKey()));
+      assertTrue(Arrays.equals(value, (byte[]) read.getValue()));
+   }
+
+   public void testValueRoundTrip() throws Exception {
+      InternalCacheValue icv = TestInternalCacheEntryFactory.createValue("v", 1000, 5000, 2000, 3000);
+      InternalCacheValue read = (InternalCacheValue) marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(icv));
+      assertEquals(icv.getValue(), read.getValue());
+      assertEquals(icv.getCreated(), read.getCreated());
+      assertEquals(icv.getLifespan(), read.getLifespan());
+      assertEquals(icv.getLastUsed(), read.getLastUsed());
+      assertEquals(icv.getMaxIdle(), read.getMaxIdle());
+   }
+
+   public void testBucketRoundTrip() throws Exception {
+      Bucket bucket = new Bucket();
+      for (int i = 0; i < 10; i++) {
+         bucket.addEntry(TestInternalCacheEntryFactory.create("k" + i, "v" + i, i * 1000, 10000, -1, -1));
+      }
+      Bucket read = (Bucket) marshaller.objectFromInputStream(new ByteArrayInputStream(marshaller.objectToByteBuffer(bucket)));
+      assertEquals(bucket.getEntries(), read.getEntries());
+   }
+
+   public void testRecordHasSingleMarshallerHeader() throws Exception {
+      Bucket bucket = new Bucket();
+      for (int i = 0; i < 10; i++) {
+         bucket.addEntry(TestInternalCacheEntryFactory.create("k" + i, i, 1000, 10000, -1, -1));
+      }
+      bucket.addEntry(TestInternalCacheEntryFactory.create(new byte[] {1}, new byte[] {2}));
+      byte[] bytes = marshaller.objectToByteBuffer(bucket);
+      // the delegate writes java.io serialization streams, which start with 0xACED0005
+      int headers = 0;
+      for (int i = 0; i + 3 < bytes.length; i++) {
+         if (bytes[i] == (byte) 0xAC && bytes[i + 1] == (byte) 0xED && bytes[i + 2] == 0 && bytes[i + 3] == 5) headers++;
+      }
+      assertEquals(1, headers);
+      Bucket read = (Bucket) marshaller.objectFromByteBuffer(bytes);
+      assertEquals(bucket.getNumEntries(), read.getNumEntries());
+      assertEquals(bucket.getEntry("k3"), read.getEntry("k3"));
+   }
+
+   public void testOtherObjectsAndFormatsGoThroughDelegate() throws Exception {
+      byte[] bytes = marshaller.objectToByteBuffer("some string");
+      assertFalse(CompactEntryMarshaller.isCompact(bytes, 0, bytes.length));
+      assertEquals("some string", marshaller.objectFromByteBuffer(bytes));
+
+      InternalCacheEntry ice = TestInternalCacheEntryFactory.create("k", "v");
+      assertEquals(ice, marshaller.objectFromByteBuffer(delegate.objectToByteBuffer(ice)));
+   }
+
+   public void testCompressedRecords() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.jmxStatistics().enable().compression().enable().threshold(128);
+      PayloadCompressor compressor = new PayloadCompressor();
+      compressor.inject(builder.build());
+      compressor.start();
+
+      DummyInMemoryCacheStore store = new DummyInMemoryCacheStore();
+      DummyInMemoryCacheStore.Cfg cfg = new DummyInMemoryCacheStore.Cfg("CompactEntryMarshallerTest");
+      cfg.setPurgeOnStartup(true);
+      cfg.setCompactEntryFormat(true);
+      store.init(cfg, null, new CompressingMarshaller(delegate, compressor));
+      store.start();
+      try {
+         char[] chars = new char[4096];
+         Arrays.fill(chars, 'x');
+         InternalCacheEntry ice = TestInternalCacheEntryFactory.create("k", new String(chars), 1000, 5000, -1, -1);
+         store.store(ice);
+         assertEquals(1, compressor.getCompressedPayloads());
+         assertEquals(ice, store.load("k"));
+      } finally {
+         store.stop();
+      }
+   }
+
+   private void assertRoundTrip(InternalCacheEntry ice) throws Exception {
+      byte[] bytes = marshaller.objectToByteBuffer(ice);
+      assertTrue(CompactEntryMarshaller.isCompact(bytes, 0, bytes.length));
+      InternalCacheEntry read = (InternalCacheEntry) marshaller.objectFromByteBuffer(bytes);
+      assertEquals(ice, read);
+      assertEquals(ice.getClass(), read.getClass());
+      assertEquals(ice.getCreated(), read.getCreated());
+      assertEquals(ice.getLifespan(), read.getLifespan());
+      assertEquals(ice.getLastUsed(), read.getLastUsed());
+      assertEquals(ice.getMaxIdle(), read.getMaxIdle());
+   }
+}
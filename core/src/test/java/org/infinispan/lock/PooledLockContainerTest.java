@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.lock;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.concurrent.locks.OwnableReentrantLock;
+import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPooledLockContainer;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link OwnableReentrantPooledLockContainer}.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "lock.PooledLockContainerTest")
+public class PooledLockContainerTest extends AbstractInfinispanTest {
+
+   public void testReentrantAcquisition() throws Exception {
+      OwnableReentrantPooledLockContainer lc = new OwnableReentrantPooledLockContainer(4);
+      Object owner = new Object();
+      OwnableReentrantLock lock = lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS);
+      assertNotNull(lock);
+      assertSame(lock, lc.acquireLock(owner, "k", 0, TimeUnit.MILLISECONDS));
+      assertTrue(lc.ownsLock("k", owner));
+      assertEquals(1, lc.getNumLocksHeld());
+
+      lc.releaseLock(owner, "k");
+      assertTrue(lc.isLocked("k"));
+      lc.releaseLock(owner, "k");
+      assertFalse(lc.isLocked("k"));
+      assertNull(lc.getLock("k"));
+      assertEquals(0, lc.getNumLocksHeld());
+   }
+
+   public void testLocksAreReused() throws Exception {
+      OwnableReentrantPooledLockContainer lc = new OwnableReentrantPooledLockContainer(1);
+      Object owner = new Object();
+      OwnableReentrantLock lock = lc.acquireLock(owner, "k1", 0, TimeUnit.MILLISECONDS);
+      lc.releaseLock(owner, "k1");
+      assertSame(lock, lc.acquireLock(owner, "k2", 0, TimeUnit.MILLISECONDS));
+      assertFalse(lc.isLocked("k1"));
+      assertTrue(lc.isLocked("k2"));
+      lc.releaseLock(owner, "k2");
+   }
+
+   public void testKeysInSameStripeDoNotShareLocks() throws Exception {
+      OwnableReentrantPooledLockContainer lc = new OwnableReentrantPooledLockContainer(1);
+      Object owner1 = new Object();
+      Object owner2 = new Object();
+      for (int i = 0; i < 10; i++) assertNotNull(lc.acquireLock(owner1, "a" + i, 0, TimeUnit.MILLISECONDS));
+      for (int i = 0; i < 10; i++) assertNotNull(lc.acquireLock(owner2, "b" + i, 0, TimeUnit.MILLISECONDS));
+      assertNull(lc.acquireLock(owner2, "a5", 10, TimeUnit.MILLISECONDS));
+      assertEquals(20, lc.getNumLocksHeld());
+
+      for (int i = 0; i < 10; i += 2) lc.releaseLock(owner1, "a" + i);
+      for (int i = 0; i < 10; i++) {
+         assertEquals(i % 2 != 0, lc.ownsLock("a" + i, owner1));
+         assertTrue(lc.ownsLock("b" + i, owner2));
+      }
+      assertEquals(15, lc.getNumLocksHeld());
+   }
+
+   public void testPoolIsBounded() throws Exception {
+      OwnableReentrantPooledLockContainer lc = new OwnableReentrantPooledLockContainer(1);
+      Object owner = new Object();
+      for (int i = 0; i < 20; i++) assertNotNull(lc.acquireLock(owner, "k" + i, 0, TimeUnit.MILLISECONDS));
+      for (int i = 0; i < 20; i++) lc.releaseLock(owner, "k" + i);
+      assertEquals(0, lc.getNumLocksHeld());
+      // a single stripe keeps at most 8 free locks
+      assertEquals(8, lc.size());
+   }
+
+   public void testFailedAcquisitionReleasesReference() throws Exception {
+      OwnableReentrantPooledLockContainer lc = new OwnableReentrantPooledLockContainer(1);
+      Object owner1 = new Object();
+      Object owner2 = new Object();
+      lc.acquireLock(owner1, "k", 0, TimeUnit.MILLISECONDS);
+      assertNull(lc.acquireLock(owner2, "k", 10, TimeUnit.MILLISECONDS));
+      lc.releaseLock(owner1, "k");
+      assertNull(lc.getLock("k"));
+      assertEquals(0, lc.getNumLocksHeld());
+   }
+
+   public void testMutualExclusion() throws Exception {
+      final OwnableReentrantPooledLockContainer lc = new OwnableReentrantPooledLockContainer(2);
+      final int[] counters = new int[4];
+      final AtomicInteger failures = new AtomicInteger();
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int t = 0; t < 8; t++) {
+         futures.add(fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               Object owner = new Object();
+               for (int i = 0; i < 10000; i++) {
+                  int k = i % counters.length;
+                  if (lc.acquireLock(owner, "k" + k, 10, TimeUnit.SECONDS) == null) {
+                     failures.incrementAndGet();
+                     continue;
+                  }
+                  try {
+                     counters[k]++;
+                  } finally {
+                     lc.releaseLock(owner, "k" + k);
+                  }
+               }
+               return null;
+            }
+         }));
+      }
+      for (Future<Void> f : futures) f.get(60, TimeUnit.SECONDS);
+
+      assertEquals(0, failures.get());
+      for (int counter : counters) assertEquals(8 * 10000 / counters.length, counter);
+      assertEquals(0, lc.getNumLocksHeld());
+   }
+}
@@ -89,6 +89,7 @@
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -458,6 +459,33 @@ public void testAtomicHashMap() throws Exception {
       assert m.isEmpty();
    }
 
+   public void testAtomicHashMapKeepsFastCopyHashMapFormat() throws Exception {
+      AtomicHashMap<String, String> m = new AtomicHashMap<String, String>();
+      m.initForWriting();
+      m.put("k1", "v1");
+      m.put("k2", "v2");
+      Map<String, String> expected = new HashMap<String, String>(m);
+
+      // the payload must still be the FastCopyHashMap written by previous releases
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      ObjectOutput out = marshaller.startObjectOutput(baos, false, 512);
+      new AtomicHashMap.Externalizer().writeObject(out, m);
+      marshaller.finishObjectOutput(out);
+      ObjectInput in = marshaller.startObjectInput(new ByteArrayInputStream(baos.toByteArray()), false);
+      FastCopyHashMap<?, ?> entries = (FastCopyHashMap<?, ?>) marshaller.objectFromObjectStream(in);
+      marshaller.finishObjectInput(in);
+      assertEquals(expected, entries);
+
+      baos = new ByteArrayOutputStream();
+      out = marshaller.startObjectOutput(baos, false, 512);
+      marshaller.objectToObjectStream(new FastCopyHashMap<String, String>(m), out);
+      marshaller.finishObjectOutput(out);
+      in = marshaller.startObjectInput(new ByteArrayInputStream(baos.toByteArray()), false);
+      AtomicHashMap<?, ?> read = new AtomicHashMap.Externalizer().readObject(in);
+      marshaller.finishObjectInput(in);
+      assertEquals(expected, new HashMap<Object, Object>(read));
+   }
+
    public void testMarshallObjectThatContainsACustomReadObjectMethod() throws Exception {
       ObjectThatContainsACustomReadObjectMethod obj = new ObjectThatContainsACustomReadObjectMethod();
       obj.anObjectWithCustomReadObjectMethod = new CustomReadObjectMethod();
@@ -470,6 +498,8 @@ public void testMIMECacheEntryMarshalling() throws Exception {
       MIMECacheEntry rEntry = (MIMECacheEntry) marshaller.objectFromByteBuffer(bytes);
       assert Arrays.equals(rEntry.data, entry.data);
       assert rEntry.contentType.equals(entry.contentType);
+      assert rEntry.getETag().equals(entry.getETag());
+      assert rEntry.getETag().equals(MIMECacheEntry.computeETag("rm", new byte[] {1, 2, 3}));
    }
 
    public void testNestedNonSerializable() throws Exception {
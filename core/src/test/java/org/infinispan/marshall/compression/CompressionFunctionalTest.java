@@ -0,0 +1,120 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.marshall.compression;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that values stored as binary and written to cache stores are compressed, and read back transparently.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "marshall.compression.CompressionFunctionalTest")
+public class CompressionFunctionalTest extends SingleCacheManagerTest {
+
+   private static final String FILE_STORE_CACHE = "fileStore";
+
+   private String tmpDirectory;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      tmpDirectory = TestingUtil.tmpDirectory(this);
+      ConfigurationBuilder builder = getDefaultStandaloneCacheConfig(false);
+      builder.jmxStatistics().enable()
+            .storeAsBinary().enable()
+            .compression().enable().threshold(128)
+            .loaders().addStore(DummyInMemoryCacheStoreConfigurationBuilder.class);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+
+      ConfigurationBuilder fileStoreBuilder = getDefaultStandaloneCacheConfig(false);
+      fileStoreBuilder.jmxStatistics().enable()
+            .compression().enable().threshold(128).compressBinaryValues(false)
+            .loaders().addFileCacheStore().location(new File(tmpDirectory, "compressed").getAbsolutePath());
+      cm.defineConfiguration(FILE_STORE_CACHE, fileStoreBuilder.build());
+      return cm;
+   }
+
+   @AfterClass(alwaysRun = true)
+   protected void clearTempDir() {
+      TestingUtil.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testLargeValuesAreCompressed() {
+      PayloadCompressor compressor = TestingUtil.extractComponent(cache, PayloadCompressor.class);
+      compressor.resetStatistics();
+      String value = largeValue();
+
+      cache.put("k", value);
+      assertTrue(compressor.getCompressedPayloads() >= 2);
+      assertTrue(compressor.getBytesSaved() > 0);
+      assertEquals(value, cache.get("k"));
+
+      cache.evict("k");
+      assertEquals(value, cache.get("k"));
+   }
+
+   public void testSmallValuesAreNotCompressed() {
+      PayloadCompressor compressor = TestingUtil.extractComponent(cache, PayloadCompressor.class);
+      compressor.resetStatistics();
+      cache.put("small", "v");
+      assertEquals(0, compressor.getCompressedPayloads());
+      assertEquals("v", cache.get("small"));
+   }
+
+   public void testFileCacheStoreReadsCompressedBuckets() {
+      Cache<String, String> fileStoreCache = cacheManager.getCache(FILE_STORE_CACHE);
+      PayloadCompressor compressor = TestingUtil.extractComponent(fileStoreCache, PayloadCompressor.class);
+      compressor.resetStatistics();
+      String value = largeValue();
+
+      fileStoreCache.put("k", value);
+      fileStoreCache.put("small", "v");
+      assertTrue(compressor.getCompressedPayloads() >= 1);
+
+      fileStoreCache.evict("k");
+      fileStoreCache.evict("small");
+      assertEquals(value, fileStoreCache.get("k"));
+      assertEquals("v", fileStoreCache.get("small"));
+   }
+
+   private String largeValue() {
+      char[] chars = new char[4096];
+      Arrays.fill(chars, 'x');
+      return new String(chars);
+   }
+}
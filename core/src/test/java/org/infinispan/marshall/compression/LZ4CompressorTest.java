@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.marshall.compression;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.io.ByteBuffer;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests for {@link LZ4Compressor}, {@link CompressedPayloads} and {@link PayloadCompressor}.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "marshall.compression.LZ4CompressorTest")
+public class LZ4CompressorTest {
+
+   private final LZ4Compressor compressor = new LZ4Compressor();
+
+   public void testRoundTrip() throws IOException {
+      Random random = new Random(42);
+      for (int i = 0; i < 2000; i++) {
+         byte[] data = new byte[random.nextInt(4096)];
+         // a small alphabet makes the data compressible
+         int alphabet = 1 + random.nextInt(16);
+         for (int j = 0; j < data.length; j++) data[j] = (byte) ('a' + random.nextInt(alphabet));
+         assertRoundTrip(data);
+      }
+   }
+
+   public void testRoundTripOfRandomData() throws IOException {
+      Random random = new Random(42);
+      for (int i = 0; i < 100; i++) {
+         byte[] data = new byte[random.nextInt(70000)];
+         random.nextBytes(data);
+         assertRoundTrip(data);
+      }
+   }
+
+   public void testRepetitiveDataIsCompressed() {
+      byte[] data = new byte[10000];
+      Arrays.fill(data, (byte) 'x');
+      ByteBuffer compressed = CompressedPayloads.compress(compressor, data, 0, data.length);
+      assertNotNull(compressed);
+      assertTrue(compressed.getLength() < data.length / 10);
+      assertTrue(CompressedPayloads.isCompressed(compressed.getBuf(), compressed.getOffset(), compressed.getLength()));
+   }
+
+   public void testIncompressibleDataIsNotFramed() {
+      byte[] data = new byte[1000];
+      new Random(42).nextBytes(data);
+      assertNull(CompressedPayloads.compress(compressor, data, 0, data.length));
+   }
+
+   public void testMalformedInput() {
+      byte[] data = new byte[4096];
+      for (int i = 0; i < data.length; i++) data[i] = (byte) (i % 27);
+      ByteBuffer compressed = CompressedPayloads.compress(compressor, data, 0, data.length);
+      assertNotNull(compressed);
+      Random random = new Random(42);
+      for (int i = 0; i < 1000; i++) {
+         byte[] corrupted = new byte[compressed.getLength()];
+         System.arraycopy(compressed.getBuf(), compressed.getOffset(), corrupted, 0, corrupted.length);
+         int length = CompressedPayloads.HEADER_LENGTH + 1 + random.nextInt(corrupted.length - CompressedPayloads.HEADER_LENGTH - 1);
+         for (int j = 0; j < 4; j++)
+            corrupted[CompressedPayloads.HEADER_LENGTH + random.nextInt(length - CompressedPayloads.HEADER_LENGTH)] = (byte) random.nextInt();
+         try {
+            ByteBuffer decompressed = CompressedPayloads.decompress(corrupted, 0, length);
+            assertEquals(data.length, decompressed.getLength());
+         } catch (IOException expected) {
+            // malformed input must be reported, never overrun the buffers
+         }
+      }
+   }
+
+   public void testUnknownCompressor() {
+      byte[] data = new byte[4096];
+      ByteBuffer compressed = CompressedPayloads.compress(compressor, data, 0, data.length);
+      compressed.getBuf()[compressed.getOffset() + 1] = 100;
+      try {
+         CompressedPayloads.decompress(compressed.getBuf(), compressed.getOffset(), compressed.getLength());
+         fail("Expected an IOException for an unknown compressor id");
+      } catch (IOException expected) {
+      }
+   }
+
+   public void testThreshold() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.compression().enable().threshold(100);
+      PayloadCompressor payloadCompressor = new PayloadCompressor();
+      payloadCompressor.inject(builder.build());
+      payloadCompressor.start();
+      payloadCompressor.setStatisticsEnabled(true);
+
+      byte[] small = new byte[99];
+      assertNull(payloadCompressor.compress(small, 0, small.length));
+      ByteBuffer smallBuffer = new ByteBuffer(small, 0, small.length);
+      assertSame(smallBuffer, payloadCompressor.compress(smallBuffer));
+
+      byte[] large = new byte[1000];
+      ByteBuffer compressed = payloadCompressor.compress(large, 0, large.length);
+      assertNotNull(compressed);
+      assertEquals(1, payloadCompressor.getCompressedPayloads());
+      assertEquals(large.length - compressed.getLength(), payloadCompressor.getBytesSaved());
+      assertTrue(payloadCompressor.getCompressionRatio() > 1);
+   }
+
+   public void testDisabled() {
+      PayloadCompressor payloadCompressor = new PayloadCompressor();
+      payloadCompressor.inject(new ConfigurationBuilder().build());
+      payloadCompressor.start();
+      byte[] large = new byte[1000];
+      assertNull(payloadCompressor.compress(large, 0, large.length));
+      assertFalse(payloadCompressor.isCompressRpc());
+      assertFalse(payloadCompressor.isCompressStores());
+      assertFalse(payloadCompressor.isCompressBinaryValues());
+   }
+
+   private void assertRoundTrip(byte[] data) throws IOException {
+      byte[] compressed = new byte[compressor.maxCompressedLength(data.length)];
+      int compressedLength = compressor.compress(data, 0, data.length, compressed, 0);
+      byte[] decompressed = new byte[data.length];
+      compressor.decompress(compressed, 0, compressedLength, decompressed, 0, data.length);
+      assertTrue(Arrays.equals(data, decompressed));
+   }
+}
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.marshall.compression;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the commands replicated to the other nodes are compressed, and decompressed transparently on arrival.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "marshall.compression.RpcCompressionTest")
+public class RpcCompressionTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, false);
+      // only the commands are compressed, not the values themselves
+      builder.jmxStatistics().enable()
+            .compression().enable().threshold(1024).compressBinaryValues(false).compressStores(false);
+      createClusteredCaches(2, builder);
+   }
+
+   public void testLargeCommandsAreCompressed() {
+      Cache<String, String> cache0 = cache(0);
+      Cache<String, String> cache1 = cache(1);
+      PayloadCompressor compressor = TestingUtil.extractComponent(cache0, PayloadCompressor.class);
+      compressor.resetStatistics();
+
+      char[] chars = new char[4096];
+      Arrays.fill(chars, 'x');
+      String value = new String(chars);
+      cache0.put("k", value);
+
+      assertTrue(compressor.getCompressedPayloads() > 0);
+      assertTrue(compressor.getBytesSaved() > 0);
+      assertEquals(value, cache1.get("k"));
+   }
+
+   public void testSmallCommandsAreNotCompressed() {
+      Cache<String, String> cache0 = cache(0);
+      Cache<String, String> cache1 = cache(1);
+      PayloadCompressor compressor = TestingUtil.extractComponent(cache0, PayloadCompressor.class);
+      compressor.resetStatistics();
+
+      cache0.put("small", "v");
+
+      assertEquals(0, compressor.getCompressedPayloads());
+      assertEquals("v", cache1.get("small"));
+   }
+}
@@ -23,6 +23,8 @@
 package org.infinispan.notifications;
 
 import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
@@ -33,7 +35,11 @@
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @Test(groups = "functional", testName = "notifications.AsyncNotificationTest")
 public class AsyncNotificationTest extends AbstractInfinispanTest {
@@ -65,6 +71,41 @@ public void testAsyncNotification() throws InterruptedException {
       assert asyncListener.caller != Thread.currentThread();
    }
 
+   public void testAsyncEventsDeliveredInOrder() throws InterruptedException {
+      int count = 500;
+      OrderRecordingListener listener = new OrderRecordingListener(count);
+      c.addListener(listener);
+      for (int i = 0; i < count; i++) c.put("k" + i, "v");
+      assert listener.latch.await(10, TimeUnit.SECONDS);
+      for (int i = 0; i < count; i++) assert listener.keys.get(i).equals("k" + i);
+   }
+
+   public void testFullAsyncQueueDeliversInCallerThread() throws InterruptedException {
+      int capacity = 8;
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.asyncListenerExecutor().addProperty(AbstractListenerImpl.ASYNC_QUEUE_CAPACITY_PROPERTY, String.valueOf(capacity));
+      EmbeddedCacheManager cacheManager = TestCacheManagerFactory.createCacheManager(global, new ConfigurationBuilder());
+      try {
+         Cache<String, String> cache = cacheManager.getCache();
+         final int count = capacity * 4;
+         final BlockedListener listener = new BlockedListener(Thread.currentThread());
+         cache.addListener(listener);
+         // the listener blocks on the events delivered by the executor, so the queue fills up and the events beyond
+         // its capacity must be delivered by this thread
+         for (int i = 0; i < count; i++) cache.put("k" + i, "v");
+         assert listener.callers.contains(Thread.currentThread());
+         listener.release.countDown();
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return listener.callers.size() == count;
+            }
+         });
+      } finally {
+         TestingUtil.killCacheManagers(cacheManager);
+      }
+   }
+
    public abstract static class AbstractListener {
       Thread caller;
       CountDownLatch latch;
@@ -104,4 +145,37 @@ public void handle(CacheEntryCreatedEvent e) {
       }
    }
 
+   @Listener(sync = false, observation = Listener.Observation.POST)
+   public static class OrderRecordingListener {
+      final List<Object> keys = Collections.synchronizedList(new ArrayList<Object>());
+      final CountDownLatch latch;
+
+      public OrderRecordingListener(int count) {
+         latch = new CountDownLatch(count);
+      }
+
+      @CacheEntryCreated
+      public void handle(CacheEntryCreatedEvent e) {
+         assert !e.isPre();
+         keys.add(e.getKey());
+         latch.countDown();
+      }
+   }
+
+   @Listener(sync = false, observation = Listener.Observation.POST)
+   public static class BlockedListener {
+      final List<Thread> callers = Collections.synchronizedList(new ArrayList<Thread>());
+      final CountDownLatch release = new CountDownLatch(1);
+      final Thread producer;
+
+      BlockedListener(Thread producer) {
+         this.producer = producer;
+      }
+
+      @CacheEntryCreated
+      public void handle(CacheEntryCreatedEvent e) throws InterruptedException {
+         if (Thread.currentThread() != producer) release.await();
+         callers.add(Thread.currentThread());
+      }
+   }
 }
@@ -27,6 +27,7 @@
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.NonTxInvocationContext;
+import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.event.*;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.transaction.xa.GlobalTransaction;
@@ -275,4 +276,22 @@ public void testNotifyTransactionRegistered() {
       assert cl.getEvents().get(1).getType() == Event.Type.TRANSACTION_REGISTERED;
       assert ((TransactionRegisteredEvent) cl.getEvents().get(1)).getGlobalTransaction() == tx;
    }
+
+   public void testPostOnlyListenerSkipsPreEvents() {
+      PostOnlyListener postOnly = new PostOnlyListener();
+      n.removeListener(cl);
+      n.addListener(postOnly);
+      n.notifyCacheEntryModified("k", "v1", false, true, ctx, null);
+      n.notifyCacheEntryModified("k", "v2", false, false, ctx, null);
+      n.notifyCacheEntryRemoved("k", null, "v2", true, ctx, null);
+
+      assert !postOnly.isReceivedPre();
+      assert postOnly.isReceivedPost();
+      assert postOnly.getInvocationCount() == 1;
+      assert ((CacheEntryModifiedEvent) postOnly.getEvents().get(0)).getValue().equals("v2");
+   }
+
+   @Listener(observation = Listener.Observation.POST)
+   public static class PostOnlyListener extends CacheListener {
+   }
 }
@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.profiling;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.concurrent.locks.containers.LockContainer;
+import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPerEntryLockContainer;
+import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPooledLockContainer;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the lock/unlock throughput of {@link OwnableReentrantPooledLockContainer} and
+ * {@link OwnableReentrantPerEntryLockContainer}, with a single thread and with several threads locking keys from a
+ * small, shared set of hot keys.
+ *
+ * @since 5.3
+ */
+@Test(groups = "profiling", testName = "profiling.LockContainerProfileTest")
+public class LockContainerProfileTest extends AbstractInfinispanTest {
+
+   private static final int CONCURRENCY_LEVEL = 32;
+   private static final int NUM_KEYS = 64;
+   private static final int OPS_PER_THREAD = 2000000;
+
+   public void testUncontended() throws Exception {
+      profile(1);
+   }
+
+   public void testContended() throws Exception {
+      profile(Runtime.getRuntime().availableProcessors() * 2);
+   }
+
+   private void profile(int numThreads) throws Exception {
+      // run each container twice, so that the second run is measured with a warm JIT
+      for (int i = 0; i < 2; i++) {
+         long perEntry = run(new OwnableReentrantPerEntryLockContainer(CONCURRENCY_LEVEL), numThreads);
+         long pooled = run(new OwnableReentrantPooledLockContainer(CONCURRENCY_LEVEL), numThreads);
+         if (i == 1) {
+            System.out.printf("%d thread(s): per-entry %d ops/ms, pooled %d ops/ms%n", numThreads,
+                              perEntry, pooled);
+         }
+      }
+   }
+
+   private long run(final LockContainer<?> container, int numThreads) throws Exception {
+      final Object[] keys = new Object[NUM_KEYS];
+      for (int i = 0; i < NUM_KEYS; i++) keys[i] = "key" + i;
+      final CountDownLatch start = new CountDownLatch(1);
+      List<Future<Void>> futures = new ArrayList<Future<Void>>(numThreads);
+      for (int t = 0; t < numThreads; t++) {
+         final int offset = t;
+         futures.add(fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               Object owner = new Object();
+               start.await();
+               for (int i = 0; i < OPS_PER_THREAD; i++) {
+                  Object key = keys[(i + offset) % NUM_KEYS];
+                  if (container.acquireLock(owner, key, 10, TimeUnit.SECONDS) == null)
+                     throw new IllegalStateException("Timed out locking " + key);
+                  container.releaseLock(owner, key);
+               }
+               return null;
+            }
+         }));
+      }
+
+      long startTime = System.nanoTime();
+      start.countDown();
+      for (Future<Void> f : futures) f.get();
+      long durationMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+      return (long) numThreads * OPS_PER_THREAD / durationMillis;
+   }
+}
@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.profiling;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Measures the time and the heap allocated per {@link Cache#get(Object)} on local, replicated and distributed caches,
+ * for keys which are present locally.  Allocations are measured using the HotSpot specific thread allocation counter,
+ * and are reported as unavailable on other JVMs.
+ *
+ * @since 5.3
+ */
+@Test(groups = "profiling", testName = "profiling.ReadPathProfileTest")
+public class ReadPathProfileTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 1000;
+   private static final int WARMUP_READS = 1000000;
+   private static final int MEASURED_READS = 5000000;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder local = getDefaultClusteredCacheConfig(CacheMode.LOCAL, false);
+      ConfigurationBuilder repl = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, false);
+      ConfigurationBuilder dist = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      // a single owner per key would make most reads remote, keep all of them local to measure the read path itself
+      dist.clustering().hash().numOwners(2);
+      createCluster(repl, 2);
+      for (int i = 0; i < 2; i++) {
+         manager(i).defineConfiguration("local", local.build());
+         manager(i).defineConfiguration("dist", dist.build());
+      }
+      waitForClusterToForm();
+      waitForClusterToForm("dist");
+   }
+
+   public void testLocalGet() {
+      profileGets("local");
+   }
+
+   public void testReplGet() {
+      profileGets(null);
+   }
+
+   public void testDistGet() {
+      profileGets("dist");
+   }
+
+   private void profileGets(String cacheName) {
+      Cache<Object, Object> cache = cacheName == null ? this.<Object, Object>cache(0) : this.<Object, Object>cache(0, cacheName);
+      Object[] keys = new Object[NUM_KEYS];
+      for (int i = 0; i < NUM_KEYS; i++) {
+         keys[i] = "key" + i;
+         cache.put(keys[i], "value" + i);
+      }
+
+      for (int i = 0; i < WARMUP_READS; i++) cache.get(keys[i % NUM_KEYS]);
+
+      long allocatedBefore = allocatedBytes();
+      long start = System.nanoTime();
+      for (int i = 0; i < MEASURED_READS; i++) cache.get(keys[i % NUM_KEYS]);
+      long duration = System.nanoTime() - start;
+      long allocatedAfter = allocatedBytes();
+
+      String allocated = allocatedBefore < 0 ? "n/a" : String.valueOf((allocatedAfter - allocatedBefore) / MEASURED_READS);
+      System.out.printf("%s get: %d ns/op, %s bytes/op%n", cache.getCacheConfiguration().clustering().cacheMode(),
+                        duration / MEASURED_READS, allocated);
+   }
+
+   /**
+    * @return the number of bytes allocated by the current thread so far, or -1 if the JVM can't tell
+    */
+   private static long allocatedBytes() {
+      ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      try {
+         Method m = threadMXBean.getClass().getMethod("getThreadAllocatedBytes", long.class);
+         m.setAccessible(true);
+         return (Long) m.invoke(threadMXBean, Thread.currentThread().getId());
+      } catch (Exception e) {
+         return -1;
+      }
+   }
+}
@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.remoting;
+
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.statetransfer.StateTransferLock;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
+import org.infinispan.util.concurrent.BlockingTaskAwareExecutorServiceImpl;
+import org.infinispan.util.concurrent.locks.LockAcquisitionDeadline;
+import org.infinispan.util.concurrent.locks.LockManager;
+import org.infinispan.util.concurrent.locks.LockManagerImpl;
+import org.infinispan.util.concurrent.locks.containers.LockContainer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests how {@link RemoteCommandRunnable} is parked and released.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "remoting.RemoteCommandRunnableTest")
+public class RemoteCommandRunnableTest extends AbstractInfinispanTest {
+
+   private BlockingTaskAwareExecutorService executor;
+   private ScheduledExecutorService timeoutExecutor;
+   private StateTransferLock stateTransferLock;
+   private LockManager lockManager;
+   private PrepareCommand command;
+
+   @BeforeMethod
+   public void setUp() {
+      executor = new BlockingTaskAwareExecutorServiceImpl(Executors.newSingleThreadExecutor());
+      timeoutExecutor = Executors.newSingleThreadScheduledExecutor();
+      stateTransferLock = mock(StateTransferLock.class);
+      when(stateTransferLock.transactionDataReceived(anyInt())).thenReturn(true);
+      lockManager = mock(LockManager.class);
+      command = mock(PrepareCommand.class);
+      when(command.getAffectedKeys()).thenReturn(Collections.<Object>singleton("k"));
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+      timeoutExecutor.shutdownNow();
+   }
+
+   public void testParkedCommandRunsWhenItsTimeoutExpires() {
+      when(lockManager.getOwner("k")).thenReturn("another owner");
+      final RecordingRunnable runnable = new RecordingRunnable(100);
+      executor.execute(runnable);
+      verify(lockManager).addParkedWaiter("k");
+
+      // nobody releases the key or calls checkForReadyTasks(), the scheduled re-check must run it
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return runnable.remainingTimeout >= 0;
+         }
+      }, 5000);
+      assert runnable.remainingTimeout == 0 : "Expected no time left, got " + runnable.remainingTimeout;
+      verify(lockManager).removeParkedWaiter("k");
+   }
+
+   public void testParkedCommandRunsWhenTheKeyIsReleased() {
+      when(lockManager.getOwner("k")).thenReturn("another owner");
+      final RecordingRunnable runnable = new RecordingRunnable(60000);
+      executor.execute(runnable);
+      assert runnable.remainingTimeout < 0;
+
+      when(lockManager.getOwner("k")).thenReturn(null);
+      executor.checkForReadyTasks();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return runnable.remainingTimeout >= 0;
+         }
+      });
+      assert runnable.remainingTimeout > 0 && runnable.remainingTimeout <= 60000;
+      verify(lockManager).removeParkedWaiter("k");
+   }
+
+   public void testReadyCommandIsNotParked() {
+      RecordingRunnable runnable = new RecordingRunnable(60000);
+      executor.execute(runnable);
+      verify(lockManager, never()).addParkedWaiter(any());
+   }
+
+   public void testUnlockOnlyChecksParkedCommandsForWaitedKeys() {
+      BlockingTaskAwareExecutorService remoteCommandsExecutor = mock(BlockingTaskAwareExecutorService.class);
+      LockManagerImpl lockManager = new LockManagerImpl();
+      lockManager.injectDependencies(new ConfigurationBuilder().locking().useLockStriping(false).build(), mock(LockContainer.class));
+      lockManager.injectRemoteCommandsExecutor(remoteCommandsExecutor);
+
+      lockManager.unlock(Collections.<Object>singleton("k"), "owner");
+      verify(remoteCommandsExecutor, never()).checkForReadyTasks();
+
+      lockManager.addParkedWaiter("k");
+      lockManager.unlock(Collections.<Object>singleton("k2"), "owner");
+      verify(remoteCommandsExecutor, never()).checkForReadyTasks();
+      lockManager.unlock(Collections.<Object>singleton("k"), "owner");
+      verify(remoteCommandsExecutor).checkForReadyTasks();
+
+      lockManager.removeParkedWaiter("k");
+      lockManager.unlock(Collections.<Object>singleton("k"), "owner");
+      verify(remoteCommandsExecutor).checkForReadyTasks();
+   }
+
+   private class RecordingRunnable extends RemoteCommandRunnable {
+      volatile long remainingTimeout = -1;
+
+      RecordingRunnable(long lockAcquisitionTimeout) {
+         super(command, stateTransferLock, lockManager, lockAcquisitionTimeout, executor, timeoutExecutor);
+      }
+
+      @Override
+      protected void runCommand() {
+         remainingTimeout = LockAcquisitionDeadline.remaining(Long.MAX_VALUE);
+      }
+   }
+}
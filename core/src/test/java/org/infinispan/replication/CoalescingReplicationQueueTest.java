@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.replication;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.remoting.CoalescingReplicationQueue;
+import org.infinispan.remoting.ReplicationQueue;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that {@link CoalescingReplicationQueue} replicates the latest write of each key only.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "replication.CoalescingReplicationQueueTest")
+public class CoalescingReplicationQueueTest extends MultipleCacheManagersTest {
+
+   private static final String BYTES_LIMITED_CACHE = "bytesLimited";
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_ASYNC, false);
+      builder.clustering().async().useReplQueue(true).replQueueInterval(60000).replQueueMaxElements(1000)
+            .replQueue(new CoalescingReplicationQueue());
+      addClusterEnabledCacheManager(builder);
+      ConfigurationBuilder noQueue = getDefaultClusteredCacheConfig(CacheMode.REPL_ASYNC, false);
+      addClusterEnabledCacheManager(noQueue);
+
+      builder.clustering().async().replQueueMaxBytes(1).replQueue(new CoalescingReplicationQueue());
+      manager(0).defineConfiguration(BYTES_LIMITED_CACHE, builder.build());
+      manager(1).defineConfiguration(BYTES_LIMITED_CACHE, noQueue.build());
+      waitForClusterToForm();
+      waitForClusterToForm(BYTES_LIMITED_CACHE);
+   }
+
+   public void testMaxBytesFlushesQueue() {
+      CoalescingReplicationQueue queue = (CoalescingReplicationQueue) TestingUtil.extractComponent(
+            cache(0, BYTES_LIMITED_CACHE), ReplicationQueue.class);
+      cache(0, BYTES_LIMITED_CACHE).put("k", "v");
+      assertEquals(0, queue.getElementsCount());
+      assertReplicated(cache(1, BYTES_LIMITED_CACHE), "k", "v");
+   }
+
+   public void testSuccessiveWritesAreCoalesced() {
+      CoalescingReplicationQueue queue = queue();
+      for (int i = 0; i < 100; i++) cache(0).put("counter", i);
+      cache(0).put("other", "value");
+      assertEquals(2, queue.getElementsCount());
+      assertEquals(99, queue.getCoalescedCount());
+
+      assertEquals(2, queue.flush());
+      assertReplicated("counter", 99);
+      assertReplicated("other", "value");
+   }
+
+   public void testRemoveSupersedesPuts() {
+      CoalescingReplicationQueue queue = queue();
+      cache(0).put("removed", "v1");
+      cache(0).put("removed", "v2");
+      cache(0).remove("removed");
+      assertEquals(1, queue.getElementsCount());
+
+      queue.flush();
+      assertReplicated("removed", null);
+   }
+
+   public void testConditionalWritesAreKept() {
+      CoalescingReplicationQueue queue = queue();
+      cache(0).put("conditional", "v1");
+      cache(0).replace("conditional", "v1", "v2");
+      assertEquals(2, queue.getElementsCount());
+
+      queue.flush();
+      assertReplicated("conditional", "v2");
+   }
+
+   public void testClearDropsPrecedingWrites() {
+      CoalescingReplicationQueue queue = queue();
+      cache(0).put("k1", "v1");
+      cache(0).put("k2", "v2");
+      cache(0).clear();
+      cache(0).put("k3", "v3");
+      assertEquals(2, queue.getElementsCount());
+
+      queue.flush();
+      assertReplicated("k3", "v3");
+      assertNull(cache(1).get("k1"));
+   }
+
+   private CoalescingReplicationQueue queue() {
+      CoalescingReplicationQueue queue = (CoalescingReplicationQueue) TestingUtil.extractComponent(cache(0), ReplicationQueue.class);
+      queue.flush();
+      queue.resetStatistics();
+      return queue;
+   }
+
+   private void assertReplicated(Object key, Object value) {
+      assertReplicated(cache(1), key, value);
+   }
+
+   private void assertReplicated(final Cache<Object, Object> cache, final Object key, final Object value) {
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            Object actual = cache.get(key);
+            return value == null ? actual == null : value.equals(actual);
+         }
+      });
+   }
+}
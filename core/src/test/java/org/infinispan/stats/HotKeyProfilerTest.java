@@ -0,0 +1,169 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.stats;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.VersioningScheme;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.util.concurrent.IsolationLevel;
+import org.infinispan.util.concurrent.TimeoutException;
+import org.testng.annotations.Test;
+
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests that the {@link HotKeyProfiler} is fed by the cache operations, the lock manager and the write skew checks.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "stats.HotKeyProfilerTest")
+public class HotKeyProfilerTest extends SingleCacheManagerTest {
+
+   private static final String WRITE_SKEW_CACHE = "writeSkew";
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = getDefaultStandaloneCacheConfig(true);
+      builder.jmxStatistics().enable()
+            .transaction().lockingMode(LockingMode.PESSIMISTIC)
+            .locking().lockAcquisitionTimeout(100);
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+
+      builder.transaction().lockingMode(LockingMode.OPTIMISTIC)
+            .locking().isolationLevel(IsolationLevel.REPEATABLE_READ).writeSkewCheck(true)
+            .versioning().enable().scheme(VersioningScheme.SIMPLE);
+      cm.defineConfiguration(WRITE_SKEW_CACHE, builder.build());
+      return cm;
+   }
+
+   public void testAccessedKeys() {
+      HotKeyProfiler profiler = profiler(cache);
+      profiler.resetStatistics();
+      cache.put("hot", "v1");
+      cache.put("hot", "v2");
+      cache.get("hot");
+      cache.get("cold");
+
+      Map<String, Long> top = profiler.topAccessedKeys(1);
+      assertEquals(1, top.size());
+      assertEquals(Long.valueOf(3), top.get("hot"));
+      assertEquals(2, profiler.topAccessedKeys(10).size());
+   }
+
+   public void testConcurrentSamplesAreNotDropped() throws Exception {
+      final HotKeyProfiler profiler = profiler(cache);
+      profiler.resetStatistics();
+      final int threads = 4;
+      final int samples = 1000;
+      final CyclicBarrier barrier = new CyclicBarrier(threads);
+      List<Future<Void>> futures = new ArrayList<Future<Void>>(threads);
+      for (int t = 0; t < threads; t++) {
+         futures.add(fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               barrier.await(10, TimeUnit.SECONDS);
+               for (int i = 0; i < samples; i++) profiler.keyAccessed("hot");
+               return null;
+            }
+         }));
+      }
+      for (Future<Void> f : futures) f.get(10, TimeUnit.SECONDS);
+
+      assertEquals(Long.valueOf(threads * samples), profiler.topAccessedKeys(1).get("hot"));
+   }
+
+   public void testContendedKeys() throws Exception {
+      HotKeyProfiler profiler = profiler(cache);
+      profiler.resetStatistics();
+      TransactionManager tm = tm();
+
+      tm.begin();
+      cache.getAdvancedCache().lock("contended");
+      Transaction holder = tm.suspend();
+
+      tm.begin();
+      try {
+         cache.getAdvancedCache().lock("contended");
+         fail("The lock should not have been acquired");
+      } catch (TimeoutException expected) {
+      } finally {
+         tm.rollback();
+      }
+
+      tm.resume(holder);
+      tm.commit();
+
+      assertEquals(1, profiler.getLockTimeouts());
+      assertEquals(1, profiler.getContendedLockAcquisitions());
+      assertEquals(Long.valueOf(1), profiler.topContendedKeys(10).get("contended"));
+      assertTrue(profiler.getAverageLockWaitTime() > 0);
+      assertTrue(profiler.getAverageLockHoldTime() > 0);
+      assertTrue(profiler.printHotKeys(10).contains("topContendedKeys: {contended=1}"));
+   }
+
+   public void testWriteSkewKeys() throws Exception {
+      Cache<String, String> writeSkewCache = cacheManager.getCache(WRITE_SKEW_CACHE);
+      HotKeyProfiler profiler = profiler(writeSkewCache);
+      TransactionManager tm = writeSkewCache.getAdvancedCache().getTransactionManager();
+      writeSkewCache.put("skewed", "v1");
+
+      tm.begin();
+      writeSkewCache.get("skewed");
+      Transaction reader = tm.suspend();
+      writeSkewCache.put("skewed", "v2");
+      tm.resume(reader);
+      try {
+         writeSkewCache.put("skewed", "v3");
+         tm.commit();
+         fail("Write skew should have been detected");
+      } catch (Exception expected) {
+         if (tm.getTransaction() != null) tm.rollback();
+      }
+
+      assertEquals(1, profiler.getWriteSkewFailures());
+      assertEquals(Long.valueOf(1), profiler.topWriteSkewKeys(10).get("skewed"));
+   }
+
+   private HotKeyProfiler profiler(Cache<?, ?> cache) {
+      return TestingUtil.extractComponent(cache, HotKeyProfiler.class);
+   }
+}
@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.stats;
+
+import org.infinispan.util.ByteArrayEquivalence;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link StreamSummary}.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "stats.StreamSummaryTest")
+public class StreamSummaryTest {
+
+   public void testExactCountsWithinCapacity() {
+      StreamSummary<String> summary = new StreamSummary<String>(10);
+      for (String item : Arrays.asList("a", "b", "a", "c", "a", "b")) summary.offer(item);
+
+      Map<String, Long> top = summary.top(10);
+      assertEquals(3, top.size());
+      Iterator<Map.Entry<String, Long>> it = top.entrySet().iterator();
+      assertEntry(it.next(), "a", 3);
+      assertEntry(it.next(), "b", 2);
+      assertEntry(it.next(), "c", 1);
+      assertEquals(0, summary.error("a"));
+      assertEquals(-1, summary.error("d"));
+
+      assertEquals(1, summary.top(1).size());
+   }
+
+   public void testReplacesLeastFrequentItem() {
+      StreamSummary<String> summary = new StreamSummary<String>(2);
+      summary.offer("a");
+      summary.offer("a");
+      summary.offer("b");
+      summary.offer("c");
+
+      assertEquals(2, summary.size());
+      Map<String, Long> top = summary.top(2);
+      assertEquals(Long.valueOf(2), top.get("a"));
+      assertEquals(Long.valueOf(2), top.get("c"));
+      assertEquals(1, summary.error("c"));
+   }
+
+   public void testFindsHeavyHittersInSkewedStream() {
+      Random random = new Random(42);
+      StreamSummary<Integer> summary = new StreamSummary<Integer>(50);
+      for (int i = 0; i < 100000; i++) {
+         // 30% of the stream goes to 3 hot items, the rest is spread over 10000 items
+         int item = random.nextInt(10) < 3 ? random.nextInt(3) : 3 + random.nextInt(10000);
+         summary.offer(item);
+      }
+      Map<Integer, Long> top = summary.top(3);
+      assertTrue(top.toString(), top.containsKey(0));
+      assertTrue(top.toString(), top.containsKey(1));
+      assertTrue(top.toString(), top.containsKey(2));
+   }
+
+   public void testEquivalence() {
+      StreamSummary<byte[]> summary = new StreamSummary<byte[]>(10, ByteArrayEquivalence.INSTANCE);
+      summary.offer(new byte[]{1, 2});
+      summary.offer(new byte[]{1, 2});
+      assertEquals(1, summary.size());
+      assertEquals(Long.valueOf(2), summary.top(1).values().iterator().next());
+   }
+
+   public void testClear() {
+      StreamSummary<String> summary = new StreamSummary<String>(10);
+      summary.offer("a");
+      summary.clear();
+      assertEquals(0, summary.size());
+      assertTrue(summary.top(10).isEmpty());
+      summary.offer("b");
+      assertEquals(Long.valueOf(1), summary.top(10).get("b"));
+   }
+
+   private void assertEntry(Map.Entry<String, Long> entry, String item, long count) {
+      assertEquals(item, entry.getKey());
+      assertEquals(Long.valueOf(count), entry.getValue());
+   }
+}
@@ -0,0 +1,141 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.tx;
+
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.transaction.TransactionTable;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests that with pipelined commit every participant only receives the modifications of the keys it owns and
+ * that locks and transactions are released once the commit has been applied.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "tx.PipelinedCommitTest")
+public class PipelinedCommitTest extends MultipleCacheManagersTest {
+
+   private final PrepareRecorder[] recorders = new PrepareRecorder[4];
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, true);
+      builder.clustering().hash().numOwners(1);
+      builder.transaction().pipelinedCommit(true);
+      createCluster(builder, 4);
+      waitForClusterToForm();
+      for (int i = 0; i < recorders.length; i++) {
+         recorders[i] = new PrepareRecorder();
+         advancedCache(i).addInterceptor(recorders[i], 0);
+      }
+   }
+
+   public void testEachOwnerOnlyReceivesItsModifications() throws Exception {
+      for (PrepareRecorder recorder : recorders) recorder.modificationCounts.clear();
+      Object k1 = getKeyForCache(1);
+      Object k2 = getKeyForCache(2);
+      Object k3 = getKeyForCache(3);
+
+      tm(0).begin();
+      cache(0).put(k1, "v1");
+      cache(0).put(k2, "v2");
+      cache(0).put(k3, "v3");
+      cache(0).put(k3, "v3'");
+      tm(0).commit();
+
+      assertEquals(recorders[1].modificationCounts.size(), 1);
+      assertEquals((int) recorders[1].modificationCounts.get(0), 1);
+      assertEquals(recorders[2].modificationCounts.size(), 1);
+      assertEquals((int) recorders[2].modificationCounts.get(0), 1);
+      assertEquals(recorders[3].modificationCounts.size(), 1);
+      assertEquals((int) recorders[3].modificationCounts.get(0), 2);
+
+      assertCommitted(k1, "v1");
+      assertCommitted(k2, "v2");
+      assertCommitted(k3, "v3'");
+      assertNoTransactionsOrLocks(k1, k2, k3);
+   }
+
+   public void testCommitFromOwner() throws Exception {
+      Object local = getKeyForCache(0);
+      Object remote = getKeyForCache(1);
+
+      tm(0).begin();
+      cache(0).put(local, "local");
+      cache(0).put(remote, "remote");
+      tm(0).commit();
+
+      assertCommitted(local, "local");
+      assertCommitted(remote, "remote");
+      assertNoTransactionsOrLocks(local, remote);
+   }
+
+   private void assertCommitted(final Object key, final String value) {
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (int i = 0; i < recorders.length; i++) {
+               if (!value.equals(cache(i).get(key))) return false;
+            }
+            return true;
+         }
+      });
+   }
+
+   private void assertNoTransactionsOrLocks(Object... keys) {
+      for (Object key : keys) assertNotLocked(key);
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (int i = 0; i < recorders.length; i++) {
+               TransactionTable transactionTable = TestingUtil.extractComponent(cache(i), TransactionTable.class);
+               if (transactionTable.getLocalTxCount() != 0 || transactionTable.getRemoteTxCount() != 0) return false;
+            }
+            return true;
+         }
+      });
+   }
+
+   static class PrepareRecorder extends CommandInterceptor {
+      final List<Integer> modificationCounts = new CopyOnWriteArrayList<Integer>();
+
+      @Override
+      public Object visitPrepareCommand(TxInvocationContext ctx, PrepareCommand command) throws Throwable {
+         if (!ctx.isOriginLocal()) modificationCounts.add(command.getModifications().length);
+         return invokeNextInterceptor(ctx, command);
+      }
+   }
+}
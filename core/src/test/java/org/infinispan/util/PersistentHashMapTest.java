@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.util;
+
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link PersistentHashMap}.
+ *
+ * @since 5.3
+ */
+@Test(groups = "unit", testName = "util.PersistentHashMapTest")
+public class PersistentHashMapTest {
+
+   public void testPutGetRemove() {
+      PersistentHashMap<String, String> map = new PersistentHashMap<String, String>();
+      assertNull(map.put("k1", "v1"));
+      assertEquals("v1", map.put("k1", "v2"));
+      assertNull(map.put("k2", "v3"));
+      assertEquals(2, map.size());
+      assertEquals("v2", map.get("k1"));
+      assertTrue(map.containsKey("k2"));
+      assertEquals("v3", map.remove("k2"));
+      assertNull(map.remove("k2"));
+      assertEquals(1, map.size());
+      map.clear();
+      assertTrue(map.isEmpty());
+   }
+
+   public void testCollidingHashCodes() {
+      PersistentHashMap<CollidingKey, Integer> map = new PersistentHashMap<CollidingKey, Integer>();
+      for (int i = 0; i < 10; i++) map.put(new CollidingKey(i), i);
+      assertEquals(10, map.size());
+      for (int i = 0; i < 10; i++) assertEquals(Integer.valueOf(i), map.get(new CollidingKey(i)));
+      for (int i = 0; i < 10; i += 2) assertEquals(Integer.valueOf(i), map.remove(new CollidingKey(i)));
+      assertEquals(5, map.size());
+      for (int i = 0; i < 10; i++) assertEquals(i % 2 != 0, map.containsKey(new CollidingKey(i)));
+   }
+
+   public void testCloneIsIsolated() {
+      PersistentHashMap<Integer, Integer> map = new PersistentHashMap<Integer, Integer>();
+      for (int i = 0; i < 1000; i++) map.put(i, i);
+      PersistentHashMap<Integer, Integer> clone = map.clone();
+      clone.put(0, -1);
+      clone.remove(1);
+      clone.put(1000, 1000);
+      map.remove(2);
+
+      assertEquals(Integer.valueOf(0), map.get(0));
+      assertEquals(Integer.valueOf(1), map.get(1));
+      assertFalse(map.containsKey(1000));
+      assertEquals(999, map.size());
+
+      assertEquals(Integer.valueOf(-1), clone.get(0));
+      assertFalse(clone.containsKey(1));
+      assertEquals(Integer.valueOf(2), clone.get(2));
+      assertEquals(1000, clone.size());
+   }
+
+   public void testIteratorIsNotAffectedByWrites() {
+      PersistentHashMap<Integer, Integer> map = new PersistentHashMap<Integer, Integer>();
+      for (int i = 0; i < 100; i++) map.put(i, i);
+      int count = 0;
+      for (Iterator<Integer> it = map.keySet().iterator(); it.hasNext(); ) {
+         Integer key = it.next();
+         map.put(key + 100, key);
+         if (key % 2 == 0) it.remove();
+         count++;
+      }
+      assertEquals(100, count);
+      assertEquals(150, map.size());
+   }
+
+   public void testEntrySetValueWritesThrough() {
+      PersistentHashMap<String, String> map = new PersistentHashMap<String, String>();
+      map.put("k", "v");
+      Map.Entry<String, String> entry = map.entrySet().iterator().next();
+      assertEquals("v", entry.setValue("v2"));
+      assertEquals("v2", map.get("k"));
+   }
+
+   public void testRandomOperationsAgainstHashMap() {
+      Random random = new Random(42);
+      PersistentHashMap<Object, Integer> map = new PersistentHashMap<Object, Integer>();
+      Map<Object, Integer> expected = new HashMap<Object, Integer>();
+      for (int i = 0; i < 20000; i++) {
+         int id = random.nextInt(3000);
+         Object key = random.nextBoolean() ? new CollidingKey(id) : Integer.valueOf(id);
+         if (random.nextInt(10) < 6) {
+            Integer value = random.nextInt();
+            assertEquals(expected.put(key, value), map.put(key, value));
+         } else {
+            assertEquals(expected.remove(key), map.remove(key));
+         }
+         assertEquals(expected.size(), map.size());
+      }
+      assertEquals(expected, map);
+      assertEquals(map, expected);
+      assertEquals(expected.hashCode(), map.hashCode());
+   }
+
+   private static class CollidingKey {
+      private final int id;
+
+      CollidingKey(int id) {
+         this.id = id;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+      }
+
+      @Override
+      public int hashCode() {
+         return id % 7;
+      }
+   }
+}
@@ -20,6 +20,7 @@
 package org.infinispan.util.mocks;
 
 import org.infinispan.Cache;
+import org.infinispan.EntryProcessor;
 import org.infinispan.atomic.Delta;
 import org.infinispan.commands.CancelCommand;
 import org.infinispan.commands.CommandsFactory;
@@ -28,6 +29,7 @@
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
@@ -35,6 +37,7 @@
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
@@ -145,6 +148,11 @@ public VersionedPutKeyValueCommand buildVersionedPutKeyValueCommand(Object key,
       return actual.buildVersionedPutKeyValueCommand(key, value, lifespanMillis, maxIdleTimeMillis, version, flags);
    }
 
+   @Override
+   public InvokeCommand buildInvokeCommand(Object key, EntryProcessor<Object, Object, Object> processor, Set<Flag> flags) {
+      return actual.buildInvokeCommand(key, processor, flags);
+   }
+
    @Override
    public RemoveCommand buildRemoveCommand(Object key, Object value, Set<Flag> flags) {
       return actual.buildRemoveCommand(key, value, flags);
@@ -190,6 +198,11 @@ public GetCacheEntryCommand buildGetCacheEntryCommand(Object key, Set<Flag> flag
       return actual.buildGetCacheEntryCommand(key, flags);
    }
 
+   @Override
+   public GetAllCommand buildGetAllCommand(Collection<Object> keys, Set<Flag> flags, boolean returnEntries) {
+      return actual.buildGetAllCommand(keys, flags, returnEntries);
+   }
+
    @Override
    public KeySetCommand buildKeySetCommand() {
       return actual.buildKeySetCommand();
@@ -260,6 +273,11 @@ public ClusteredGetCommand buildClusteredGetCommand(Object key, Set<Flag> flags,
       return actual.buildClusteredGetCommand(key, flags, acquireRemoteLock, gtx);
    }
 
+   @Override
+   public ClusteredGetAllCommand buildClusteredGetAllCommand(Collection<Object> keys, Set<Flag> flags) {
+      return actual.buildClusteredGetAllCommand(keys, flags);
+   }
+
    @Override
    public LockControlCommand buildLockControlCommand(Collection<Object> keys, Set<Flag> flags, GlobalTransaction gtx) {
       return actual.buildLockControlCommand(keys, flags, gtx);
@@ -21,6 +21,7 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -185,17 +186,24 @@ public Map<K, V> getAll(Set<? extends K> keys) {
          return InfinispanCollections.emptyMap();
       }
 
-      /**
-       * TODO: Just an idea here to consider down the line: if keys.size() is big (TBD...), each of
-       * this get calls could maybe be swapped by getAsync() in order to paralelise the retrieval of
-       * entries. It'd be interesting to do a small performance test to see after which number of
-       * elements doing it in paralel becomes more efficient than sequential :)
-       */
+      // Keys locked by an entry processor need to be read under the
+      // processor lock, the rest can be retrieved in a single cache call
       Map<K, V> result = new HashMap<K, V>(keys.size());
+      Set<K> unlockedKeys = new HashSet<K>(keys.size());
       for (K key : keys) {
-         V value = get(key);
-         if (value != null) {
-            result.put(key, value);
+         if (lockRequired(key)) {
+            V value = get(key);
+            if (value != null)
+               result.put(key, value);
+         } else {
+            unlockedKeys.add(key);
+         }
+      }
+      if (!unlockedKeys.isEmpty()) {
+         for (Map.Entry<K, V> entry : cache.getAll(unlockedKeys).entrySet()) {
+            updateTTLForAccessed(cache,
+                  new JCacheEntry<K, V>(entry.getKey(), entry.getValue()));
+            result.put(entry.getKey(), entry.getValue());
          }
       }
       return result;
@@ -289,12 +297,12 @@ public <T> T invokeEntryProcessor(
       if (entryProcessor == null)
          throw new NullPointerException("Entry processor cannot be null");
 
-      // Using references for backup copies to provide perceived exclusive
-      // read access, and only apply changes if original value was not
-      // changed by another thread, the JSR requirements for this method could
-      // have been full filled. However, the TCK has some timing checks which
-      // verify that under contended access, one of the threads should "wait"
-      // for the other, hence the use locks.
+      // The processor is run through an Infinispan entry processor, which
+      // executes it on the key owner with the entry locked, so that there's
+      // no need for a compare-and-set retry loop. However, the TCK has some
+      // timing checks which verify that under contended access, one of the
+      // threads should "wait" for the other, hence the processor locks are
+      // still used to block CRUD methods on keys being processed.
 
       if (log.isTraceEnabled())
          log.tracef("Invoke entry processor %s for key=%s", entryProcessor, key);
@@ -302,53 +310,25 @@ public <T> T invokeEntryProcessor(
       return new WithProcessorLock<T>().call(key, new Callable<T>() {
          @Override
          public T call() throws Exception {
-            // Get old value skipping any listeners to impacting
-            // listener invocation expectations set by the TCK.
-            V oldValue = skipListenerCache.get(key);
-            V safeOldValue = oldValue;
-            if (configuration.isStoreByValue()) {
-               // Make a copy because the entry processor could make changes
-               // directly in the value, and we wanna keep a safe old value
-               // around for when calling the atomic replace() call.
-               safeOldValue = safeCopy(oldValue);
-            }
-
-            MutableJCacheEntry<K, V> mutable =
-                  new MutableJCacheEntry<K, V>(cache, key, safeOldValue);
-            T ret = entryProcessor.process(mutable);
-
-            if (mutable.isRemoved()) {
-               cache.remove(key);
-            } else {
-               V newValue = mutable.getNewValue();
-               if (newValue != null) {
-                  if (oldValue != null) {
-                     // Only allow change to be applied if value has not
-                     // changed since the start of the processing.
-                     cache.replace(key, oldValue, newValue);
-                  } else {
-                     cache.putIfAbsent(key, newValue);
-                  }
-               }
-            }
-            return ret;
+            StreamingMarshaller marshaller = configuration.isStoreByValue()
+                  ? skipListenerCache.getComponentRegistry().getCacheMarshaller()
+                  : null;
+            JCacheEntryProcessorAdapter<K, V, T> adapter =
+                  new JCacheEntryProcessorAdapter<K, V, T>(entryProcessor, marshaller);
+            JCacheEntryProcessorAdapter.ProcessingResult<T> ret = cache.invoke(key, adapter);
+
+            // TCK listener tests expect a visit event to be fired when the
+            // processor reads the value, which the invocation itself does
+            // not fire, so call cache.get to fire the event. The result
+            // tells whether the value was read wherever the processor ran.
+            if (ret.isValueRead())
+               cache.get(key);
+
+            return ret.getResult();
          }
       });
    }
 
-   @SuppressWarnings("unchecked")
-   private V safeCopy(V original) {
-      try {
-         StreamingMarshaller marshaller = skipListenerCache.getComponentRegistry().getCacheMarshaller();
-         byte[] bytes = marshaller.objectToByteBuffer(original);
-         Object o = marshaller.objectFromByteBuffer(bytes);
-         return (V) o;
-      } catch (Exception e) {
-         throw new CacheException(
-               "Unexpected error making a copy of entry " + original, e);
-      }
-   }
-
    private boolean lockRequired(K key) {
       // Check if processor is locking a key, so that exclusive locking can
       // be avoided for majority of use cases. This way, only when
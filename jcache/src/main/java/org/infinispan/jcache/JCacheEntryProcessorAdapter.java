@@ -0,0 +1,123 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.infinispan.jcache;
+
+import org.infinispan.marshall.StreamingMarshaller;
+
+import javax.cache.Cache;
+import javax.cache.CacheException;
+import java.io.Serializable;
+
+/**
+ * Adapts a {@link Cache.EntryProcessor} to Infinispan's {@link org.infinispan.EntryProcessor}, so that it can be run
+ * through {@link org.infinispan.AdvancedCache#invoke(Object, org.infinispan.EntryProcessor)}.  In a clustered cache,
+ * the adapted processor needs to be serializable.
+ * <p/>
+ * The processor's result is wrapped in a {@link ProcessingResult}, which also tells the caller whether the processor
+ * read the entry's value, even when the processing happened on another node.
+ *
+ * @param <K> the type of keys maintained by the cache
+ * @param <V> the type of cached values
+ * @param <T> the type of the result of the processing
+ * @since 5.3
+ */
+public final class JCacheEntryProcessorAdapter<K, V, T>
+      implements org.infinispan.EntryProcessor<K, V, JCacheEntryProcessorAdapter.ProcessingResult<T>>, Serializable {
+
+   private static final long serialVersionUID = -3463815183425186549L;
+
+   private final Cache.EntryProcessor<K, V, T> processor;
+
+   // Only available where the processor was created, i.e. when processing happens locally
+   private final transient StreamingMarshaller marshaller;
+
+   // Set while the processor runs, wherever that is, and returned with its result
+   private transient boolean valueRead;
+
+   /**
+    * @param processor processor to adapt
+    * @param marshaller marshaller used to hand copies of the cached value to the processor, or null if the cache
+    *                   stores values by reference
+    */
+   public JCacheEntryProcessorAdapter(Cache.EntryProcessor<K, V, T> processor, StreamingMarshaller marshaller) {
+      this.processor = processor;
+      this.marshaller = marshaller;
+   }
+
+   @Override
+   public ProcessingResult<T> process(MutableEntry<K, V> entry) {
+      valueRead = false;
+      T result = processor.process(new MutableJCacheEntry<K, V>(entry, this));
+      return new ProcessingResult<T>(result, valueRead);
+   }
+
+   @SuppressWarnings("unchecked")
+   V readValue(V value) {
+      valueRead = true;
+      if (marshaller == null || value == null)
+         return value;
+
+      // Make a copy because the entry processor could make changes
+      // directly in the value, which must not be seen by the cache
+      // unless the processor sets the value.
+      try {
+         byte[] bytes = marshaller.objectToByteBuffer(value);
+         return (V) marshaller.objectFromByteBuffer(bytes);
+      } catch (Exception e) {
+         throw new CacheException(
+               "Unexpected error making a copy of entry " + value, e);
+      }
+   }
+
+   /**
+    * The result of a processing, returned to the node which invoked the processor.
+    *
+    * @param <T> the type of the result of the processing
+    */
+   static final class ProcessingResult<T> implements Serializable {
+
+      private static final long serialVersionUID = 4920466361562483071L;
+
+      private final T result;
+      private final boolean valueRead;
+
+      ProcessingResult(T result, boolean valueRead) {
+         this.result = result;
+         this.valueRead = valueRead;
+      }
+
+      T getResult() {
+         return result;
+      }
+
+      /**
+       * @return true if the processor read the value of the entry
+       */
+      boolean isValueRead() {
+         return valueRead;
+      }
+   }
+
+}
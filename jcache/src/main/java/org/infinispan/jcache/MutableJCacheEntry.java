@@ -23,13 +23,15 @@
 
 package org.infinispan.jcache;
 
-import org.infinispan.AdvancedCache;
+import org.infinispan.EntryProcessor;
 
 import javax.cache.Cache;
 
 /**
  * Infinispan implementation of {@link Cache.MutableEntry<K, V>} designed to
  * be passed as parameter to {@link Cache.EntryProcessor#process(javax.cache.Cache.MutableEntry)}.
+ * It is a view over the entry being processed by the
+ * {@link JCacheEntryProcessorAdapter} the processor has been adapted with.
  *
  * @param <K> the type of key maintained by this cache entry
  * @param <V> the type of value maintained by this cache entry
@@ -38,74 +40,57 @@
  */
 public final class MutableJCacheEntry<K, V> implements Cache.MutableEntry<K, V> {
 
-   private final AdvancedCache<K, V> cache;
+   private final EntryProcessor.MutableEntry<K, V> entry;
 
-   private final K key;
+   private final JCacheEntryProcessorAdapter<K, V, ?> adapter;
 
-   private final V oldValue;
+   private V oldValue;
 
-   private V value; // mutable
+   private boolean oldValueRead;
 
-   private boolean removed;
+   private boolean changed;
 
-   public MutableJCacheEntry(AdvancedCache<K, V> cache, K key, V value) {
-      this.cache = cache;
-      this.key = key;
-      this.oldValue = value;
+   public MutableJCacheEntry(EntryProcessor.MutableEntry<K, V> entry,
+         JCacheEntryProcessorAdapter<K, V, ?> adapter) {
+      this.entry = entry;
+      this.adapter = adapter;
    }
 
    @Override
    public boolean exists() {
-      if (value != null)
-         return true;
-      else if (!removed)
-         return cache.containsKey(key);
-
-      return false;
+      return entry.exists();
    }
 
    @Override
    public void remove() {
-      removed = true;
-      value = null;
+      entry.remove();
+      changed = true;
    }
 
    @Override
    public void setValue(V value) {
-      this.value = value;
-      removed = false;
+      entry.setValue(value);
+      changed = true;
    }
 
    @Override
    public K getKey() {
-      return key;
+      return entry.getKey();
    }
 
    @Override
    public V getValue() {
-      if (value != null)
-         return value;
-
-      if (!removed) {
-         // No new value has been set, so going to return old value. TCK
-         // listener tests expect a visit event to be fired, but we don't
-         // wanna change the semantics of perceived exclusive access. So,
-         // call cache.get to fire the event, and return oldValue set at
-         // the start in order to comply with expectations that getValue()
-         // should not see newer values in cache.
-         cache.get(key);
-         return oldValue;
+      if (changed)
+         return entry.getValue();
+
+      // No new value has been set, so going to return old value, which
+      // is kept around (or copied when storing by value) so that
+      // getValue() does not see any changes not made via setValue().
+      if (!oldValueRead) {
+         oldValue = adapter.readValue(entry.getValue());
+         oldValueRead = true;
       }
-
-      return null;
-   }
-
-   V getNewValue() {
-      return value;
-   }
-
-   boolean isRemoved() {
-      return removed;
+      return oldValue;
    }
 
 }
@@ -23,16 +23,21 @@
 
 package org.infinispan.lucene;
 
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.lifecycle.AbstractModuleLifecycle;
+import org.infinispan.lucene.impl.CommandInitializer;
+import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.AdvancedExternalizer;
 
 import java.util.Map;
 
 /**
  * Module lifecycle callbacks implementation that enables module specific
- * {@link org.infinispan.marshall.AdvancedExternalizer} implementations to be registered.
+ * {@link org.infinispan.marshall.AdvancedExternalizer} implementations to be registered,
+ * and prepares the module's remote commands to be executed on each cache.
  * 
  * @author Galder Zamarreño
  * @author Sanne Grinovero
@@ -50,4 +55,13 @@ public void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfiguratio
       externalizerMap.put(ExternalizerIds.FILE_READLOCK_KEY, new FileReadLockKey.Externalizer());
    }
 
+   @Override
+   public void cacheStarting(ComponentRegistry cr, Configuration configuration, String cacheName) {
+      // the command initializer can't get the CacheManager injected
+      CommandInitializer initializer = cr.getComponent(CommandInitializer.class);
+      if (initializer != null) {
+         initializer.setCacheManager(cr.getGlobalComponentRegistry().getComponent(EmbeddedCacheManager.class));
+      }
+   }
+
 }
@@ -50,6 +50,27 @@ public interface BuildContext {
     */
    BuildContext chunkSize(int bytes);
 
+   /**
+    * Sets how many chunks an IndexOutput is allowed to write asynchronously at the same time.
+    * Chunks are then stored in parallel rather than one round trip at a time, while file metadata
+    * is still only updated once all chunks of the file have been stored. Defaults to 1, meaning
+    * each chunk is written synchronously.
+    *
+    * @param chunks the maximum number of chunk writes in flight for each IndexOutput
+    * @return the same building context to eventually create the Directory instance
+    */
+   BuildContext chunkWriteWindow(int chunks);
+
+   /**
+    * Enables a node local cache of segment chunks in front of the chunks cache. As segment files
+    * are never modified once written, chunks read once are kept in local memory so that later reads
+    * don't need to fetch them again from the nodes owning them. Disabled by default.
+    *
+    * @param maxBytes the approximate maximum amount of memory used by the local copies
+    * @return the same building context to eventually create the Directory instance
+    */
+   BuildContext localSegmentCache(long maxBytes);
+
    /**
     * Overrides the default SegmentReadLocker. In some cases you might be able to provide more efficient implementations than
     * the default one by controlling the IndexReader's lifecycle
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.lucene.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.module.ExtendedModuleCommandFactory;
+import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.lucene.readlocks.ReadLockCommand;
+
+/**
+ * Remote commands factory implementation for the Lucene Directory
+ *
+ * @since 5.3
+ */
+public class CommandFactory implements ExtendedModuleCommandFactory {
+
+   @Override
+   public Map<Byte, Class<? extends ReplicableCommand>> getModuleCommands() {
+      Map<Byte, Class<? extends ReplicableCommand>> map = new HashMap<Byte, Class<? extends ReplicableCommand>>(1);
+      map.put(Byte.valueOf(ReadLockCommand.COMMAND_ID), ReadLockCommand.class);
+      return map;
+   }
+
+   @Override
+   public ReplicableCommand fromStream(byte commandId, Object[] args) {
+      // Should not be called while this factory only
+      // provides cache specific replicable commands.
+      return null;
+   }
+
+   @Override
+   public CacheRpcCommand fromStream(byte commandId, Object[] args, String cacheName) {
+      CacheRpcCommand c;
+      switch (commandId) {
+         case ReadLockCommand.COMMAND_ID:
+            c = new ReadLockCommand(cacheName);
+            break;
+         default:
+            throw new IllegalArgumentException("Not registered to handle command id " + commandId);
+      }
+      c.setParameters(commandId, args);
+      return c;
+   }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.lucene.impl;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.module.ModuleCommandInitializer;
+import org.infinispan.lucene.readlocks.ReadLockCommand;
+import org.infinispan.manager.EmbeddedCacheManager;
+
+/**
+ * Initializes the Lucene Directory remote commands
+ *
+ * @since 5.3
+ */
+public final class CommandInitializer implements ModuleCommandInitializer {
+
+   private volatile EmbeddedCacheManager cacheManager;
+
+   public void setCacheManager(EmbeddedCacheManager cacheManager) {
+      this.cacheManager = cacheManager;
+   }
+
+   @Override
+   public void initializeReplicableCommand(final ReplicableCommand c, final boolean isRemote) {
+      //we don't waste cycles to check it's the correct type, as that would be a
+      //critical error anyway: let it throw a ClassCastException.
+      ((ReadLockCommand) c).init(cacheManager);
+   }
+
+}
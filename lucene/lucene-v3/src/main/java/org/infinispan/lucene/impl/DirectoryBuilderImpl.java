@@ -57,6 +57,8 @@ public class DirectoryBuilderImpl implements BuildContext {
     */
 
    private int chunkSize = DEFAULT_BUFFER_SIZE;
+   private int chunkWriteWindow = 1;
+   private long localSegmentCacheBytes = 0;
    private SegmentReadLocker srl = null;
    private LockFactory lockFactory = null;
 
@@ -79,17 +81,21 @@ public Directory create() {
       if (srl == null) {
          srl = makeDefaultSegmentReadLocker(metadataCache, chunksCache, distLocksCache, indexName);
       }
+      LocalSegmentCache localSegmentCache = null;
+      if (localSegmentCacheBytes > 0) {
+         localSegmentCache = new LocalSegmentCache(localSegmentCacheBytes, chunkSize);
+      }
       if (LuceneVersionDetector.VERSION == 3) {
-         return new DirectoryLuceneV3(metadataCache, chunksCache, indexName, lockFactory, chunkSize, srl);
+         return new DirectoryLuceneV3(metadataCache, chunksCache, indexName, lockFactory, chunkSize, srl, chunkWriteWindow, localSegmentCache);
       }
       else {
-         Class<?>[] ctorType = new Class[]{ Cache.class, Cache.class, String.class, LockFactory.class, int.class, SegmentReadLocker.class };
+         Class<?>[] ctorType = new Class[]{ Cache.class, Cache.class, String.class, LockFactory.class, int.class, SegmentReadLocker.class, int.class, LocalSegmentCache.class };
          Directory d;
          try {
             d = (Directory) DirectoryBuilderImpl.class.getClassLoader()
                .loadClass("org.infinispan.lucene.impl.DirectoryLuceneV4")
                .getConstructor(ctorType)
-               .newInstance(metadataCache, chunksCache, indexName, lockFactory, chunkSize, srl);
+               .newInstance(metadataCache, chunksCache, indexName, lockFactory, chunkSize, srl, chunkWriteWindow, localSegmentCache);
          } catch (Exception e) {
             throw log.failedToCreateLucene4Directory(e);
          }
@@ -105,6 +111,22 @@ public BuildContext chunkSize(int bytes) {
       return this;
    }
 
+   @Override
+   public BuildContext chunkWriteWindow(int chunks) {
+      if (chunks <= 0)
+         throw new IllegalArgumentException("chunkWriteWindow must be a positive integer");
+      this.chunkWriteWindow = chunks;
+      return this;
+   }
+
+   @Override
+   public BuildContext localSegmentCache(long maxBytes) {
+      if (maxBytes <= 0)
+         throw new IllegalArgumentException("localSegmentCache size must be a positive number");
+      this.localSegmentCacheBytes = maxBytes;
+      return this;
+   }
+
    @Override
    public BuildContext overrideSegmentReadLocker(SegmentReadLocker srl) {
       checkNotNull(srl, "srl");
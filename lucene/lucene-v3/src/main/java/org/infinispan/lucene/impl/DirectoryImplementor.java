@@ -59,16 +59,30 @@ final class DirectoryImplementor {
     // chunk size used for this Directory
     private final int chunkSize;
 
+    // maximum number of chunks an IndexOutput writes asynchronously at the same time
+    private final int chunkWriteWindow;
+
+    // node local copies of segment chunks, or null when not enabled
+    private final LocalSegmentCache localSegmentCache;
+
     private final FileListOperations fileOps;
     private final SegmentReadLocker readLocks;
 
     public DirectoryImplementor(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, int chunkSize, SegmentReadLocker readLocker) {
+        this(metadataCache, chunksCache, indexName, chunkSize, readLocker, 1, null);
+    }
+
+    public DirectoryImplementor(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, int chunkSize, SegmentReadLocker readLocker, int chunkWriteWindow, LocalSegmentCache localSegmentCache) {
         if (chunkSize <= 0)
            throw new IllegalArgumentException("chunkSize must be a positive integer");
+        if (chunkWriteWindow <= 0)
+           throw new IllegalArgumentException("chunkWriteWindow must be a positive integer");
         this.metadataCache = (AdvancedCache<FileCacheKey, FileMetadata>) metadataCache.getAdvancedCache();
         this.chunksCache = (AdvancedCache<ChunkCacheKey, Object>) chunksCache.getAdvancedCache();
         this.indexName = indexName;
         this.chunkSize = chunkSize;
+        this.chunkWriteWindow = chunkWriteWindow;
+        this.localSegmentCache = localSegmentCache;
         this.fileOps = new FileListOperations(this.metadataCache, indexName);
         this.readLocks = readLocker;
      }
@@ -114,6 +128,9 @@ void touchFile(final String fileName) {
     void deleteFile(final String name) {
        fileOps.deleteFileName(name);
        readLocks.deleteOrReleaseReadLock(name);
+       if (localSegmentCache != null) {
+          localSegmentCache.invalidate(indexName, name);
+       }
        if (log.isDebugEnabled()) {
           log.debugf("Removed file: %s from index: %s", name, indexName);
        }
@@ -143,6 +160,9 @@ void renameFile(final String from, final String to) {
 
        // now trigger deletion of old file chunks:
        readLocks.deleteOrReleaseReadLock(from);
+       if (localSegmentCache != null) {
+          localSegmentCache.invalidate(indexName, from);
+       }
        if (log.isTraceEnabled()) {
           log.tracef("Renamed file from: %s to: %s in index %s", from, to, indexName);
        }
@@ -161,7 +181,7 @@ long fileLength(final String name) {
     IndexOutput createOutput(final String name) {
        final FileCacheKey key = new FileCacheKey(indexName, name);
        // creating new file, metadata is added on flush() or close() of IndexOutPut
-       return new InfinispanIndexOutput(metadataCache, chunksCache, key, chunkSize, fileOps);
+       return new InfinispanIndexOutput(metadataCache, chunksCache, key, chunkSize, fileOps, chunkWriteWindow);
     }
 
     IndexInputContext openInput(final String name) throws IOException {
@@ -172,7 +192,7 @@ IndexInputContext openInput(final String name) throws IOException {
        }
        else if (fileMetadata.getSize() <= fileMetadata.getBufferSize()) {
           //files smaller than chunkSize don't need a readLock
-          return new IndexInputContext(chunksCache, fileKey, fileMetadata, null);
+          return new IndexInputContext(chunksCache, fileKey, fileMetadata, null, localSegmentCache);
        }
        else {
           boolean locked = readLocks.acquireReadLock(name);
@@ -180,7 +200,7 @@ else if (fileMetadata.getSize() <= fileMetadata.getBufferSize()) {
              // safest reaction is to tell this file doesn't exist anymore.
              throw new FileNotFoundException("Error loading metadata for index file: " + fileKey);
           }
-          return new IndexInputContext(chunksCache, fileKey, fileMetadata, readLocks);
+          return new IndexInputContext(chunksCache, fileKey, fileMetadata, readLocks, localSegmentCache);
        }
     }
 
@@ -71,7 +71,11 @@ class DirectoryLuceneV3 extends Directory implements DirectoryExtensions {
    private final String indexName;
 
    DirectoryLuceneV3(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, LockFactory lf, int chunkSize, SegmentReadLocker readLocker) {
-      this.impl = new DirectoryImplementor(metadataCache, chunksCache, indexName, chunkSize, readLocker);
+      this(metadataCache, chunksCache, indexName, lf, chunkSize, readLocker, 1, null);
+   }
+
+   DirectoryLuceneV3(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, LockFactory lf, int chunkSize, SegmentReadLocker readLocker, int chunkWriteWindow, LocalSegmentCache localSegmentCache) {
+      this.impl = new DirectoryImplementor(metadataCache, chunksCache, indexName, chunkSize, readLocker, chunkWriteWindow, localSegmentCache);
       this.indexName = indexName;
       this.lockFactory = lf;
       this.lockFactory.setLockPrefix(this.getLockID());
@@ -35,13 +35,32 @@ public final class IndexInputContext {
    final FileCacheKey fileKey;
    final FileMetadata fileMetadata;
    final SegmentReadLocker readLocks;
+   final LocalSegmentCache localSegmentCache;
 
    public IndexInputContext(AdvancedCache<ChunkCacheKey, Object> chunksCache, FileCacheKey fileKey, FileMetadata fileMetadata,
          SegmentReadLocker readLocks) {
+      this(chunksCache, fileKey, fileMetadata, readLocks, null);
+   }
+
+   public IndexInputContext(AdvancedCache<ChunkCacheKey, Object> chunksCache, FileCacheKey fileKey, FileMetadata fileMetadata,
+         SegmentReadLocker readLocks, LocalSegmentCache localSegmentCache) {
             this.chunksCache = chunksCache;
             this.fileKey = fileKey;
             this.fileMetadata = fileMetadata;
             this.readLocks = readLocks;
+            this.localSegmentCache = localSegmentCache;
+   }
+
+   /**
+    * Reads a chunk of the file, going through the local segment cache if one is configured
+    */
+   byte[] getChunk(ChunkCacheKey key) {
+      if (localSegmentCache == null) {
+         return (byte[]) chunksCache.get(key);
+      }
+      else {
+         return localSegmentCache.getChunk(chunksCache, key, fileMetadata);
+      }
    }
 
 }
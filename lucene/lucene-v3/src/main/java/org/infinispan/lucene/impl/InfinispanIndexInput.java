@@ -25,7 +25,6 @@
 import java.io.IOException;
 
 import org.apache.lucene.store.IndexInput;
-import org.infinispan.Cache;
 import org.infinispan.lucene.ChunkCacheKey;
 import org.infinispan.lucene.FileCacheKey;
 import org.infinispan.lucene.readlocks.SegmentReadLocker;
@@ -46,7 +45,7 @@ abstract class InfinispanIndexInput extends IndexInput {
    private static final Log log = LogFactory.getLog(InfinispanIndexInput.class);
    private static final boolean trace = log.isTraceEnabled();
 
-   private final Cache<ChunkCacheKey, Object> chunksCache;
+   private final IndexInputContext ctx;
    private final FileCacheKey fileKey;
    private final int chunkSize;
    private final SegmentReadLocker readLocks;
@@ -62,7 +61,7 @@ abstract class InfinispanIndexInput extends IndexInput {
 
    public InfinispanIndexInput(final IndexInputContext ctx) {
       super(ctx.fileKey.getFileName());
-      this.chunksCache = (Cache<ChunkCacheKey, Object>) ctx.chunksCache;
+      this.ctx = ctx;
       this.fileKey = ctx.fileKey;
       this.chunkSize = ctx.fileMetadata.getBufferSize();
       this.fileLength = ctx.fileMetadata.getSize();
@@ -135,7 +134,7 @@ private void nextChunk() throws IOException {
 
    private void setBufferToCurrentChunk() throws IOException {
       ChunkCacheKey key = new ChunkCacheKey(fileKey.getIndexName(), filename, currentLoadedChunk, chunkSize);
-      buffer = (byte[]) chunksCache.get(key);
+      buffer = ctx.getChunk(key);
       if (buffer == null) {
          throw new IOException("Read past EOF: Chunk value could not be found for key " + key);
       }
@@ -146,7 +145,7 @@ private void setBufferToCurrentChunk() throws IOException {
    // RAMDirectory teaches to position the cursor to the end of previous chunk in this case
    private void setBufferToCurrentChunkIfPossible() {
       ChunkCacheKey key = new ChunkCacheKey(fileKey.getIndexName(), filename, currentLoadedChunk, chunkSize);
-      buffer = (byte[]) chunksCache.get(key);
+      buffer = ctx.getChunk(key);
       if (buffer == null) {
          currentLoadedChunk--;
          bufferPosition = chunkSize;
@@ -23,14 +23,19 @@
 package org.infinispan.lucene.impl;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.lucene.store.IndexOutput;
 import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
+import org.infinispan.CacheException;
 import org.infinispan.context.Flag;
 import org.infinispan.lucene.ChunkCacheKey;
 import org.infinispan.lucene.FileCacheKey;
 import org.infinispan.lucene.FileMetadata;
+import org.infinispan.util.concurrent.NotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -58,6 +63,17 @@ public final class InfinispanIndexOutput extends IndexOutput {
    private final FileCacheKey fileKey;
    private final FileListOperations fileOps;
 
+   /**
+    * Maximum number of chunk writes which are allowed to be pending at the same time;
+    * when set to 1 each chunk is stored synchronously.
+    */
+   private final int chunkWriteWindow;
+
+   /**
+    * Asynchronous chunk writes not yet known to be completed, in the order they were issued
+    */
+   private final LinkedHashMap<Integer, NotifyingFuture<Object>> chunksInFlight;
+
    private byte[] buffer;
    
    /**
@@ -70,12 +86,24 @@ public final class InfinispanIndexOutput extends IndexOutput {
    private int currentChunkNumber = 0;
 
    public InfinispanIndexOutput(final AdvancedCache<?, ?> metadataCache, final AdvancedCache<?, ?> chunksCache, final FileCacheKey fileKey, final int bufferSize, final FileListOperations fileList) {
+      this(metadataCache, chunksCache, fileKey, bufferSize, fileList, 1);
+   }
+
+   /**
+    * @param chunkWriteWindow the maximum number of chunks being written asynchronously at any time;
+    *        1 stores each chunk synchronously
+    */
+   public InfinispanIndexOutput(final AdvancedCache<?, ?> metadataCache, final AdvancedCache<?, ?> chunksCache, final FileCacheKey fileKey, final int bufferSize, final FileListOperations fileList, final int chunkWriteWindow) {
+      if (chunkWriteWindow <= 0)
+         throw new IllegalArgumentException("chunkWriteWindow must be a positive integer");
       this.metadataCache = (AdvancedCache<FileCacheKey, FileMetadata>) metadataCache;
       this.chunksCache = (Cache<ChunkCacheKey, Object>) chunksCache;
       this.chunksCacheForStorage = (Cache<ChunkCacheKey, Object>) chunksCache.withFlags(Flag.IGNORE_RETURN_VALUES, Flag.SKIP_INDEXING);
       this.fileKey = fileKey;
       this.bufferSize = bufferSize;
       this.fileOps = fileList;
+      this.chunkWriteWindow = chunkWriteWindow;
+      this.chunksInFlight = chunkWriteWindow > 1 ? new LinkedHashMap<Integer, NotifyingFuture<Object>>() : null;
       this.buffer = new byte[this.bufferSize];
       this.firstChunkBuffer = buffer;
       this.file = new FileMetadata(bufferSize);
@@ -85,6 +113,7 @@ public InfinispanIndexOutput(final AdvancedCache<?, ?> metadataCache, final Adva
    }
    
    private byte[] getChunkById(FileCacheKey fileKey, int chunkNumber, int bufferSize) {
+      awaitChunkWrite(chunkNumber);
       if (file.getNumberOfChunks() <= chunkNumber) {
          return new byte[bufferSize];
       }
@@ -112,7 +141,7 @@ private static int getChunkNumberFromPosition(final long pos, final int bufferSi
    }
 
    private void newChunk() {
-      storeCurrentBuffer(false);// save data first
+      storeCurrentBuffer(false, false);// save data first
       currentChunkNumber++;
       // check if we have to create new chunk, or get already existing in cache for modification
       buffer = getChunkById(fileKey, currentChunkNumber, bufferSize);
@@ -153,6 +182,10 @@ public void flush() {
    }
 
    protected void storeCurrentBuffer(final boolean isClose) {
+      storeCurrentBuffer(isClose, !isClose);
+   }
+
+   private void storeCurrentBuffer(final boolean isClose, final boolean bufferReused) {
       if (currentChunkNumber == 0 && ! isClose) {
          //we don't store the first chunk until the close operation: this way
          //we guarantee each chunk is written only once an minimize locking needs.
@@ -173,18 +206,68 @@ protected void storeCurrentBuffer(final boolean isClose) {
       // add chunk to cache
       if ( ! writingOnLastChunk || this.positionInBuffer != 0) {
          // store the current chunk
-         storeBufferAsChunk(bufferToFlush, currentChunkNumber);
+         storeBufferAsChunk(bufferToFlush, currentChunkNumber, bufferReused && bufferToFlush == buffer);
       }
    }
 
    /**
     * @param bufferToFlush
     * @param chunkNumber
+    * @param bufferReused true if bufferToFlush might still be modified after this call
     */
-   private void storeBufferAsChunk(final byte[] bufferToFlush, final int chunkNumber) {
+   private void storeBufferAsChunk(final byte[] bufferToFlush, final int chunkNumber, final boolean bufferReused) {
       ChunkCacheKey key = new ChunkCacheKey(fileKey.getIndexName(), fileKey.getFileName(), chunkNumber, bufferSize);
       if (trace) log.tracef("Storing segment chunk: %s", key);
-      chunksCacheForStorage.put(key, bufferToFlush);
+      if (chunksInFlight == null) {
+         chunksCacheForStorage.put(key, bufferToFlush);
+         return;
+      }
+      // a chunk rewritten after a seek must not race with its previous version
+      awaitChunkWrite(chunkNumber);
+      while (chunksInFlight.size() >= chunkWriteWindow) {
+         Iterator<NotifyingFuture<Object>> oldest = chunksInFlight.values().iterator();
+         NotifyingFuture<Object> future = oldest.next();
+         oldest.remove();
+         waitFor(future);
+      }
+      // a buffer which is still being written to can't be handed to an asynchronous put
+      final byte[] toStore = bufferReused ? bufferToFlush.clone() : bufferToFlush;
+      chunksInFlight.put(chunkNumber, chunksCacheForStorage.putAsync(key, toStore));
+   }
+
+   private void awaitChunkWrite(final int chunkNumber) {
+      if (chunksInFlight != null) {
+         NotifyingFuture<Object> future = chunksInFlight.remove(chunkNumber);
+         if (future != null) {
+            waitFor(future);
+         }
+      }
+   }
+
+   private void awaitAllChunkWrites() {
+      if (chunksInFlight != null) {
+         Iterator<NotifyingFuture<Object>> it = chunksInFlight.values().iterator();
+         while (it.hasNext()) {
+            NotifyingFuture<Object> future = it.next();
+            it.remove();
+            waitFor(future);
+         }
+      }
+   }
+
+   private void waitFor(final NotifyingFuture<Object> future) {
+      try {
+         future.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while storing a chunk of " + fileKey, e);
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+         }
+         throw new CacheException("Failed to store a chunk of " + fileKey, cause);
+      }
    }
 
    private void resizeFileIfNeeded() {
@@ -201,9 +284,11 @@ public void close() {
       }
       else {
          //no need to resize first chunk, just store it:
-         storeBufferAsChunk(this.firstChunkBuffer, 0);
+         storeBufferAsChunk(this.firstChunkBuffer, 0, false);
          storeCurrentBuffer(true);
       }
+      // all chunks must be in place before the new file size is made visible
+      awaitAllChunkWrites();
       buffer = null;
       firstChunkBuffer = null;
       // override existing file header with updated accesstime
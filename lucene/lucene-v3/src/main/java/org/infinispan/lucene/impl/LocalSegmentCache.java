@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.lucene.impl;
+
+import java.util.Iterator;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.lucene.ChunkCacheKey;
+import org.infinispan.lucene.FileMetadata;
+import org.infinispan.util.AnyEquivalence;
+import org.infinispan.util.ByteArrayEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+
+/**
+ * A node local, size bounded cache of segment chunks, consulted before the chunks cache.
+ * <p>
+ * Lucene never changes a segment file once it's written, so its chunks can be kept locally
+ * to avoid fetching them from remote owners on each read. Entries are keyed by chunk and by the
+ * version of the file as stored in its {@link FileMetadata} (last modification time and size),
+ * so a file recreated under the same name is never served from stale chunks; the only file
+ * Lucene rewrites in place, <code>segments.gen</code>, is never cached.
+ * </p>
+ * <p>
+ * Entries of a file are dropped when the file is deleted or renamed through the Directory
+ * using this cache; anything else is eventually evicted in LRU order.
+ * </p>
+ *
+ * @since 5.3
+ */
+public final class LocalSegmentCache {
+
+   private static final String SEGMENTS_GEN = "segments.gen";
+
+   private final BoundedConcurrentHashMap<Object, byte[]> chunks;
+
+   /**
+    * @param maxBytes the approximate maximum amount of memory to be used by cached chunks
+    * @param chunkSize the chunk size of the Directory using this cache, to estimate how many chunks fit in maxBytes
+    */
+   public LocalSegmentCache(long maxBytes, int chunkSize) {
+      if (maxBytes <= 0)
+         throw new IllegalArgumentException("maxBytes must be a positive number");
+      if (chunkSize <= 0)
+         throw new IllegalArgumentException("chunkSize must be a positive integer");
+      final int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(2, maxBytes / chunkSize));
+      this.chunks = new BoundedConcurrentHashMap<Object, byte[]>(capacity, 16,
+            BoundedConcurrentHashMap.Eviction.LRU, AnyEquivalence.OBJECT, ByteArrayEquivalence.INSTANCE);
+   }
+
+   /**
+    * Returns the chunk from the local copy if available, otherwise loads it from the chunks cache
+    * and keeps a local copy of it.
+    *
+    * @return the chunk, or null if it doesn't exist
+    */
+   public byte[] getChunk(AdvancedCache<ChunkCacheKey, Object> chunksCache, ChunkCacheKey key, FileMetadata fileMetadata) {
+      if (SEGMENTS_GEN.equals(key.getFileName())) {
+         return (byte[]) chunksCache.get(key);
+      }
+      final VersionedChunkKey localKey = new VersionedChunkKey(key, fileMetadata.getLastModified(), fileMetadata.getSize());
+      byte[] chunk = chunks.get(localKey);
+      if (chunk == null) {
+         chunk = (byte[]) chunksCache.get(key);
+         if (chunk != null) {
+            chunks.put(localKey, chunk);
+         }
+      }
+      return chunk;
+   }
+
+   /**
+    * Drops all local copies of chunks belonging to any version of the file.
+    */
+   public void invalidate(String indexName, String fileName) {
+      Iterator<Object> it = chunks.keySet().iterator();
+      while (it.hasNext()) {
+         ChunkCacheKey key = ((VersionedChunkKey) it.next()).key;
+         if (key.getFileName().equals(fileName) && key.getIndexName().equals(indexName)) {
+            it.remove();
+         }
+      }
+   }
+
+   /**
+    * @return the number of chunks currently held locally
+    */
+   public int size() {
+      return chunks.size();
+   }
+
+   public void clear() {
+      chunks.clear();
+   }
+
+   private static final class VersionedChunkKey {
+
+      private final ChunkCacheKey key;
+      private final long lastModified;
+      private final long size;
+
+      VersionedChunkKey(ChunkCacheKey key, long lastModified, long size) {
+         this.key = key;
+         this.lastModified = lastModified;
+         this.size = size;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || VersionedChunkKey.class != o.getClass()) return false;
+         VersionedChunkKey other = (VersionedChunkKey) o;
+         return lastModified == other.lastModified && size == other.size && key.equals(other.key);
+      }
+
+      @Override
+      public int hashCode() {
+         int result = key.hashCode();
+         result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+         result = 31 * result + (int) (size ^ (size >>> 32));
+         return result;
+      }
+   }
+
+}
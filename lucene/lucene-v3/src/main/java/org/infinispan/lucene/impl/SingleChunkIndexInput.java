@@ -45,7 +45,7 @@ final public class SingleChunkIndexInput extends IndexInput {
    public SingleChunkIndexInput(final IndexInputContext iic) {
       super(iic.fileKey.getFileName());
       ChunkCacheKey key = new ChunkCacheKey(iic.fileKey.getIndexName(), iic.fileKey.getFileName(), 0, iic.fileMetadata.getBufferSize());
-      byte[] b = (byte[]) iic.chunksCache.get(key);
+      byte[] b = iic.getChunk(key);
       if (b == null) {
          buffer = new byte[0];
       }
@@ -22,13 +22,25 @@
  */
 package org.infinispan.lucene.readlocks;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
+import org.infinispan.CacheException;
 import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionManager;
 import org.infinispan.lucene.ChunkCacheKey;
 import org.infinispan.lucene.FileCacheKey;
 import org.infinispan.lucene.FileMetadata;
 import org.infinispan.lucene.FileReadLockKey;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -40,6 +52,10 @@
  * <p>Locks stored this way are not optimally performing as it might spin
  * on remote invocations, and might fail to cleanup some garbage
  * in case a node is disconnected without having released the readlock.</p>
+ * <p>In distributed caches the reference counters are updated by the primary owner
+ * of each lock, so that acquiring or releasing any number of locks costs a single
+ * remote invocation per owner; see {@link #acquireReadLocks(String...)} to
+ * acquire the locks of several files at once.</p>
  * 
  * @author Sanne Grinovero
  * @since 4.1
@@ -53,6 +69,8 @@ public class DistributedSegmentReadLocker implements SegmentReadLocker {
    private final AdvancedCache<?, ?> chunksCache;
    private final AdvancedCache<?, ?> metadataCache;
    private final String indexName;
+   private final DistributionManager distributionManager;
+   private final RpcManager rpcManager;
    
    public DistributedSegmentReadLocker(Cache<Object, Integer> locksCache, Cache<?, ?> chunksCache, Cache<?, ?> metadataCache, String indexName) {
       if (locksCache == null)
@@ -68,6 +86,8 @@ public DistributedSegmentReadLocker(Cache<Object, Integer> locksCache, Cache<?,
       this.chunksCache = chunksCache.getAdvancedCache().withFlags(Flag.SKIP_INDEXING);
       this.metadataCache = metadataCache.getAdvancedCache().withFlags(Flag.SKIP_INDEXING);
       verifyCacheHasNoEviction(this.locksCache);
+      this.distributionManager = this.locksCache.getDistributionManager();
+      this.rpcManager = this.locksCache.getRpcManager();
    }
 
    public DistributedSegmentReadLocker(Cache<?, ?> cache, String indexName) {
@@ -84,6 +104,94 @@ public DistributedSegmentReadLocker(Cache<?, ?> cache, String indexName) {
     */
    @Override
    public void deleteOrReleaseReadLock(String filename) {
+      deleteOrReleaseReadLocks(filename);
+   }
+
+   /**
+    * Same as {@link #deleteOrReleaseReadLock(String)} for several files, using
+    * a single remote invocation for all files whose locks have the same owner.
+    */
+   public void deleteOrReleaseReadLocks(String... filenames) {
+      updateOnPrimaryOwners(false, filenames);
+   }
+
+   /**
+    * Same as {@link #acquireReadLock(String)} for several files, such as all files
+    * of a commit point, using a single remote invocation for all files whose locks
+    * have the same owner.
+    *
+    * @return for each file, true if its lock was acquired
+    */
+   public boolean[] acquireReadLocks(String... filenames) {
+      return updateOnPrimaryOwners(true, filenames);
+   }
+
+   /**
+    * Applies the lock operation on the primary owner of each lock, so that the
+    * reference counter can be read and replaced there without further remote calls.
+    */
+   private boolean[] updateOnPrimaryOwners(boolean acquire, String[] filenames) {
+      if (distributionManager == null) {
+         return updateLocally(acquire, filenames);
+      }
+      final boolean[] results = new boolean[filenames.length];
+      final Map<Address, List<Integer>> filesByOwner = new HashMap<Address, List<Integer>>();
+      for (int i = 0; i < filenames.length; i++) {
+         Address owner = distributionManager.getPrimaryLocation(new FileReadLockKey(indexName, filenames[i]));
+         List<Integer> files = filesByOwner.get(owner);
+         if (files == null) {
+            files = new ArrayList<Integer>();
+            filesByOwner.put(owner, files);
+         }
+         files.add(i);
+      }
+      for (Map.Entry<Address, List<Integer>> e : filesByOwner.entrySet()) {
+         final Address owner = e.getKey();
+         final List<Integer> positions = e.getValue();
+         final String[] ownedFiles = new String[positions.size()];
+         for (int i = 0; i < ownedFiles.length; i++) {
+            ownedFiles[i] = filenames[positions.get(i)];
+         }
+         final boolean[] ownerResults;
+         if (owner.equals(rpcManager.getAddress())) {
+            ownerResults = updateLocally(acquire, ownedFiles);
+         }
+         else {
+            ReadLockCommand command = new ReadLockCommand(locksCache.getName());
+            command.setLocks(indexName, ownedFiles, acquire, chunksCache.getName(), metadataCache.getName());
+            Map<Address, Response> responses = rpcManager.invokeRemotely(Collections.singleton(owner), command, rpcManager.getDefaultRpcOptions(true));
+            Response response = responses.get(owner);
+            if (!(response instanceof SuccessfulResponse)) {
+               throw new CacheException("Unexpected response " + response + " from " + owner + " while updating read locks of " + indexName);
+            }
+            ownerResults = (boolean[]) ((SuccessfulResponse) response).getResponseValue();
+         }
+         for (int i = 0; i < ownerResults.length; i++) {
+            results[positions.get(i)] = ownerResults[i];
+         }
+      }
+      return results;
+   }
+
+   /**
+    * Applies the lock operation from this node, which is expected to be the owner of the locks
+    * unless the cache isn't distributed.
+    */
+   boolean[] updateLocally(boolean acquire, String[] filenames) {
+      final boolean[] results = new boolean[filenames.length];
+      for (int i = 0; i < filenames.length; i++) {
+         if (acquire) {
+            results[i] = acquireReadLockLocally(filenames[i]);
+         }
+         else {
+            deleteOrReleaseReadLockLocally(filenames[i]);
+            results[i] = true;
+         }
+      }
+      return results;
+   }
+
+   private void deleteOrReleaseReadLockLocally(String filename) {
       FileReadLockKey readLockKey = new FileReadLockKey(indexName, filename);
       int newValue = 0;
       boolean done = false;
@@ -125,6 +233,10 @@ public void deleteOrReleaseReadLock(String filename) {
     */
    @Override
    public boolean acquireReadLock(String filename) {
+      return acquireReadLocks(filename)[0];
+   }
+
+   private boolean acquireReadLockLocally(String filename) {
       FileReadLockKey readLockKey = new FileReadLockKey(indexName, filename);
       Integer lockValue = locksCache.get(readLockKey);
       boolean done = false;
@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.lucene.readlocks;
+
+import java.util.Arrays;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.lucene.impl.ModuleCommandIds;
+import org.infinispan.manager.EmbeddedCacheManager;
+
+/**
+ * Acquires or releases the read locks of a set of files on the node owning them,
+ * on behalf of a {@link DistributedSegmentReadLocker} running on another node.
+ *
+ * @since 5.3
+ */
+public class ReadLockCommand extends BaseRpcCommand implements ReplicableCommand {
+
+   public static final byte COMMAND_ID = ModuleCommandIds.READ_LOCKS;
+
+   private EmbeddedCacheManager cacheManager;
+
+   private String indexName;
+   private String[] fileNames;
+   private boolean acquire;
+   private String chunksCacheName;
+   private String metadataCacheName;
+
+   public ReadLockCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   /**
+    * This is invoked only on the receiving node, before {@link #perform(InvocationContext)}
+    */
+   public void init(EmbeddedCacheManager cacheManager) {
+      this.cacheManager = cacheManager;
+   }
+
+   public void setLocks(String indexName, String[] fileNames, boolean acquire, String chunksCacheName, String metadataCacheName) {
+      this.indexName = indexName;
+      this.fileNames = fileNames;
+      this.acquire = acquire;
+      this.chunksCacheName = chunksCacheName;
+      this.metadataCacheName = metadataCacheName;
+   }
+
+   /**
+    * @return for each file, whether the lock operation succeeded
+    */
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      Cache<Object, Integer> locksCache = cacheManager.getCache(cacheName);
+      Cache<?, ?> chunksCache = cacheManager.getCache(chunksCacheName);
+      Cache<?, ?> metadataCache = cacheManager.getCache(metadataCacheName);
+      DistributedSegmentReadLocker locker = new DistributedSegmentReadLocker(locksCache, chunksCache, metadataCache, indexName);
+      return locker.updateLocally(acquire, fileNames);
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{ indexName, fileNames, acquire, chunksCacheName, metadataCacheName };
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      this.indexName = (String) parameters[0];
+      this.fileNames = (String[]) parameters[1];
+      this.acquire = (Boolean) parameters[2];
+      this.chunksCacheName = (String) parameters[3];
+      this.metadataCacheName = (String) parameters[4];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "ReadLockCommand{cache=" + cacheName + ", indexName=" + indexName + ", fileNames=" + Arrays.toString(fileNames)
+            + ", acquire=" + acquire + '}';
+   }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.lucene;
+
+import static org.infinispan.lucene.CacheTestSupport.assertTextIsFoundInIds;
+import static org.infinispan.lucene.CacheTestSupport.writeTextToIndex;
+
+import java.io.IOException;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.lucene.directory.DirectoryBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Verifies an index written with asynchronous chunk writes is complete and readable.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "lucene.ChunkWriteWindowTest")
+public class ChunkWriteWindowTest extends SingleCacheManagerTest {
+
+   private static final String INDEX_NAME = "indexName";
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(true);
+      builder.clustering().cacheMode(CacheMode.LOCAL)
+            .invocationBatching().enable();
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testIndexWrittenWithWindow() throws IOException {
+      cache = cacheManager.getCache();
+      Directory dir = DirectoryBuilder.newDirectoryInstance(cache, cache, cache, INDEX_NAME).chunkSize(7).chunkWriteWindow(8).create();
+      writeTextToIndex(dir, 0, "hi from the asynchronous writer");
+      writeTextToIndex(dir, 1, "each chunk of this segment is stored while the next one is being filled");
+      assertTextIsFoundInIds(dir, "hi", 0);
+      assertTextIsFoundInIds(dir, "chunk", 1);
+      DirectoryIntegrityCheck.verifyDirectoryStructure(cache, INDEX_NAME);
+      cache.clear();
+   }
+
+   public void testRewriteAfterSeek() throws IOException {
+      cache = cacheManager.getCache();
+      Directory dir = DirectoryBuilder.newDirectoryInstance(cache, cache, cache, INDEX_NAME).chunkSize(4).chunkWriteWindow(2).create();
+      IndexOutput io = dir.createOutput("seekTest");
+      byte[] data = new byte[30];
+      for (int i = 0; i < data.length; i++) {
+         data[i] = (byte) i;
+      }
+      io.writeBytes(data, data.length);
+      // go back to chunks which might still be in flight and overwrite them
+      io.seek(5);
+      io.writeByte((byte) 105);
+      io.flush();
+      io.writeByte((byte) 106);
+      io.seek(13);
+      io.writeByte((byte) 113);
+      io.close();
+      data[5] = (byte) 105;
+      data[6] = (byte) 106;
+      data[13] = (byte) 113;
+
+      IndexInput ii = dir.openInput("seekTest");
+      AssertJUnit.assertEquals(data.length, ii.length());
+      byte[] read = new byte[data.length];
+      ii.readBytes(read, 0, read.length);
+      ii.close();
+      for (int i = 0; i < data.length; i++) {
+         AssertJUnit.assertEquals(data[i], read[i]);
+      }
+      DirectoryIntegrityCheck.verifyDirectoryStructure(cache, INDEX_NAME);
+      cache.clear();
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testInvalidWindow() {
+      cache = cacheManager.getCache();
+      DirectoryBuilder.newDirectoryInstance(cache, cache, cache, INDEX_NAME).chunkWriteWindow(0);
+   }
+}
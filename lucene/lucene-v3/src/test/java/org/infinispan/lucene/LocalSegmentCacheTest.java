@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.infinispan.lucene;
+
+import static org.infinispan.lucene.CacheTestSupport.assertTextIsFoundInIds;
+import static org.infinispan.lucene.CacheTestSupport.writeTextToIndex;
+
+import java.io.IOException;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.lucene.directory.DirectoryBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+/**
+ * Verifies chunks are served from the node local segment cache once read,
+ * and that deleted files are not served from it.
+ *
+ * @since 5.3
+ */
+@Test(groups = "functional", testName = "lucene.LocalSegmentCacheTest")
+public class LocalSegmentCacheTest extends SingleCacheManagerTest {
+
+   private static final String INDEX_NAME = "indexName";
+   private static final int CHUNK_SIZE = 8;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(true);
+      builder.clustering().cacheMode(CacheMode.LOCAL)
+            .invocationBatching().enable();
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testIndexReadThroughLocalCache() throws IOException {
+      cache = cacheManager.getCache();
+      Directory dir = DirectoryBuilder.newDirectoryInstance(cache, cache, cache, INDEX_NAME).chunkSize(CHUNK_SIZE).localSegmentCache(1024 * 1024).create();
+      writeTextToIndex(dir, 0, "hi from the local segment cache");
+      assertTextIsFoundInIds(dir, "hi", 0);
+      writeTextToIndex(dir, 1, "a second segment is added and merged");
+      assertTextIsFoundInIds(dir, "hi", 0);
+      assertTextIsFoundInIds(dir, "segment", 1);
+      cache.clear();
+   }
+
+   public void testChunksServedLocallyUntilDeleted() throws IOException {
+      cache = cacheManager.getCache();
+      Directory dir = DirectoryBuilder.newDirectoryInstance(cache, cache, cache, INDEX_NAME).chunkSize(CHUNK_SIZE).localSegmentCache(1024 * 1024).create();
+      byte[] data = writeFile(dir, "localFile", 30, 0);
+      assertFileContent(dir, "localFile", data);
+
+      // the remote copy of a chunk is gone, but the local one is still there
+      cache.remove(new ChunkCacheKey(INDEX_NAME, "localFile", 1, CHUNK_SIZE));
+      assertFileContent(dir, "localFile", data);
+
+      // a new file with the same name must not be served from the old chunks
+      dir.deleteFile("localFile");
+      byte[] newData = writeFile(dir, "localFile", CHUNK_SIZE - 2, 100);
+      assertFileContent(dir, "localFile", newData);
+      cache.clear();
+   }
+
+   private static byte[] writeFile(Directory dir, String fileName, int size, int firstValue) throws IOException {
+      byte[] data = new byte[size];
+      for (int i = 0; i < size; i++) {
+         data[i] = (byte) (firstValue + i);
+      }
+      IndexOutput io = dir.createOutput(fileName);
+      io.writeBytes(data, size);
+      io.close();
+      return data;
+   }
+
+   private static void assertFileContent(Directory dir, String fileName, byte[] expected) throws IOException {
+      IndexInput ii = dir.openInput(fileName);
+      byte[] read = new byte[expected.length];
+      ii.readBytes(read, 0, read.length);
+      ii.close();
+      for (int i = 0; i < expected.length; i++) {
+         AssertJUnit.assertEquals(expected[i], read[i]);
+      }
+   }
+}
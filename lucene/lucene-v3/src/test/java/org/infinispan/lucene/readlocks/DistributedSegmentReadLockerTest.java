@@ -102,6 +102,40 @@ public void testIndexWritingAndFinding() throws IOException, InterruptedExceptio
       verifyBoth(cache0, cache1);
    }
 
+   @Test
+   public void testBatchedReadLocks() throws IOException, InterruptedException {
+      final String[] fileNames = new String[10];
+      for (int i = 0; i < fileNames.length; i++) {
+         fileNames[i] = "batch" + i + ".txt";
+         IndexOutput indexOutput = dirA.createOutput(fileNames[i]);
+         indexOutput.writeString("files spread over the owners of their read locks");
+         indexOutput.close();
+      }
+      DistributedSegmentReadLocker locker = new DistributedSegmentReadLocker(cache1, INDEX_NAME);
+      boolean[] acquired = locker.acquireReadLocks(fileNames);
+      for (int i = 0; i < fileNames.length; i++) {
+         assert acquired[i];
+         assertFileExistsHavingRLCount(fileNames[i], 2, true);
+      }
+      // files which don't exist can't be locked
+      boolean[] missing = locker.acquireReadLocks(fileNames[0], "notExisting.txt");
+      assert missing[0];
+      assert !missing[1];
+      locker.deleteOrReleaseReadLocks(fileNames[0]);
+
+      for (String fileName : fileNames) {
+         dirA.deleteFile(fileName);
+         assertFileExistsHavingRLCount(fileName, 1, false);
+      }
+      locker.deleteOrReleaseReadLocks(fileNames);
+      for (String fileName : fileNames) {
+         assertFileNotExists(fileName);
+      }
+      dirA.close();
+      dirB.close();
+      verifyBoth(cache0, cache1);
+   }
+
    void assertFileNotExists(String fileName) throws InterruptedException {
       DirectoryIntegrityCheck.assertFileNotExists(cache0, INDEX_NAME, fileName, 10000L);
       DirectoryIntegrityCheck.assertFileNotExists(cache1, INDEX_NAME, fileName, 10000L);
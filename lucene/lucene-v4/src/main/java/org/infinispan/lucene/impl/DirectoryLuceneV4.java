@@ -57,7 +57,16 @@ class DirectoryLuceneV4 extends Directory implements DirectoryExtensions {
     * @param readLocker @see org.infinispan.lucene.readlocks for some implementations; you might be able to provide more efficient implementations by controlling the IndexReader's lifecycle.
     */
    public DirectoryLuceneV4(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, LockFactory lf, int chunkSize, SegmentReadLocker readLocker) {
-      this.impl = new DirectoryImplementor(metadataCache, chunksCache, indexName, chunkSize, readLocker);
+      this(metadataCache, chunksCache, indexName, lf, chunkSize, readLocker, 1, null);
+   }
+
+   /**
+    * @param chunkWriteWindow the maximum number of chunks an IndexOutput writes asynchronously at the same time; 1 writes each chunk synchronously
+    * @param localSegmentCache node local cache of segment chunks, or null to always read from chunksCache
+    * @see #DirectoryLuceneV4(Cache, Cache, String, LockFactory, int, SegmentReadLocker)
+    */
+   public DirectoryLuceneV4(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, String indexName, LockFactory lf, int chunkSize, SegmentReadLocker readLocker, int chunkWriteWindow, LocalSegmentCache localSegmentCache) {
+      this.impl = new DirectoryImplementor(metadataCache, chunksCache, indexName, chunkSize, readLocker, chunkWriteWindow, localSegmentCache);
       this.indexName = indexName;
       this.lockFactory = lf;
       this.lockFactory.setLockPrefix(this.getLockID());
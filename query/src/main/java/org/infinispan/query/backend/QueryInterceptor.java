@@ -44,6 +44,7 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.InvokeCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -133,6 +134,16 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
       return toReturn;
    }
 
+   @Override
+   public Object visitInvokeCommand(InvocationContext ctx, InvokeCommand command) throws Throwable {
+      Object toReturn = invokeNextInterceptor(ctx, command);
+      // the return value is the result of the processor, so index changes are based on the previous value
+      if (command.isSuccessful()) {
+         processPutKeyValueCommand(command, ctx, command.getPreviousValue(), null);
+      }
+      return toReturn;
+   }
+
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       // remove the object out of the cache first.
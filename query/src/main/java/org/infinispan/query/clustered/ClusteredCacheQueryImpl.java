@@ -136,7 +136,8 @@ public ResultIterator iterator(FetchOptions fetchOptions) throws SearchException
             // Make a sort copy to avoid reversed results
             return new DistributedLazyIterator(deepCopy(sort),
                   fetchOptions.getFetchSize(), this.resultSize, maxResults,
-                  firstResult, lazyItId, topDocsResponses, asyncExecutor, cache);
+                  firstResult, lazyItId, topDocsResponses, asyncExecutor, cache,
+                  hSearchQuery.getProjectedFields() != null ? projectionConverter : null);
          }
          default:
             throw new IllegalArgumentException("Unknown FetchMode " + fetchOptions.getFetchMode());
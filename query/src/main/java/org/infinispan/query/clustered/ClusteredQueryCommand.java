@@ -31,6 +31,7 @@
 import org.infinispan.query.ModuleCommandIds;
 import org.infinispan.query.clustered.commandworkers.ClusteredQueryCommandWorker;
 
+import java.util.HashMap;
 import java.util.UUID;
 
 /**
@@ -57,6 +58,9 @@ public class ClusteredQueryCommand extends BaseRpcCommand implements ReplicableC
    // for retrieve keys on a lazy query
    private Integer docIndex = ZERO;
 
+   // for retrieve a page of values on a lazy query: the doc indexes requested from each node
+   private HashMap<UUID, int[]> docIndexesByNode;
+
    private ClusteredQueryCommand(ClusteredQueryCommandType type, String cacheName) {
       super(cacheName);
       commandType = type;
@@ -107,6 +111,14 @@ public static ClusteredQueryCommand retrieveKeyFromLazyQuery(Cache<?, ?> cache,
       return clQuery;
    }
 
+   public static ClusteredQueryCommand retrievePageFromLazyQuery(Cache<?, ?> cache, UUID id,
+         HashMap<UUID, int[]> docIndexesByNode) {
+      ClusteredQueryCommand clQuery = new ClusteredQueryCommand(ClusteredQueryCommandType.GET_PAGE, cache.getName());
+      clQuery.lazyQueryId = id;
+      clQuery.docIndexesByNode = docIndexesByNode;
+      return clQuery;
+   }
+
    public void initialize(Cache<?, ?> localInstance) {
       setCache(localInstance);
    }
@@ -128,7 +140,8 @@ public Object perform(InvocationContext context) throws Throwable {
    }
 
    public QueryResponse perform(Cache<?, ?> cache) {
-      ClusteredQueryCommandWorker worker = commandType.getCommand(cache, query, lazyQueryId, docIndex);
+      ClusteredQueryCommandWorker worker = commandType.getCommand(cache, query, lazyQueryId, docIndex,
+            docIndexesByNode);
       return worker.perform();
    }
 
@@ -139,16 +152,18 @@ public byte getCommandId() {
 
    @Override
    public Object[] getParameters() {
-      return new Object[] { commandType, query, lazyQueryId, docIndex };
+      return new Object[] { commandType, query, lazyQueryId, docIndex, docIndexesByNode };
    }
 
    @Override
+   @SuppressWarnings("unchecked")
    public void setParameters(int commandId, Object[] args) {
       int i = 0;
       commandType = (ClusteredQueryCommandType) args[i++];
       query = (HSQuery) args[i++];
       lazyQueryId = (UUID) args[i++];
       docIndex = (Integer) args[i++];
+      docIndexesByNode = (HashMap<UUID, int[]>) args[i++];
    }
 
    @Override
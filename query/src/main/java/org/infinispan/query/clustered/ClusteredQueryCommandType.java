@@ -21,6 +21,7 @@
  */
 package org.infinispan.query.clustered;
 
+import java.util.Map;
 import java.util.UUID;
 
 import org.hibernate.search.query.engine.spi.HSQuery;
@@ -30,6 +31,7 @@
 import org.infinispan.query.clustered.commandworkers.CQGetResultSize;
 import org.infinispan.query.clustered.commandworkers.CQKillLazyIterator;
 import org.infinispan.query.clustered.commandworkers.CQLazyFetcher;
+import org.infinispan.query.clustered.commandworkers.CQLazyPageFetcher;
 import org.infinispan.query.clustered.commandworkers.ClusteredQueryCommandWorker;
 
 /**
@@ -70,15 +72,26 @@ public ClusteredQueryCommandWorker getNewInstance() {
       public ClusteredQueryCommandWorker getNewInstance() {
          return new CQGetResultSize();
       }
+   },
+   GET_PAGE() {
+      @Override
+      public ClusteredQueryCommandWorker getNewInstance() {
+         return new CQLazyPageFetcher();
+      }
    };
 
    protected abstract ClusteredQueryCommandWorker getNewInstance();
 
    public ClusteredQueryCommandWorker getCommand(Cache<?, ?> cache, HSQuery query, UUID lazyQueryId,
             int docIndex) {
+      return getCommand(cache, query, lazyQueryId, docIndex, null);
+   }
+
+   public ClusteredQueryCommandWorker getCommand(Cache<?, ?> cache, HSQuery query, UUID lazyQueryId,
+            int docIndex, Map<UUID, int[]> docIndexesByNode) {
       ClusteredQueryCommandWorker command = null;
       command = getNewInstance();
-      command.init(cache, query, lazyQueryId, docIndex);
+      command.init(cache, query, lazyQueryId, docIndex, docIndexesByNode);
       return command;
    }
 
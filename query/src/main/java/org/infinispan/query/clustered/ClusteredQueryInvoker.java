@@ -22,6 +22,7 @@
 package org.infinispan.query.clustered;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -105,6 +106,45 @@ public Object getValue(int doc, Address address, UUID queryId) {
       }
    }
 
+   /**
+    * Retrieves the values of several docs of a remote query instance, sending a single command to
+    * every node involved instead of one command per doc. The local node is served inline.
+    * 
+    * @param docIndexesByNode
+    *           Doc indexes on the remote query, by node UUID
+    * @param addresses
+    *           Addresses of the nodes, by node UUID
+    * @param queryId
+    *           Id of the query
+    * @return The values of the requested docs, by node UUID and in the requested order
+    */
+   public Map<UUID, Object[]> getValues(HashMap<UUID, int[]> docIndexesByNode, Map<UUID, Address> addresses,
+            UUID queryId) {
+      ClusteredQueryCommand clusteredQuery = ClusteredQueryCommand.retrievePageFromLazyQuery(
+               localCacheInstance, queryId, docIndexesByNode);
+
+      Map<UUID, Object[]> values = new HashMap<UUID, Object[]>();
+      List<Address> remoteAddresses = new ArrayList<Address>(docIndexesByNode.size());
+      for (UUID nodeUuid : docIndexesByNode.keySet()) {
+         Address address = addresses.get(nodeUuid);
+         if (address.equals(myAddress)) {
+            // the caller may itself be running on asyncExecutor, so don't wait on it
+            QueryResponse localResponse = clusteredQuery.perform(localCacheInstance);
+            values.put(localResponse.getNodeUUID(), (Object[]) localResponse.getFetchedValue());
+         } else {
+            remoteAddresses.add(address);
+         }
+      }
+
+      if (!remoteAddresses.isEmpty()) {
+         Map<Address, Response> responses = rpcManager.invokeRemotely(remoteAddresses, clusteredQuery, rpcOptions);
+         for (QueryResponse response : cast(responses)) {
+            values.put(response.getNodeUUID(), (Object[]) response.getFetchedValue());
+         }
+      }
+      return values;
+   }
+
    /**
     * Broadcast this ClusteredQueryCommand to all cluster nodes. The command will be also invoked on
     * local node.
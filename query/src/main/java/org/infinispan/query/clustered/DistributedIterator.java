@@ -31,6 +31,7 @@
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 
@@ -146,24 +147,57 @@ private Object current() {
    }
 
    private void loadTo(int index) {
-      int fetched = 0;
-
-      while (orderedValues.size() <= index || fetched < fetchSize) {
-         // getting the next scoreDoc. If null, then there is no more results
-         ClusteredDoc scoreDoc = (ClusteredDoc) hq.pop();
-         if (scoreDoc == null) {
+      while (orderedValues.size() <= index) {
+         int pageSize = Math.min(fetchSize, remainingResults());
+         if (pageSize <= 0) {
             return;
          }
+         List<Object> page = fetchPage(pageSize);
+         if (page.isEmpty()) {
+            return;
+         }
+         orderedValues.addAll(page);
+      }
+   }
 
-         ClusteredTopDocs topDoc = rechargeQueue(scoreDoc);
-
-         // fetching the value
-         Object value = fetchValue(scoreDoc, topDoc);
+   /**
+    * Number of results of this iterator which have not been fetched yet.
+    */
+   protected int remainingResults() {
+      return Math.min(resultSize - firstResult, maxResults) - orderedValues.size();
+   }
 
-         orderedValues.add(value);
+   /**
+    * Fetches the values of the next (at most) pageSize results, in iteration order.
+    */
+   protected List<Object> fetchPage(int pageSize) {
+      List<ClusteredDoc> docs = nextDocs(pageSize);
+      List<Object> values = new ArrayList<Object>(docs.size());
+      for (ClusteredDoc scoreDoc : docs) {
+         values.add(fetchValue(scoreDoc, topDocsResponses.get(scoreDoc.getNodeUuid())));
+      }
+      return values;
+   }
 
-         fetched++;
+   /**
+    * Takes the next (at most) count score docs out of the merged results of all the nodes.
+    */
+   protected List<ClusteredDoc> nextDocs(int count) {
+      List<ClusteredDoc> docs = new ArrayList<ClusteredDoc>(count);
+      while (docs.size() < count) {
+         // getting the next scoreDoc. If null, then there is no more results
+         ClusteredDoc scoreDoc = (ClusteredDoc) hq.pop();
+         if (scoreDoc == null) {
+            break;
+         }
+         rechargeQueue(scoreDoc);
+         docs.add(scoreDoc);
       }
+      return docs;
+   }
+
+   protected ClusteredTopDocs getTopDocs(UUID nodeUuid) {
+      return topDocsResponses.get(nodeUuid);
    }
 
    /**
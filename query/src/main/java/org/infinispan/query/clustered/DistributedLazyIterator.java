@@ -21,19 +21,30 @@
  */
 package org.infinispan.query.clustered;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.lucene.search.Sort;
+import org.hibernate.search.SearchException;
 import org.infinispan.AdvancedCache;
+import org.infinispan.query.impl.ProjectionConverter;
+import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 /**
  * DistributedLazyIterator.
  * 
- * Lazily iterates on a distributed query
+ * Lazily iterates on a distributed query. Values are fetched a page (of fetchSize results) at a
+ * time, with one command per node involved in the page, and the following page is prefetched
+ * asynchronously while the current one is consumed.
  * 
  * @author Israel Lacerra <israeldl@gmail.com>
  * @since 5.1
@@ -44,18 +55,35 @@ public class DistributedLazyIterator extends DistributedIterator {
 
    private final ExecutorService asyncExecutor;
 
+   // set if the query is a projection, to convert the projected fields fetched from the nodes
+   private final ProjectionConverter projectionConverter;
+
+   private Future<List<Object>> prefetchedPage;
+
    private static final Log log = LogFactory.getLog(DistributedLazyIterator.class);
 
    public DistributedLazyIterator(Sort sort, int fetchSize, int resultSize, int maxResults, int firstResult, UUID id,
          HashMap<UUID, ClusteredTopDocs> topDocsResponses, ExecutorService asyncExecutor, AdvancedCache<?, ?> cache) {
+      this(sort, fetchSize, resultSize, maxResults, firstResult, id, topDocsResponses, asyncExecutor, cache, null);
+   }
+
+   public DistributedLazyIterator(Sort sort, int fetchSize, int resultSize, int maxResults, int firstResult, UUID id,
+         HashMap<UUID, ClusteredTopDocs> topDocsResponses, ExecutorService asyncExecutor, AdvancedCache<?, ?> cache,
+         ProjectionConverter projectionConverter) {
       super(sort, fetchSize, resultSize, maxResults, firstResult, topDocsResponses, cache);
 
       this.queryId = id;
       this.asyncExecutor = asyncExecutor;
+      this.projectionConverter = projectionConverter;
    }
 
    @Override
    public void close() {
+      if (prefetchedPage != null) {
+         prefetchedPage.cancel(false);
+         prefetchedPage = null;
+      }
+
       ClusteredQueryCommand killQuery = ClusteredQueryCommand.destroyLazyQuery(cache, queryId);
 
       ClusteredQueryInvoker invoker = new ClusteredQueryInvoker(cache, asyncExecutor);
@@ -67,15 +95,93 @@ public void close() {
    }
 
    @Override
-   protected Object fetchValue(ClusteredDoc scoreDoc, ClusteredTopDocs topDoc) {
-      ClusteredQueryInvoker invoker = new ClusteredQueryInvoker(cache, asyncExecutor);
-      Object value = null;
+   protected List<Object> fetchPage(int pageSize) {
+      List<Object> page;
+      if (prefetchedPage != null) {
+         page = awaitPrefetchedPage();
+      } else {
+         page = fetchValues(nextDocs(pageSize));
+      }
+
+      // start fetching the following page while this one is being consumed
+      int left = remainingResults() - page.size();
+      if (left > 0) {
+         final List<ClusteredDoc> docs = nextDocs(Math.min(pageSize, left));
+         if (!docs.isEmpty()) {
+            prefetchedPage = asyncExecutor.submit(new Callable<List<Object>>() {
+               @Override
+               public List<Object> call() {
+                  return fetchValues(docs);
+               }
+            });
+         }
+      }
+      return page;
+   }
+
+   private List<Object> awaitPrefetchedPage() {
+      try {
+         return prefetchedPage.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new SearchException("interrupted while fetching the next results", e);
+      } catch (ExecutionException e) {
+         throw new SearchException("Exception while fetching the next results", e);
+      } finally {
+         prefetchedPage = null;
+      }
+   }
+
+   private List<Object> fetchValues(List<ClusteredDoc> docs) {
+      // group the doc indexes by node, keeping their order
+      HashMap<UUID, List<Integer>> indexesByNode = new HashMap<UUID, List<Integer>>();
+      for (ClusteredDoc scoreDoc : docs) {
+         List<Integer> indexes = indexesByNode.get(scoreDoc.getNodeUuid());
+         if (indexes == null) {
+            indexes = new ArrayList<Integer>();
+            indexesByNode.put(scoreDoc.getNodeUuid(), indexes);
+         }
+         indexes.add(scoreDoc.getIndex());
+      }
+
+      HashMap<UUID, int[]> docIndexesByNode = new HashMap<UUID, int[]>();
+      Map<UUID, Address> addresses = new HashMap<UUID, Address>();
+      for (Map.Entry<UUID, List<Integer>> entry : indexesByNode.entrySet()) {
+         List<Integer> indexes = entry.getValue();
+         int[] docIndexes = new int[indexes.size()];
+         for (int i = 0; i < docIndexes.length; i++) {
+            docIndexes[i] = indexes.get(i);
+         }
+         docIndexesByNode.put(entry.getKey(), docIndexes);
+         addresses.put(entry.getKey(), getTopDocs(entry.getKey()).getNodeAddress());
+      }
+
+      Map<UUID, Object[]> valuesByNode;
       try {
-         value = invoker.getValue(scoreDoc.getIndex(), topDoc.getNodeAddress(), queryId);
+         ClusteredQueryInvoker invoker = new ClusteredQueryInvoker(cache, asyncExecutor);
+         valuesByNode = invoker.getValues(docIndexesByNode, addresses, queryId);
       } catch (Exception e) {
-         log.error("Error while trying to remoting fetch next value: " + e.getMessage());
+         log.error("Error while trying to remoting fetch next values: " + e.getMessage());
+         valuesByNode = new HashMap<UUID, Object[]>();
+      }
+
+      // merge the values of each node back in the iteration order
+      Map<UUID, Integer> positions = new HashMap<UUID, Integer>();
+      List<Object> values = new ArrayList<Object>(docs.size());
+      for (ClusteredDoc scoreDoc : docs) {
+         UUID nodeUuid = scoreDoc.getNodeUuid();
+         Integer position = positions.get(nodeUuid);
+         int index = position == null ? 0 : position;
+         positions.put(nodeUuid, index + 1);
+
+         Object[] nodeValues = valuesByNode.get(nodeUuid);
+         Object value = nodeValues == null ? null : nodeValues[index];
+         if (projectionConverter != null && value != null) {
+            value = projectionConverter.convert((Object[]) value);
+         }
+         values.add(value);
       }
-      return value;
+      return values;
    }
 
-}
\ No newline at end of file
+}
@@ -22,6 +22,7 @@
 package org.infinispan.query.clustered;
 
 import org.hibernate.search.query.engine.spi.DocumentExtractor;
+import org.hibernate.search.query.engine.spi.EntityInfo;
 import org.infinispan.AdvancedCache;
 import org.infinispan.query.backend.KeyTransformationHandler;
 import org.infinispan.query.clustered.commandworkers.QueryExtractorUtil;
@@ -76,14 +77,56 @@ public class QueryBox {
    public Object getValue(UUID queryUuid, int docIndex) {
       touch(queryUuid);
 
+      DocumentExtractor extractor = getExtractor(queryUuid);
+
+      Object key = QueryExtractorUtil.extractKey(extractor, cache, keyTransformationHandler, docIndex);
+      return cache.get(key);
+   }
+
+   /**
+    * Get the values of several docs of the same DocumentExtractor at once. If the query is a
+    * projection, the projected fields are returned instead of the value, so that the entity is only
+    * loaded when the projection contains it.
+    * 
+    * @param queryUuid
+    *           The queryId, so we can get the correct DocumentExtractor
+    * @param docIndexes
+    *           values indexes in the DocumentExtractor
+    * @return the values (or projections), in the same order as docIndexes
+    */
+   public Object[] getValues(UUID queryUuid, int[] docIndexes) {
+      touch(queryUuid);
+
+      DocumentExtractor extractor = getExtractor(queryUuid);
+
+      Object[] values = new Object[docIndexes.length];
+      for (int i = 0; i < docIndexes.length; i++) {
+         EntityInfo entityInfo = QueryExtractorUtil.extractEntityInfo(extractor, docIndexes[i]);
+         if (entityInfo == null) {
+            continue;
+         }
+         Object[] projection = entityInfo.getProjection();
+         if (projection == null || entityInfo.isProjectThis()) {
+            Object key = keyTransformationHandler.stringToKey((String) entityInfo.getId(), cache.getClassLoader());
+            Object value = cache.get(key);
+            if (projection == null) {
+               values[i] = value;
+               continue;
+            }
+            entityInfo.populateWithEntityInstance(value);
+         }
+         values[i] = projection;
+      }
+      return values;
+   }
+
+   private DocumentExtractor getExtractor(UUID queryUuid) {
       DocumentExtractor extractor = queries.get(queryUuid);
 
       if (extractor == null) {
          throw new IllegalStateException("Query not found!");
       }
-
-      Object key = QueryExtractorUtil.extractKey(extractor, cache, keyTransformationHandler, docIndex);
-      return cache.get(key);
+      return extractor;
    }
 
    private void touch(UUID id) {
@@ -57,6 +57,11 @@ public QueryResponse(Object value) {
       fetchedValue = value;
    }
 
+   public QueryResponse(UUID nodeUUID, Object[] fetchedValues) {
+      this.nodeUUID = nodeUUID;
+      this.fetchedValue = fetchedValues;
+   }
+
    public QueryResponse(int resultSize) {
       this.resultSize = resultSize;
    }
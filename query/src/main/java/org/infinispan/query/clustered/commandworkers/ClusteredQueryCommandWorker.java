@@ -21,6 +21,7 @@
  */
 package org.infinispan.query.clustered.commandworkers;
 
+import java.util.Map;
 import java.util.UUID;
 
 import org.hibernate.search.query.engine.spi.HSQuery;
@@ -51,12 +52,19 @@ public abstract class ClusteredQueryCommandWorker {
    protected HSQuery query;
    protected UUID lazyQueryId;
    protected int docIndex;
+   protected Map<UUID, int[]> docIndexesByNode;
 
    public void init(Cache<?, ?> cache, HSQuery query, UUID lazyQueryId, int docIndex) {
+      init(cache, query, lazyQueryId, docIndex, null);
+   }
+
+   public void init(Cache<?, ?> cache, HSQuery query, UUID lazyQueryId, int docIndex,
+         Map<UUID, int[]> docIndexesByNode) {
       this.cache = cache;
       this.query = query;
       this.lazyQueryId = lazyQueryId;
       this.docIndex = docIndex;
+      this.docIndexesByNode = docIndexesByNode;
    }
 
    public abstract QueryResponse perform();
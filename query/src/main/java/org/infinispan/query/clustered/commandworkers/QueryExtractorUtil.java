@@ -24,6 +24,7 @@
 import java.io.IOException;
 
 import org.hibernate.search.query.engine.spi.DocumentExtractor;
+import org.hibernate.search.query.engine.spi.EntityInfo;
 import org.infinispan.Cache;
 import org.infinispan.query.backend.KeyTransformationHandler;
 import org.infinispan.query.logging.Log;
@@ -46,17 +47,24 @@ private QueryExtractorUtil() {
    }
 
    public static Object extractKey(DocumentExtractor extractor, Cache<?, ?> cache, KeyTransformationHandler keyTransformationHandler, int docIndex) {
-      String bufferDocumentId;
-      try {
-         bufferDocumentId = (String) extractor.extract(docIndex).getId();
-      } catch (IOException e) {
-         log.error("Error while extracting key...", e);
+      EntityInfo entityInfo = extractEntityInfo(extractor, docIndex);
+      if (entityInfo == null) {
          return null;
       }
 
+      String bufferDocumentId = (String) entityInfo.getId();
       Object key = keyTransformationHandler.stringToKey(bufferDocumentId, cache
             .getAdvancedCache().getClassLoader());
       return key;
    }
 
+   public static EntityInfo extractEntityInfo(DocumentExtractor extractor, int docIndex) {
+      try {
+         return extractor.extract(docIndex);
+      } catch (IOException e) {
+         log.error("Error while extracting key...", e);
+         return null;
+      }
+   }
+
 }
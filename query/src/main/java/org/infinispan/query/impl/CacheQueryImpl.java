@@ -68,7 +68,7 @@ public class CacheQueryImpl implements CacheQuery {
    protected final AdvancedCache<?, ?> cache;
    protected final KeyTransformationHandler keyTransformationHandler;
    protected HSQuery hSearchQuery;
-   private ProjectionConverter projectionConverter;
+   protected ProjectionConverter projectionConverter;
 
    public CacheQueryImpl(Query luceneQuery, SearchFactoryIntegrator searchFactory, AdvancedCache<?, ?> cache,
          KeyTransformationHandler keyTransformationHandler, Class<?>... classes) {
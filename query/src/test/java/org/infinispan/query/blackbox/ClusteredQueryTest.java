@@ -35,6 +35,7 @@
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.query.CacheQuery;
 import org.infinispan.query.FetchOptions;
+import org.infinispan.query.ProjectionConstants;
 import org.infinispan.query.ResultIterator;
 import org.infinispan.query.Search;
 import org.infinispan.query.test.Person;
@@ -143,6 +144,67 @@ public void testLazyOrdered() throws ParseException {
       }
    }
 
+   public void testLazyOrderedInPages() throws ParseException {
+      populateCache();
+
+      SortField sortField = new SortField("age", SortField.INT);
+      Sort sort = new Sort(sortField);
+      cacheQuery.sort(sort);
+
+      ResultIterator iterator = cacheQuery.iterator(new FetchOptions().fetchMode(FetchOptions.FetchMode.LAZY).fetchSize(3));
+      int count = 0;
+      int previousAge = 0;
+      while (iterator.hasNext()) {
+         Person person = (Person) iterator.next();
+         assert person.getAge() > previousAge;
+         previousAge = person.getAge();
+         count++;
+      }
+      assert count == 4 : count;
+
+      iterator.close();
+   }
+
+   public void testLazyPagination() throws ParseException {
+      populateCache();
+
+      cacheQuery.firstResult(1);
+      cacheQuery.maxResults(2);
+
+      SortField sortField = new SortField("age", SortField.INT);
+      Sort sort = new Sort(sortField);
+      cacheQuery.sort(sort);
+
+      ResultIterator iterator = cacheQuery.iterator(new FetchOptions().fetchMode(FetchOptions.FetchMode.LAZY).fetchSize(2));
+      assert ((Person) iterator.next()).getAge() == 35;
+      assert ((Person) iterator.next()).getAge() == 45;
+      assert !iterator.hasNext();
+
+      iterator.close();
+   }
+
+   public void testLazyProjection() throws ParseException {
+      populateCache();
+
+      SortField sortField = new SortField("age", SortField.INT);
+      Sort sort = new Sort(sortField);
+      cacheQuery.sort(sort);
+      cacheQuery.projection(ProjectionConstants.KEY, "name");
+
+      ResultIterator iterator = cacheQuery.iterator(new FetchOptions().fetchMode(FetchOptions.FetchMode.LAZY).fetchSize(2));
+      Object[] projection = (Object[]) iterator.next();
+      assert key2.equals(projection[0]) : projection[0];
+      assert "BigGoat".equals(projection[1]) : projection[1];
+      int count = 1;
+      while (iterator.hasNext()) {
+         assert iterator.next() instanceof Object[];
+         count++;
+      }
+      assert count == 4 : count;
+
+      iterator.close();
+   }
+
    public void testLazyNonOrdered() throws ParseException {
       populateCache();
 
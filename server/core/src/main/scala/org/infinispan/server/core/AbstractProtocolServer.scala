@@ -34,6 +34,7 @@ import java.util.Properties
 import org.infinispan.server.core.configuration.ProtocolServerConfiguration
 import javax.net.ssl.KeyManager
 import javax.net.ssl.TrustManager
+import org.jboss.netty.channel.ChannelPipeline
 
 /**
  * A common protocol server dealing with common property parameter validation and assignment and transport lifecycle.
@@ -112,6 +113,10 @@ abstract class AbstractProtocolServer(threadNamePrefix: String) extends Protocol
          debug("Server stopped")
    }
 
+   def addHandlers(pipeline: ChannelPipeline) {
+      // No-op, the decoder handles requests
+   }
+
    def getCacheManager = cacheManager
 
    def getConfiguration = configuration
@@ -25,7 +25,7 @@ package org.infinispan.server.core
 import org.infinispan.manager.EmbeddedCacheManager
 import java.util.Properties
 import org.jboss.netty.handler.codec.oneone.OneToOneEncoder
-import org.jboss.netty.channel.ChannelHandler
+import org.jboss.netty.channel.{ChannelPipeline, ChannelHandler}
 import org.infinispan.server.core.configuration.ProtocolServerConfiguration
 
 /**
@@ -68,6 +68,13 @@ trait ProtocolServer {
     */
    def getDecoder: ChannelHandler
 
+   /**
+    * Adds any further handlers this protocol server needs after the decoder and encoder, for example the aggregator
+    * and the request handler of an HTTP based server whose decoder only parses messages. Servers whose decoder
+    * handles requests itself add nothing.
+    */
+   def addHandlers(pipeline: ChannelPipeline)
+
    /**
     * Returns the configuration used to start this server
     */
@@ -50,6 +50,7 @@ class NettyChannelPipelineFactory(server: ProtocolServer,
       pipeline.addLast("decoder", server.getDecoder)
       if (encoder != null)
          pipeline.addLast("encoder", encoder)
+      server.addHandlers(pipeline)
 
       return pipeline;
    }
@@ -49,6 +49,7 @@ class TimeoutEnabledChannelPipelineFactory(server: ProtocolServer,
       pipeline.addLast("decoder", server.getDecoder)
       if (encoder != null)
          pipeline.addLast("encoder", encoder)
+      server.addHandlers(pipeline)
 
       pipeline.addLast("idleHandler", new IdleStateHandler(timer, idleTimeout, 0, 0))
       pipeline.addLast("idleHandlerProvider", new IdleStateHandlerProvider)
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2009 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.rest
+
+import java.util.Properties
+import org.infinispan.manager.EmbeddedCacheManager
+import org.infinispan.server.core.AbstractProtocolServer
+import org.infinispan.rest.configuration.{NettyRestServerConfigurationBuilder, NettyRestServerConfiguration}
+import org.jboss.netty.channel.ChannelPipeline
+import org.jboss.netty.handler.codec.http.{HttpResponseEncoder, HttpChunkAggregator, HttpRequestDecoder}
+import org.jboss.netty.handler.stream.ChunkedWriteHandler
+import scala.collection.JavaConverters._
+
+/**
+ * REST server running directly on the Netty transport shared with the other endpoints, as an alternative to
+ * deploying the servlet based {@link Server} in a web container. It serves the same resources, keeping connections
+ * alive between requests and answering pipelined requests in order.
+ *
+ * @since 5.3
+ */
+class NettyRestServer extends AbstractProtocolServer("REST") {
+
+   type SuitableConfiguration = NettyRestServerConfiguration
+
+   private var manager: ManagerInstance = _
+
+   override def start(configuration: NettyRestServerConfiguration, cacheManager: EmbeddedCacheManager) {
+      manager = new ManagerInstance(cacheManager)
+      // Start defined caches to avoid issues with lazily started caches
+      cacheManager.getCacheNames.asScala.foreach(cacheManager.getCache[AnyRef, AnyRef](_))
+      super.start(configuration, cacheManager)
+   }
+
+   override def startWithProperties(properties: Properties, cacheManager: EmbeddedCacheManager) {
+      this.start(new NettyRestServerConfigurationBuilder().withProperties(properties).build(), cacheManager)
+   }
+
+   override def getEncoder = null
+
+   override def getDecoder = new HttpRequestDecoder
+
+   override def addHandlers(pipeline: ChannelPipeline) {
+      pipeline.addLast("aggregator", new HttpChunkAggregator(configuration.maxContentLength))
+      pipeline.addLast("httpEncoder", new HttpResponseEncoder)
+      pipeline.addLast("chunkedWriter", new ChunkedWriteHandler)
+      pipeline.addLast("handler", new RestHandler(manager, configuration))
+   }
+
+}
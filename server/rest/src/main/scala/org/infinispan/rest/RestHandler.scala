@@ -0,0 +1,473 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2009 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.rest
+
+import com.thoughtworks.xstream.XStream
+import java.io.{ObjectOutputStream, Serializable}
+import java.text.{ParseException, SimpleDateFormat}
+import java.util.{Locale, TimeZone, Date}
+import java.util.concurrent.TimeUnit.{SECONDS => SECS}
+import org.codehaus.jackson.map.ObjectMapper
+import org.infinispan.AdvancedCache
+import org.infinispan.container.entries.InternalCacheEntry
+import org.infinispan.remoting.MIMECacheEntry
+import org.infinispan.rest.configuration.{ExtendedHeaders, NettyRestServerConfiguration}
+import org.infinispan.rest.logging.Log
+import org.infinispan.tasks.GlobalKeySetTask
+import org.jboss.netty.buffer.{ChannelBufferOutputStream, ChannelBuffers, ChannelBuffer}
+import org.jboss.netty.channel._
+import org.jboss.netty.handler.codec.http._
+import org.jboss.netty.handler.codec.http.HttpHeaders.Names._
+import org.jboss.netty.handler.codec.http.HttpHeaders.Values
+import org.jboss.netty.handler.codec.http.HttpResponseStatus._
+import org.jboss.netty.handler.codec.http.HttpVersion.HTTP_1_1
+import org.jboss.netty.handler.stream.ChunkedInput
+import org.jboss.netty.util.CharsetUtil
+import scala.collection.JavaConverters._
+
+/**
+ * Handles the aggregated HTTP requests of a single connection of the {@link NettyRestServer}, serving the same
+ * resources as the servlet based {@link Server}. Stored payloads are written back by wrapping the stored arrays
+ * rather than copying them, entity tags come from the stored entries and key listings are streamed in chunks.
+ * Responses are written in request order, so pipelined requests are supported, and the connection is kept open
+ * unless the client asks otherwise.
+ *
+ * @since 5.3
+ */
+class RestHandler(manager: ManagerInstance, configuration: NettyRestServerConfiguration)
+      extends SimpleChannelUpstreamHandler with Log {
+
+   import RestHandler._
+
+   private lazy val jsonMapper = new ObjectMapper
+   private lazy val xstream = new XStream
+   // Only ever used from the I/O thread of this handler's channel
+   private val dateFormat = {
+      val format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US)
+      format.setTimeZone(TimeZone.getTimeZone("GMT"))
+      format
+   }
+
+   override def messageReceived(ctx: ChannelHandlerContext, e: MessageEvent) {
+      val request = e.getMessage.asInstanceOf[HttpRequest]
+      val decoder = new QueryStringDecoder(request.getUri)
+      val path = decoder.getPath.split('/').filter(!_.isEmpty).map(QueryStringDecoder.decodeComponent(_))
+      if (path.length < 2 || path.length > 3 || path(0) != "rest") {
+         write(ctx, request, response(NOT_FOUND))
+      } else {
+         val params = decoder.getParameters
+         try {
+            if (path.length == 2)
+               handleCache(ctx, request, path(1), params)
+            else
+               handleEntry(ctx, request, path(1), path(2), params)
+         } catch {
+            case c: CacheNotFoundException => write(ctx, request, response(NOT_FOUND))
+         }
+      }
+   }
+
+   private def handleCache(ctx: ChannelHandlerContext, request: HttpRequest, cacheName: String,
+                           params: java.util.Map[String, java.util.List[String]]) {
+      request.getMethod match {
+         case HttpMethod.GET => getKeys(ctx, request, cacheName, params.containsKey("global"))
+         case HttpMethod.DELETE => write(ctx, request, killCache(request, cacheName))
+         case _ => write(ctx, request, response(METHOD_NOT_ALLOWED))
+      }
+   }
+
+   private def handleEntry(ctx: ChannelHandlerContext, request: HttpRequest, cacheName: String, key: String,
+                           params: java.util.Map[String, java.util.List[String]]) {
+      val extended = wantExtendedHeaders(params.containsKey("extended"))
+      val rsp = request.getMethod match {
+         case HttpMethod.GET => getEntry(request, cacheName, key, extended, head = false)
+         case HttpMethod.HEAD => getEntry(request, cacheName, key, extended, head = true)
+         case HttpMethod.PUT | HttpMethod.POST => putEntry(request, cacheName, key)
+         case HttpMethod.DELETE => removeEntry(request, cacheName, key)
+         case _ => response(METHOD_NOT_ALLOWED)
+      }
+      write(ctx, request, rsp)
+   }
+
+   private def getKeys(ctx: ChannelHandlerContext, request: HttpRequest, cacheName: String, global: Boolean) {
+      val cache = manager.getCache(cacheName)
+      selectMediaType(request, keyFormats.keys, wildcards = true) match {
+         case null => write(ctx, request, response(NOT_ACCEPTABLE))
+         case mediaType => {
+            val keys = if (global) GlobalKeySetTask.getGlobalKeySet(cache) else cache.keySet()
+            val rsp = response(OK)
+            rsp.setHeader(CONTENT_TYPE, mediaType)
+            rsp.setChunked(true)
+            rsp.setHeader(TRANSFER_ENCODING, Values.CHUNKED)
+            val keepAlive = HttpHeaders.isKeepAlive(request)
+            if (keepAlive) rsp.setHeader(CONNECTION, Values.KEEP_ALIVE)
+            val channel = ctx.getChannel
+            channel.write(rsp)
+            val future = channel.write(
+               new KeyListing(keys.iterator, keyFormats(mediaType), configuration.keysPerChunk))
+            if (!keepAlive) future.addListener(ChannelFutureListener.CLOSE)
+         }
+      }
+   }
+
+   private def getEntry(request: HttpRequest, cacheName: String, key: String, extended: Boolean,
+                        head: Boolean): HttpResponse = {
+      manager.getInternalEntry(cacheName, key) match {
+         case ice: InternalCacheEntry => {
+            val lastMod = lastModified(ice)
+            ice.getValue match {
+               case mime: MIMECacheEntry => {
+                  evaluatePreconditions(request, lastMod, mime.getETag) match {
+                     case null => {
+                        val rsp = entryResponse(ice, lastMod, cacheName, key, extended)
+                        rsp.setHeader(ETAG, quote(mime.getETag))
+                        content(rsp, mime.contentType, ChannelBuffers.wrappedBuffer(mime.data), head)
+                     }
+                     case status => response(status)
+                  }
+               }
+               case s: String => content(response(OK), "text/plain; charset=UTF-8",
+                  ChannelBuffers.copiedBuffer(s, CharsetUtil.UTF_8), head)
+               case obj: Any => {
+                  val rsp = entryResponse(ice, lastMod, cacheName, key, extended)
+                  // Unlike key listings, a wildcard picks the raw form, so binary payloads are served as stored
+                  selectMediaType(request, Seq(APPLICATION_XML, APPLICATION_JSON), wildcards = false) match {
+                     case APPLICATION_JSON => content(rsp, APPLICATION_JSON, stream(jsonMapper.writeValue(_, obj)), head)
+                     case APPLICATION_XML => content(rsp, APPLICATION_XML, stream(xstream.toXML(obj, _)), head)
+                     case _ => obj match {
+                        case ba: Array[Byte] => {
+                           val etag = binaryETag(ba)
+                           evaluatePreconditions(request, lastMod, etag) match {
+                              case null => {
+                                 rsp.setHeader(ETAG, quote(etag))
+                                 content(rsp, SERIALIZED_OBJECT, ChannelBuffers.wrappedBuffer(ba), head)
+                              }
+                              case status => response(status)
+                           }
+                        }
+                        case ser: Serializable => content(rsp, SERIALIZED_OBJECT, stream { out =>
+                           val oos = new ObjectOutputStream(out)
+                           oos.writeObject(ser)
+                           oos.flush()
+                        }, head)
+                        case _ => response(NOT_ACCEPTABLE)
+                     }
+                  }
+               }
+            }
+         }
+         case null => response(NOT_FOUND)
+      }
+   }
+
+   private def putEntry(request: HttpRequest, cacheName: String, key: String): HttpResponse = {
+      val cache = manager.getCache(cacheName)
+      if (request.getMethod == HttpMethod.POST && cache.containsKey(key)) {
+         response(CONFLICT)
+      } else {
+         val body = request.getContent
+         val data = new Array[Byte](body.readableBytes)
+         body.readBytes(data)
+         val mediaType = request.getHeader(CONTENT_TYPE)
+         val obj = if (mediaType == SERIALIZED_OBJECT) data else new MIMECacheEntry(mediaType, data)
+         val ttl = longHeader(request, "timeToLiveSeconds")
+         val idleTime = longHeader(request, "maxIdleTimeSeconds")
+         manager.getInternalEntry(cacheName, key) match {
+            case ice: InternalCacheEntry => ice.getValue match {
+               case mime: MIMECacheEntry =>
+                  // The item already exists in the cache, evaluate preconditions based on its attributes and the headers
+                  evaluatePreconditions(request, lastModified(ice), mime.getETag) match {
+                     case null => putInCache(request, cache, key, obj, ttl, idleTime, Some(mime))
+                     case status => response(status)
+                  }
+               case binary: Array[Byte] =>
+                  evaluatePreconditions(request, lastModified(ice), binaryETag(binary)) match {
+                     case null => putInCache(request, cache, key, obj, ttl, idleTime, None)
+                     case status => response(status)
+                  }
+               case _ => putInCache(request, cache, key, obj, ttl, idleTime, None)
+            }
+            case null => putInCache(request, cache, key, obj, ttl, idleTime, None)
+         }
+      }
+   }
+
+   private def putInCache(request: HttpRequest, cache: AdvancedCache[String, Any], key: String, obj: AnyRef,
+                          ttl: Long, idleTime: Long, prevCond: Option[AnyRef]): HttpResponse = {
+      if (isAsync(request)) {
+         (ttl, idleTime) match {
+            case (0, 0) => cache.putAsync(key, obj)
+            case (x, 0) => cache.putAsync(key, obj, ttl, SECS)
+            case (x, y) => cache.putAsync(key, obj, ttl, SECS, idleTime, SECS)
+         }
+         response(OK)
+      } else prevCond match {
+         case None =>
+            (ttl, idleTime) match {
+               case (0, 0) => cache.put(key, obj)
+               case (x, 0) => cache.put(key, obj, ttl, SECS)
+               case (x, y) => cache.put(key, obj, ttl, SECS, idleTime, SECS)
+            }
+            response(OK)
+         case Some(prev) =>
+            val replaced = (ttl, idleTime) match {
+               case (0, 0) => cache.replace(key, prev, obj)
+               case (x, 0) => cache.replace(key, prev, obj, ttl, SECS)
+               case (x, y) => cache.replace(key, prev, obj, ttl, SECS, idleTime, SECS)
+            }
+            // If not replaced, simply send back that the precondition failed
+            if (replaced) response(OK) else response(PRECONDITION_FAILED)
+      }
+   }
+
+   private def removeEntry(request: HttpRequest, cacheName: String, key: String): HttpResponse = {
+      manager.getInternalEntry(cacheName, key) match {
+         case ice: InternalCacheEntry => {
+            val status = ice.getValue match {
+               case mime: MIMECacheEntry => evaluatePreconditions(request, lastModified(ice), mime.getETag)
+               case binary: Array[Byte] => evaluatePreconditions(request, lastModified(ice), binaryETag(binary))
+               case _ => null
+            }
+            if (status == null) {
+               val cache = manager.getCache(cacheName)
+               if (isAsync(request)) cache.removeAsync(key) else cache.remove(key)
+               response(OK)
+            } else {
+               response(status)
+            }
+         }
+         case null => response(OK)
+      }
+   }
+
+   private def killCache(request: HttpRequest, cacheName: String): HttpResponse = {
+      if (Seq(IF_MATCH, IF_NONE_MATCH, IF_MODIFIED_SINCE, IF_UNMODIFIED_SINCE).exists(request.containsHeader(_))) {
+         val rsp = response(NOT_IMPLEMENTED)
+         rsp.setContent(ChannelBuffers.copiedBuffer(
+            "Preconditions were not implemented yet for PUT, POST, and DELETE methods.", CharsetUtil.UTF_8))
+         rsp
+      } else {
+         manager.getCache(cacheName).clear()
+         response(OK)
+      }
+   }
+
+   /**
+    * Evaluates the conditional request headers against the stored entry as JAX-RS does for the servlet based
+    * server, returning the status to answer with if a precondition fails, or null if the request can proceed.
+    */
+   private def evaluatePreconditions(request: HttpRequest, lastMod: Date, etag: String): HttpResponseStatus = {
+      val isRead = request.getMethod == HttpMethod.GET || request.getMethod == HttpMethod.HEAD
+      val ifMatch = request.getHeader(IF_MATCH)
+      val ifUnmodifiedSince = parseDate(request.getHeader(IF_UNMODIFIED_SINCE))
+      val ifNoneMatch = request.getHeader(IF_NONE_MATCH)
+      val ifModifiedSince = parseDate(request.getHeader(IF_MODIFIED_SINCE))
+      if (ifMatch != null && !matches(ifMatch, etag))
+         PRECONDITION_FAILED
+      else if (ifMatch == null && ifUnmodifiedSince != null && lastMod.after(ifUnmodifiedSince))
+         PRECONDITION_FAILED
+      else if (ifNoneMatch != null && matches(ifNoneMatch, etag))
+         if (isRead) NOT_MODIFIED else PRECONDITION_FAILED
+      else if (ifNoneMatch == null && isRead && ifModifiedSince != null && !lastMod.after(ifModifiedSince))
+         NOT_MODIFIED
+      else
+         null
+   }
+
+   /**
+    * Binary payloads are stored as they are, so that other endpoints read them unchanged, hence their entity tag
+    * can't be kept with them and is derived from the payload when a request needs it.
+    */
+   private def binaryETag(data: Array[Byte]): String = MIMECacheEntry.computeETag(SERIALIZED_OBJECT, data)
+
+   private def matches(header: String, etag: String): Boolean =
+      header.trim == "*" || header.split(',').exists(tag => unquote(tag.trim) == etag)
+
+   private def entryResponse(ice: InternalCacheEntry, lastMod: Date, cacheName: String, key: String,
+                             extended: Boolean): HttpResponse = {
+      val rsp = response(OK)
+      rsp.setHeader(LAST_MODIFIED, dateFormat.format(lastMod))
+      if (ice.canExpire) rsp.setHeader(EXPIRES, dateFormat.format(new Date(ice.getExpiryTime)))
+      if (extended) {
+         setOptionalHeader(rsp, "Cluster-Primary-Owner", manager.getPrimaryOwner(cacheName, key))
+         setOptionalHeader(rsp, "Cluster-Node-Name", manager.getNodeName)
+         setOptionalHeader(rsp, "Cluster-Server-Address", manager.getServerAddress)
+      }
+      rsp
+   }
+
+   private def content(rsp: HttpResponse, contentType: String, buffer: ChannelBuffer, head: Boolean): HttpResponse = {
+      setOptionalHeader(rsp, CONTENT_TYPE, contentType)
+      HttpHeaders.setContentLength(rsp, buffer.readableBytes)
+      if (!head) rsp.setContent(buffer)
+      rsp
+   }
+
+   private def stream(action: ChannelBufferOutputStream => Unit): ChannelBuffer = {
+      val out = new ChannelBufferOutputStream(ChannelBuffers.dynamicBuffer)
+      try {
+         action(out)
+      } finally {
+         out.close()
+      }
+      out.buffer
+   }
+
+   private def write(ctx: ChannelHandlerContext, request: HttpRequest, rsp: HttpResponse) {
+      if (!rsp.containsHeader(CONTENT_LENGTH))
+         HttpHeaders.setContentLength(rsp, rsp.getContent.readableBytes)
+      val keepAlive = HttpHeaders.isKeepAlive(request)
+      if (keepAlive) rsp.setHeader(CONNECTION, Values.KEEP_ALIVE)
+      val future = ctx.getChannel.write(rsp)
+      if (!keepAlive) future.addListener(ChannelFutureListener.CLOSE)
+   }
+
+   private def wantExtendedHeaders(extended: Boolean): Boolean = configuration.extendedHeaders() match {
+      case ExtendedHeaders.NEVER => false
+      case ExtendedHeaders.ON_DEMAND => extended
+   }
+
+   private def parseDate(date: String): Date =
+      if (date == null) null
+      else try {
+         dateFormat.parse(date)
+      } catch {
+         case e: ParseException => null
+      }
+
+   private def lastModified(ice: InternalCacheEntry): Date = new Date(ice.getCreated / 1000 * 1000)
+
+   override def exceptionCaught(ctx: ChannelHandlerContext, e: ExceptionEvent) {
+      logExceptionReported(e.getCause)
+      if (ctx.getChannel.isConnected) {
+         val rsp = response(INTERNAL_SERVER_ERROR)
+         HttpHeaders.setContentLength(rsp, 0)
+         ctx.getChannel.write(rsp).addListener(ChannelFutureListener.CLOSE)
+      }
+   }
+
+}
+
+object RestHandler {
+
+   private val SERIALIZED_OBJECT = "application/x-java-serialized-object"
+   private val APPLICATION_XML = "application/xml"
+   private val APPLICATION_JSON = "application/json"
+
+   private val keyFormats = scala.collection.immutable.ListMap(
+      "text/html" -> KeyFormat("<html><body>", "", "</body></html>",
+         k => { val hkey = Escaper.escapeHtml(k); "<a href=\"%s\">%s</a><br/>".format(hkey, hkey) }),
+      APPLICATION_XML -> KeyFormat("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n\n<keys>", "", "</keys>",
+         k => "<key>%s</key>".format(Escaper.escapeXml(k))),
+      APPLICATION_JSON -> KeyFormat("keys=[", ",", "]", k => "\"%s\"".format(Escaper.escapeJson(k))),
+      "text/plain" -> KeyFormat("", "", "", _ + "\n"))
+
+   private def response(status: HttpResponseStatus): HttpResponse = new DefaultHttpResponse(HTTP_1_1, status)
+
+   private def longHeader(request: HttpRequest, name: String): Long = request.getHeader(name) match {
+      case null => -1
+      case value => value.toLong
+   }
+
+   private def setOptionalHeader(rsp: HttpResponse, name: String, value: Any) {
+      if (value != null) rsp.setHeader(name, value.asInstanceOf[AnyRef])
+   }
+
+   private def isAsync(request: HttpRequest): Boolean = "true".equalsIgnoreCase(request.getHeader("performAsync"))
+
+   private def quote(etag: String) = "\"" + etag + "\""
+
+   private def unquote(tag: String) = {
+      val strong = if (tag.startsWith("W/")) tag.substring(2) else tag
+      if (strong.length > 1 && strong.startsWith("\"") && strong.endsWith("\""))
+         strong.substring(1, strong.length - 1)
+      else
+         strong
+   }
+
+   /**
+    * Picks the first of the acceptable media types the server can produce, in the client's order. Missing Accept
+    * headers and, if allowed, wildcards select the first type the server offers. Returns null if none is acceptable.
+    */
+   private def selectMediaType(request: HttpRequest, offered: Iterable[String], wildcards: Boolean): String = {
+      val accept = request.getHeader(ACCEPT)
+      if (accept == null) {
+         if (wildcards) offered.head else null
+      } else {
+         val ranges = accept.split(',').map(_.split(';')(0).trim.toLowerCase(Locale.ENGLISH))
+         ranges.view.flatMap { range =>
+            if (range == "*/*" || range.endsWith("/*"))
+               if (wildcards) offered.find(t => range == "*/*" || t.startsWith(range.dropRight(1))) else None
+            else
+               offered.find(_ == range)
+         }.headOption.orNull
+      }
+   }
+
+   private case class KeyFormat(prefix: String, separator: String, suffix: String, key: String => String)
+
+   /**
+    * Streams a key listing as HTTP chunks holding a bounded number of keys each, so that listing a large cache
+    * never renders the whole document in memory.
+    */
+   private class KeyListing(keys: java.util.Iterator[String], format: KeyFormat, keysPerChunk: Int)
+         extends ChunkedInput {
+      private var started = false
+      private var lastSent = false
+      private var ended = false
+
+      override def hasNextChunk = !ended
+
+      override def nextChunk: AnyRef = {
+         if (ended) {
+            null
+         } else if (lastSent) {
+            ended = true
+            HttpChunk.LAST_CHUNK
+         } else {
+            val sb = new StringBuilder
+            if (!started) sb.append(format.prefix)
+            var count = 0
+            while (count < keysPerChunk && keys.hasNext) {
+               if (started) sb.append(format.separator)
+               sb.append(format.key(keys.next()))
+               started = true
+               count += 1
+            }
+            started = true
+            if (!keys.hasNext) {
+               sb.append(format.suffix)
+               lastSent = true
+            }
+            new DefaultHttpChunk(ChannelBuffers.copiedBuffer(sb, CharsetUtil.UTF_8))
+         }
+      }
+
+      override def isEndOfInput = ended
+
+      override def close() {
+         // Nothing to release, keys are iterated lazily from the cache
+      }
+   }
+
+}
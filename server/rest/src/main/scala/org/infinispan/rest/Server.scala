@@ -34,7 +34,6 @@ import org.infinispan.remoting.MIMECacheEntry
 import org.infinispan.manager._
 import org.codehaus.jackson.map.ObjectMapper
 import org.infinispan.{CacheException, Cache}
-import org.infinispan.commons.hash.MurmurHash3
 import javax.ws.rs._
 import javax.servlet.http.HttpServletResponse
 import javax.servlet.ServletContext
@@ -155,13 +154,18 @@ class Server(@Context request: Request, @Context servletContext: ServletContext,
                            .build
                         case _ =>
                            obj match {
-                              case ba: Array[Byte] => Response.ok
-                                 .`type`("application/x-java-serialized-object")
-                                 .lastModified(lastMod)
-                                 .expires(expires)
-                                 .extended(cacheName, key, wantExtendedHeaders(extended))
-                                 .entity(streamIt(_.write(ba)))
-                                 .build
+                              case ba: Array[Byte] =>
+                                 request.evaluatePreconditions(lastMod, calcETAG(ba)) match {
+                                    case bldr: ResponseBuilder => bldr.build
+                                    case null => Response.ok
+                                       .`type`("application/x-java-serialized-object")
+                                       .lastModified(lastMod)
+                                       .expires(expires)
+                                       .tag(calcETAG(ba))
+                                       .extended(cacheName, key, wantExtendedHeaders(extended))
+                                       .entity(streamIt(_.write(ba)))
+                                       .build
+                                 }
                               case ser: Serializable => Response.ok
                                  .`type`("application/x-java-serialized-object")
                                  .lastModified(lastMod)
@@ -238,6 +242,18 @@ class Server(@Context request: Request, @Context servletContext: ServletContext,
                            .build
                      }
                   }
+                  case ba: Array[Byte] => {
+                     request.evaluatePreconditions(lastMod, calcETAG(ba)) match {
+                        case bldr: ResponseBuilder => bldr.build
+                        case null => Response.ok
+                           .`type`("application/x-java-serialized-object")
+                           .lastModified(lastMod)
+                           .expires(expires)
+                           .tag(calcETAG(ba))
+                           .extended(cacheName, key, wantExtendedHeaders(extended))
+                           .build
+                     }
+                  }
                   case x: Any => Response.ok
                         .lastModified(lastMod)
                         .expires(expires)
@@ -277,8 +293,11 @@ class Server(@Context request: Request, @Context servletContext: ServletContext,
                         }
                      }
                      case binary: Array[Byte] =>
-                        putInCache(cache, key,
-                           toCacheEntry(data, mediaType), ttl, idleTime, None)
+                        request.evaluatePreconditions(lastMod, calcETAG(binary)) match {
+                           case bldr: ResponseBuilder => bldr.build
+                           case null => putInCache(cache, key,
+                              toCacheEntry(data, mediaType), ttl, idleTime, None)
+                        }
                   }
                }
                case null =>
@@ -359,6 +378,19 @@ class Server(@Context request: Request, @Context servletContext: ServletContext,
                      }
                   }
                }
+               case binary: Array[Byte] => {
+                  request.evaluatePreconditions(lastMod, calcETAG(binary)) match {
+                     case bldr: ResponseBuilder => bldr.build
+                     case null => {
+                        if (useAsync) {
+                           manager.getCache(cacheName).removeAsync(key)
+                        } else {
+                           manager.getCache(cacheName).remove(key)
+                        }
+                        Response.ok.build
+                     }
+                  }
+               }
                case obj: Any => {
                   if (useAsync) {
                      manager.getCache(cacheName).removeAsync(key)
@@ -393,9 +425,10 @@ class Server(@Context request: Request, @Context servletContext: ServletContext,
          "Preconditions were not implemented yet for PUT, POST, and DELETE methods.").build()
    }
 
-   val hashFunc = new MurmurHash3()
+   private def calcETAG(entry: MIMECacheEntry) = new EntityTag(entry.getETag)
 
-   private def calcETAG(entry: MIMECacheEntry) = new EntityTag(entry.contentType + hashFunc.hash(entry.data))
+   // Binary payloads are stored as they are, for other endpoints to read, so their tag is derived on each request
+   private def calcETAG(data: Array[Byte]) = new EntityTag(MIMECacheEntry.computeETag("application/x-java-serialized-object", data))
 
    private def lastModified(ice: InternalCacheEntry): Date = { new Date(ice.getCreated() / 1000 * 1000) }
 
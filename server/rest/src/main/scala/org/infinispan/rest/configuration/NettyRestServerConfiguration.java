@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.infinispan.rest.configuration;
+
+import org.infinispan.configuration.BuiltBy;
+import org.infinispan.server.core.configuration.ProtocolServerConfiguration;
+import org.infinispan.server.core.configuration.SslConfiguration;
+
+/**
+ * Configuration of the Netty based REST server.
+ *
+ * @since 5.3
+ */
+@BuiltBy(NettyRestServerConfigurationBuilder.class)
+public class NettyRestServerConfiguration extends ProtocolServerConfiguration {
+   private final ExtendedHeaders extendedHeaders;
+   private final int maxContentLength;
+   private final int keysPerChunk;
+
+   NettyRestServerConfiguration(ExtendedHeaders extendedHeaders, int maxContentLength, int keysPerChunk,
+         String host, int port, int idleTimeout, int recvBufSize, int sendBufSize, SslConfiguration ssl, boolean tcpNoDelay, int workerThreads) {
+      super(host, port, idleTimeout, recvBufSize, sendBufSize, ssl, tcpNoDelay, workerThreads);
+      this.extendedHeaders = extendedHeaders;
+      this.maxContentLength = maxContentLength;
+      this.keysPerChunk = keysPerChunk;
+   }
+
+   public ExtendedHeaders extendedHeaders() {
+      return extendedHeaders;
+   }
+
+   /**
+    * The maximum size, in bytes, of a request body
+    */
+   public int maxContentLength() {
+      return maxContentLength;
+   }
+
+   /**
+    * The number of keys written in each chunk of a streamed key listing
+    */
+   public int keysPerChunk() {
+      return keysPerChunk;
+   }
+
+   @Override
+   public String toString() {
+      return "NettyRestServerConfiguration [extendedHeaders=" + extendedHeaders + ", maxContentLength=" + maxContentLength
+            + ", keysPerChunk=" + keysPerChunk + ", " + super.toString() + "]";
+   }
+}
@@ -0,0 +1,86 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.infinispan.rest.configuration;
+
+import org.infinispan.configuration.Builder;
+import org.infinispan.server.core.configuration.ProtocolServerConfigurationBuilder;
+
+/**
+ * NettyRestServerConfigurationBuilder.
+ *
+ * @since 5.3
+ */
+public class NettyRestServerConfigurationBuilder extends ProtocolServerConfigurationBuilder<NettyRestServerConfiguration, NettyRestServerConfigurationBuilder> implements
+      Builder<NettyRestServerConfiguration> {
+   private ExtendedHeaders extendedHeaders = ExtendedHeaders.ON_DEMAND;
+   private int maxContentLength = 10 * 1024 * 1024;
+   private int keysPerChunk = 256;
+
+   public NettyRestServerConfigurationBuilder() {
+      super(8080);
+   }
+
+   @Override
+   public NettyRestServerConfigurationBuilder self() {
+      return this;
+   }
+
+   public NettyRestServerConfigurationBuilder extendedHeaders(ExtendedHeaders extendedHeaders) {
+      this.extendedHeaders = extendedHeaders;
+      return this;
+   }
+
+   public NettyRestServerConfigurationBuilder maxContentLength(int maxContentLength) {
+      this.maxContentLength = maxContentLength;
+      return this;
+   }
+
+   public NettyRestServerConfigurationBuilder keysPerChunk(int keysPerChunk) {
+      this.keysPerChunk = keysPerChunk;
+      return this;
+   }
+
+   @Override
+   public NettyRestServerConfiguration create() {
+      return new NettyRestServerConfiguration(extendedHeaders, maxContentLength, keysPerChunk, host, port, idleTimeout,
+            recvBufSize, sendBufSize, ssl.create(), tcpNoDelay, workerThreads);
+   }
+
+   @Override
+   public NettyRestServerConfigurationBuilder read(NettyRestServerConfiguration template) {
+      super.read(template);
+      this.extendedHeaders = template.extendedHeaders();
+      this.maxContentLength = template.maxContentLength();
+      this.keysPerChunk = template.keysPerChunk();
+      return this;
+   }
+
+   public NettyRestServerConfiguration build(boolean validate) {
+      if (validate) {
+         validate();
+      }
+      return create();
+   }
+
+   @Override
+   public NettyRestServerConfiguration build() {
+      return build(true);
+   }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2009 Red Hat Inc. and/or its affiliates and other
+ * contributors as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.infinispan.rest
+
+import java.lang.reflect.Method
+import org.apache.commons.httpclient.HttpClient
+import org.apache.commons.httpclient.methods.{ByteArrayRequestEntity, PutMethod, GetMethod}
+import org.infinispan.api.BasicCacheContainer
+import org.infinispan.manager.EmbeddedCacheManager
+import org.infinispan.rest.configuration.NettyRestServerConfigurationBuilder
+import org.infinispan.test.TestingUtil
+import org.infinispan.test.fwk.TestCacheManagerFactory
+import org.testng.AssertJUnit._
+import org.testng.annotations.{AfterClass, BeforeClass, Test}
+
+/**
+ * Tests the REST server running on the Netty transport.
+ *
+ * @since 5.3
+ */
+@Test(groups = Array("functional"), testName = "rest.NettyRestServerTest")
+class NettyRestServerTest {
+
+   private val fullPath = "http://localhost:8889/rest/" + BasicCacheContainer.DEFAULT_CACHE_NAME
+   private var cacheManager: EmbeddedCacheManager = _
+   private var server: NettyRestServer = _
+   private var client: HttpClient = _
+
+   @BeforeClass
+   def setUp() {
+      cacheManager = TestCacheManagerFactory.createLocalCacheManager(false)
+      server = new NettyRestServer
+      server.start(new NettyRestServerConfigurationBuilder().port(8889).keysPerChunk(2).build, cacheManager)
+      client = new HttpClient
+   }
+
+   @AfterClass(alwaysRun = true)
+   def tearDown() {
+      server.stop
+      TestingUtil.killCacheManagers(cacheManager)
+   }
+
+   def testPutAndGet(m: Method) {
+      val put = new PutMethod(fullPath + "/" + m.getName)
+      put.setRequestEntity(new ByteArrayRequestEntity("<hey>ho</hey>".getBytes, "application/octet-stream"))
+      assertEquals(200, client.executeMethod(put))
+      put.releaseConnection()
+
+      val get = new GetMethod(fullPath + "/" + m.getName)
+      assertEquals(200, client.executeMethod(get))
+      assertEquals("<hey>ho</hey>", get.getResponseBodyAsString)
+      assertEquals("application/octet-stream", get.getResponseHeader("Content-Type").getValue)
+      val etag = get.getResponseHeader("ETag").getValue
+      get.releaseConnection()
+
+      val conditional = new GetMethod(fullPath + "/" + m.getName)
+      conditional.setRequestHeader("If-None-Match", etag)
+      assertEquals(304, client.executeMethod(conditional))
+      conditional.releaseConnection()
+   }
+
+   def testBinaryEntryETag(m: Method) {
+      val put = new PutMethod(fullPath + "/" + m.getName)
+      put.setRequestEntity(new ByteArrayRequestEntity(Array[Byte](1, 2, 3), "application/x-java-serialized-object"))
+      assertEquals(200, client.executeMethod(put))
+      put.releaseConnection()
+
+      val get = new GetMethod(fullPath + "/" + m.getName)
+      assertEquals(200, client.executeMethod(get))
+      val etag = get.getResponseHeader("ETag").getValue
+      get.releaseConnection()
+
+      val conditional = new GetMethod(fullPath + "/" + m.getName)
+      conditional.setRequestHeader("If-None-Match", etag)
+      assertEquals(304, client.executeMethod(conditional))
+      conditional.releaseConnection()
+
+      val conditionalPut = new PutMethod(fullPath + "/" + m.getName)
+      conditionalPut.setRequestHeader("If-Match", "\"stale\"")
+      conditionalPut.setRequestEntity(new ByteArrayRequestEntity(Array[Byte](4), "application/x-java-serialized-object"))
+      assertEquals(412, client.executeMethod(conditionalPut))
+      conditionalPut.releaseConnection()
+   }
+
+   def testMissingEntry(m: Method) {
+      val get = new GetMethod(fullPath + "/" + m.getName)
+      assertEquals(404, client.executeMethod(get))
+      get.releaseConnection()
+   }
+
+   def testStreamedKeyListing(m: Method) {
+      for (i <- 0 until 5) cacheManager.getCache[String, String]().put(m.getName + i, "v" + i)
+      val get = new GetMethod(fullPath)
+      get.setRequestHeader("Accept", "text/plain")
+      assertEquals(200, client.executeMethod(get))
+      assertEquals("chunked", get.getResponseHeader("Transfer-Encoding").getValue)
+      val keys = get.getResponseBodyAsString.split('\n').toSet
+      get.releaseConnection()
+      for (i <- 0 until 5) assertTrue(keys.contains(m.getName + i))
+   }
+
+}